@@ -0,0 +1,127 @@
+package com.mazegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import javax.swing.*;
+
+// Checks that the paint paths of the game, shop and end screens don't
+// allocate per frame, nor the per-tick collision sweeps per move. Paints
+// each panel a few thousand times into an off-screen image, and slides a
+// box into walls many times over, reading this thread's allocation counter
+// around each loop; exits with status 1 if anything is over budget. Run with
+// java -Djava.awt.headless=true com.mazegame.AllocationProbe [frames]
+public class AllocationProbe {
+    private static final int WARMUP_FRAMES = 500;
+    // The panels' own code allocates nothing, but Java2D's software blit and
+    // text pipes still create a few short-lived Rectangles and strike
+    // references per frame that escape analysis doesn't always remove
+    // (~200-300 bytes/frame measured). Any per-tile or per-entity object,
+    // or a Font built per frame, lands well above this.
+    private static final long BUDGET_BYTES_PER_FRAME = 512;
+
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation counters are not supported by this JVM");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        PixelGameController controller = new PixelGameController(new PixelMaze(25, 25, 1), 0, 1);
+        PixelPlayer player = controller.getPlayer();
+        player.setHasMap(true);
+        for (int y = 0; y < 25; y++) {
+            for (int x = 0; x < 25; x++) {
+                player.markPositionExplored(x, y);
+            }
+        }
+        controller.publishSnapshot();
+        PixelMazePanel mazePanel = new PixelMazePanel(controller);
+        mazePanel.stopRendering();
+        mazePanel.setShowMiniMap(true);
+
+        ShopPanel shopPanel = new ShopPanel(controller);
+        EndScreenPanel endScreenPanel = new EndScreenPanel(true, 3, 120);
+
+        boolean withinBudget = true;
+        withinBudget &= measure("PixelMazePanel", mazePanel, frames, threads);
+        withinBudget &= measure("ShopPanel", shopPanel, frames, threads);
+        withinBudget &= measure("EndScreenPanel", endScreenPanel, frames, threads);
+        withinBudget &= measureMoves(controller.getMaze(), frames * 100, threads);
+
+        System.out.println(withinBudget ? "PASS: paint paths and moves within allocation budget" : "FAIL: paint path or move allocates");
+        System.exit(withinBudget ? 0 : 1);
+    }
+
+    private static boolean measure(String name, JComponent panel, int frames,
+                                   com.sun.management.ThreadMXBean threads) {
+        panel.setSize(800, 600);
+        BufferedImage target = new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB);
+        // One Graphics for the whole run, as the RepaintManager's back buffer would be
+        Graphics2D g2d = target.createGraphics();
+        PanelPainter painter = painterFor(panel);
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            painter.paint(g2d);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < frames; i++) {
+            painter.paint(g2d);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        g2d.dispose();
+
+        double perFrame = (double) allocated / frames;
+        System.out.printf("  %-15s %8.1f bytes/frame over %d frames%n", name, perFrame, frames);
+        return perFrame <= BUDGET_BYTES_PER_FRAME;
+    }
+
+    // Boxes sliding along walls in every direction from the start cell, as
+    // the players, enemies and projectiles do every tick
+    private static boolean measureMoves(PixelMaze maze, int moves, com.sun.management.ThreadMXBean threads) {
+        float[] position = new float[2];
+        SweepResult sweep = new SweepResult();
+        float startX = maze.getStartPixelX();
+        float startY = maze.getStartPixelY();
+        int hits = 0;
+        long threadId = Thread.currentThread().getId();
+        long before = 0;
+        for (int i = -WARMUP_FRAMES * 100; i < moves; i++) {
+            if (i == 0) {
+                before = threads.getThreadAllocatedBytes(threadId);
+                hits = 0;
+            }
+            float dx = (i & 1) == 0 ? 40 : -40;
+            float dy = (i & 2) == 0 ? 25 : -25;
+            maze.moveAndSlide(startX, startY, 48, 64, dx, dy, position);
+            if (maze.sweepBox(position[0], position[1], 48, 64, dx, dy, sweep).isHit()) hits++;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        double perMove = (double) allocated / moves;
+        System.out.printf("  %-15s %8.3f bytes/move over %d moves (%d against a wall)%n",
+                "moveAndSlide", perMove, moves, hits);
+        return perMove < 1;
+    }
+
+    private interface PanelPainter {
+        void paint(Graphics2D g2d);
+    }
+
+    // paintComponent is what the panels own; Swing's paint() plumbing around
+    // it (clip rectangles, graphics copies) is outside their control
+    private static PanelPainter painterFor(JComponent panel) {
+        if (panel instanceof PixelMazePanel) {
+            return g2d -> ((PixelMazePanel) panel).paintComponent(g2d);
+        }
+        if (panel instanceof ShopPanel) {
+            return g2d -> ((ShopPanel) panel).paintComponent(g2d);
+        }
+        return g2d -> ((EndScreenPanel) panel).paintComponent(g2d);
+    }
+}
@@ -0,0 +1,296 @@
+package com.mazegame;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Decodes every image and the title font once, in parallel, while the loading
+// screen is up, and hands out the cached copies afterwards. Panels and sprites
+// that are created later (shop, end screen, every projectile) just look them
+// up instead of reading the classpath again. Anything that was not preloaded
+// is decoded on first use and cached the same way.
+public final class AssetManager {
+    public static final String FONT_PATH = "/dragonslayer.ttf";
+    private static final float FONT_SIZE = 36f;
+
+    // Missing resources are cached as empty so the classpath is only searched once
+    private static final Map<String, Optional<BufferedImage>> images = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<ImageIcon>> scaledIcons = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<Sprite>> looseSprites = new ConcurrentHashMap<>();
+    private static volatile Optional<Font> font;
+    private static volatile Optional<TextureAtlas> atlas;
+
+    public interface ProgressListener {
+        void progress(int loaded, int total);
+    }
+
+    private AssetManager() {
+    }
+
+    // Starts decoding the whole manifest on a small thread pool. Both callbacks
+    // run on the EDT; onDone fires once every asset has been attempted.
+    public static void preload(ProgressListener listener, Runnable onDone) {
+        List<Runnable> jobs = buildManifest();
+        int total = jobs.size();
+        AtomicInteger loaded = new AtomicInteger();
+        long start = System.nanoTime();
+
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ImageIO.setUseCache(false);
+        for (Runnable job : jobs) {
+            pool.execute(() -> {
+                try {
+                    job.run();
+                } catch (Exception e) {
+                    System.out.println("Asset preload error: " + e.getMessage());
+                }
+                int done = loaded.incrementAndGet();
+                SwingUtilities.invokeLater(() -> listener.progress(done, total));
+                if (done == total) {
+                    System.out.println("Preloaded " + total + " assets on " + threads + " threads in "
+                            + (System.nanoTime() - start) / 1_000_000 + " ms");
+                    pool.shutdown();
+                    SwingUtilities.invokeLater(onDone);
+                }
+            });
+        }
+    }
+
+    private static List<Runnable> buildManifest() {
+        List<Runnable> jobs = new ArrayList<>();
+        jobs.add(AssetManager::getFont);
+
+        String[] screens = {"background", "icon", "difficulty", "image", "end", "gamesaved"};
+        for (String name : screens) {
+            jobs.add(() -> getImage("/general/" + name + ".png"));
+        }
+
+        jobs.add(() -> getScaledIcon("/general/arrow.png", 100, 100));
+        jobs.add(() -> getScaledIcon("/general/arrowUp.png", 100, 100));
+        jobs.add(() -> getScaledIcon("/general/shop.png", 800, 600));
+        jobs.add(() -> getScaledIcon("/general/congrats.png", 300, 200));
+        jobs.add(() -> getScaledIcon("/general/warning.png", 350, 250));
+
+        // The first of these loads the atlas; the rest are lookups, or
+        // individual decodes if the atlas has not been built
+        for (String key : spriteKeys()) {
+            jobs.add(() -> getSprite(key));
+        }
+        return jobs;
+    }
+
+    // Every in-game sprite, as "path@WxH" keys. AtlasPacker packs exactly
+    // this list, so a sprite added here needs the packer re-run to be batched
+    static List<String> spriteKeys() {
+        List<String> keys = new ArrayList<>();
+        String[] tiles = {"path4", "wall3", "treasure", "life_potion", "exit", "life"};
+        for (String name : tiles) {
+            keys.add(spriteKey("/tiles/" + name + ".png", PixelMazePanel.TILE_SIZE, PixelMazePanel.TILE_SIZE));
+        }
+
+        String[] directions = {"up", "down", "left", "right"};
+        for (String direction : directions) {
+            keys.add(spriteKey("/tiles/blade_" + direction + ".png", 32, 32));
+            keys.add(spriteKey("/tiles/spell_" + direction + ".png", 64, 64));
+        }
+
+        for (int character = 1; character <= 3; character++) {
+            addSpriteSheet(keys, "/player" + character + "/");
+            addSpriteSheet(keys, "/enemy/enemy" + character + "/");
+        }
+        return keys;
+    }
+
+    private static void addSpriteSheet(List<String> keys, String folder) {
+        String[] directions = {"up", "down", "left", "right"};
+        for (String direction : directions) {
+            for (int frame = 1; frame <= 3; frame++) {
+                keys.add(spriteKey(folder + direction + "_" + frame + ".png", 48, 64));
+            }
+        }
+    }
+
+    static String spriteKey(String path, int width, int height) {
+        return path + "@" + width + "x" + height;
+    }
+
+    // A region of the shared atlas when the sprite was packed, otherwise a
+    // sprite over its own scaled image; null if the resource is missing
+    public static Sprite getSprite(String path, int width, int height) {
+        return getSprite(spriteKey(path, width, height));
+    }
+
+    private static Sprite getSprite(String key) {
+        TextureAtlas loadedAtlas = getAtlas();
+        if (loadedAtlas != null) {
+            Sprite packed = loadedAtlas.get(key);
+            if (packed != null) return packed;
+        }
+        return looseSprites.computeIfAbsent(key, k -> {
+            int at = k.lastIndexOf('@');
+            int x = k.indexOf('x', at);
+            ImageIcon icon = getScaledIcon(k.substring(0, at),
+                    Integer.parseInt(k.substring(at + 1, x)), Integer.parseInt(k.substring(x + 1)));
+            return icon == null ? Optional.empty() : Optional.of(new Sprite(icon.getImage()));
+        }).orElse(null);
+    }
+
+    // The packed atlas from resources/atlas, or null if it has not been built
+    public static TextureAtlas getAtlas() {
+        Optional<TextureAtlas> loaded = atlas;
+        if (loaded == null) {
+            synchronized (AssetManager.class) {
+                if (atlas == null) {
+                    atlas = Optional.ofNullable(TextureAtlas.load(TextureAtlas.INDEX_PATH));
+                }
+                loaded = atlas;
+            }
+        }
+        return loaded.orElse(null);
+    }
+
+    // Decoded image at its original size in the screen's pixel format, or
+    // null if the resource is missing
+    public static BufferedImage getImage(String path) {
+        return images.computeIfAbsent(path, AssetManager::decode).orElse(null);
+    }
+
+    // Image scaled to width x height, or null if the resource is missing
+    public static ImageIcon getScaledIcon(String path, int width, int height) {
+        String key = spriteKey(path, width, height);
+        return scaledIcons.computeIfAbsent(key, k -> {
+            BufferedImage original = getImage(path);
+            if (original == null) return Optional.empty();
+            return Optional.of(new ImageIcon(toCompatible(original, width, height)));
+        }).orElse(null);
+    }
+
+    // Copies an image into one laid out like the screen so drawImage is a
+    // straight blit that Java2D can keep cached in video memory. ImageIO hands
+    // back indexed or 4-byte images for our PNGs, which would otherwise be
+    // converted on every draw. Scaling, when needed, is done here once with
+    // the same area-averaging filter the loaders used before.
+    static BufferedImage toCompatible(BufferedImage source, int width, int height) {
+        BufferedImage pixels = scaleToArgb(source, width, height);
+
+        // Many of the PNGs carry an alpha channel they never use; those are
+        // stored opaque so drawing them is a copy instead of a blend
+        int transparency = measureTransparency(pixels);
+        GraphicsConfiguration config = screenConfiguration();
+        BufferedImage target;
+        if (config != null) {
+            target = config.createCompatibleImage(width, height, transparency);
+        } else {
+            target = new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        Graphics2D g2d = target.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        g2d.drawImage(pixels, 0, 0, null);
+        g2d.dispose();
+        return target;
+    }
+
+    static BufferedImage scaleToArgb(BufferedImage source, int width, int height) {
+        BufferedImage pixels = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D scaler = pixels.createGraphics();
+        if (width == source.getWidth() && height == source.getHeight()) {
+            scaler.drawImage(source, 0, 0, null);
+        } else {
+            // The filtered source produces its pixels synchronously for a BufferedImage
+            scaler.drawImage(source.getScaledInstance(width, height, Image.SCALE_SMOOTH), 0, 0, null);
+        }
+        scaler.dispose();
+        return pixels;
+    }
+
+    static int measureTransparency(BufferedImage argb) {
+        int[] row = new int[argb.getWidth()];
+        int transparency = Transparency.OPAQUE;
+        for (int y = 0; y < argb.getHeight(); y++) {
+            argb.getRGB(0, y, row.length, 1, row, 0, row.length);
+            for (int pixel : row) {
+                int alpha = pixel >>> 24;
+                if (alpha == 0) {
+                    transparency = Transparency.BITMASK;
+                } else if (alpha != 255) {
+                    return Transparency.TRANSLUCENT;
+                }
+            }
+        }
+        return transparency;
+    }
+
+    // Null when headless (benchmarks, servers); plain INT images are used then
+    private static GraphicsConfiguration screenConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) return null;
+        try {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // The title font at 36pt, or bold Arial if it could not be loaded
+    public static Font getFont() {
+        Optional<Font> loaded = font;
+        if (loaded == null) {
+            synchronized (AssetManager.class) {
+                if (font == null) {
+                    font = loadFont();
+                }
+                loaded = font;
+            }
+        }
+        return loaded.orElseGet(() -> new Font("Arial", Font.BOLD, (int) FONT_SIZE));
+    }
+
+    private static Optional<BufferedImage> decode(String path) {
+        try (InputStream is = AssetManager.class.getResourceAsStream(path)) {
+            if (is == null) {
+                System.out.println("Asset not found: " + path);
+                return Optional.empty();
+            }
+            BufferedImage decoded = ImageIO.read(is);
+            if (decoded == null) return Optional.empty();
+            return Optional.of(toCompatible(decoded, decoded.getWidth(), decoded.getHeight()));
+        } catch (Exception e) {
+            System.out.println("Error decoding " + path + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<Font> loadFont() {
+        try (InputStream is = AssetManager.class.getResourceAsStream(FONT_PATH)) {
+            if (is == null) {
+                System.out.println("DragonSlayer font not found, using fallback");
+                return Optional.empty();
+            }
+            Font loaded = Font.createFont(Font.TRUETYPE_FONT, is).deriveFont(FONT_SIZE);
+            System.out.println("DragonSlayer font loaded successfully");
+            return Optional.of(loaded);
+        } catch (Exception e) {
+            System.out.println("Error loading font: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
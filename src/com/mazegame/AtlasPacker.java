@@ -0,0 +1,144 @@
+package com.mazegame;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Build step that packs every sprite in AssetManager.spriteKeys() into atlas
+// pages under resources/atlas. Run with the resources folder on the classpath
+// whenever a sprite PNG changes:
+// java com.mazegame.AtlasPacker [outputDir]
+//
+// Frames are scaled to their in-game size first, then split into opaque and
+// transparent pages so tiles keep drawing as plain copies. Each group is
+// shelf-packed (tallest first) into pages PAGE_SIZE wide.
+public class AtlasPacker {
+    private static final int PAGE_SIZE = 1024;
+    private static final int PADDING = 1;
+
+    private static class Frame {
+        final String key;
+        final BufferedImage pixels;
+        int page, x, y;
+
+        Frame(String key, BufferedImage pixels) {
+            this.key = key;
+            this.pixels = pixels;
+        }
+    }
+
+    public static void main(String[] args) {
+        Path outputDir = Paths.get(args.length > 0 ? args[0] : "resources/atlas");
+        try {
+            pack(outputDir);
+        } catch (IOException e) {
+            System.out.println("Atlas packing failed: " + e.getMessage());
+        }
+    }
+
+    public static void pack(Path outputDir) throws IOException {
+        List<Frame> opaque = new ArrayList<>();
+        List<Frame> transparent = new ArrayList<>();
+        for (String key : AssetManager.spriteKeys()) {
+            int at = key.lastIndexOf('@');
+            int x = key.indexOf('x', at);
+            String path = key.substring(0, at);
+            BufferedImage source = read(path);
+            if (source == null) {
+                System.out.println("Skipping missing sprite " + path);
+                continue;
+            }
+            BufferedImage pixels = AssetManager.scaleToArgb(source,
+                    Integer.parseInt(key.substring(at + 1, x)), Integer.parseInt(key.substring(x + 1)));
+            if (AssetManager.measureTransparency(pixels) == Transparency.OPAQUE) {
+                opaque.add(new Frame(key, pixels));
+            } else {
+                transparent.add(new Frame(key, pixels));
+            }
+        }
+
+        Files.createDirectories(outputDir);
+        List<String> pageNames = new ArrayList<>();
+        List<Frame> packed = new ArrayList<>();
+        writePages(outputDir, "opaque", opaque, true, pageNames, packed);
+        writePages(outputDir, "alpha", transparent, false, pageNames, packed);
+
+        List<String> keys = new ArrayList<>();
+        List<int[]> rects = new ArrayList<>();
+        for (Frame frame : packed) {
+            keys.add(frame.key);
+            rects.add(new int[]{frame.page, frame.x, frame.y, frame.pixels.getWidth(), frame.pixels.getHeight()});
+        }
+        Path index = outputDir.resolve("atlas.idx");
+        try (OutputStream os = Files.newOutputStream(index)) {
+            TextureAtlas.writeIndex(os, pageNames, keys, rects);
+        }
+        System.out.println("Packed " + keys.size() + " sprites into " + pageNames.size() + " pages in " + outputDir);
+    }
+
+    private static void writePages(Path outputDir, String group, List<Frame> frames, boolean opaque,
+                                   List<String> pageNames, List<Frame> packed) throws IOException {
+        if (frames.isEmpty()) return;
+        frames.sort(Comparator.comparingInt((Frame f) -> -f.pixels.getHeight())
+                .thenComparingInt(f -> -f.pixels.getWidth()));
+
+        List<Frame> pageFrames = new ArrayList<>();
+        int shelfX = 0, shelfY = 0, shelfHeight = 0;
+        for (Frame frame : frames) {
+            int width = frame.pixels.getWidth() + PADDING;
+            int height = frame.pixels.getHeight() + PADDING;
+            if (shelfX + width > PAGE_SIZE) {
+                shelfX = 0;
+                shelfY += shelfHeight;
+                shelfHeight = 0;
+            }
+            if (shelfY + height > PAGE_SIZE) {
+                writePage(outputDir, group, pageFrames, shelfY + shelfHeight, opaque, pageNames, packed);
+                pageFrames.clear();
+                shelfX = 0;
+                shelfY = 0;
+                shelfHeight = 0;
+            }
+            frame.x = shelfX;
+            frame.y = shelfY;
+            pageFrames.add(frame);
+            shelfX += width;
+            shelfHeight = Math.max(shelfHeight, height);
+        }
+        writePage(outputDir, group, pageFrames, shelfY + shelfHeight, opaque, pageNames, packed);
+    }
+
+    private static void writePage(Path outputDir, String group, List<Frame> frames, int usedHeight, boolean opaque,
+                                  List<String> pageNames, List<Frame> packed) throws IOException {
+        String name = "atlas_" + group + "_" + pageNames.size() + ".png";
+        BufferedImage page = new BufferedImage(PAGE_SIZE, usedHeight,
+                opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = page.createGraphics();
+        g2d.setComposite(AlphaComposite.Src);
+        for (Frame frame : frames) {
+            g2d.drawImage(frame.pixels, frame.x, frame.y, null);
+            frame.page = pageNames.size();
+            packed.add(frame);
+        }
+        g2d.dispose();
+
+        ImageIO.write(page, "png", outputDir.resolve(name).toFile());
+        pageNames.add(name);
+        System.out.println("  " + name + ": " + frames.size() + " sprites, " + PAGE_SIZE + "x" + usedHeight);
+    }
+
+    private static BufferedImage read(String path) throws IOException {
+        try (InputStream is = AtlasPacker.class.getResourceAsStream(path)) {
+            return is == null ? null : ImageIO.read(is);
+        }
+    }
+}
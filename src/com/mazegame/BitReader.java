@@ -0,0 +1,55 @@
+package com.mazegame;
+
+import java.nio.ByteBuffer;
+
+// Reads what BitWriter wrote, in the same order and widths. Reading past the
+// end of the message throws, so a truncated datagram is rejected whole.
+final class BitReader {
+    private ByteBuffer buffer;
+    private int start;
+    private int limitBits;
+    private int bitPosition;
+
+    // Reads the buffer's remaining bytes; the buffer is not modified
+    void reset(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.start = buffer.position();
+        this.limitBits = (buffer.limit() - start) * 8;
+        this.bitPosition = 0;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    int readBits(int count) {
+        if (bitPosition + count > limitBits) {
+            throw new IllegalStateException("Read past end of message");
+        }
+        int value = 0;
+        for (int remaining = count; remaining > 0; ) {
+            int current = buffer.get(start + (bitPosition >>> 3)) & 0xFF;
+            int available = 8 - (bitPosition & 7);
+            int take = Math.min(available, remaining);
+            int chunk = (current >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            bitPosition += take;
+            remaining -= take;
+        }
+        return value;
+    }
+
+    int readVar() {
+        switch (readBits(2)) {
+            case 0: return readBits(4);
+            case 1: return readBits(8);
+            case 2: return readBits(16);
+            default: return readBits(32);
+        }
+    }
+
+    int readSigned() {
+        int zigzag = readVar();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
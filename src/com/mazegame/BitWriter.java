@@ -0,0 +1,81 @@
+package com.mazegame;
+
+import java.nio.ByteBuffer;
+
+// Packs values into a byte array MSB-first, at exactly the bit widths asked
+// for. Small numbers go through writeVar/writeSigned, which spend 2 bits on a
+// size class and then 4, 8, 16 or 32 bits on the value. Reused: reset()
+// between messages, no allocation unless a message outgrows the buffer.
+final class BitWriter {
+    private byte[] bytes;
+    private int bitPosition;
+
+    BitWriter(int capacity) {
+        bytes = new byte[capacity];
+    }
+
+    void reset() {
+        bitPosition = 0;
+        bytes[0] = 0;
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    // The low `count` bits of value, count in 1..32
+    void writeBits(int value, int count) {
+        ensureCapacity(bitPosition + count);
+        for (int remaining = count; remaining > 0; ) {
+            int byteIndex = bitPosition >>> 3;
+            int free = 8 - (bitPosition & 7);
+            int take = Math.min(free, remaining);
+            int chunk = (value >>> (remaining - take)) & ((1 << take) - 1);
+            if (free == 8) bytes[byteIndex] = 0;
+            bytes[byteIndex] |= (byte) (chunk << (free - take));
+            bitPosition += take;
+            remaining -= take;
+        }
+    }
+
+    // Unsigned; treated as 32 bits so any int round-trips
+    void writeVar(int value) {
+        if ((value & ~0xF) == 0) {
+            writeBits(0, 2);
+            writeBits(value, 4);
+        } else if ((value & ~0xFF) == 0) {
+            writeBits(1, 2);
+            writeBits(value, 8);
+        } else if ((value & ~0xFFFF) == 0) {
+            writeBits(2, 2);
+            writeBits(value, 16);
+        } else {
+            writeBits(3, 2);
+            writeBits(value, 32);
+        }
+    }
+
+    // Zig-zag, so small negative deltas stay small
+    void writeSigned(int value) {
+        writeVar((value << 1) ^ (value >> 31));
+    }
+
+    int byteLength() {
+        return (bitPosition + 7) >>> 3;
+    }
+
+    // Ready to send: the packed bytes from the start of the message
+    ByteBuffer toBuffer(ByteBuffer target) {
+        target.clear();
+        target.put(bytes, 0, byteLength());
+        target.flip();
+        return target;
+    }
+
+    private void ensureCapacity(int bits) {
+        int needed = (bits + 7) >>> 3;
+        if (needed > bytes.length) {
+            bytes = java.util.Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+        }
+    }
+}
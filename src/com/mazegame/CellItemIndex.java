@@ -0,0 +1,102 @@
+package com.mazegame;
+
+import java.util.Arrays;
+
+// Open-addressed map from packed cell index (y * width + x) to an item slot.
+// Linear probing with backward-shift deletion, so lookups and removals stay O(1)
+// without tombstones even after thousands of pickups.
+public class CellItemIndex {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public CellItemIndex(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int slotFor(int cell) {
+        int h = cell * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    public int get(int cell) {
+        int i = slotFor(cell);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == cell) return values[i];
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    public void put(int cell, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int i = slotFor(cell);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == cell) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = cell;
+        values[i] = value;
+        size++;
+    }
+
+    public int remove(int cell) {
+        int i = slotFor(cell);
+        while (keys[i] != cell) {
+            if (keys[i] == EMPTY) return -1;
+            i = (i + 1) & mask;
+        }
+        int removed = values[i];
+
+        // Shift later entries of the probe run back so no tombstone is needed
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (keys[j] == EMPTY) break;
+            int home = slotFor(keys[j]);
+            boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+            if (stays) continue;
+            keys[i] = keys[j];
+            values[i] = values[j];
+            i = j;
+        }
+        keys[i] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+}
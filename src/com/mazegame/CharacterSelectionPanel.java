@@ -20,17 +20,8 @@ public class CharacterSelectionPanel extends JPanel {
 
     private void loadResources() {
         try {
-            java.io.InputStream bgStream = getClass().getResourceAsStream("/general/image.png");
-            if (bgStream != null) {
-                backgroundImage = new ImageIcon(bgStream.readAllBytes()).getImage();
-            }
-
-            java.io.InputStream fontStream = getClass().getResourceAsStream("/dragonslayer.ttf");
-            if (fontStream != null) {
-                dragonSlayerFont = Font.createFont(Font.TRUETYPE_FONT, fontStream).deriveFont(36f);
-            } else {
-                dragonSlayerFont = new Font("Arial", Font.BOLD, 36);
-            }
+            backgroundImage = AssetManager.getImage("/general/image.png");
+            dragonSlayerFont = AssetManager.getFont();
 
             // Pre-load all character preview images using down_2.png
             loadCharacterPreviews();
@@ -68,20 +59,8 @@ public class CharacterSelectionPanel extends JPanel {
 
     private ImageIcon loadScaledSprite(String path, int width, int height) {
         try {
-            java.io.InputStream is = getClass().getResourceAsStream(path);
-            if (is != null) {
-                byte[] bytes = is.readAllBytes();
-                ImageIcon originalIcon = new ImageIcon(bytes);
-
-                BufferedImage originalBuffered = new BufferedImage(
-                        originalIcon.getIconWidth(),
-                        originalIcon.getIconHeight(),
-                        BufferedImage.TYPE_INT_ARGB
-                );
-                Graphics2D g2dOriginal = originalBuffered.createGraphics();
-                g2dOriginal.drawImage(originalIcon.getImage(), 0, 0, null);
-                g2dOriginal.dispose();
-
+            BufferedImage originalBuffered = AssetManager.getImage(path);
+            if (originalBuffered != null) {
                 Image scaledImage = originalBuffered.getScaledInstance(width, height, Image.SCALE_SMOOTH);
 
                 BufferedImage bufferedImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
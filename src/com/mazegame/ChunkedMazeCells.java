@@ -0,0 +1,294 @@
+package com.mazegame;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+// World made of 64x64-cell chunks that are generated on demand from
+// (seed, chunkX, chunkY) alone, so any chunk can be evicted and regenerated in
+// any order. Player changes (collected pickups) are stored separately and
+// replayed onto a chunk whenever it is regenerated.
+public class ChunkedMazeCells implements MazeCells {
+    private static final long serialVersionUID = 1L;
+
+    public static final int CHUNK_SIZE = 64;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int NODES_PER_SIDE = CHUNK_SIZE / 2;
+    private static final int DEFAULT_CACHE_CHUNKS = 96;
+    private static final int TREASURES_PER_CHUNK = CHUNK_SIZE * CHUNK_SIZE / 30;
+
+    private final long seed;
+    private final int chunksX, chunksY;
+    private final int width, height;
+    private final int difficulty;
+    private final int cacheCapacity;
+    private final HashMap<Long, HashMap<Integer, Character>> edits = new HashMap<>();
+
+    private transient LinkedHashMap<Long, char[]> cache;
+    private transient long lastKey;
+    private transient char[] lastChunk;
+    private transient int chunksGenerated;
+
+    public ChunkedMazeCells(int chunksX, int chunksY, int difficulty, long seed) {
+        this(chunksX, chunksY, difficulty, seed, DEFAULT_CACHE_CHUNKS);
+    }
+
+    public ChunkedMazeCells(int chunksX, int chunksY, int difficulty, long seed, int cacheCapacity) {
+        this.chunksX = chunksX;
+        this.chunksY = chunksY;
+        // One extra column/row closes the east and south edges of the world
+        this.width = chunksX * CHUNK_SIZE + 1;
+        this.height = chunksY * CHUNK_SIZE + 1;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.cacheCapacity = Math.max(4, cacheCapacity);
+        initCache();
+    }
+
+    private void initCache() {
+        cache = new LinkedHashMap<Long, char[]>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, char[]> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+        lastKey = Long.MIN_VALUE;
+        lastChunk = null;
+    }
+
+    @Override
+    public int getWidth() { return width; }
+
+    @Override
+    public int getHeight() { return height; }
+
+    @Override
+    public char get(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return '#';
+        int chunkX = x >> CHUNK_SHIFT;
+        int chunkY = y >> CHUNK_SHIFT;
+        if (chunkX >= chunksX || chunkY >= chunksY) return '#';
+        return chunk(chunkX, chunkY)[((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)];
+    }
+
+    @Override
+    public void set(int x, int y, char tile) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return;
+        int chunkX = x >> CHUNK_SHIFT;
+        int chunkY = y >> CHUNK_SHIFT;
+        if (chunkX >= chunksX || chunkY >= chunksY) return;
+
+        int local = ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+        chunk(chunkX, chunkY)[local] = tile;
+        edits.computeIfAbsent(chunkKey(chunkX, chunkY), k -> new HashMap<>()).put(local, tile);
+    }
+
+    // Touching the chunks under the camera keeps them at the young end of the LRU
+    @Override
+    public void prefetch(int minX, int minY, int maxX, int maxY) {
+        int fromX = Math.max(0, minX >> CHUNK_SHIFT);
+        int fromY = Math.max(0, minY >> CHUNK_SHIFT);
+        int toX = Math.min(chunksX - 1, maxX >> CHUNK_SHIFT);
+        int toY = Math.min(chunksY - 1, maxY >> CHUNK_SHIFT);
+        for (int chunkY = fromY; chunkY <= toY; chunkY++) {
+            for (int chunkX = fromX; chunkX <= toX; chunkX++) {
+                chunk(chunkX, chunkY);
+            }
+        }
+    }
+
+    private char[] chunk(int chunkX, int chunkY) {
+        long key = chunkKey(chunkX, chunkY);
+        if (key == lastKey && lastChunk != null) {
+            return lastChunk;
+        }
+        char[] tiles = cache.get(key);
+        if (tiles == null) {
+            tiles = generateChunk(chunkX, chunkY);
+            cache.put(key, tiles);
+        }
+        lastKey = key;
+        lastChunk = tiles;
+        return tiles;
+    }
+
+    private static long chunkKey(int chunkX, int chunkY) {
+        return ((long) chunkX << 32) | (chunkY & 0xffffffffL);
+    }
+
+    private char[] generateChunk(int chunkX, int chunkY) {
+        char[] tiles = new char[CHUNK_SIZE * CHUNK_SIZE];
+        Arrays.fill(tiles, '#');
+        Random chunkRandom = new Random(mix(chunkX, chunkY, 0));
+
+        carveChunk(tiles, chunkRandom);
+
+        // Every chunk is internally connected and owns one door in its west column
+        // and one in its north row, so the whole world is connected no matter which
+        // chunks happen to be loaded. Door rows depend only on the seed.
+        if (chunkX > 0) {
+            int doorY = 1 + 2 * doorOffset(chunkX, chunkY, 1);
+            tiles[doorY << CHUNK_SHIFT] = '.';
+        }
+        if (chunkY > 0) {
+            int doorX = 1 + 2 * doorOffset(chunkX, chunkY, 2);
+            tiles[doorX] = '.';
+        }
+
+        if (difficulty == 0) {
+            openIsolatedWalls(tiles, chunkRandom);
+        }
+        placeItems(tiles, chunkX, chunkY, chunkRandom);
+
+        if (chunkX == 0 && chunkY == 0) {
+            tiles[(1 << CHUNK_SHIFT) | 1] = 'S';
+        }
+        if (chunkX == chunksX - 1 && chunkY == chunksY - 1) {
+            tiles[(CHUNK_MASK << CHUNK_SHIFT) | CHUNK_MASK] = 'E';
+        }
+
+        HashMap<Integer, Character> chunkEdits = edits.get(chunkKey(chunkX, chunkY));
+        if (chunkEdits != null) {
+            for (Map.Entry<Integer, Character> edit : chunkEdits.entrySet()) {
+                tiles[edit.getKey()] = edit.getValue();
+            }
+        }
+
+        chunksGenerated++;
+        return tiles;
+    }
+
+    // Iterative depth-first carve over the chunk's 32x32 passage nodes
+    private void carveChunk(char[] tiles, Random chunkRandom) {
+        int nodeCount = NODES_PER_SIDE * NODES_PER_SIDE;
+        boolean[] visited = new boolean[nodeCount];
+        int[] stack = new int[nodeCount];
+        int[] options = new int[4];
+        int stackSize = 0;
+
+        int first = chunkRandom.nextInt(nodeCount);
+        visited[first] = true;
+        stack[stackSize++] = first;
+        tiles[nodeTile(first)] = '.';
+
+        while (stackSize > 0) {
+            int node = stack[stackSize - 1];
+            int nodeX = node % NODES_PER_SIDE;
+            int nodeY = node / NODES_PER_SIDE;
+
+            int count = 0;
+            if (nodeX > 0 && !visited[node - 1]) options[count++] = node - 1;
+            if (nodeX < NODES_PER_SIDE - 1 && !visited[node + 1]) options[count++] = node + 1;
+            if (nodeY > 0 && !visited[node - NODES_PER_SIDE]) options[count++] = node - NODES_PER_SIDE;
+            if (nodeY < NODES_PER_SIDE - 1 && !visited[node + NODES_PER_SIDE]) options[count++] = node + NODES_PER_SIDE;
+
+            if (count == 0) {
+                stackSize--;
+                continue;
+            }
+
+            int next = options[chunkRandom.nextInt(count)];
+            int nextX = next % NODES_PER_SIDE;
+            int nextY = next / NODES_PER_SIDE;
+            tiles[((nodeY + nextY + 1) << CHUNK_SHIFT) | (nodeX + nextX + 1)] = '.';
+            tiles[nodeTile(next)] = '.';
+            visited[next] = true;
+            stack[stackSize++] = next;
+        }
+    }
+
+    private static int nodeTile(int node) {
+        int nodeX = node % NODES_PER_SIDE;
+        int nodeY = node / NODES_PER_SIDE;
+        return ((2 * nodeY + 1) << CHUNK_SHIFT) | (2 * nodeX + 1);
+    }
+
+    // Same rule as PixelMaze.simplifyMaze, kept inside the chunk so it never
+    // depends on neighbouring chunks
+    private void openIsolatedWalls(char[] tiles, Random chunkRandom) {
+        for (int y = 1; y < CHUNK_SIZE - 1; y++) {
+            for (int x = 1; x < CHUNK_SIZE - 1; x++) {
+                int i = (y << CHUNK_SHIFT) | x;
+                if (tiles[i] == '#' && chunkRandom.nextFloat() < 0.15f) {
+                    int pathNeighbors = 0;
+                    if (tiles[i - 1] == '.') pathNeighbors++;
+                    if (tiles[i + 1] == '.') pathNeighbors++;
+                    if (tiles[i - CHUNK_SIZE] == '.') pathNeighbors++;
+                    if (tiles[i + CHUNK_SIZE] == '.') pathNeighbors++;
+                    if (pathNeighbors <= 1) {
+                        tiles[i] = '.';
+                    }
+                }
+            }
+        }
+    }
+
+    private void placeItems(char[] tiles, int chunkX, int chunkY, Random chunkRandom) {
+        for (int i = 0; i < TREASURES_PER_CHUNK; i++) {
+            for (int attempts = 0; attempts < 10; attempts++) {
+                int x = 1 + chunkRandom.nextInt(CHUNK_SIZE - 1);
+                int y = 1 + chunkRandom.nextInt(CHUNK_SIZE - 1);
+                int index = (y << CHUNK_SHIFT) | x;
+                if (tiles[index] == '.' && !isNearImportantLocation(chunkX, chunkY, x, y)) {
+                    tiles[index] = 'T';
+                    break;
+                }
+            }
+        }
+
+        float potionChance;
+        switch (difficulty) {
+            case 0: potionChance = 0.5f; break;
+            case 2: potionChance = 0.2f; break;
+            default: potionChance = 0.3f;
+        }
+        if (chunkRandom.nextFloat() < potionChance) {
+            for (int attempts = 0; attempts < 20; attempts++) {
+                int x = 1 + chunkRandom.nextInt(CHUNK_SIZE - 1);
+                int y = 1 + chunkRandom.nextInt(CHUNK_SIZE - 1);
+                int index = (y << CHUNK_SHIFT) | x;
+                if (tiles[index] == '.' && !isNearImportantLocation(chunkX, chunkY, x, y)) {
+                    tiles[index] = 'L';
+                    break;
+                }
+            }
+        }
+    }
+
+    private boolean isNearImportantLocation(int chunkX, int chunkY, int localX, int localY) {
+        int x = (chunkX << CHUNK_SHIFT) + localX;
+        int y = (chunkY << CHUNK_SHIFT) + localY;
+        int startDist = Math.abs(x - getStartX()) + Math.abs(y - getStartY());
+        int exitDist = Math.abs(x - getExitX()) + Math.abs(y - getExitY());
+        return startDist < 4 || exitDist < 4;
+    }
+
+    private int doorOffset(int chunkX, int chunkY, int side) {
+        return (int) ((mix(chunkX, chunkY, side) >>> 1) % NODES_PER_SIDE);
+    }
+
+    // SplitMix64 finalizer over the seed and chunk coordinates
+    private long mix(int chunkX, int chunkY, int salt) {
+        long z = seed ^ (chunkX * 0x9E3779B97F4A7C15L) ^ (chunkY * 0xC2B2AE3D27D4EB4FL) ^ (salt * 0x165667B19E3779F9L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public int getStartX() { return 1; }
+    public int getStartY() { return 1; }
+    public int getExitX() { return width - 2; }
+    public int getExitY() { return height - 2; }
+    public int getLoadedChunkCount() { return cache.size(); }
+    public int getChunksGenerated() { return chunksGenerated; }
+
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        initCache();
+    }
+}
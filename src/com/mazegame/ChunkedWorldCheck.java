@@ -0,0 +1,115 @@
+package com.mazegame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Checks a chunked world with a deliberately tiny chunk cache, so nearly
+// every step of the walk evicts and regenerates chunks: the exit must be
+// reachable from the start, a second world from the same seed, read in the
+// opposite order, must match tile for tile, and pickups made through
+// PixelMaze must still be gone after their chunks have been evicted and
+// rebuilt. Exits with status 1 on any failure. Run with
+// java com.mazegame.ChunkedWorldCheck [chunks] [difficulty] [seed]
+public class ChunkedWorldCheck {
+    private static final int CACHE_CHUNKS = 4;
+    private static final int PICKUPS = 16;
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+
+    public static void main(String[] args) {
+        int chunks = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int difficulty = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        System.out.println("=== CHUNKED WORLD CHECK ===");
+        ChunkedMazeCells cells = new ChunkedMazeCells(chunks, chunks, difficulty, seed, CACHE_CHUNKS);
+        PixelMaze maze = PixelMaze.fromChunks(cells, difficulty);
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        System.out.println("World " + width + "x" + height + " cells, " + chunks * chunks
+                + " chunks, cache " + CACHE_CHUNKS + " chunks, seed " + seed);
+        boolean passed = true;
+
+        int reached = reachableCells(maze, maze.getStartX(), maze.getStartY(), maze.getExitX(), maze.getExitY());
+        System.out.printf("  start to exit: %s, %d cells searched, %d chunks generated, %d loaded%n",
+                reached > 0 ? "connected" : "NOT CONNECTED", Math.abs(reached),
+                cells.getChunksGenerated(), cells.getLoadedChunkCount());
+        passed &= reached > 0;
+        passed &= cells.getLoadedChunkCount() <= CACHE_CHUNKS;
+
+        ChunkedMazeCells twin = new ChunkedMazeCells(chunks, chunks, difficulty, seed, CACHE_CHUNKS);
+        int mismatches = 0;
+        for (int y = height - 1; y >= 0; y--) {
+            for (int x = width - 1; x >= 0; x--) {
+                if (twin.get(x, y) != maze.getTile(x, y)) mismatches++;
+            }
+        }
+        System.out.println("  same seed, reverse order: " + mismatches + " mismatched tiles");
+        passed &= mismatches == 0;
+
+        // One pickup per chunk along the diagonal, then the whole world is
+        // walked again so every chunk is evicted and regenerated from scratch
+        List<int[]> collected = new ArrayList<>();
+        for (int c = 0; c < chunks && collected.size() < PICKUPS; c++) {
+            int[] item = findItem(maze, c * ChunkedMazeCells.CHUNK_SIZE, c * ChunkedMazeCells.CHUNK_SIZE);
+            if (item == null) continue;
+            float pixelX = item[0] * PixelMaze.TILE_SIZE + PixelMaze.TILE_SIZE / 2f;
+            float pixelY = item[1] * PixelMaze.TILE_SIZE + PixelMaze.TILE_SIZE / 2f;
+            if (maze.probe(pixelX, pixelY, 0, 0) != TileEvent.NONE) {
+                collected.add(item);
+            }
+        }
+        int generatedBefore = cells.getChunksGenerated();
+        reachableCells(maze, maze.getStartX(), maze.getStartY(), -1, -1);
+        int regenerated = cells.getChunksGenerated() - generatedBefore;
+        int survived = 0;
+        for (int[] item : collected) {
+            if (maze.getTile(item[0], item[1]) == '.') survived++;
+        }
+        System.out.println("  pickups: " + survived + "/" + collected.size() + " still collected after "
+                + regenerated + " chunk regenerations");
+        passed &= !collected.isEmpty() && survived == collected.size() && regenerated > chunks * chunks / 2;
+
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    // Breadth-first search over open tiles; the number of cells searched,
+    // positive if (targetX, targetY) was reached and negative if not
+    private static int reachableCells(PixelMaze maze, int startX, int startY, int targetX, int targetY) {
+        int width = maze.getWidth();
+        boolean[] seen = new boolean[width * maze.getHeight()];
+        int[] queue = new int[seen.length];
+        int head = 0, tail = 0;
+        queue[tail++] = startY * width + startX;
+        seen[startY * width + startX] = true;
+        boolean found = false;
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell % width;
+            int y = cell / width;
+            if (x == targetX && y == targetY) found = true;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (maze.getTile(nx, ny) == '#') continue;
+                int next = ny * width + nx;
+                if (!seen[next]) {
+                    seen[next] = true;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return found ? tail : -tail;
+    }
+
+    private static int[] findItem(PixelMaze maze, int fromX, int fromY) {
+        for (int y = fromY; y < fromY + ChunkedMazeCells.CHUNK_SIZE; y++) {
+            for (int x = fromX; x < fromX + ChunkedMazeCells.CHUNK_SIZE; x++) {
+                char tile = maze.getTile(x, y);
+                if (tile == 'T' || tile == 'L') return new int[]{x, y};
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mazegame;
+
+import java.util.Random;
+
+// Recursive backtracker with an explicit stack. Visits neighbours in the same
+// shuffled order as the old recursive carvePassages, but large mazes no longer
+// overflow the thread stack.
+public class DfsMazeGenerator implements MazeGenerator {
+    private static final int[] DX = {-2, 2, 0, 0};
+    private static final int[] DY = {0, 0, -2, 2};
+
+    @Override
+    public void generate(char[][] grid, Random random) {
+        int height = grid.length;
+        int width = grid[0].length;
+        int columns = (width - 1) / 2;
+        int nodeCount = columns * ((height - 1) / 2);
+        if (nodeCount == 0) return;
+
+        // One frame per node on the current path: the node, its shuffled
+        // direction order (four 2-bit entries) and how many directions it has tried
+        int[] stackNode = new int[nodeCount];
+        byte[] stackOrder = new byte[nodeCount];
+        byte[] stackNext = new byte[nodeCount];
+        int size = 0;
+
+        grid[1][1] = '.';
+        stackNode[size] = 0;
+        stackOrder[size] = shuffledOrder(random);
+        stackNext[size] = 0;
+        size++;
+
+        while (size > 0) {
+            int top = size - 1;
+            if (stackNext[top] == 4) {
+                size--;
+                continue;
+            }
+
+            int dir = (stackOrder[top] >> (2 * stackNext[top])) & 3;
+            stackNext[top]++;
+
+            int node = stackNode[top];
+            int x = 2 * (node % columns) + 1;
+            int y = 2 * (node / columns) + 1;
+            int nextX = x + DX[dir];
+            int nextY = y + DY[dir];
+
+            if (nextX > 0 && nextX < width - 1 && nextY > 0 && nextY < height - 1 &&
+                    grid[nextY][nextX] == '#') {
+                grid[y + DY[dir] / 2][x + DX[dir] / 2] = '.';
+                grid[nextY][nextX] = '.';
+                stackNode[size] = (nextY / 2) * columns + nextX / 2;
+                stackOrder[size] = shuffledOrder(random);
+                stackNext[size] = 0;
+                size++;
+            }
+        }
+    }
+
+    // Fisher-Yates over the four directions, packed into a byte
+    private static byte shuffledOrder(Random random) {
+        int[] order = {0, 1, 2, 3};
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = order[i];
+            order[i] = order[j];
+            order[j] = temp;
+        }
+        return (byte) (order[0] | order[1] << 2 | order[2] << 4 | order[3] << 6);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mazegame;
+
+import java.util.Arrays;
+
+// Union-find over a single flat int[]: a non-negative entry is the parent
+// index, a negative entry marks a root and holds minus the set size. Finds
+// use path halving, unions attach the smaller tree under the larger.
+public class DisjointSets {
+    private final int[] parent;
+
+    public DisjointSets(int size) {
+        parent = new int[size];
+        Arrays.fill(parent, -1);
+    }
+
+    public int find(int element) {
+        while (parent[element] >= 0) {
+            int next = parent[element];
+            if (parent[next] >= 0) {
+                parent[element] = parent[next];
+            }
+            element = next;
+        }
+        return element;
+    }
+
+    // Returns false when both elements were already in the same set
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return false;
+
+        if (parent[rootA] > parent[rootB]) {
+            int temp = rootA;
+            rootA = rootB;
+            rootB = temp;
+        }
+        parent[rootA] += parent[rootB];
+        parent[rootB] = rootA;
+        return true;
+    }
+}
@@ -0,0 +1,216 @@
+package com.mazegame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+// Eller's algorithm: builds a perfect maze one row at a time while only
+// remembering which set each cell of the current row belongs to, so working
+// memory is O(width) no matter how many rows are generated. Rows are handed
+// to a RowSink as soon as they are finished.
+//
+// Layout matches carvePassages: passage nodes sit on odd coordinates and the
+// outer border is wall.
+public class EllerMazeGenerator {
+    private static final float JOIN_CHANCE = 0.5f;
+    private static final float DOWN_CHANCE = 0.4f;
+    private static final float TREASURE_CHANCE = 1f / 30f;
+    private static final float LIFE_POTION_CHANCE = 1f / 2000f;
+
+    private final int width, height;
+    private final int columns, nodeRows;
+    private final Random random;
+
+    // Set label of each node in the current row, -1 when not yet assigned
+    private final int[] cellSet;
+    // Per-row union-find over set labels; labels are compacted every row so
+    // they always stay below 2 * columns
+    private final int[] parent;
+    private final int[] remaining;
+    private final boolean[] hasDown;
+    private final int[] relabel;
+    private final boolean[] goesDown;
+    private final boolean[] joinsRight;
+    private final char[] row;
+
+    public EllerMazeGenerator(int width, int height, Random random) {
+        if (width < 3 || height < 3) {
+            throw new IllegalArgumentException("Maze must be at least 3x3, got " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.columns = (width - 1) / 2;
+        this.nodeRows = (height - 1) / 2;
+        this.random = random;
+
+        int labels = 2 * columns;
+        this.cellSet = new int[columns];
+        this.parent = new int[labels];
+        this.remaining = new int[labels];
+        this.hasDown = new boolean[labels];
+        this.relabel = new int[labels];
+        this.goesDown = new boolean[columns];
+        this.joinsRight = new boolean[columns];
+        this.row = new char[width];
+    }
+
+    public void generate(RowSink sink) throws IOException {
+        Arrays.fill(cellSet, -1);
+        Arrays.fill(row, '#');
+        sink.acceptRow(0, row);
+
+        for (int r = 0; r < nodeRows; r++) {
+            boolean lastRow = r == nodeRows - 1;
+            assignNewSets();
+            for (int label = 0; label < parent.length; label++) {
+                parent[label] = label;
+            }
+
+            joinHorizontally(lastRow);
+            if (!lastRow) {
+                chooseDownPassages();
+            }
+
+            emitNodeRow(sink, 2 * r + 1);
+            if (!lastRow) {
+                emitWallRow(sink, 2 * r + 2);
+                carryDown();
+            }
+        }
+
+        // Bottom border, plus one extra wall row when the height is even
+        Arrays.fill(row, '#');
+        for (int y = 2 * nodeRows; y < height; y++) {
+            sink.acceptRow(y, row);
+        }
+    }
+
+    private void assignNewSets() {
+        // Labels surviving from the previous row are already compacted to 0..k-1
+        int used = 0;
+        for (int c = 0; c < columns; c++) {
+            if (cellSet[c] >= 0) used = Math.max(used, cellSet[c] + 1);
+        }
+        for (int c = 0; c < columns; c++) {
+            if (cellSet[c] < 0) cellSet[c] = used++;
+        }
+    }
+
+    private void joinHorizontally(boolean lastRow) {
+        for (int c = 0; c < columns - 1; c++) {
+            int a = find(cellSet[c]);
+            int b = find(cellSet[c + 1]);
+            // The last row must join every remaining set so the maze is connected
+            boolean join = a != b && (lastRow || random.nextFloat() < JOIN_CHANCE);
+            joinsRight[c] = join;
+            if (join) {
+                parent[b] = a;
+            }
+        }
+        joinsRight[columns - 1] = false;
+    }
+
+    // Every set needs at least one passage down or it would be cut off
+    private void chooseDownPassages() {
+        for (int c = 0; c < columns; c++) {
+            int root = find(cellSet[c]);
+            remaining[root] = 0;
+            hasDown[root] = false;
+        }
+        for (int c = 0; c < columns; c++) {
+            remaining[find(cellSet[c])]++;
+        }
+        for (int c = 0; c < columns; c++) {
+            int root = find(cellSet[c]);
+            remaining[root]--;
+            boolean down = random.nextFloat() < DOWN_CHANCE || (remaining[root] == 0 && !hasDown[root]);
+            goesDown[c] = down;
+            if (down) hasDown[root] = true;
+        }
+    }
+
+    private void carryDown() {
+        Arrays.fill(relabel, -1);
+        int next = 0;
+        for (int c = 0; c < columns; c++) {
+            if (goesDown[c]) {
+                int root = find(cellSet[c]);
+                if (relabel[root] < 0) relabel[root] = next++;
+                cellSet[c] = relabel[root];
+            } else {
+                cellSet[c] = -1;
+            }
+        }
+    }
+
+    private void emitNodeRow(RowSink sink, int y) throws IOException {
+        Arrays.fill(row, '#');
+        for (int c = 0; c < columns; c++) {
+            row[2 * c + 1] = '.';
+            if (joinsRight[c]) row[2 * c + 2] = '.';
+        }
+        sink.acceptRow(y, row);
+    }
+
+    private void emitWallRow(RowSink sink, int y) throws IOException {
+        Arrays.fill(row, '#');
+        for (int c = 0; c < columns; c++) {
+            if (goesDown[c]) row[2 * c + 1] = '.';
+        }
+        sink.acceptRow(y, row);
+    }
+
+    private int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    // MazeGenerator adapter: fills an in-memory grid row by row
+    public static void generateInto(char[][] grid, Random random) {
+        int width = grid[0].length;
+        try {
+            new EllerMazeGenerator(width, grid.length, random)
+                    .generate((y, row) -> System.arraycopy(row, 0, grid[y], 0, width));
+        } catch (IOException e) {
+            // Only the sink can throw, and this one doesn't
+            throw new AssertionError("in-memory row sink threw", e);
+        }
+    }
+
+    public int getExitX() { return 2 * columns - 1; }
+    public int getExitY() { return 2 * nodeRows - 1; }
+
+    // Streams a complete level (start, exit and items) to a MazeFile without
+    // ever holding more than one row in memory.
+    public static void generateToFile(Path file, int width, int height, long seed) throws IOException {
+        Random random = new Random(seed);
+        EllerMazeGenerator generator = new EllerMazeGenerator(width, height, random);
+        int exitX = generator.getExitX();
+        int exitY = generator.getExitY();
+
+        try (MazeFile.Writer writer = new MazeFile.Writer(file, width, height)) {
+            generator.generate((y, row) -> {
+                for (int x = 0; x < row.length; x++) {
+                    if (row[x] != '.') continue;
+                    boolean nearStart = Math.abs(x - 1) + Math.abs(y - 1) < 4;
+                    boolean nearExit = Math.abs(x - exitX) + Math.abs(y - exitY) < 4;
+                    if (nearStart || nearExit) continue;
+                    float roll = random.nextFloat();
+                    if (roll < LIFE_POTION_CHANCE) {
+                        row[x] = 'L';
+                    } else if (roll < LIFE_POTION_CHANCE + TREASURE_CHANCE) {
+                        row[x] = 'T';
+                    }
+                }
+                if (y == 1) row[1] = 'S';
+                if (y == exitY) row[exitX] = 'E';
+                writer.writeRow(row);
+            });
+            writer.setStartAndExit(1, 1, exitX, exitY);
+        }
+    }
+}
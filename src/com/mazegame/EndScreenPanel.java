@@ -5,12 +5,14 @@ import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
-import java.io.InputStream;
 
 public class EndScreenPanel extends JPanel {
     private Image backgroundImage;
     private int selectedOption = 0;
     private final String[] endOptions = {"PLAY AGAIN", "MAIN MENU", "EXIT"};
+    private static final int[] ARROW_Y_POSITIONS = {270, 335, 390};
+    private static final int[] RED_ARROW_Y_POSITIONS = {310, 390, 440};
+    private static final Font ARROW_FONT = new Font("Arial", Font.BOLD, 36);
     private ImageIcon arrowIcon;
     private Font dragonSlayerFont;
 
@@ -23,30 +25,18 @@ public class EndScreenPanel extends JPanel {
 
     private void loadResources() {
         try {
-            InputStream fontStream = getClass().getResourceAsStream("/dragonslayer.ttf");
-            if (fontStream != null) {
-                dragonSlayerFont = Font.createFont(Font.TRUETYPE_FONT, fontStream).deriveFont(36f);
-            } else {
-                dragonSlayerFont = new Font("Arial", Font.BOLD, 36);
-            }
+            dragonSlayerFont = AssetManager.getFont();
 
-            InputStream bgStream = getClass().getResourceAsStream("/general/end.png");
-            if (bgStream != null) {
-                byte[] bgBytes = bgStream.readAllBytes();
-                backgroundImage = new ImageIcon(bgBytes).getImage();
-                System.out.println("End screen background loaded successfully");
-            } else {
+            // Pre-scaled to the panel size so each repaint is a plain copy
+            ImageIcon background = AssetManager.getScaledIcon("/general/end.png", 800, 600);
+            backgroundImage = background != null ? background.getImage() : null;
+            if (backgroundImage == null) {
                 System.out.println("End screen background not found at /general/end.png, using fallback");
                 backgroundImage = createFallbackBackground();
             }
 
-            InputStream arrowStream = getClass().getResourceAsStream("/general/arrow.png");
-            if (arrowStream != null) {
-                ImageIcon originalArrow = new ImageIcon(arrowStream.readAllBytes());
-                Image scaledArrow = originalArrow.getImage().getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-                arrowIcon = new ImageIcon(scaledArrow);
-                System.out.println("Arrow icon loaded for end screen");
-            } else {
+            arrowIcon = AssetManager.getScaledIcon("/general/arrow.png", 100, 100);
+            if (arrowIcon == null) {
                 System.out.println("Arrow icon not found at /general/arrow.png");
                 createFallbackArrow();
             }
@@ -152,7 +142,8 @@ public class EndScreenPanel extends JPanel {
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        // No super.paintComponent: the background covers the whole panel, and
+        // it would copy the Graphics on every repaint
         Graphics2D g2d = (Graphics2D) g;
 
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -165,30 +156,28 @@ public class EndScreenPanel extends JPanel {
         drawArrows(g2d);
     }
     private void drawArrows(Graphics2D g2d) {
-        int[] optionYPositions = {270, 335, 390};
         int arrowX = 200;
 
         for (int i = 0; i < endOptions.length; i++) {
             if (i == selectedOption) {
                 if (arrowIcon != null) {
-                    int arrowY = optionYPositions[i] - 20;
+                    int arrowY = ARROW_Y_POSITIONS[i] - 20;
                     g2d.drawImage(arrowIcon.getImage(), arrowX, arrowY, this);
                 } else {
                     g2d.setColor(Color.RED);
-                    g2d.setFont(new Font("Arial", Font.BOLD, 36));
-                    g2d.drawString(">", arrowX, optionYPositions[i]);
+                    g2d.setFont(ARROW_FONT);
+                    g2d.drawString(">", arrowX, ARROW_Y_POSITIONS[i]);
                 }
             }
         }
     }
 
     private void drawRedArrows(Graphics2D g2d) {
-        int[] optionYPositions = {310, 390, 440};
         int arrowX = 250;
 
         for (int i = 0; i < endOptions.length; i++) {
             if (i == selectedOption) {
-                drawRedArrow(g2d, arrowX, optionYPositions[i]);
+                drawRedArrow(g2d, arrowX, RED_ARROW_Y_POSITIONS[i]);
             }
         }
     }
@@ -196,7 +185,7 @@ public class EndScreenPanel extends JPanel {
     private void drawRedArrow(Graphics2D g2d, int x, int y) {
         g2d.setColor(Color.RED);
 
-        g2d.setFont(new Font("Arial", Font.BOLD, 36));
+        g2d.setFont(ARROW_FONT);
 
         g2d.drawString(">", x, y);
     }
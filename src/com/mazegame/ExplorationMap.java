@@ -0,0 +1,185 @@
+package com.mazegame;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Which maze cells the player has seen, one bit per cell (row-major, 64
+// cells per word) with a running count, so the count is O(1) and a
+// 1000x1000 maze costs 125 KB instead of a megabyte of booleans. Streamed
+// mazes can be far bigger than anyone will ever explore, so theirs is
+// sparse: a 64-word block per 64x64-cell chunk (one word per row), created
+// the first time a cell in that chunk is seen.
+//
+// Every cell that becomes explored, or whose contents change after it was
+// explored, is appended to a small ring of changes. Consumers keep their
+// own cursor into it and replay what happened since they last looked; one
+// that falls more than CHANGE_CAPACITY changes behind gets told to rescan.
+// The simulation writes, any one other thread may read.
+public class ExplorationMap implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int CHANGE_CAPACITY = 1024;
+    private static final int CHUNK_SHIFT = 6;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    public static final long RESCAN = -1;
+
+    public interface ChangeListener {
+        void cellChanged(int x, int y);
+    }
+
+    private final int width, height;
+    // Exactly one of these: dense for grid mazes, per chunk for streamed ones
+    private final long[] bits;
+    private final ConcurrentHashMap<Long, Chunk> chunks;
+    private int exploredCount;
+
+    // Cells as (y << 32) | x
+    private transient long[] changes;
+    private transient volatile long changeCount;
+    // Last chunk looked up, by either thread; a Chunk carries its own key,
+    // so one reference write keeps the pair consistent
+    private transient Chunk lastChunk;
+
+    private static final class Chunk implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final long key;
+        final long[] rows = new long[1 << CHUNK_SHIFT];
+
+        Chunk(long key) {
+            this.key = key;
+        }
+    }
+
+    public ExplorationMap(int width, int height) {
+        this(width, height, false);
+    }
+
+    public ExplorationMap(int width, int height, boolean sparse) {
+        this.width = width;
+        this.height = height;
+        this.bits = sparse ? null : new long[(int) (((long) width * height + 63) >>> 6)];
+        this.chunks = sparse ? new ConcurrentHashMap<>() : null;
+        this.changes = new long[CHANGE_CAPACITY];
+    }
+
+    // True when the cell was not explored before
+    public boolean mark(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return false;
+        long[] words;
+        int word;
+        long mask;
+        if (bits != null) {
+            long cell = (long) y * width + x;
+            words = bits;
+            word = (int) (cell >>> 6);
+            mask = 1L << cell;
+        } else {
+            words = chunk(x, y, true).rows;
+            word = y & CHUNK_MASK;
+            mask = 1L << (x & CHUNK_MASK);
+        }
+        if ((words[word] & mask) != 0) return false;
+        words[word] |= mask;
+        exploredCount++;
+        recordChange(x, y);
+        return true;
+    }
+
+    // Marks the cell and its eight neighbours (the view before the first move)
+    public void markAround(int x, int y) {
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                mark(x + dx, y + dy);
+            }
+        }
+    }
+
+    // For an explored cell whose tile changed (an item picked up), so
+    // consumers showing it redraw it
+    public void touch(int x, int y) {
+        if (isExplored(x, y)) {
+            recordChange(x, y);
+        }
+    }
+
+    public boolean isExplored(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return false;
+        if (bits != null) {
+            long cell = (long) y * width + x;
+            return (bits[(int) (cell >>> 6)] & (1L << cell)) != 0;
+        }
+        Chunk chunk = chunk(x, y, false);
+        return chunk != null && (chunk.rows[y & CHUNK_MASK] & (1L << (x & CHUNK_MASK))) != 0;
+    }
+
+    // The chunk holding (x, y); null if nothing in it is explored and create is false
+    private Chunk chunk(int x, int y, boolean create) {
+        long key = ((long) (y >>> CHUNK_SHIFT) << 32) | (x >>> CHUNK_SHIFT);
+        Chunk chunk = lastChunk;
+        if (chunk != null && chunk.key == key) return chunk;
+        chunk = chunks.get(key);
+        if (chunk == null) {
+            if (!create) return null;
+            chunk = new Chunk(key);
+            chunks.put(key, chunk);
+        }
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    public int getExploredCount() {
+        return exploredCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    // Cursor for a consumer that has just looked at the whole map
+    public long getChangeCursor() {
+        return changeCount;
+    }
+
+    // Replays every change after the cursor and returns the cursor to pass
+    // next time, or RESCAN if some were already overwritten
+    public long drainChanges(long cursor, ChangeListener listener) {
+        long end = changeCount;
+        if (cursor < 0 || end - cursor > CHANGE_CAPACITY) return RESCAN;
+        for (long i = cursor; i < end; i++) {
+            long cell = changes[(int) (i & (CHANGE_CAPACITY - 1))];
+            listener.cellChanged((int) cell, (int) (cell >>> 32));
+        }
+        // The writer may have lapped us while we were reading
+        if (changeCount - cursor > CHANGE_CAPACITY) return RESCAN;
+        return end;
+    }
+
+    private void recordChange(int x, int y) {
+        long count = changeCount;
+        changes[(int) (count & (CHANGE_CAPACITY - 1))] = ((long) y << 32) | x;
+        changeCount = count + 1;
+    }
+
+    // Converts the boolean[y][x] grid that saves held before the bitset
+    static ExplorationMap fromLegacy(boolean[][] explored, int width, int height) {
+        ExplorationMap map = new ExplorationMap(width, height);
+        for (int y = 0; y < Math.min(height, explored.length); y++) {
+            for (int x = 0; x < Math.min(width, explored[y].length); x++) {
+                if (explored[y][x]) {
+                    map.mark(x, y);
+                }
+            }
+        }
+        return map;
+    }
+
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        changes = new long[CHANGE_CAPACITY];
+    }
+}
@@ -0,0 +1,189 @@
+package com.mazegame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Which cells can be seen from a cell, by symmetric shadowcasting: each of
+// the four quadrants is scanned row by row outwards, walls split the row's
+// slope range and the open parts recurse. A floor cell is visible only if
+// its centre lies inside the visible slope range, which makes visibility
+// symmetric: A sees B exactly when B sees A. Slopes are kept as integer
+// fractions so nothing depends on floating-point ties.
+//
+// Walls never move, so results are cached per origin cell and the least
+// recently used one is dropped when the cache is full. A precomputed view
+// holds every floor cell's result up front instead; it is never written
+// after construction, so sessions playing copies of one layout can share it
+// across threads.
+public class FieldOfView {
+    private final PixelMaze maze;
+    private final int radius;
+    private final Map<Long, Visibility> cache;
+    private final Visibility[] all;
+
+    // Quadrant transforms from (depth, column) to (dx, dy): north, east, south, west
+    private static final int[] DEPTH_X = {0, 1, 0, -1};
+    private static final int[] DEPTH_Y = {-1, 0, 1, 0};
+    private static final int[] COLUMN_X = {1, 0, 1, 0};
+    private static final int[] COLUMN_Y = {0, 1, 0, 1};
+
+    public FieldOfView(PixelMaze maze, int radius, int cacheSize) {
+        this.maze = maze;
+        this.radius = radius;
+        this.cache = new LinkedHashMap<Long, Visibility>(cacheSize * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Visibility> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.all = null;
+    }
+
+    private FieldOfView(PixelMaze maze, int radius) {
+        this.maze = maze;
+        this.radius = radius;
+        this.cache = null;
+        this.all = new Visibility[maze.getWidth() * maze.getHeight()];
+        for (int y = 0; y < maze.getHeight(); y++) {
+            for (int x = 0; x < maze.getWidth(); x++) {
+                if (!isWall(x, y)) {
+                    all[y * maze.getWidth() + x] = compute(x, y);
+                }
+            }
+        }
+    }
+
+    // Every floor cell of a grid maze computed once; valid for any maze with
+    // the same walls, whatever its items
+    public static FieldOfView precomputed(PixelMaze maze, int radius) {
+        return new FieldOfView(maze, radius);
+    }
+
+    public Visibility from(int originX, int originY) {
+        if (all != null) {
+            Visibility visibility = all[originY * maze.getWidth() + originX];
+            // Wall cells are only ever asked for by something stuck in one
+            return visibility != null ? visibility : compute(originX, originY);
+        }
+        // Streamed worlds can have more than 2^31 cells, so no y * width + x
+        Long key = ((long) originY << 32) | originX;
+        Visibility visibility = cache.get(key);
+        if (visibility == null) {
+            visibility = compute(originX, originY);
+            cache.put(key, visibility);
+        }
+        return visibility;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    private Visibility compute(int originX, int originY) {
+        Visibility visibility = new Visibility(originX, originY, radius);
+        visibility.add(0, 0);
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            scan(visibility, quadrant, 1, -1, 1, 1, 1);
+        }
+        return visibility;
+    }
+
+    // One row of a quadrant: columns whose centres lie within the slope
+    // range startNum/startDen .. endNum/endDen (both denominators positive)
+    private void scan(Visibility visibility, int quadrant, int depth,
+                      int startNum, int startDen, int endNum, int endDen) {
+        if (depth > radius) return;
+
+        int minColumn = Math.floorDiv(2 * depth * startNum + startDen, 2 * startDen);  // round ties up
+        int maxColumn = -Math.floorDiv(endDen - 2 * depth * endNum, 2 * endDen);      // round ties down
+        int previous = -1; // -1 nothing yet, 0 floor, 1 wall
+
+        for (int column = minColumn; column <= maxColumn; column++) {
+            int dx = DEPTH_X[quadrant] * depth + COLUMN_X[quadrant] * column;
+            int dy = DEPTH_Y[quadrant] * depth + COLUMN_Y[quadrant] * column;
+            boolean wall = isWall(visibility.originX + dx, visibility.originY + dy);
+
+            boolean symmetric = (long) column * startDen >= (long) depth * startNum
+                    && (long) column * endDen <= (long) depth * endNum;
+            if ((wall || symmetric) && dx * dx + dy * dy <= radius * radius + radius) {
+                visibility.add(dx, dy);
+            }
+
+            if (previous == 1 && !wall) {
+                // Leaving a wall: the next row starts at this cell's left edge
+                startNum = 2 * column - 1;
+                startDen = 2 * depth;
+            }
+            if (previous == 0 && wall) {
+                // Entering a wall: the open part so far continues past it
+                scan(visibility, quadrant, depth + 1, startNum, startDen, 2 * column - 1, 2 * depth);
+            }
+            previous = wall ? 1 : 0;
+        }
+        if (previous == 0) {
+            scan(visibility, quadrant, depth + 1, startNum, startDen, endNum, endDen);
+        }
+    }
+
+    private boolean isWall(int x, int y) {
+        if (x < 0 || y < 0 || x >= maze.getWidth() || y >= maze.getHeight()) return true;
+        return maze.getTile(x, y) == '#';
+    }
+
+    // Cells visible from one origin: a bitset over the square of side
+    // 2 * radius + 1 around it for lookups, and a list for walking them
+    public static final class Visibility {
+        private final int originX, originY, radius, side;
+        private final long[] bits;
+        private int[] cells;
+        private int count;
+
+        Visibility(int originX, int originY, int radius) {
+            this.originX = originX;
+            this.originY = originY;
+            this.radius = radius;
+            this.side = 2 * radius + 1;
+            this.bits = new long[(side * side + 63) >>> 6];
+            this.cells = new int[32];
+        }
+
+        private void add(int dx, int dy) {
+            int bit = (dy + radius) * side + dx + radius;
+            long mask = 1L << bit;
+            if ((bits[bit >>> 6] & mask) != 0) return;
+            bits[bit >>> 6] |= mask;
+            if (count == cells.length) {
+                cells = java.util.Arrays.copyOf(cells, count * 2);
+            }
+            cells[count++] = bit;
+        }
+
+        public boolean contains(int x, int y) {
+            int dx = x - originX;
+            int dy = y - originY;
+            if (dx < -radius || dx > radius || dy < -radius || dy > radius) return false;
+            int bit = (dy + radius) * side + dx + radius;
+            return (bits[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public int cellX(int i) {
+            return originX + cells[i] % side - radius;
+        }
+
+        public int cellY(int i) {
+            return originY + cells[i] / side - radius;
+        }
+
+        public int getOriginX() {
+            return originX;
+        }
+
+        public int getOriginY() {
+            return originY;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.mazegame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Cooperative scheduler for work that may span many ticks. A job does one
+// small slice per step() call; runFrame() steps jobs, most urgent first,
+// until the frame's time budget is spent. At least one slice runs per frame
+// so nothing stalls outright, and a job that gets no slice ages: every
+// AGING_FRAMES it waits it climbs one priority level, so low-priority work
+// still runs under a steady stream of high-priority work.
+// Not thread-safe: submit and run from the game loop only.
+public class FrameScheduler {
+    public enum Priority { HIGH, NORMAL, LOW }
+
+    public interface Job {
+        // Does one slice of work; false once the job is finished
+        boolean step();
+    }
+
+    private static final int AGING_FRAMES = 30;
+
+    private static final class Entry {
+        final String name;
+        final Job job;
+        final Priority priority;
+        int waitedFrames;
+
+        Entry(String name, Job job, Priority priority) {
+            this.name = name;
+            this.job = job;
+            this.priority = priority;
+        }
+
+        int rank() {
+            return priority.ordinal() * AGING_FRAMES - waitedFrames;
+        }
+    }
+
+    private final long budgetNanos;
+    private final List<Entry> entries = new ArrayList<>();
+
+    // Last frame's report
+    private long lastNanos;
+    private int lastSlices;
+    private int lastUnrun;
+    private int longestWait;
+
+    public FrameScheduler(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    public void submit(String name, Priority priority, Job job) {
+        entries.add(new Entry(name, job, priority));
+    }
+
+    public boolean isScheduled(Job job) {
+        for (Entry entry : entries) {
+            if (entry.job == job) return true;
+        }
+        return false;
+    }
+
+    public void cancel(Job job) {
+        entries.removeIf(entry -> entry.job == job);
+    }
+
+    public void runFrame() {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        sortByRank();
+
+        int slices = 0;
+        int unrun = 0;
+        longestWait = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (slices > 0 && System.nanoTime() >= deadline) {
+                entry.waitedFrames++;
+                longestWait = Math.max(longestWait, entry.waitedFrames);
+                unrun++;
+                continue;
+            }
+            entry.waitedFrames = 0;
+            boolean more;
+            do {
+                more = entry.job.step();
+                slices++;
+            } while (more && System.nanoTime() < deadline);
+            if (!more) {
+                entries.remove(i--);
+            }
+        }
+
+        lastNanos = System.nanoTime() - start;
+        lastSlices = slices;
+        lastUnrun = unrun;
+    }
+
+    // Insertion sort: a handful of jobs, mostly in order from the last frame
+    private void sortByRank() {
+        for (int i = 1; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            int j = i - 1;
+            while (j >= 0 && entries.get(j).rank() > entry.rank()) {
+                entries.set(j + 1, entries.get(j));
+                j--;
+            }
+            entries.set(j + 1, entry);
+        }
+    }
+
+    public int getPendingJobs() {
+        return entries.size();
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    public int getLastSlices() {
+        return lastSlices;
+    }
+
+    // Jobs that wanted a slice last frame but the budget ran out first
+    public int getLastUnrun() {
+        return lastUnrun;
+    }
+
+    // What was left over after the last frame, e.g.
+    // "1.95/2.00 ms, 41 slices, 2 jobs left (far-enemies waited 3 frames)"
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%.2f/%.2f ms, %d slices, %d jobs left",
+                lastNanos / 1e6, budgetNanos / 1e6, lastSlices, entries.size()));
+        if (lastUnrun > 0) {
+            for (Entry entry : entries) {
+                if (entry.waitedFrames == longestWait) {
+                    report.append(" (").append(entry.name).append(" waited ")
+                            .append(longestWait).append(" frames)");
+                    break;
+                }
+            }
+        }
+        return report.toString();
+    }
+}
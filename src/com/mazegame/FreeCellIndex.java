@@ -0,0 +1,57 @@
+package com.mazegame;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Set of open floor cells (packed as y * width + x) with O(1) add, remove and
+// uniform random pick. cells[0..size) holds the members in no particular order;
+// position[cell] is where a cell sits in that prefix, or -1 when absent.
+// Removal swaps the last member into the freed slot.
+public class FreeCellIndex {
+    private final int[] cells;
+    private final int[] position;
+    private int size;
+
+    public FreeCellIndex(int cellCount) {
+        cells = new int[cellCount];
+        position = new int[cellCount];
+        Arrays.fill(position, -1);
+    }
+
+    public boolean add(int cell) {
+        if (position[cell] >= 0) return false;
+        position[cell] = size;
+        cells[size++] = cell;
+        return true;
+    }
+
+    public boolean remove(int cell) {
+        int slot = position[cell];
+        if (slot < 0) return false;
+        int last = cells[--size];
+        cells[slot] = last;
+        position[last] = slot;
+        position[cell] = -1;
+        return true;
+    }
+
+    public boolean contains(int cell) {
+        return position[cell] >= 0;
+    }
+
+    // Removes and returns a uniformly chosen cell, or -1 when empty
+    public int takeRandom(Random random) {
+        if (size == 0) return -1;
+        int cell = cells[random.nextInt(size)];
+        remove(cell);
+        return cell;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
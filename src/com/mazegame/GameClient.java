@@ -0,0 +1,496 @@
+package com.mazegame;
+
+import javax.swing.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Connects to a GameServer and keeps the latest frames it sends. One thread
+// runs a java.nio Selector over the TCP and UDP channels and sends the
+// current input every tick. The EDT draws the world TICKS_BEHIND ticks in
+// the past, interpolating between the two frames either side of that time,
+// so it moves smoothly even though frames arrive every other tick and
+// sometimes not at all. The local player is interpolated too (no
+// prediction), so input shows up one round trip plus the delay later.
+// Run with java com.mazegame.GameClient [host] [port] [character]
+public class GameClient implements Runnable, PixelGameController.Remote {
+    // How far behind the newest frame the view runs: covers one lost frame
+    private static final double TICKS_BEHIND = 3.0 * GameServer.SNAPSHOT_INTERVAL;
+    // Clock error beyond which the view jumps instead of easing back
+    private static final double RESYNC_TICKS = 30;
+    private static final double CLOCK_CORRECTION = 0.1;
+
+    private final Selector selector;
+    private final SocketChannel control;
+    private final DatagramChannel udp;
+    private ByteBuffer inbox = ByteBuffer.allocate(64 * 1024);
+    private final ByteBuffer datagram = ByteBuffer.allocateDirect(64 * 1024);
+    private final BitReader bits = new BitReader();
+    private final CountDownLatch welcomed = new CountDownLatch(1);
+    private volatile boolean running = true;
+
+    private int playerId;
+    private long token;
+    private volatile PixelMaze maze;
+    private volatile PixelGameController view;
+    private volatile boolean gameOver;
+    private volatile boolean exitReached;
+
+    // Input, written by the UI or a bot, read by the network thread
+    private volatile int keyBits;
+    private int throwSeq, throwX, throwY;
+    private int inputSeq;
+
+    // Received frames by seq; guarded by itself (network thread writes, EDT reads)
+    private final NetFrame[] history = new NetFrame[GameServer.HISTORY];
+    private int latestSeq;
+    private int latestTick;
+    private long latestArrival;
+    private double renderTick;
+    private long lastFill;
+
+    // Sprite sources for drawing networked state, made on first use
+    private final PixelPlayer[] characters = new PixelPlayer[3];
+    private final PixelEnemy[] enemyTypes = new PixelEnemy[4];
+    private final Projectile[][] projectileTypes = new Projectile[2][4];
+
+    public GameClient(String host, int tcpPort, int characterIndex) throws IOException {
+        for (int i = 0; i < history.length; i++) {
+            history[i] = new NetFrame();
+        }
+        selector = Selector.open();
+        control = SocketChannel.open(new InetSocketAddress(host, tcpPort));
+        control.socket().setTcpNoDelay(true);
+        control.configureBlocking(false);
+        control.register(selector, SelectionKey.OP_READ);
+        udp = DatagramChannel.open();
+        udp.configureBlocking(false);
+
+        ByteBuffer hello = ByteBuffer.allocate(9);
+        hello.putInt(5).put(GameServer.HELLO).putInt(characterIndex).flip();
+        while (hello.hasRemaining()) {
+            control.write(hello);
+        }
+    }
+
+    // Blocks until the server has sent the maze; false on timeout
+    public boolean awaitWelcome(long timeoutMillis) throws InterruptedException {
+        return welcomed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public PixelMaze getMaze() {
+        return maze;
+    }
+
+    // The controller a PixelMazePanel draws from; available after the welcome
+    public PixelGameController getView() {
+        return view;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isExitReached() {
+        return exitReached;
+    }
+
+    // keys as in PixelPlayer.update: up, down, left, right
+    public void setKeys(boolean[] keys) {
+        keyBits = (keys[0] ? 1 : 0) | (keys[1] ? 2 : 0) | (keys[2] ? 4 : 0) | (keys[3] ? 8 : 0);
+    }
+
+    @Override
+    public synchronized void throwAt(int worldX, int worldY) {
+        throwSeq++;
+        throwX = worldX;
+        throwY = worldY;
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        try {
+            while (running) {
+                long wait = nextTick - System.nanoTime();
+                if (wait > 1_000_000) {
+                    selector.select(wait / 1_000_000);
+                } else {
+                    selector.selectNow();
+                }
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (!key.isValid() || !key.isReadable()) continue;
+                    if (key.channel() == control) {
+                        readControl();
+                    } else {
+                        receiveFrames();
+                    }
+                }
+
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    if (maze != null && !gameOver) {
+                        sendInput();
+                    }
+                    nextTick = Math.max(nextTick + GameServer.TICK_NANOS, now - GameServer.TICK_NANOS);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Disconnected from server: " + e.getMessage());
+        } finally {
+            try {
+                control.close();
+                udp.close();
+                selector.close();
+            } catch (IOException ignored) {
+            }
+            running = false;
+        }
+    }
+
+    private void readControl() throws IOException {
+        if (control.read(inbox) < 0) {
+            throw new IOException("server closed the connection");
+        }
+        inbox.flip();
+        while (inbox.remaining() >= 4) {
+            int length = inbox.getInt(inbox.position());
+            if (inbox.remaining() < 4 + length) {
+                // Big mazes can outgrow the buffer in one welcome
+                if (4 + length > inbox.capacity()) {
+                    ByteBuffer grown = ByteBuffer.allocate(4 + length);
+                    grown.put(inbox);
+                    inbox = grown;
+                    return;
+                }
+                break;
+            }
+            inbox.getInt();
+            int end = inbox.position() + length;
+            switch (inbox.get()) {
+                case GameServer.WELCOME:
+                    readWelcome();
+                    break;
+                case GameServer.TILE: {
+                    int cellX = inbox.getInt();
+                    int cellY = inbox.getInt();
+                    // Tiles are read live by the panel; a single-cell write, as in local play
+                    maze.clearItem(cellX, cellY);
+                    wakeView();
+                    break;
+                }
+                case GameServer.GAME_OVER:
+                    exitReached = inbox.get() != 0;
+                    gameOver = true;
+                    System.out.println(exitReached ? "Exit reached! Game over." : "Everyone died! Game over.");
+                    break;
+                default:
+                    break;
+            }
+            inbox.position(end);
+        }
+        inbox.compact();
+    }
+
+    private void readWelcome() throws IOException {
+        playerId = inbox.getInt();
+        token = inbox.getLong();
+        int udpPort = inbox.getInt();
+        int width = inbox.getInt();
+        int height = inbox.getInt();
+        int startX = inbox.getInt();
+        int startY = inbox.getInt();
+        int exitX = inbox.getInt();
+        int exitY = inbox.getInt();
+        int difficulty = inbox.getInt();
+        byte[] packed = new byte[inbox.getInt()];
+        inbox.get(packed);
+
+        byte[] cells = new byte[width * height];
+        Inflater inflater = new Inflater();
+        inflater.setInput(packed);
+        try {
+            int read = 0;
+            while (read < cells.length && !inflater.finished()) {
+                read += inflater.inflate(cells, read, cells.length - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt maze from server", e);
+        } finally {
+            inflater.end();
+        }
+        char[][] grid = new char[height][width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                grid[y][x] = (char) cells[y * width + x];
+            }
+        }
+
+        udp.connect(new InetSocketAddress(((InetSocketAddress) control.getRemoteAddress()).getAddress(), udpPort));
+        udp.register(selector, SelectionKey.OP_READ);
+        maze = PixelMaze.fromGrid(grid, startX, startY, exitX, exitY, difficulty);
+        view = new PixelGameController(maze, this);
+        System.out.println("Joined as player " + playerId + " on a " + width + "x" + height + " maze");
+        welcomed.countDown();
+    }
+
+    private void receiveFrames() throws IOException {
+        while (true) {
+            datagram.clear();
+            if (udp.receive(datagram) == null) return;
+            datagram.flip();
+            bits.reset(datagram);
+            synchronized (history) {
+                NetFrame frame = null;
+                try {
+                    int seq = NetFrame.peekSeq(bits);
+                    // Late arrivals are dropped; newer frames already cover them
+                    if (latestSeq != 0 && seq - latestSeq <= 0) continue;
+                    frame = history[Integer.remainderUnsigned(seq, history.length)];
+                    if (!frame.decode(seq, bits, history)) continue;
+                    latestSeq = seq;
+                    latestTick = frame.tick;
+                    latestArrival = System.nanoTime();
+                    wakeView();
+                } catch (IllegalStateException e) {
+                    // Truncated datagram: the slot may be half written, so forget it
+                    if (frame != null) frame.seq = 0;
+                }
+            }
+        }
+    }
+
+    private void wakeView() {
+        PixelGameController current = view;
+        if (current != null) {
+            current.requestRender();
+        }
+    }
+
+    private void sendInput() throws IOException {
+        ByteBuffer input = datagram;
+        input.clear();
+        int ack;
+        synchronized (history) {
+            ack = latestSeq;
+        }
+        input.putInt(playerId).putLong(token).putInt(++inputSeq).putInt(ack).put((byte) keyBits);
+        synchronized (this) {
+            input.putInt(throwSeq).putInt(throwX).putInt(throwY);
+        }
+        input.flip();
+        udp.write(input);
+    }
+
+    // Where the local player is in the newest frame; false before the first one
+    public boolean getOwnPosition(float[] out) {
+        synchronized (history) {
+            if (latestSeq == 0) return false;
+            NetFrame frame = history[Integer.remainderUnsigned(latestSeq, history.length)];
+            int row = frame.find(NetFrame.PLAYERS, frame.localPlayerId, 0);
+            if (row < 0) return false;
+            int at = row * NetFrame.stride(NetFrame.PLAYERS);
+            out[0] = (float) frame.fields[NetFrame.PLAYERS][at + NetFrame.X] / NetFrame.POSITION_SCALE;
+            out[1] = (float) frame.fields[NetFrame.PLAYERS][at + NetFrame.Y] / NetFrame.POSITION_SCALE;
+            return true;
+        }
+    }
+
+    @Override
+    public void fill(WorldSnapshot snapshot) {
+        synchronized (history) {
+            if (latestSeq == 0) return;
+
+            // Server tick to draw: newest tick plus the time since it came in,
+            // minus the delay; eased towards that so jitter doesn't show
+            long now = System.nanoTime();
+            double target = latestTick + (double) (now - latestArrival) / GameServer.TICK_NANOS - TICKS_BEHIND;
+            if (lastFill == 0 || Math.abs(target - renderTick) > RESYNC_TICKS) {
+                renderTick = target;
+            } else {
+                renderTick += (double) (now - lastFill) / GameServer.TICK_NANOS;
+                renderTick += (target - renderTick) * CLOCK_CORRECTION;
+            }
+            lastFill = now;
+
+            NetFrame from = null, to = null;
+            for (NetFrame frame : history) {
+                if (frame.seq == 0 || latestSeq - frame.seq >= history.length) continue;
+                if (frame.tick <= renderTick) {
+                    if (from == null || frame.tick > from.tick) from = frame;
+                } else if (to == null || frame.tick < to.tick) {
+                    to = frame;
+                }
+            }
+            if (from == null) from = to;
+            if (to == null) to = from;
+            float t = to == from ? 1f : (float) ((renderTick - from.tick) / (to.tick - from.tick));
+
+            emitPlayers(snapshot, from, to, t);
+            emitEnemies(snapshot, from, to, t);
+            emitProjectiles(snapshot, from, to, t);
+        }
+    }
+
+    private void emitPlayers(WorldSnapshot snapshot, NetFrame from, NetFrame to, float t) {
+        int kind = NetFrame.PLAYERS;
+        int[] row = to.fields[kind];
+        for (int i = 0; i < to.count[kind]; i++) {
+            int at = i * NetFrame.stride(kind);
+            float x = lerp(from, to, kind, i, NetFrame.X, t);
+            float y = lerp(from, to, kind, i, NetFrame.Y, t);
+            int look = row[at + NetFrame.LOOK];
+            PixelPlayer character = character(NetFrame.lookVariant(look));
+            Sprite sprite = character.getFrame(NetFrame.lookFacing(look), NetFrame.lookFrame(look));
+            int flags = row[at + NetFrame.FLAGS];
+            if (to.ids[kind][i] == to.localPlayerId) {
+                snapshot.setPlayer(x, y, character.getWidth(), character.getHeight(), sprite, row[at + NetFrame.LIVES],
+                        (flags & NetFrame.FLAG_INVULNERABLE) != 0, false);
+            } else if ((flags & NetFrame.FLAG_ALIVE) != 0) {
+                snapshot.addPartner(x, y, character.getWidth(), character.getHeight(), sprite);
+            }
+        }
+    }
+
+    private void emitEnemies(WorldSnapshot snapshot, NetFrame from, NetFrame to, float t) {
+        int kind = NetFrame.ENEMIES;
+        int[] row = to.fields[kind];
+        for (int i = 0; i < to.count[kind]; i++) {
+            int at = i * NetFrame.stride(kind);
+            int look = row[at + NetFrame.LOOK];
+            PixelEnemy type = enemyType(NetFrame.lookVariant(look));
+            snapshot.addEnemy(lerp(from, to, kind, i, NetFrame.X, t), lerp(from, to, kind, i, NetFrame.Y, t),
+                    type.getWidth(), type.getHeight(), row[at + NetFrame.HEALTH], row[at + NetFrame.MAX_HEALTH],
+                    row[at + NetFrame.FLASHING] != 0,
+                    type.getFrame(NetFrame.lookFacing(look), NetFrame.lookFrame(look)));
+        }
+    }
+
+    private void emitProjectiles(WorldSnapshot snapshot, NetFrame from, NetFrame to, float t) {
+        int kind = NetFrame.PROJECTILES;
+        int[] row = to.fields[kind];
+        for (int i = 0; i < to.count[kind]; i++) {
+            int look = row[i * NetFrame.stride(kind) + NetFrame.LOOK];
+            Projectile type = projectileType(NetFrame.lookVariant(look), NetFrame.lookFacing(look));
+            snapshot.addProjectile(lerp(from, to, kind, i, NetFrame.X, t), lerp(from, to, kind, i, NetFrame.Y, t),
+                    type.getWidth(), type.getHeight(), type.getSprite());
+        }
+    }
+
+    // A field of entity i of `to`, blended with the same entity in `from`
+    // if it was there too, in pixels
+    private static float lerp(NetFrame from, NetFrame to, int kind, int i, int field, float t) {
+        int stride = NetFrame.stride(kind);
+        float b = to.fields[kind][i * stride + field];
+        int j = from == to ? -1 : from.find(kind, to.ids[kind][i], 0);
+        if (j < 0) return b / NetFrame.POSITION_SCALE;
+        float a = from.fields[kind][j * stride + field];
+        return (a + (b - a) * t) / NetFrame.POSITION_SCALE;
+    }
+
+    private PixelPlayer character(int characterType) {
+        int index = Math.floorMod(characterType, characters.length);
+        if (characters[index] == null) {
+            characters[index] = new PixelPlayer(index);
+        }
+        return characters[index];
+    }
+
+    private PixelEnemy enemyType(int type) {
+        int index = Math.floorMod(type, enemyTypes.length);
+        if (enemyTypes[index] == null) {
+            enemyTypes[index] = new PixelEnemy(0, 0, index);
+        }
+        return enemyTypes[index];
+    }
+
+    private Projectile projectileType(int spell, Direction direction) {
+        Projectile[] types = projectileTypes[spell & 1];
+        if (types[direction.ordinal()] == null) {
+            types[direction.ordinal()] = new Projectile(0, 0, direction, spell != 0 ? "spell" : "blade");
+        }
+        return types[direction.ordinal()];
+    }
+
+    public static void main(String[] args) throws Exception {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 5555;
+        int character = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        GameClient client = new GameClient(host, port, character);
+        Thread network = new Thread(client, "game-client");
+        network.setDaemon(true);
+        network.start();
+        if (!client.awaitWelcome(10_000)) {
+            System.out.println("No answer from " + host + ":" + port);
+            System.exit(1);
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("The Maze - co-op");
+            PixelMazePanel panel = new PixelMazePanel(client.getView());
+            client.getView().setMazePanel(panel);
+            frame.setContentPane(panel);
+            frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+
+            boolean[] keys = new boolean[4];
+            panel.addKeyListener(new KeyAdapter() {
+                @Override
+                public void keyPressed(KeyEvent e) {
+                    setKey(e.getKeyCode(), true);
+                }
+
+                @Override
+                public void keyReleased(KeyEvent e) {
+                    setKey(e.getKeyCode(), false);
+                }
+
+                private void setKey(int keyCode, boolean down) {
+                    switch (keyCode) {
+                        case KeyEvent.VK_UP: case KeyEvent.VK_W: keys[0] = down; break;
+                        case KeyEvent.VK_DOWN: case KeyEvent.VK_S: keys[1] = down; break;
+                        case KeyEvent.VK_LEFT: case KeyEvent.VK_A: keys[2] = down; break;
+                        case KeyEvent.VK_RIGHT: case KeyEvent.VK_D: keys[3] = down; break;
+                        default: return;
+                    }
+                    client.setKeys(keys);
+                }
+            });
+            panel.requestFocusInWindow();
+
+            Timer gameOverCheck = new Timer(250, null);
+            gameOverCheck.addActionListener(e -> {
+                if (!client.isGameOver()) return;
+                gameOverCheck.stop();
+                client.getView().stopGame();
+                JOptionPane.showMessageDialog(frame, client.isExitReached() ? "Exit reached!" : "Everyone died!");
+                panel.stopRendering();
+                frame.dispose();
+                client.stop();
+            });
+            gameOverCheck.start();
+        });
+    }
+}
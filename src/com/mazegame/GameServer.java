@@ -0,0 +1,558 @@
+package com.mazegame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+// Headless host for a co-op game: one PixelGameController simulated at a
+// fixed rate for every connected player, all on one thread driven by a
+// java.nio Selector. Two channels:
+//  - TCP, for control: join handshake and maze download, item pickups and
+//    game over. Messages are [int length][byte type][payload].
+//  - UDP, for state: each client sends its input every tick and gets a
+//    NetFrame every SNAPSHOT_INTERVAL ticks, delta-compressed against the
+//    last frame it acknowledged. Lost datagrams are never resent; the next
+//    frame simply deltas against an older baseline.
+// Run with java com.mazegame.GameServer [port] [size] [difficulty]
+public class GameServer implements Runnable {
+    // Same step as the local game loop's 16 ms timer
+    static final long TICK_NANOS = 16_000_000;
+    static final int SNAPSHOT_INTERVAL = 2;
+    // Frames kept per client (and by the client) to delta against
+    static final int HISTORY = 32;
+
+    // TCP message types
+    static final byte HELLO = 1;       // client: [int character]
+    static final byte WELCOME = 2;     // server: [int playerId][long token][int udpPort][maze]
+    static final byte TILE = 3;        // server: [int x][int y], an item was picked up
+    static final byte GAME_OVER = 4;   // server: [byte exitReached]
+
+    // UDP input: [int playerId][long token][int inputSeq][int ackSeq][byte keys]
+    //            [int throwSeq][int throwX][int throwY]
+    static final int INPUT_SIZE = 33;
+
+    // Area sent around each client's player, as in the local game's snapshots
+    private static final int VIEW_HALF_WIDTH = 800;
+    private static final int VIEW_HALF_HEIGHT = 600;
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final PixelGameController controller;
+    private final PixelMaze maze;
+    private final Selector selector;
+    private final ServerSocketChannel acceptor;
+    private final DatagramChannel udp;
+    private final SecureRandom tokens = new SecureRandom();
+
+    private final List<Session> sessions = new ArrayList<>();
+    // updatePlayers' arguments, index-aligned with the sessions that have joined
+    private final List<PixelPlayer> players = new ArrayList<>();
+    private final List<boolean[]> playerKeys = new ArrayList<>();
+
+    // Stable wire ids; enemies are numbered once, projectiles re-mapped every tick
+    private final Map<PixelEnemy, Integer> enemyIds = new IdentityHashMap<>();
+    private Map<Projectile, Integer> projectileIds = new IdentityHashMap<>();
+    private Map<Projectile, Integer> nextProjectileIds = new IdentityHashMap<>();
+    private int nextEnemyId;
+    private int nextProjectileId;
+    private int nextPlayerId;
+
+    private final ByteBuffer datagram = ByteBuffer.allocateDirect(64 * 1024);
+    private final BitWriter bits = new BitWriter(2048);
+    private int tick;
+    private boolean finished;
+    private volatile boolean running = true;
+
+    // Read by ServerLoadTest from its own thread
+    private volatile long serverThreadId = -1;
+    private volatile long ticks;
+    private volatile long snapshotsSent;
+    private volatile long snapshotBytes;
+
+    public GameServer(PixelGameController controller, int port) throws IOException {
+        this(controller, port, port);
+    }
+
+    // Port 0 picks a free port; see getTcpPort/getUdpPort
+    public GameServer(PixelGameController controller, int tcpPort, int udpPort) throws IOException {
+        this.controller = controller;
+        this.maze = controller.getMaze();
+        if (maze.getGrid() == null) {
+            throw new IllegalArgumentException("Streamed mazes can't be sent to clients");
+        }
+        this.selector = Selector.open();
+        this.acceptor = ServerSocketChannel.open();
+        acceptor.bind(new InetSocketAddress(tcpPort));
+        acceptor.configureBlocking(false);
+        acceptor.register(selector, SelectionKey.OP_ACCEPT);
+        this.udp = DatagramChannel.open();
+        udp.bind(new InetSocketAddress(udpPort));
+        udp.configureBlocking(false);
+        udp.register(selector, SelectionKey.OP_READ);
+
+        for (PixelEnemy enemy : controller.getEnemies()) {
+            enemyIds.put(enemy, nextEnemyId++);
+        }
+        controller.setPickupListener(this::broadcastPickup);
+        controller.startHosted(true);
+    }
+
+    public int getTcpPort() {
+        return ((InetSocketAddress) acceptor.socket().getLocalSocketAddress()).getPort();
+    }
+
+    public int getUdpPort() {
+        return udp.socket().getLocalPort();
+    }
+
+    public void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        serverThreadId = Thread.currentThread().getId();
+        System.out.println("Game server on TCP " + getTcpPort() + ", UDP " + getUdpPort());
+        long nextTick = System.nanoTime();
+        try {
+            while (running) {
+                long wait = nextTick - System.nanoTime();
+                if (wait > 1_000_000) {
+                    selector.select(wait / 1_000_000);
+                } else {
+                    selector.selectNow();
+                }
+                handleSelected();
+
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    tick();
+                    nextTick += TICK_NANOS;
+                    // Fell far behind (GC, debugger): drop the missed ticks instead of bursting
+                    if (now - nextTick > MAX_CATCH_UP_TICKS * TICK_NANOS) {
+                        nextTick = now + TICK_NANOS;
+                    }
+                }
+                if (finished && sessions.isEmpty()) {
+                    running = false;
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Game server stopped: " + e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    private void handleSelected() throws IOException {
+        Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+        while (selected.hasNext()) {
+            SelectionKey key = selected.next();
+            selected.remove();
+            if (!key.isValid()) continue;
+
+            if (key.isAcceptable()) {
+                accept();
+            } else if (key.channel() == udp) {
+                receiveInputs();
+            } else {
+                Session session = (Session) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        readControl(session);
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        flush(session);
+                    }
+                } catch (IOException e) {
+                    disconnect(session);
+                }
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = acceptor.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session(nextPlayerId++, tokens.nextLong(), channel);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            sessions.add(session);
+        }
+    }
+
+    private void readControl(Session session) throws IOException {
+        if (session.channel.read(session.inbox) < 0) {
+            disconnect(session);
+            return;
+        }
+        session.inbox.flip();
+        while (session.inbox.remaining() >= 4) {
+            int length = session.inbox.getInt(session.inbox.position());
+            if (length < 1 || length > session.inbox.capacity() - 4) {
+                throw new IOException("Bad message length " + length);
+            }
+            if (session.inbox.remaining() < 4 + length) break;
+            session.inbox.getInt();
+            int end = session.inbox.position() + length;
+            byte type = session.inbox.get();
+            if (type == HELLO && session.player == null && !finished) {
+                join(session, session.inbox.getInt());
+            }
+            session.inbox.position(end);
+        }
+        session.inbox.compact();
+    }
+
+    private void join(Session session, int characterIndex) throws IOException {
+        PixelPlayer player = new PixelPlayer(Math.floorMod(characterIndex, 3));
+        player.setPosition(maze.getStartPixelX(), maze.getStartPixelY());
+        session.player = player;
+        players.add(player);
+        playerKeys.add(session.keys);
+
+        byte[] cells = new byte[maze.getWidth() * maze.getHeight()];
+        char[][] grid = maze.getGrid();
+        for (int y = 0; y < maze.getHeight(); y++) {
+            for (int x = 0; x < maze.getWidth(); x++) {
+                cells[y * maze.getWidth() + x] = (byte) grid[y][x];
+            }
+        }
+        ByteArrayOutputStream packed = new ByteArrayOutputStream(cells.length / 4);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(packed, new Deflater(Deflater.BEST_SPEED))) {
+            out.write(cells);
+        }
+        int packedLength = packed.size();
+
+        ByteBuffer message = ByteBuffer.allocate(4 + 1 + 4 + 8 + 4 + 7 * 4 + 4 + packedLength);
+        message.putInt(message.capacity() - 4).put(WELCOME);
+        message.putInt(session.id).putLong(session.token).putInt(getUdpPort());
+        message.putInt(maze.getWidth()).putInt(maze.getHeight())
+                .putInt(maze.getStartX()).putInt(maze.getStartY())
+                .putInt(maze.getExitX()).putInt(maze.getExitY())
+                .putInt(maze.getDifficulty());
+        message.putInt(packedLength).put(packed.toByteArray());
+        message.flip();
+        send(session, message);
+        System.out.println("Player " + session.id + " joined as character " + characterIndex
+                + " (" + players.size() + " playing)");
+    }
+
+    private void receiveInputs() throws IOException {
+        SocketAddress from;
+        while (true) {
+            datagram.clear();
+            from = udp.receive(datagram);
+            if (from == null) return;
+            datagram.flip();
+            if (datagram.remaining() < INPUT_SIZE) continue;
+
+            Session session = sessionById(datagram.getInt());
+            if (session == null || session.player == null || datagram.getLong() != session.token) continue;
+            int inputSeq = datagram.getInt();
+            int ackSeq = datagram.getInt();
+            int keys = datagram.get();
+            int throwSeq = datagram.getInt();
+            int throwX = datagram.getInt();
+            int throwY = datagram.getInt();
+
+            // Follows the client if its address changes (NAT rebinding)
+            session.udpAddress = from;
+            if (ackSeq - session.ackSeq > 0) {
+                session.ackSeq = ackSeq;
+            }
+            // Datagrams can arrive out of order; only the newest input counts
+            if (inputSeq - session.inputSeq <= 0) continue;
+            session.inputSeq = inputSeq;
+            for (int i = 0; i < 4; i++) {
+                session.keys[i] = (keys & (1 << i)) != 0;
+            }
+            if (throwSeq != session.throwSeq) {
+                session.throwSeq = throwSeq;
+                if (controller.isGameOngoing() && session.player.isAlive()) {
+                    session.player.throwProjectile(throwX, throwY);
+                }
+            }
+        }
+    }
+
+    private Session sessionById(int id) {
+        for (int i = 0; i < sessions.size(); i++) {
+            if (sessions.get(i).id == id) return sessions.get(i);
+        }
+        return null;
+    }
+
+    private void tick() {
+        if (finished || players.isEmpty()) return;
+        tick++;
+        controller.updatePlayers(players, playerKeys);
+        ticks++;
+
+        if (!controller.isGameOngoing()) {
+            finished = true;
+            boolean exitReached = false;
+            for (PixelPlayer player : players) {
+                exitReached |= player.isAlive();
+            }
+            ByteBuffer message = ByteBuffer.allocate(6);
+            message.putInt(2).put(GAME_OVER).put((byte) (exitReached ? 1 : 0)).flip();
+            broadcast(message);
+        }
+
+        if (tick % SNAPSHOT_INTERVAL == 0 || finished) {
+            renumberProjectiles();
+            for (int i = 0; i < sessions.size(); i++) {
+                Session session = sessions.get(i);
+                if (session.player != null && session.udpAddress != null) {
+                    try {
+                        sendSnapshot(session);
+                    } catch (IOException e) {
+                        session.failed = true;
+                    }
+                }
+            }
+        }
+
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            if (sessions.get(i).failed) disconnect(sessions.get(i));
+        }
+    }
+
+    // Keeps the id of every projectile that is still flying and numbers the new ones
+    private void renumberProjectiles() {
+        nextProjectileIds.clear();
+        for (int i = 0; i < players.size(); i++) {
+            List<Projectile> projectiles = players.get(i).getProjectiles();
+            for (int j = 0; j < projectiles.size(); j++) {
+                Projectile projectile = projectiles.get(j);
+                Integer id = projectileIds.get(projectile);
+                nextProjectileIds.put(projectile, id != null ? id : nextProjectileId++);
+            }
+        }
+        Map<Projectile, Integer> swap = projectileIds;
+        projectileIds = nextProjectileIds;
+        nextProjectileIds = swap;
+    }
+
+    private void sendSnapshot(Session session) throws IOException {
+        int seq = session.nextSeq++;
+        NetFrame frame = session.history[Integer.remainderUnsigned(seq, HISTORY)];
+        frame.reset(seq, tick, session.id);
+
+        for (int i = 0; i < sessions.size(); i++) {
+            Session other = sessions.get(i);
+            PixelPlayer p = other.player;
+            if (p == null) continue;
+            int at = frame.add(NetFrame.PLAYERS, other.id);
+            int[] row = frame.fields[NetFrame.PLAYERS];
+            row[at + NetFrame.X] = NetFrame.position(p.getX());
+            row[at + NetFrame.Y] = NetFrame.position(p.getY());
+            row[at + NetFrame.LOOK] = NetFrame.look(p.getCharacterType(), p.getFacing(), p.getCurrentFrame());
+            row[at + NetFrame.LIVES] = p.getLives();
+            row[at + NetFrame.FLAGS] = (p.isAlive() ? NetFrame.FLAG_ALIVE : 0)
+                    | (p.isInvulnerable() ? NetFrame.FLAG_INVULNERABLE : 0);
+        }
+
+        PixelPlayer viewer = session.player;
+        float minX = viewer.getX() - VIEW_HALF_WIDTH;
+        float minY = viewer.getY() - VIEW_HALF_HEIGHT;
+        float maxX = viewer.getX() + VIEW_HALF_WIDTH;
+        float maxY = viewer.getY() + VIEW_HALF_HEIGHT;
+
+        List<PixelEnemy> enemies = controller.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            PixelEnemy enemy = enemies.get(i);
+            if (!enemy.isAlive() || enemy.getX() < minX || enemy.getX() > maxX
+                    || enemy.getY() < minY || enemy.getY() > maxY) continue;
+            Integer id = enemyIds.get(enemy);
+            if (id == null) {
+                id = nextEnemyId++;
+                enemyIds.put(enemy, id);
+            }
+            int at = frame.add(NetFrame.ENEMIES, id);
+            int[] row = frame.fields[NetFrame.ENEMIES];
+            row[at + NetFrame.X] = NetFrame.position(enemy.getX());
+            row[at + NetFrame.Y] = NetFrame.position(enemy.getY());
+            row[at + NetFrame.LOOK] = NetFrame.look(enemy.getEnemyType(), enemy.getFacing(), enemy.getCurrentFrame());
+            row[at + NetFrame.HEALTH] = enemy.getCurrentHealth();
+            row[at + NetFrame.MAX_HEALTH] = enemy.getMaxHealth();
+            row[at + NetFrame.FLASHING] = enemy.isFlashing() ? 1 : 0;
+        }
+
+        for (int i = 0; i < players.size(); i++) {
+            List<Projectile> projectiles = players.get(i).getProjectiles();
+            for (int j = 0; j < projectiles.size(); j++) {
+                Projectile projectile = projectiles.get(j);
+                if (projectile.getX() < minX || projectile.getX() > maxX
+                        || projectile.getY() < minY || projectile.getY() > maxY) continue;
+                int at = frame.add(NetFrame.PROJECTILES, projectileIds.get(projectile));
+                int[] row = frame.fields[NetFrame.PROJECTILES];
+                row[at + NetFrame.X] = NetFrame.position(projectile.getX());
+                row[at + NetFrame.Y] = NetFrame.position(projectile.getY());
+                row[at + NetFrame.LOOK] = NetFrame.look("spell".equals(projectile.getType()) ? 1 : 0,
+                        projectile.getDirection(), 0);
+            }
+        }
+        frame.sortById();
+
+        // Delta against the newest frame the client has confirmed, if it is still held
+        NetFrame baseline = null;
+        int ack = session.ackSeq;
+        if (ack != 0 && seq - ack < HISTORY) {
+            NetFrame candidate = session.history[Integer.remainderUnsigned(ack, HISTORY)];
+            if (candidate.seq == ack) baseline = candidate;
+        }
+        frame.encode(baseline, bits);
+        int sent = udp.send(bits.toBuffer(datagram), session.udpAddress);
+        snapshotsSent++;
+        snapshotBytes += sent;
+    }
+
+    private void broadcastPickup(int cellX, int cellY) {
+        ByteBuffer message = ByteBuffer.allocate(13);
+        message.putInt(9).put(TILE).putInt(cellX).putInt(cellY).flip();
+        broadcast(message);
+    }
+
+    private void broadcast(ByteBuffer message) {
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            Session session = sessions.get(i);
+            if (session.player == null) continue;
+            try {
+                send(session, message.duplicate());
+            } catch (IOException e) {
+                // Pickups are broadcast from inside updatePlayers, so the
+                // player list can't change here; dropped after the tick
+                session.failed = true;
+            }
+        }
+    }
+
+    // Writes what the socket takes now and queues the rest for OP_WRITE
+    private void send(Session session, ByteBuffer message) throws IOException {
+        if (session.outbox.remaining() < message.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(session.outbox.position() + message.remaining() + 1024);
+            session.outbox.flip();
+            grown.put(session.outbox);
+            session.outbox = grown;
+        }
+        session.outbox.put(message);
+        flush(session);
+    }
+
+    private void flush(Session session) throws IOException {
+        session.outbox.flip();
+        session.channel.write(session.outbox);
+        session.outbox.compact();
+        int ops = session.outbox.position() > 0
+                ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (session.key.interestOps() != ops) {
+            session.key.interestOps(ops);
+        }
+    }
+
+    private void disconnect(Session session) {
+        if (!sessions.remove(session)) return;
+        session.key.cancel();
+        try {
+            session.channel.close();
+        } catch (IOException ignored) {
+        }
+        if (session.player != null) {
+            int index = players.indexOf(session.player);
+            players.remove(index);
+            playerKeys.remove(index);
+            System.out.println("Player " + session.id + " left (" + players.size() + " playing)");
+        }
+    }
+
+    private void close() {
+        for (int i = sessions.size() - 1; i >= 0; i--) {
+            disconnect(sessions.get(i));
+        }
+        try {
+            acceptor.close();
+            udp.close();
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // CPU time the server thread has used so far, in nanoseconds
+    public long getCpuNanos() {
+        long id = serverThreadId;
+        return id < 0 ? 0 : ManagementFactory.getThreadMXBean().getThreadCpuTime(id);
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public long getSnapshotsSent() {
+        return snapshotsSent;
+    }
+
+    public long getSnapshotBytes() {
+        return snapshotBytes;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    private static final class Session {
+        final int id;
+        final long token;
+        final SocketChannel channel;
+        SelectionKey key;
+        boolean failed;
+        final ByteBuffer inbox = ByteBuffer.allocate(256);
+        ByteBuffer outbox = ByteBuffer.allocate(1024);
+
+        PixelPlayer player;
+        final boolean[] keys = new boolean[4];
+        SocketAddress udpAddress;
+        int inputSeq;
+        int throwSeq;
+
+        final NetFrame[] history = new NetFrame[HISTORY];
+        int nextSeq = 1;
+        int ackSeq;
+
+        Session(int id, long token, SocketChannel channel) {
+            this.id = id;
+            this.token = token;
+            this.channel = channel;
+            for (int i = 0; i < HISTORY; i++) {
+                history[i] = new NetFrame();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5555;
+        int size = args.length > 1 ? Integer.parseInt(args[1]) : 31;
+        int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        PixelGameController controller = new PixelGameController(new PixelMaze(size, size, difficulty), difficulty);
+        new GameServer(controller, port).run();
+    }
+}
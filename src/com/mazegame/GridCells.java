@@ -0,0 +1,38 @@
+package com.mazegame;
+
+// Plain in-memory storage used by mazes generated up front.
+public class GridCells implements MazeCells {
+    private static final long serialVersionUID = 1L;
+
+    private final char[][] grid;
+    private final int width, height;
+
+    public GridCells(char[][] grid) {
+        this.grid = grid;
+        this.height = grid.length;
+        this.width = height > 0 ? grid[0].length : 0;
+    }
+
+    @Override
+    public int getWidth() { return width; }
+
+    @Override
+    public int getHeight() { return height; }
+
+    @Override
+    public char get(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return '#';
+        }
+        return grid[y][x];
+    }
+
+    @Override
+    public void set(int x, int y, char tile) {
+        grid[y][x] = tile;
+    }
+
+    public char[][] getGrid() {
+        return grid;
+    }
+}
@@ -0,0 +1,92 @@
+package com.mazegame;
+
+// Plain A* over maze cells: 4-connected, unit steps, Manhattan heuristic.
+// Per-cell state is reset by bumping a query stamp instead of clearing the
+// arrays, so a query only touches the cells it expands. Optimal, but on a
+// large maze a long query can expand most of it; HierarchicalPathfinder is
+// the one to use for agents, this is its reference and fallback.
+// Not thread-safe: one instance per thread.
+public class GridPathfinder {
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final PixelMaze maze;
+    private final int width, height;
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] stamp;
+    private final IntHeap open = new IntHeap(1024);
+    private int query;
+    private int expanded;
+
+    public GridPathfinder(PixelMaze maze) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        int cells = width * height;
+        this.cost = new int[cells];
+        this.parent = new int[cells];
+        this.stamp = new int[cells];
+    }
+
+    // Cells (y * width + x) from start to goal inclusive, or null when the
+    // goal can't be reached
+    public int[] findPath(int startX, int startY, int goalX, int goalY) {
+        expanded = 0;
+        if (isBlocked(startX, startY) || isBlocked(goalX, goalY)) return null;
+
+        // Stamp q marks a cell as seen this query, q + 1 as closed
+        query += 2;
+        int start = startY * width + startX;
+        int goal = goalY * width + goalX;
+        open.clear();
+        cost[start] = 0;
+        parent[start] = -1;
+        stamp[start] = query;
+        open.push(distance(startX, startY, goalX, goalY), start);
+
+        while (!open.isEmpty()) {
+            int cell = open.pop();
+            if (stamp[cell] == query + 1) continue;
+            stamp[cell] = query + 1;
+            expanded++;
+            if (cell == goal) return trace(goal);
+
+            int x = cell % width, y = cell / width;
+            int nextCost = cost[cell] + 1;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d], ny = y + DY[d];
+                if (isBlocked(nx, ny)) continue;
+                int next = ny * width + nx;
+                if (stamp[next] == query + 1) continue;
+                if (stamp[next] == query && cost[next] <= nextCost) continue;
+                stamp[next] = query;
+                cost[next] = nextCost;
+                parent[next] = cell;
+                open.push(nextCost + distance(nx, ny, goalX, goalY), next);
+            }
+        }
+        return null;
+    }
+
+    // Cells expanded by the last query
+    public int getExpanded() {
+        return expanded;
+    }
+
+    private int[] trace(int goal) {
+        int[] path = new int[cost[goal] + 1];
+        for (int cell = goal, i = path.length - 1; cell >= 0; cell = parent[cell], i--) {
+            path[i] = cell;
+        }
+        return path;
+    }
+
+    private boolean isBlocked(int x, int y) {
+        return x < 0 || y < 0 || x >= width || y >= height || maze.getTile(x, y) == '#';
+    }
+
+    private static int distance(int x, int y, int goalX, int goalY) {
+        return Math.abs(x - goalX) + Math.abs(y - goalY);
+    }
+}
@@ -0,0 +1,504 @@
+package com.mazegame;
+
+import java.util.Arrays;
+
+// HPA*: the maze is cut into square sectors. Wherever two neighbouring
+// sectors share open cells across their border there is an entrance (one
+// per run of open cells, two for long runs), and each entrance cell is a
+// node of a small abstract graph. Nodes of one sector are joined by their
+// walking distance inside the sector, precomputed by a BFS per node;
+// entrance pairs are joined across the border at cost 1.
+//
+// A query connects start and goal to the nodes of their own sectors,
+// searches the abstract graph, and returns a Path of waypoints that is
+// only refined into cells (a BFS inside one sector) as the agent walks it.
+// Paths are optimal in the maze generators' perfect mazes, where every
+// route is unique, and near-optimal otherwise.
+//
+// When a cell changes between wall and floor, cellChanged() rebuilds that
+// sector's borders, and the node lists and edges of that sector and its
+// four neighbours; node ids elsewhere stay valid.
+// Not thread-safe: one instance per thread, or queries from one thread.
+public class HierarchicalPathfinder {
+    public static final int DEFAULT_SECTOR_SIZE = 32;
+    // Runs of open border cells at least this long get an entrance at each end
+    private static final int LONG_ENTRANCE = 6;
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final PixelMaze maze;
+    private final int width, height;
+    private final int sectorSize, sectorsX, sectorsY;
+
+    // Entrance cell pairs per border, flattened as (low side, high side):
+    // eastBorders[s] lies between sector s and s + 1, southBorders[s]
+    // between s and s + sectorsX
+    private final int[][] eastBorders;
+    private final int[][] southBorders;
+
+    // Abstract graph. A node keeps its id for as long as its cell stays an
+    // entrance, so rebuilding one sector never invalidates another's edges.
+    private final CellItemIndex nodeOfCell = new CellItemIndex(1024);
+    private int[] nodeCell = new int[1024];
+    private int[][] nodeEdges = new int[1024][];  // (target node, cost) pairs
+    private int nodeCount;
+    private int[] freeNodes = new int[64];
+    private int freeCount;
+    private final int[][] sectorNodes;
+
+    // Abstract search state, indexed by node id and reset by stamps
+    private int[] nodeCost = new int[1024];
+    private int[] nodeParent = new int[1024];
+    private int[] nodeStamp = new int[1024];
+    private int[] goalCost = new int[1024];
+    private int[] goalStamp = new int[1024];
+    private int query;
+    private final IntHeap open = new IntHeap(1024);
+    private int expanded;
+
+    // Sector-local BFS state, indexed by (y - top) * sectorSize + (x - left)
+    private final int[] localDistance;
+    private final int[] localParent;
+    private final int[] localStamp;
+    private final int[] localQueue;
+    private int localQuery;
+
+    public HierarchicalPathfinder(PixelMaze maze) {
+        this(maze, DEFAULT_SECTOR_SIZE);
+    }
+
+    public HierarchicalPathfinder(PixelMaze maze, int sectorSize) {
+        this.maze = maze;
+        this.width = maze.getWidth();
+        this.height = maze.getHeight();
+        this.sectorSize = sectorSize;
+        this.sectorsX = (width + sectorSize - 1) / sectorSize;
+        this.sectorsY = (height + sectorSize - 1) / sectorSize;
+        int sectors = sectorsX * sectorsY;
+        this.eastBorders = new int[sectors][];
+        this.southBorders = new int[sectors][];
+        this.sectorNodes = new int[sectors][];
+        int local = sectorSize * sectorSize;
+        this.localDistance = new int[local];
+        this.localParent = new int[local];
+        this.localStamp = new int[local];
+        this.localQueue = new int[local];
+
+        long start = System.nanoTime();
+        for (int s = 0; s < sectors; s++) {
+            computeBorders(s);
+        }
+        for (int s = 0; s < sectors; s++) {
+            rebuildNodes(s);
+        }
+        for (int s = 0; s < sectors; s++) {
+            rebuildEdges(s);
+        }
+        System.out.println("HPA* graph: " + sectors + " sectors of " + sectorSize + ", "
+                + (nodeCount - freeCount) + " nodes, built in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    // Call after a cell turns from wall to floor or back
+    public void cellChanged(int x, int y) {
+        int sector = sectorOf(x, y);
+        int sx = sector % sectorsX, sy = sector / sectorsX;
+        computeBorders(sector);
+        if (sx > 0) computeEastBorder(sector - 1);
+        if (sy > 0) computeSouthBorder(sector - sectorsX);
+
+        int[] affected = {sector, sx > 0 ? sector - 1 : -1, sx + 1 < sectorsX ? sector + 1 : -1,
+                sy > 0 ? sector - sectorsX : -1, sy + 1 < sectorsY ? sector + sectorsX : -1};
+        for (int s : affected) {
+            if (s >= 0) rebuildNodes(s);
+        }
+        for (int s : affected) {
+            if (s >= 0) rebuildEdges(s);
+        }
+    }
+
+    public Path findPath(int startX, int startY, int goalX, int goalY) {
+        expanded = 0;
+        if (isBlocked(startX, startY) || isBlocked(goalX, goalY)) return null;
+        int start = startY * width + startX;
+        int goal = goalY * width + goalX;
+        int startSector = sectorOf(startX, startY);
+        int goalSector = sectorOf(goalX, goalY);
+
+        if (startSector == goalSector) {
+            localSearch(startSector, start);
+            int distance = localDistanceTo(startSector, goal);
+            if (distance >= 0) {
+                return new Path(this, new int[]{start, goal}, distance);
+            }
+        }
+
+        query++;
+        ensureSearchCapacity();
+        // Walking distance from each goal-sector node to the goal
+        localSearch(goalSector, goal);
+        for (int node : sectorNodes[goalSector]) {
+            int distance = localDistanceTo(goalSector, nodeCell[node]);
+            if (distance >= 0) {
+                goalStamp[node] = query;
+                goalCost[node] = distance;
+            }
+        }
+
+        // Seed the open list with the start-sector nodes the start can reach
+        open.clear();
+        localSearch(startSector, start);
+        for (int node : sectorNodes[startSector]) {
+            int distance = localDistanceTo(startSector, nodeCell[node]);
+            if (distance >= 0) {
+                relax(node, -1, distance, goalX, goalY);
+            }
+        }
+
+        int bestCost = Integer.MAX_VALUE;
+        int bestNode = -1;
+        while (!open.isEmpty() && open.peekKey() < bestCost) {
+            int node = open.pop();
+            if (nodeStamp[node] == -query) continue;  // already closed
+            nodeStamp[node] = -query;
+            expanded++;
+
+            if (goalStamp[node] == query && nodeCost[node] + goalCost[node] < bestCost) {
+                bestCost = nodeCost[node] + goalCost[node];
+                bestNode = node;
+            }
+            int[] edges = nodeEdges[node];
+            for (int i = 0; i < edges.length; i += 2) {
+                relax(edges[i], node, nodeCost[node] + edges[i + 1], goalX, goalY);
+            }
+        }
+        if (bestNode < 0) return null;
+
+        int count = 2;
+        for (int node = bestNode; node >= 0; node = nodeParent[node]) count++;
+        int[] waypoints = new int[count];
+        waypoints[0] = start;
+        waypoints[count - 1] = goal;
+        int i = count - 2;
+        for (int node = bestNode; node >= 0; node = nodeParent[node]) {
+            waypoints[i--] = nodeCell[node];
+        }
+        return new Path(this, waypoints, bestCost);
+    }
+
+    // Abstract nodes expanded by the last query
+    public int getExpanded() {
+        return expanded;
+    }
+
+    public int getNodeCount() {
+        return nodeCount - freeCount;
+    }
+
+    private void relax(int node, int parent, int cost, int goalX, int goalY) {
+        if (nodeStamp[node] == -query) return;
+        if (nodeStamp[node] == query && nodeCost[node] <= cost) return;
+        nodeStamp[node] = query;
+        nodeCost[node] = cost;
+        nodeParent[node] = parent;
+        int cell = nodeCell[node];
+        open.push(cost + Math.abs(cell % width - goalX) + Math.abs(cell / width - goalY), node);
+    }
+
+    // Cells from one waypoint to the next, excluding the first. Consecutive
+    // waypoints are either across a border from each other or in one sector.
+    private int[] refine(int from, int to) {
+        int fromX = from % width, fromY = from / width;
+        int toX = to % width, toY = to / width;
+        if (Math.abs(fromX - toX) + Math.abs(fromY - toY) == 1) {
+            return new int[]{to};
+        }
+        int sector = sectorOf(fromX, fromY);
+        localSearch(sector, from);
+        int distance = localDistanceTo(sector, to);
+        if (distance < 0) return null;  // the maze changed under this path
+
+        int left = (sector % sectorsX) * sectorSize, top = (sector / sectorsX) * sectorSize;
+        int[] cells = new int[distance];
+        int local = (toY - top) * sectorSize + (toX - left);
+        for (int i = distance - 1; i >= 0; i--) {
+            cells[i] = (top + local / sectorSize) * width + left + local % sectorSize;
+            local = localParent[local];
+        }
+        return cells;
+    }
+
+    // BFS from a cell, confined to its sector
+    private void localSearch(int sector, int from) {
+        localQuery++;
+        int left = (sector % sectorsX) * sectorSize, top = (sector / sectorsX) * sectorSize;
+        int right = Math.min(left + sectorSize, width), bottom = Math.min(top + sectorSize, height);
+        int first = (from / width - top) * sectorSize + (from % width - left);
+        localStamp[first] = localQuery;
+        localDistance[first] = 0;
+        localParent[first] = -1;
+        localQueue[0] = first;
+        int head = 0, tail = 1;
+        while (head < tail) {
+            int local = localQueue[head++];
+            int x = left + local % sectorSize, y = top + local / sectorSize;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d], ny = y + DY[d];
+                if (nx < left || ny < top || nx >= right || ny >= bottom) continue;
+                int next = (ny - top) * sectorSize + (nx - left);
+                if (localStamp[next] == localQuery || maze.getTile(nx, ny) == '#') continue;
+                localStamp[next] = localQuery;
+                localDistance[next] = localDistance[local] + 1;
+                localParent[next] = local;
+                localQueue[tail++] = next;
+            }
+        }
+    }
+
+    // Distance found by the last localSearch, -1 if not reached
+    private int localDistanceTo(int sector, int cell) {
+        int left = (sector % sectorsX) * sectorSize, top = (sector / sectorsX) * sectorSize;
+        int local = (cell / width - top) * sectorSize + (cell % width - left);
+        return localStamp[local] == localQuery ? localDistance[local] : -1;
+    }
+
+    private void computeBorders(int sector) {
+        computeEastBorder(sector);
+        computeSouthBorder(sector);
+    }
+
+    private void computeEastBorder(int sector) {
+        int sx = sector % sectorsX, sy = sector / sectorsX;
+        if (sx + 1 >= sectorsX) {
+            eastBorders[sector] = new int[0];
+            return;
+        }
+        int x = (sx + 1) * sectorSize - 1;
+        int top = sy * sectorSize, bottom = Math.min(top + sectorSize, height);
+        eastBorders[sector] = findEntrances(x, top, 0, 1, bottom - top, 1, 0);
+    }
+
+    private void computeSouthBorder(int sector) {
+        int sx = sector % sectorsX, sy = sector / sectorsX;
+        if (sy + 1 >= sectorsY) {
+            southBorders[sector] = new int[0];
+            return;
+        }
+        int y = (sy + 1) * sectorSize - 1;
+        int left = sx * sectorSize, right = Math.min(left + sectorSize, width);
+        southBorders[sector] = findEntrances(left, y, 1, 0, right - left, 0, 1);
+    }
+
+    // Walks `length` cells along a border from (x, y) in steps of (stepX,
+    // stepY); the cell across is at offset (acrossX, acrossY)
+    private int[] findEntrances(int x, int y, int stepX, int stepY, int length, int acrossX, int acrossY) {
+        int[] pairs = new int[8];
+        int count = 0;
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            int cx = x + stepX * i, cy = y + stepY * i;
+            boolean open = i < length && !isBlocked(cx, cy) && !isBlocked(cx + acrossX, cy + acrossY);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int runEnd = i - 1;
+                int[] picks = runEnd - runStart + 1 >= LONG_ENTRANCE
+                        ? new int[]{runStart, runEnd} : new int[]{(runStart + runEnd) / 2};
+                for (int pick : picks) {
+                    if (count + 2 > pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                    int px = x + stepX * pick, py = y + stepY * pick;
+                    pairs[count++] = py * width + px;
+                    pairs[count++] = (py + acrossY) * width + px + acrossX;
+                }
+                runStart = -1;
+            }
+        }
+        return Arrays.copyOf(pairs, count);
+    }
+
+    // Makes the sector's node list match the entrance cells on its borders,
+    // keeping the ids of cells that were already nodes
+    private void rebuildNodes(int sector) {
+        int sx = sector % sectorsX, sy = sector / sectorsX;
+        int[] cells = new int[16];
+        int count = 0;
+        localQuery++;
+        int[][] borders = {eastBorders[sector], southBorders[sector],
+                sx > 0 ? eastBorders[sector - 1] : null, sy > 0 ? southBorders[sector - sectorsX] : null};
+        for (int b = 0; b < borders.length; b++) {
+            if (borders[b] == null) continue;
+            // Our cells are the low side of our own borders, the high side of the neighbours'
+            for (int i = b < 2 ? 0 : 1; i < borders[b].length; i += 2) {
+                int cell = borders[b][i];
+                int local = localIndex(sector, cell);
+                if (localStamp[local] == localQuery) continue;
+                localStamp[local] = localQuery;
+                if (count == cells.length) cells = Arrays.copyOf(cells, count * 2);
+                cells[count++] = cell;
+            }
+        }
+
+        int[] old = sectorNodes[sector];
+        if (old != null) {
+            for (int node : old) {
+                if (localStamp[localIndex(sector, nodeCell[node])] != localQuery) {
+                    freeNode(node);
+                }
+            }
+        }
+        int[] nodes = new int[count];
+        for (int i = 0; i < count; i++) {
+            int node = nodeOfCell.get(cells[i]);
+            nodes[i] = node >= 0 ? node : allocateNode(cells[i]);
+        }
+        sectorNodes[sector] = nodes;
+    }
+
+    // Intra-sector edges from one BFS per node, plus the crossing to each
+    // node's partner in the neighbouring sector
+    private void rebuildEdges(int sector) {
+        int sx = sector % sectorsX, sy = sector / sectorsX;
+        int[] nodes = sectorNodes[sector];
+        int[][] borders = {eastBorders[sector], southBorders[sector],
+                sx > 0 ? eastBorders[sector - 1] : null, sy > 0 ? southBorders[sector - sectorsX] : null};
+        for (int node : nodes) {
+            int cell = nodeCell[node];
+            int[] edges = new int[2 * (nodes.length + 4)];
+            int count = 0;
+
+            localSearch(sector, cell);
+            for (int other : nodes) {
+                if (other == node) continue;
+                int distance = localDistanceTo(sector, nodeCell[other]);
+                if (distance >= 0) {
+                    edges[count++] = other;
+                    edges[count++] = distance;
+                }
+            }
+            for (int b = 0; b < borders.length; b++) {
+                if (borders[b] == null) continue;
+                int side = b < 2 ? 0 : 1;
+                for (int i = side; i < borders[b].length; i += 2) {
+                    if (borders[b][i] != cell) continue;
+                    if (count + 2 > edges.length) edges = Arrays.copyOf(edges, edges.length * 2);
+                    edges[count++] = nodeOfCell.get(borders[b][i + 1 - 2 * side]);
+                    edges[count++] = 1;
+                }
+            }
+            nodeEdges[node] = Arrays.copyOf(edges, count);
+        }
+    }
+
+    private int allocateNode(int cell) {
+        int node;
+        if (freeCount > 0) {
+            node = freeNodes[--freeCount];
+        } else {
+            if (nodeCount == nodeCell.length) {
+                nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+                nodeEdges = Arrays.copyOf(nodeEdges, nodeCount * 2);
+            }
+            node = nodeCount++;
+        }
+        nodeCell[node] = cell;
+        nodeEdges[node] = new int[0];
+        nodeOfCell.put(cell, node);
+        return node;
+    }
+
+    private void freeNode(int node) {
+        nodeOfCell.remove(nodeCell[node]);
+        nodeEdges[node] = new int[0];
+        if (freeCount == freeNodes.length) freeNodes = Arrays.copyOf(freeNodes, freeCount * 2);
+        freeNodes[freeCount++] = node;
+    }
+
+    private void ensureSearchCapacity() {
+        if (nodeCost.length < nodeCount) {
+            int capacity = nodeCell.length;
+            nodeCost = Arrays.copyOf(nodeCost, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeStamp = Arrays.copyOf(nodeStamp, capacity);
+            goalCost = Arrays.copyOf(goalCost, capacity);
+            goalStamp = Arrays.copyOf(goalStamp, capacity);
+        }
+    }
+
+    private int sectorOf(int x, int y) {
+        return (y / sectorSize) * sectorsX + x / sectorSize;
+    }
+
+    private int localIndex(int sector, int cell) {
+        int left = (sector % sectorsX) * sectorSize, top = (sector / sectorsX) * sectorSize;
+        return (cell / width - top) * sectorSize + (cell % width - left);
+    }
+
+    private boolean isBlocked(int x, int y) {
+        return x < 0 || y < 0 || x >= width || y >= height || maze.getTile(x, y) == '#';
+    }
+
+    // Waypoints from a query, turned into cells a segment at a time as the
+    // caller walks them
+    public static final class Path {
+        private final HierarchicalPathfinder pathfinder;
+        private final int[] waypoints;
+        private final int length;
+        private int waypoint;
+        private int[] segment = new int[0];
+        private int segmentIndex;
+
+        private Path(HierarchicalPathfinder pathfinder, int[] waypoints, int length) {
+            // Start or goal can sit on an entrance cell; drop the repeat so
+            // every segment is at least one step long
+            int count = 1;
+            for (int i = 1; i < waypoints.length; i++) {
+                if (waypoints[i] != waypoints[count - 1]) waypoints[count++] = waypoints[i];
+            }
+            this.pathfinder = pathfinder;
+            this.waypoints = Arrays.copyOf(waypoints, count);
+            this.length = length;
+        }
+
+        // Steps from start to goal
+        public int getLength() {
+            return length;
+        }
+
+        public int getWaypointCount() {
+            return waypoints.length;
+        }
+
+        public boolean hasNext() {
+            return segmentIndex < segment.length || waypoint + 1 < waypoints.length;
+        }
+
+        // The next cell (y * width + x) after the current one; -1 if the
+        // maze changed so the rest no longer connects (query again then)
+        public int next() {
+            while (segmentIndex == segment.length) {
+                if (waypoint + 1 >= waypoints.length) return -1;
+                segment = pathfinder.refine(waypoints[waypoint], waypoints[waypoint + 1]);
+                waypoint++;
+                segmentIndex = 0;
+                if (segment == null) {
+                    segment = new int[0];
+                    waypoint = waypoints.length;
+                    return -1;
+                }
+            }
+            return segment[segmentIndex++];
+        }
+
+        // Refines everything left: the cells after the current one, up to the goal
+        public int[] remaining() {
+            int[] cells = new int[16];
+            int count = 0;
+            while (hasNext()) {
+                int cell = next();
+                if (cell < 0) return null;
+                if (count == cells.length) cells = Arrays.copyOf(cells, count * 2);
+                cells[count++] = cell;
+            }
+            return Arrays.copyOf(cells, count);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.mazegame;
+
+import javax.swing.*;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Checks that the game panel stops rendering while nothing on screen
+// changes. A local game with no enemies runs on a 16 ms tick on the EDT, as
+// in the GUI; the player walks, stands, the game is paused and resumed, and
+// finally the tick stops. Rendering must be active while walking, go idle
+// once the camera settles, paint nothing while paused, and resume on the
+// next move; while paused the EDT (tick timer included) must stay under
+// IDLE_CPU_BUDGET of a core. Exits with status 1 on any failure. Run with
+// java -Djava.awt.headless=true com.mazegame.IdleRenderCheck
+public class IdleRenderCheck {
+    private static final double IDLE_CPU_BUDGET = 0.05;
+    private static final long SETTLE_MILLIS = 1500;
+    private static final long PAUSE_MILLIS = 3000;
+
+    private static PixelGameController controller;
+    private static PixelMazePanel panel;
+    private static Timer tick;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== IDLE RENDER CHECK ===");
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                controller = new PixelGameController(new PixelMaze(21, 21, 0), 0, 0);
+                controller.clearEnemies();
+                panel = new PixelMazePanel(controller);
+                controller.setMazePanel(panel);
+                controller.startGame();
+                tick = new Timer(RenderScheduler.FRAME_MILLIS, e -> controller.updateFromInput());
+                tick.start();
+            });
+        } finally {
+            System.setOut(out);
+        }
+        RenderScheduler scheduler = panel.getRenderScheduler();
+        boolean passed = true;
+
+        onEdt(() -> controller.getInput().keyDown(3));
+        Thread.sleep(SETTLE_MILLIS);
+        long walkingRepaints = repaints(scheduler);
+        boolean walking = scheduler.isActive();
+        passed &= report("walking", walking, walkingRepaints, walking && walkingRepaints > 0);
+
+        onEdt(() -> controller.getInput().keyUp(3));
+        Thread.sleep(SETTLE_MILLIS);
+        long before = repaints(scheduler);
+        Thread.sleep(SETTLE_MILLIS / 2);
+        long standing = repaints(scheduler) - before;
+        passed &= report("standing", scheduler.isActive(), standing, !scheduler.isActive() && standing == 0);
+
+        onEdt(() -> controller.setPaused(true));
+        before = repaints(scheduler);
+        long[] cpuBefore = edtCpu();
+        long wallBefore = System.nanoTime();
+        Thread.sleep(PAUSE_MILLIS);
+        long[] cpuAfter = edtCpu();
+        double cpuShare = (double) (cpuAfter[1] - cpuBefore[1]) / (System.nanoTime() - wallBefore);
+        long paused = repaints(scheduler) - before;
+        // AWT may replace an idle EDT; its CPU can't be compared across threads then
+        boolean sameEdt = cpuAfter[0] == cpuBefore[0];
+        boolean cpuOk = !sameEdt || cpuShare < IDLE_CPU_BUDGET;
+        passed &= report("paused", scheduler.isActive(), paused, !scheduler.isActive() && paused == 0 && cpuOk);
+        System.out.println(sameEdt
+                ? String.format("    EDT CPU while paused: %.2f%% of a core (budget %.0f%%)",
+                        100 * cpuShare, 100 * IDLE_CPU_BUDGET)
+                : "    EDT CPU while paused: not measured, the EDT was replaced");
+
+        onEdt(() -> {
+            controller.setPaused(false);
+            controller.getInput().keyDown(1);
+        });
+        Thread.sleep(200);
+        before = repaints(scheduler);
+        Thread.sleep(SETTLE_MILLIS / 2);
+        long resumed = repaints(scheduler) - before;
+        passed &= report("moving again", scheduler.isActive(), resumed, scheduler.isActive() && resumed > 0);
+
+        onEdt(() -> tick.stop());
+        Thread.sleep(SETTLE_MILLIS);
+        before = repaints(scheduler);
+        Thread.sleep(SETTLE_MILLIS / 2);
+        long stopped = repaints(scheduler) - before;
+        passed &= report("tick stopped", scheduler.isActive(), stopped, !scheduler.isActive() && stopped == 0);
+
+        String[] summary = new String[1];
+        onEdt(() -> summary[0] = scheduler.getReport());
+        System.out.println("  " + summary[0]);
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean report(String phase, boolean active, long repaints, boolean ok) {
+        System.out.printf("  %-13s %-6s %4d frames painted  %s%n", phase, active ? "active" : "idle",
+                repaints, ok ? "ok" : "WRONG");
+        return ok;
+    }
+
+    private static long repaints(RenderScheduler scheduler) throws Exception {
+        long[] repaints = new long[1];
+        onEdt(() -> repaints[0] = scheduler.getRepaints());
+        return repaints[0];
+    }
+
+    // EDT thread id and its CPU time so far
+    private static long[] edtCpu() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long[] cpu = new long[2];
+        onEdt(() -> {
+            cpu[0] = Thread.currentThread().getId();
+            cpu[1] = threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+        });
+        return cpu;
+    }
+
+    private static void onEdt(Runnable task) throws Exception {
+        SwingUtilities.invokeAndWait(task);
+    }
+}
@@ -0,0 +1,129 @@
+package com.mazegame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Player input on its way from the AWT listeners to the simulation. The
+// listeners append timestamped events and the tick drains all of them at
+// its start, so nothing is lost between ticks and every event takes effect
+// at a tick boundary, wherever in the period it arrived. The events sit in
+// an MpscRing, as SoundManager's commands do.
+//
+// Movement keys are sampled per tick: a direction counts for a tick if it
+// was held at any point since the previous one, so a tap shorter than a
+// tick still moves the player for one tick.
+//
+// Only a consumer stalled for many ticks fills the ring. Events that don't
+// fit are dropped, but key state never is: the listeners also keep which
+// directions are down in one word, and a drain that sees drops resyncs to
+// it, so a lost release can't leave the player walking.
+final class InputQueue {
+    private static final int KEY_DOWN = 1;
+    private static final int KEY_UP = 2;
+    private static final int THROW_AT = 3;
+    private static final int THROW_FORWARD = 4;
+    private static final int CAPACITY = 256;
+
+    private final MpscRing ring = new MpscRing(CAPACITY);
+    private final int[] kinds = new int[CAPACITY];
+    private final int[] firsts = new int[CAPACITY];
+    private final int[] seconds = new int[CAPACITY];
+    private final long[] times = new long[CAPACITY];
+    private final AtomicLong dropped = new AtomicLong();
+    // Bit per direction, set while the key is down; written before the event is offered
+    private final AtomicInteger down = new AtomicInteger();
+
+    // Consumer only
+    private final boolean[] held = new boolean[4];
+    private long droppedSeen;
+
+    // What the drain does with the events that aren't movement
+    interface Actions {
+        void throwAt(int worldX, int worldY);
+
+        void throwForward();
+    }
+
+    // direction: 0 up, 1 down, 2 left, 3 right, as the keys array
+    void keyDown(int direction) {
+        down.getAndUpdate(bits -> bits | 1 << direction);
+        offer(KEY_DOWN, direction, 0);
+    }
+
+    void keyUp(int direction) {
+        down.getAndUpdate(bits -> bits & ~(1 << direction));
+        offer(KEY_UP, direction, 0);
+    }
+
+    void throwAt(int worldX, int worldY) {
+        offer(THROW_AT, worldX, worldY);
+    }
+
+    void throwForward() {
+        offer(THROW_FORWARD, 0, 0);
+    }
+
+    // Events that didn't fit
+    long getDropped() {
+        return dropped.get();
+    }
+
+    private void offer(int kind, int first, int second) {
+        long time = System.nanoTime();
+        int slot = ring.claim();
+        if (slot < 0) {
+            dropped.incrementAndGet();
+            return;
+        }
+        kinds[slot] = kind;
+        firsts[slot] = first;
+        seconds[slot] = second;
+        times[slot] = time;
+        ring.publish(slot);
+    }
+
+    // Consumer side, once per tick: applies every queued event, fills keys
+    // with this tick's movement and returns the capture time of the oldest
+    // event drained, or 0 if there were none
+    long drain(boolean[] keys, Actions actions) {
+        System.arraycopy(held, 0, keys, 0, held.length);
+        long oldest = 0;
+        int slot;
+        while ((slot = ring.peek()) >= 0) {
+            int kind = kinds[slot];
+            int first = firsts[slot];
+            int second = seconds[slot];
+            long time = times[slot];
+            ring.release();
+
+            if (oldest == 0) oldest = time;
+            switch (kind) {
+                case KEY_DOWN:
+                    held[first] = true;
+                    keys[first] = true;
+                    break;
+                case KEY_UP:
+                    // Still counts for this tick; gone from the next one
+                    held[first] = false;
+                    break;
+                case THROW_AT:
+                    actions.throwAt(first, second);
+                    break;
+                case THROW_FORWARD:
+                    actions.throwForward();
+                    break;
+            }
+        }
+        long dropCount = dropped.get();
+        if (dropCount != droppedSeen) {
+            // Some key events may be among the lost ones: take the keys as they are now
+            droppedSeen = dropCount;
+            int bits = down.get();
+            for (int direction = 0; direction < held.length; direction++) {
+                held[direction] = (bits & 1 << direction) != 0;
+                keys[direction] |= held[direction];
+            }
+        }
+        return oldest;
+    }
+}
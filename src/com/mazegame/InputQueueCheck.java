@@ -0,0 +1,173 @@
+package com.mazegame;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+
+// Checks the input path from listener threads to the tick, headless:
+// - a key pressed and released between two ticks still moves for one tick;
+// - a release lost to a full ring still releases the key;
+// - with four threads flooding a consumer, every event is either delivered
+//   or counted as dropped, and each thread's events arrive in order;
+// - on a 16 ms tick with keys pressed at random times, the oldest event a
+//   tick drains was queued at most LATENCY_BUDGET_TICKS ticks earlier.
+// Exits with status 1 on any failure. Run with
+// java -Djava.awt.headless=true com.mazegame.InputQueueCheck [events per thread]
+public class InputQueueCheck {
+    private static final int PRODUCERS = 4;
+    private static final long TICK_NANOS = 16_000_000L;
+    private static final int LATENCY_TICKS = 300;
+    // One tick of queueing plus the tick itself; the rest is scheduler slack
+    private static final int LATENCY_BUDGET_TICKS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        System.out.println("=== INPUT QUEUE CHECK ===");
+        boolean passed = checkTap();
+        passed &= checkLostRelease();
+        passed &= checkProducers(events);
+        passed &= checkLatency();
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean checkTap() {
+        InputQueue queue = new InputQueue();
+        boolean[] keys = new boolean[4];
+        Sink sink = new Sink();
+        queue.keyDown(3);
+        queue.keyUp(3);
+        queue.drain(keys, sink);
+        boolean tapped = keys[3];
+        queue.drain(keys, sink);
+        boolean released = !keys[3];
+        System.out.println("  tap within one tick: " + (tapped ? "moves" : "LOST") + ", then "
+                + (released ? "released" : "STILL HELD"));
+        return tapped && released;
+    }
+
+    // A stalled consumer: the ring fills with throws, then the release
+    // arrives and is dropped
+    private static boolean checkLostRelease() {
+        InputQueue queue = new InputQueue();
+        boolean[] keys = new boolean[4];
+        Sink sink = new Sink();
+        queue.keyDown(2);
+        queue.drain(keys, sink);
+        for (int i = 0; i < 1000; i++) {
+            queue.throwForward();
+        }
+        queue.keyUp(2);
+        queue.drain(keys, sink);
+        queue.drain(keys, sink);
+        boolean released = !keys[2];
+        System.out.println("  release lost to a full ring (" + queue.getDropped() + " dropped): "
+                + (released ? "released" : "STILL HELD"));
+        return queue.getDropped() > 0 && released;
+    }
+
+    private static boolean checkProducers(int events) throws InterruptedException {
+        InputQueue queue = new InputQueue();
+        boolean[] keys = new boolean[4];
+        Sink sink = new Sink();
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 1; i <= events; i++) {
+                    queue.throwAt(producer, i);
+                }
+            });
+            producers[p].start();
+        }
+        boolean running = true;
+        while (running) {
+            queue.drain(keys, sink);
+            running = false;
+            for (Thread producer : producers) {
+                running |= producer.isAlive();
+            }
+        }
+        queue.drain(keys, sink);
+
+        long sent = (long) PRODUCERS * events;
+        long accounted = sink.delivered + queue.getDropped();
+        System.out.printf("  %d producers: %d sent, %d delivered, %d dropped, %s%n", PRODUCERS, sent,
+                sink.delivered, queue.getDropped(), sink.inOrder ? "in order per producer" : "OUT OF ORDER");
+        return accounted == sent && sink.delivered > 0 && sink.inOrder;
+    }
+
+    // The local game's tick on this thread, keys from another; measures how
+    // long the oldest event each tick drains had been waiting
+    private static boolean checkLatency() throws InterruptedException {
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        PixelGameController controller;
+        try {
+            controller = new PixelGameController(new PixelMaze(21, 21, 0), 0, 0);
+            controller.clearEnemies();
+            controller.startGame();
+        } finally {
+            System.setOut(out);
+        }
+        InputQueue input = controller.getInput();
+
+        Thread presser = new Thread(() -> {
+            Random random = new Random(1);
+            int direction = 0;
+            while (!Thread.currentThread().isInterrupted()) {
+                input.keyDown(direction);
+                LockSupport.parkNanos(random.nextInt(40_000_000));
+                input.keyUp(direction);
+                direction = (direction + 1) % 4;
+                LockSupport.parkNanos(random.nextInt(40_000_000));
+            }
+        });
+        presser.setDaemon(true);
+        presser.start();
+
+        long sum = 0, max = 0;
+        int samples = 0;
+        long nextTick = System.nanoTime();
+        for (int tick = 0; tick < LATENCY_TICKS; tick++) {
+            long wait;
+            while ((wait = nextTick - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            controller.updateFromInput();
+            long queued = controller.getSnapshot().inputNanos;
+            if (queued != 0) {
+                long latency = System.nanoTime() - queued;
+                sum += latency;
+                max = Math.max(max, latency);
+                samples++;
+            }
+            nextTick += TICK_NANOS;
+        }
+        presser.interrupt();
+        controller.stopGame();
+
+        System.out.printf("  input to snapshot: avg %.1f ms, max %.1f ms over %d ticks with input (budget %d ms)%n",
+                samples == 0 ? 0 : sum / 1e6 / samples, max / 1e6, samples,
+                LATENCY_BUDGET_TICKS * TICK_NANOS / 1_000_000);
+        return samples > 0 && max <= LATENCY_BUDGET_TICKS * TICK_NANOS;
+    }
+
+    private static final class Sink implements InputQueue.Actions {
+        private final int[] last = new int[PRODUCERS];
+        long delivered;
+        boolean inOrder = true;
+
+        @Override
+        public void throwAt(int producer, int sequence) {
+            delivered++;
+            if (sequence <= last[producer]) inOrder = false;
+            last[producer] = sequence;
+        }
+
+        @Override
+        public void throwForward() {
+        }
+    }
+}
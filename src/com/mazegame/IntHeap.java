@@ -0,0 +1,66 @@
+package com.mazegame;
+
+import java.util.Arrays;
+
+// Binary min-heap of int values ordered by int keys, for the pathfinders'
+// open lists. Entries are never updated in place: a better key is pushed
+// again and the caller skips the stale copy when it comes out.
+class IntHeap {
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    IntHeap(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+    }
+
+    void push(int key, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            keys[i] = keys[parent];
+            values[i] = values[parent];
+            i = parent;
+        }
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    int peekKey() {
+        return keys[0];
+    }
+
+    // Removes the smallest entry and returns its value
+    int pop() {
+        int top = values[0];
+        int key = keys[--size];
+        int value = values[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+            if (keys[child] >= key) break;
+            keys[i] = keys[child];
+            values[i] = values[child];
+            i = child;
+        }
+        keys[i] = key;
+        values[i] = value;
+        return top;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,587 @@
+package com.mazegame;
+
+import java.util.Arrays;
+
+// The maze with its corridors collapsed: nodes are junctions, dead ends and
+// special tiles (start, exit, items), edges are the corridors between them,
+// weighted by their length in steps. Every open cell is either a node or
+// lies on exactly one edge at a known offset from its first node, so
+// searches from or to any cell start on the graph directly.
+//
+// Built in one pass over the grid; cellChanged() patches the region around
+// one changed cell (the cell, its neighbours and the corridors through
+// them) instead of rebuilding. A corridor ring with no junction on it gets
+// one of its cells as an anchor node.
+// Not thread-safe: one instance per thread, or queries from one thread.
+public class JunctionGraph {
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+    private static final int NONE = -1;
+    // nodePrevious for nodes seeded from a start cell on a corridor
+    private static final int FROM_FIRST = -2;
+    private static final int FROM_SECOND = -3;
+
+    private final char[][] grid;
+    private final int width, height;
+
+    // Per cell: node id (>= 0), NONE for walls, or corridorCode(edge)
+    private final int[] owner;
+    // Per corridor cell: steps from the edge's first node
+    private final int[] offset;
+
+    private int[] nodeCell = new int[256];
+    private int[] nodeEdges = new int[4 * 256];  // edge leaving the node per direction, or NONE
+    private int nodeCount;
+    private int[] freeNodes = new int[64];
+    private int freeNodeCount;
+
+    // Edge e leaves edgeFrom[e] in direction edgeFromDir[e] and enters
+    // edgeTo[e] from its side edgeToDir[e]; edgeLength[e] is NONE when free
+    private int[] edgeFrom = new int[256];
+    private int[] edgeFromDir = new int[256];
+    private int[] edgeTo = new int[256];
+    private int[] edgeToDir = new int[256];
+    private int[] edgeLength = new int[256];
+    private int edgeCount;
+    private int[] freeEdges = new int[64];
+    private int freeEdgeCount;
+
+    // Scratch for cellChanged: nodes that lost an edge, cells that lost their edge
+    private int[] touchedNodes = new int[64];
+    private int touchedCount;
+    private int[] releasedCells = new int[256];
+    private int releasedCount;
+
+    // Search state, indexed by node id and reset by stamps
+    private int[] nodeCost = new int[256];
+    private int[] nodeParent = new int[256];     // edge used to arrive
+    private int[] nodePrevious = new int[256];   // node arrived from, or how the start joined
+    private int[] nodeStamp = new int[256];
+    private int query;
+    // Where the last goal search ended: the node, and which end of the
+    // goal's corridor it is; NONE when the goal was reached without a node
+    private int bestNode;
+    private boolean bestFromFirst;
+    private final IntHeap open = new IntHeap(256);
+    private int expanded;
+    private int[] frontier = new int[512];
+
+    public JunctionGraph(char[][] grid) {
+        this.grid = grid;
+        this.height = grid.length;
+        this.width = height > 0 ? grid[0].length : 0;
+        this.owner = new int[width * height];
+        this.offset = new int[width * height];
+        Arrays.fill(owner, NONE);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (isNodeCell(x, y)) addNode(y * width + x);
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            traceEdges(node);
+        }
+        for (int cell = 0; cell < owner.length; cell++) {
+            if (owner[cell] == NONE && isOpen(cell % width, cell / width)) {
+                traceEdges(addNode(cell));
+            }
+        }
+    }
+
+    // Call after a cell's tile changes (wall, floor, or an item appearing or going)
+    public void cellChanged(int x, int y) {
+        touchedCount = 0;
+        releasedCount = 0;
+        for (int d = -1; d < 4; d++) {
+            int cx = d < 0 ? x : x + DX[d], cy = d < 0 ? y : y + DY[d];
+            if (!inBounds(cx, cy)) continue;
+            int o = owner[cy * width + cx];
+            if (o >= 0) {
+                removeNode(o);
+            } else if (o != NONE) {
+                removeEdge(edgeOfCode(o));
+            }
+        }
+
+        for (int d = -1; d < 4; d++) {
+            int cx = d < 0 ? x : x + DX[d], cy = d < 0 ? y : y + DY[d];
+            if (inBounds(cx, cy) && isNodeCell(cx, cy)) {
+                pushTouched(addNode(cy * width + cx));
+            } else if (inBounds(cx, cy)) {
+                pushReleased(cy * width + cx);
+            }
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            if (nodeCell[touchedNodes[i]] != NONE) traceEdges(touchedNodes[i]);
+        }
+        // Released cells no trace reached form a ring without junctions
+        for (int i = 0; i < releasedCount; i++) {
+            int cell = releasedCells[i];
+            if (owner[cell] == NONE && isOpen(cell % width, cell / width)) {
+                traceEdges(addNode(cell));
+            }
+        }
+    }
+
+    // Steps from the start cell to every node, indexed by node id (-1 when
+    // unreachable), with the start cell itself in the last slot; resolve
+    // single cells with distanceTo. Invalidated by cellChanged, since node
+    // ids are reused.
+    public int[] distancesFrom(int startX, int startY) {
+        int[] distance = new int[nodeCount + 1];
+        Arrays.fill(distance, -1);
+        if (!isOpen(startX, startY)) return distance;
+        distance[nodeCount] = startY * width + startX;
+        search(startY * width + startX, -1, 0, 0);
+        for (int node = 0; node < nodeCount; node++) {
+            if (nodeStamp[node] == -query) distance[node] = nodeCost[node];
+        }
+        return distance;
+    }
+
+    public int distanceTo(int[] nodeDistance, int x, int y) {
+        if (!inBounds(x, y)) return -1;
+        int cell = y * width + x;
+        int o = owner[cell];
+        int start = nodeDistance[nodeDistance.length - 1];
+        if (o == NONE || start < 0) return -1;
+        if (o >= 0) return o < nodeDistance.length - 1 ? nodeDistance[o] : -1;
+        int edge = edgeOfCode(o);
+        int distance = viaEdge(nodeDistance[edgeFrom[edge]], offset[cell],
+                nodeDistance[edgeTo[edge]], edgeLength[edge] - offset[cell]);
+        // On the start's own corridor the straight walk may be shorter
+        if (owner[start] == o) {
+            int direct = Math.abs(offset[start] - offset[cell]);
+            distance = distance < 0 ? direct : Math.min(distance, direct);
+        }
+        return distance;
+    }
+
+    // Shortest walk in steps, or -1 when there is none
+    public int distance(int startX, int startY, int goalX, int goalY) {
+        if (!isOpen(startX, startY) || !isOpen(goalX, goalY)) return -1;
+        return search(startY * width + startX, goalY * width + goalX, goalX, goalY);
+    }
+
+    // Grows a breadth-first frontier from each side in turn and stops when
+    // they meet or either runs dry, so a cut costs the smaller side only
+    public boolean isReachable(int startX, int startY, int goalX, int goalY) {
+        if (!isOpen(startX, startY) || !isOpen(goalX, goalY)) return false;
+        int start = startY * width + startX;
+        int goal = goalY * width + goalX;
+        if (start == goal || (owner[start] < NONE && owner[start] == owner[goal])) return true;
+
+        query++;
+        ensureSearchCapacity();
+        if (frontier.length < 2 * nodeCount) frontier = new int[2 * nodeCount];
+        // Side one queues from the front of frontier, side two from the back
+        int headOne = 0, tailOne = 0;
+        int headTwo = frontier.length - 1, tailTwo = frontier.length - 1;
+        tailOne = seed(start, query, tailOne, 1);
+        tailTwo = seed(goal, -query, tailTwo, -1);
+        if (tailOne < 0 || tailTwo >= frontier.length) return true;
+
+        while (headOne != tailOne && headTwo != tailTwo) {
+            tailOne = expandOne(frontier[headOne++], query, tailOne, 1);
+            if (tailOne < 0) return true;
+            tailTwo = expandOne(frontier[headTwo--], -query, tailTwo, -1);
+            if (tailTwo >= frontier.length) return true;
+        }
+        return false;
+    }
+
+    // Queues the node(s) a cell joins the graph through; returns the new
+    // tail, or an out-of-range tail when the other side already holds one
+    private int seed(int cell, int mark, int tail, int step) {
+        int o = owner[cell];
+        if (o >= 0) return visit(o, mark, tail, step);
+        int edge = edgeOfCode(o);
+        tail = visit(edgeFrom[edge], mark, tail, step);
+        if (tail < 0 || tail >= frontier.length) return tail;
+        return visit(edgeTo[edge], mark, tail, step);
+    }
+
+    private int expandOne(int node, int mark, int tail, int step) {
+        for (int d = 0; d < 4; d++) {
+            int edge = nodeEdges[node * 4 + d];
+            if (edge == NONE) continue;
+            int other = edgeFrom[edge] == node && edgeFromDir[edge] == d ? edgeTo[edge] : edgeFrom[edge];
+            tail = visit(other, mark, tail, step);
+            if (tail < 0 || tail >= frontier.length) return tail;
+        }
+        return tail;
+    }
+
+    private int visit(int node, int mark, int tail, int step) {
+        if (nodeStamp[node] == mark) return tail;
+        if (nodeStamp[node] == -mark) return step > 0 ? -1 : frontier.length;
+        nodeStamp[node] = mark;
+        frontier[tail] = node;
+        return tail + step;
+    }
+
+    // Cells (y * width + x) from start to goal inclusive, or null
+    public int[] findPath(int startX, int startY, int goalX, int goalY) {
+        int length = distance(startX, startY, goalX, goalY);
+        if (length < 0) return null;
+        int start = startY * width + startX;
+        int goal = goalY * width + goalX;
+        int[] path = new int[length + 1];
+        if (bestNode == NONE) {
+            // Start and goal are the same cell or straight along one corridor
+            if (length == 0) {
+                path[0] = start;
+            } else {
+                fillEdge(path, 0, edgeOfCode(owner[goal]), offset[start], offset[goal]);
+            }
+            return path;
+        }
+
+        // Back from the goal: along its corridor to the node the search
+        // reached it from, then edge by edge to where the start joined
+        int at = length;
+        if (owner[goal] < 0) {
+            int edge = edgeOfCode(owner[goal]);
+            int end = bestFromFirst ? 0 : edgeLength[edge];
+            at -= Math.abs(end - offset[goal]);
+            fillEdge(path, at, edge, end, offset[goal]);
+        }
+        int node = bestNode;
+        while (nodePrevious[node] >= 0) {
+            int edge = nodeParent[node];
+            int previous = nodePrevious[node];
+            boolean forward = edgeFrom[edge] == previous;
+            at -= edgeLength[edge];
+            fillEdge(path, at, edge, forward ? 0 : edgeLength[edge], forward ? edgeLength[edge] : 0);
+            node = previous;
+        }
+        if (nodePrevious[node] == NONE) {
+            path[0] = start;
+        } else {
+            int edge = edgeOfCode(owner[start]);
+            fillEdge(path, 0, edge, offset[start], nodePrevious[node] == FROM_FIRST ? 0 : edgeLength[edge]);
+        }
+        return path;
+    }
+
+    // Nodes expanded by the last search
+    public int getExpanded() {
+        return expanded;
+    }
+
+    public int getNodeCount() {
+        return nodeCount - freeNodeCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount - freeEdgeCount;
+    }
+
+    // Node ids run below getNodeCapacity(); nodeCell is -1 for free ids
+    public int getNodeCapacity() {
+        return nodeCount;
+    }
+
+    public int nodeCell(int node) {
+        return nodeCell[node];
+    }
+
+    public int nodeDegree(int node) {
+        int degree = 0;
+        for (int d = 0; d < 4; d++) {
+            if (nodeEdges[node * 4 + d] != NONE) degree++;
+        }
+        return degree;
+    }
+
+    // Edge ids run below getEdgeCapacity(); edgeLength is -1 for free ids
+    public int getEdgeCapacity() {
+        return edgeCount;
+    }
+
+    public int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    public int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    public int edgeLength(int edge) {
+        return edgeLength[edge];
+    }
+
+    // The cell at the given steps from the edge's first node
+    public int edgeCell(int edge, int steps) {
+        int cell = nodeCell[edgeFrom[edge]];
+        int dir = edgeFromDir[edge];
+        for (int i = 0; i < steps; i++) {
+            cell += DY[dir] * width + DX[dir];
+            if (i + 1 < steps) dir = nextDirection(cell, dir);
+        }
+        return cell;
+    }
+
+    // Dijkstra (A* towards a goal cell) over nodes; the start and goal join
+    // the graph through the nodes at the ends of their corridors. Returns the
+    // goal distance, or 0 when goal is -1 (the whole component is settled).
+    private int search(int start, int goal, int goalX, int goalY) {
+        query++;
+        ensureSearchCapacity();
+        expanded = 0;
+        bestNode = NONE;
+        open.clear();
+        if (start == goal) return 0;
+
+        int startOwner = owner[start];
+        if (startOwner >= 0) {
+            relax(startOwner, NONE, NONE, 0, goal, goalX, goalY);
+        } else {
+            int edge = edgeOfCode(startOwner);
+            relax(edgeFrom[edge], edge, FROM_FIRST, offset[start], goal, goalX, goalY);
+            relax(edgeTo[edge], edge, FROM_SECOND, edgeLength[edge] - offset[start], goal, goalX, goalY);
+        }
+
+        int best = Integer.MAX_VALUE;
+        int goalOwner = goal < 0 ? NONE : owner[goal];
+        if (goal >= 0 && goalOwner < NONE && goalOwner == startOwner) {
+            best = Math.abs(offset[start] - offset[goal]);
+        }
+        while (!open.isEmpty() && open.peekKey() < best) {
+            int node = open.pop();
+            if (nodeStamp[node] == -query) continue;  // already closed
+            nodeStamp[node] = -query;
+            expanded++;
+
+            int cost = nodeCost[node];
+            if (goalOwner >= 0) {
+                if (node == goalOwner && cost < best) {
+                    best = cost;
+                    bestNode = node;
+                }
+            } else if (goalOwner != NONE) {
+                int edge = edgeOfCode(goalOwner);
+                if (node == edgeFrom[edge] && cost + offset[goal] < best) {
+                    best = cost + offset[goal];
+                    bestNode = node;
+                    bestFromFirst = true;
+                }
+                if (node == edgeTo[edge] && cost + edgeLength[edge] - offset[goal] < best) {
+                    best = cost + edgeLength[edge] - offset[goal];
+                    bestNode = node;
+                    bestFromFirst = false;
+                }
+            }
+            for (int d = 0; d < 4; d++) {
+                int edge = nodeEdges[node * 4 + d];
+                if (edge == NONE) continue;
+                int other = edgeFrom[edge] == node && edgeFromDir[edge] == d ? edgeTo[edge] : edgeFrom[edge];
+                relax(other, edge, node, cost + edgeLength[edge], goal, goalX, goalY);
+            }
+        }
+        if (goal < 0) return 0;
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    private void relax(int node, int edge, int previous, int cost, int goal, int goalX, int goalY) {
+        if (nodeStamp[node] == -query) return;
+        if (nodeStamp[node] == query && nodeCost[node] <= cost) return;
+        nodeStamp[node] = query;
+        nodeCost[node] = cost;
+        nodeParent[node] = edge;
+        nodePrevious[node] = previous;
+        int estimate = 0;
+        if (goal >= 0) {
+            int cell = nodeCell[node];
+            estimate = Math.abs(cell % width - goalX) + Math.abs(cell / width - goalY);
+        }
+        open.push(cost + estimate, node);
+    }
+
+    // Writes the edge's cells from one offset to another (either direction) into path from index at
+    private void fillEdge(int[] path, int at, int edge, int fromSteps, int toSteps) {
+        int low = Math.min(fromSteps, toSteps), high = Math.max(fromSteps, toSteps);
+        int cell = nodeCell[edgeFrom[edge]];
+        int dir = edgeFromDir[edge];
+        for (int steps = 0; steps <= high; steps++) {
+            if (steps >= low) {
+                int index = fromSteps <= toSteps ? at + steps - low : at + high - steps;
+                path[index] = cell;
+            }
+            if (steps == high) break;
+            cell += DY[dir] * width + DX[dir];
+            if (steps + 1 < edgeLength[edge]) dir = nextDirection(cell, dir);
+        }
+    }
+
+    private void traceEdges(int node) {
+        int cell = nodeCell[node];
+        int x = cell % width, y = cell / width;
+        for (int d = 0; d < 4; d++) {
+            if (nodeEdges[node * 4 + d] == NONE && isOpen(x + DX[d], y + DY[d])) {
+                traceEdge(node, d);
+            }
+        }
+    }
+
+    // Follows the corridor leaving node in direction dir to the next node
+    private void traceEdge(int node, int dir) {
+        int edge = allocateEdge();
+        int code = corridorCode(edge);
+        int startDir = dir;
+        int cell = nodeCell[node] + DY[dir] * width + DX[dir];
+        int length = 1;
+        while (owner[cell] == NONE) {
+            owner[cell] = code;
+            offset[cell] = length;
+            dir = nextDirection(cell, dir);
+            cell += DY[dir] * width + DX[dir];
+            length++;
+        }
+        int other = owner[cell];
+        edgeFrom[edge] = node;
+        edgeFromDir[edge] = startDir;
+        edgeTo[edge] = other;
+        edgeToDir[edge] = dir ^ 1;
+        edgeLength[edge] = length;
+        nodeEdges[node * 4 + startDir] = edge;
+        nodeEdges[other * 4 + (dir ^ 1)] = edge;
+    }
+
+    // The one way on from a corridor cell entered moving in direction dir
+    private int nextDirection(int cell, int dir) {
+        int x = cell % width, y = cell / width;
+        for (int d = 0; d < 4; d++) {
+            if (d != (dir ^ 1) && isOpen(x + DX[d], y + DY[d])) return d;
+        }
+        return dir;
+    }
+
+    private void removeNode(int node) {
+        for (int d = 0; d < 4; d++) {
+            int edge = nodeEdges[node * 4 + d];
+            if (edge != NONE) removeEdge(edge);
+        }
+        owner[nodeCell[node]] = NONE;
+        pushReleased(nodeCell[node]);
+        nodeCell[node] = NONE;
+        if (freeNodeCount == freeNodes.length) freeNodes = Arrays.copyOf(freeNodes, freeNodeCount * 2);
+        freeNodes[freeNodeCount++] = node;
+    }
+
+    // Releases the edge's corridor cells, following them by owner since the
+    // tiles may already have changed under them
+    private void removeEdge(int edge) {
+        int code = corridorCode(edge);
+        int from = edgeFrom[edge], to = edgeTo[edge];
+        int cell = nodeCell[from] + DY[edgeFromDir[edge]] * width + DX[edgeFromDir[edge]];
+        int previous = nodeCell[from];
+        while (cell >= 0 && owner[cell] == code) {
+            owner[cell] = NONE;
+            pushReleased(cell);
+            int next = -1;
+            int x = cell % width, y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d], ny = y + DY[d];
+                if (!inBounds(nx, ny)) continue;
+                int neighbour = ny * width + nx;
+                if (neighbour != previous && owner[neighbour] == code) {
+                    next = neighbour;
+                    break;
+                }
+            }
+            previous = cell;
+            cell = next;
+        }
+        nodeEdges[from * 4 + edgeFromDir[edge]] = NONE;
+        nodeEdges[to * 4 + edgeToDir[edge]] = NONE;
+        pushTouched(from);
+        pushTouched(to);
+        edgeLength[edge] = NONE;
+        if (freeEdgeCount == freeEdges.length) freeEdges = Arrays.copyOf(freeEdges, freeEdgeCount * 2);
+        freeEdges[freeEdgeCount++] = edge;
+    }
+
+    private int addNode(int cell) {
+        int node;
+        if (freeNodeCount > 0) {
+            node = freeNodes[--freeNodeCount];
+        } else {
+            if (nodeCount == nodeCell.length) {
+                nodeCell = Arrays.copyOf(nodeCell, nodeCount * 2);
+                nodeEdges = Arrays.copyOf(nodeEdges, nodeCount * 8);
+            }
+            node = nodeCount++;
+        }
+        nodeCell[node] = cell;
+        Arrays.fill(nodeEdges, node * 4, node * 4 + 4, NONE);
+        owner[cell] = node;
+        return node;
+    }
+
+    private int allocateEdge() {
+        if (freeEdgeCount > 0) return freeEdges[--freeEdgeCount];
+        if (edgeCount == edgeLength.length) {
+            int capacity = edgeCount * 2;
+            edgeFrom = Arrays.copyOf(edgeFrom, capacity);
+            edgeFromDir = Arrays.copyOf(edgeFromDir, capacity);
+            edgeTo = Arrays.copyOf(edgeTo, capacity);
+            edgeToDir = Arrays.copyOf(edgeToDir, capacity);
+            edgeLength = Arrays.copyOf(edgeLength, capacity);
+        }
+        return edgeCount++;
+    }
+
+    private void ensureSearchCapacity() {
+        if (nodeCost.length < nodeCount) {
+            int capacity = nodeCell.length;
+            nodeCost = Arrays.copyOf(nodeCost, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodePrevious = Arrays.copyOf(nodePrevious, capacity);
+            nodeStamp = Arrays.copyOf(nodeStamp, capacity);
+        }
+    }
+
+    private void pushTouched(int node) {
+        if (touchedCount == touchedNodes.length) touchedNodes = Arrays.copyOf(touchedNodes, touchedCount * 2);
+        touchedNodes[touchedCount++] = node;
+    }
+
+    private void pushReleased(int cell) {
+        if (releasedCount == releasedCells.length) releasedCells = Arrays.copyOf(releasedCells, releasedCount * 2);
+        releasedCells[releasedCount++] = cell;
+    }
+
+    private boolean isNodeCell(int x, int y) {
+        if (!isOpen(x, y)) return false;
+        if (grid[y][x] != '.') return true;
+        int degree = 0;
+        for (int d = 0; d < 4; d++) {
+            if (isOpen(x + DX[d], y + DY[d])) degree++;
+        }
+        return degree != 2;
+    }
+
+    private boolean isOpen(int x, int y) {
+        return inBounds(x, y) && grid[y][x] != '#';
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private static int viaEdge(int fromDistance, int fromSteps, int toDistance, int toSteps) {
+        if (fromDistance < 0) return toDistance < 0 ? -1 : toDistance + toSteps;
+        if (toDistance < 0) return fromDistance + fromSteps;
+        return Math.min(fromDistance + fromSteps, toDistance + toSteps);
+    }
+
+    private static int corridorCode(int edge) {
+        return -2 - edge;
+    }
+
+    private static int edgeOfCode(int code) {
+        return -2 - code;
+    }
+}
@@ -0,0 +1,70 @@
+package com.mazegame;
+
+import java.util.Random;
+
+// Randomized Kruskal: every wall between two nodes is a candidate edge; edges
+// are visited in shuffled order and a wall is knocked down whenever it joins
+// two different sets. Produces many short dead ends, unlike the long
+// corridors of the depth-first carver.
+public class KruskalMazeGenerator implements MazeGenerator {
+
+    @Override
+    public void generate(char[][] grid, Random random) {
+        int columns = (grid[0].length - 1) / 2;
+        int rows = (grid.length - 1) / 2;
+        if (columns == 0 || rows == 0) return;
+
+        DisjointSets sets = new DisjointSets(columns * rows);
+        carveRegion(grid, sets, columns, 0, rows, random);
+    }
+
+    // Builds a spanning tree over node rows [firstRow, endRow) using only edges
+    // inside that band. Bands touch disjoint parts of sets and grid, so
+    // several of them can run at once.
+    static void carveRegion(char[][] grid, DisjointSets sets, int columns, int firstRow, int endRow, Random random) {
+        int rows = endRow - firstRow;
+
+        // Edge id = node * 2 + (0 for the wall to the right, 1 for the wall below)
+        int[] edges = new int[rows * (columns - 1) + (rows - 1) * columns];
+        int edgeCount = 0;
+        for (int r = firstRow; r < endRow; r++) {
+            char[] nodeRow = grid[2 * r + 1];
+            for (int c = 0; c < columns; c++) {
+                nodeRow[2 * c + 1] = '.';
+                int node = r * columns + c;
+                if (c < columns - 1) edges[edgeCount++] = node * 2;
+                if (r < endRow - 1) edges[edgeCount++] = node * 2 + 1;
+            }
+        }
+
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = temp;
+        }
+
+        int needed = rows * columns - 1;
+        for (int i = 0; i < edgeCount && needed > 0; i++) {
+            if (carveEdge(grid, sets, columns, edges[i])) {
+                needed--;
+            }
+        }
+    }
+
+    static boolean carveEdge(char[][] grid, DisjointSets sets, int columns, int edge) {
+        int node = edge >> 1;
+        boolean down = (edge & 1) != 0;
+        int other = down ? node + columns : node + 1;
+        if (!sets.union(node, other)) return false;
+
+        int x = 2 * (node % columns) + 1;
+        int y = 2 * (node / columns) + 1;
+        if (down) {
+            grid[y + 1][x] = '.';
+        } else {
+            grid[y][x + 1] = '.';
+        }
+        return true;
+    }
+}
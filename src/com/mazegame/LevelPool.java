@@ -0,0 +1,145 @@
+package com.mazegame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+
+// Keeps a few ready-to-play levels (maze, items and enemy layout) per
+// difficulty, built on a background thread while the player is in the menus.
+// Starting a game takes one in O(1) instead of generating it on the EDT.
+public class LevelPool {
+    private static final int LEVELS_PER_DIFFICULTY = 2;
+    private static final int DIFFICULTIES = 3;
+
+    private final List<ArrayBlockingQueue<PixelGameController>> ready = new ArrayList<>();
+    private final Random random = new Random();
+    private final Object lock = new Object();
+    private boolean paused = false;
+    private boolean running = false;
+    private Thread worker;
+
+    public LevelPool() {
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            ready.add(new ArrayBlockingQueue<>(LEVELS_PER_DIFFICULTY));
+        }
+    }
+
+    public void start() {
+        synchronized (lock) {
+            if (running) return;
+            running = true;
+        }
+        worker = new Thread(this::fillLoop, "level-pool");
+        worker.setDaemon(true);
+        // Menus must stay responsive while levels are being built
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+    }
+
+    // Gameplay owns the CPU; generation only runs while the menus are up
+    public void pause() {
+        synchronized (lock) {
+            paused = true;
+        }
+    }
+
+    public void resume() {
+        synchronized (lock) {
+            paused = false;
+            lock.notifyAll();
+        }
+    }
+
+    // Returns a pooled level with the character attached, or builds one on the
+    // spot if the pool for this difficulty is empty
+    public PixelGameController take(int difficulty, int characterIndex) {
+        PixelGameController level = ready.get(difficulty).poll();
+        if (level == null) {
+            System.out.println("Level pool empty for difficulty " + difficulty + ", generating now");
+            level = buildLevel(difficulty);
+        } else {
+            System.out.println("Took pre-generated level for difficulty " + difficulty
+                    + " (" + ready.get(difficulty).size() + " left)");
+        }
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        level.assignCharacter(characterIndex);
+        return level;
+    }
+
+    public int getReadyCount(int difficulty) {
+        return ready.get(difficulty).size();
+    }
+
+    private void fillLoop() {
+        System.out.println("Level pool started");
+        while (true) {
+            int difficulty;
+            synchronized (lock) {
+                while (running && (paused || nextToFill() < 0)) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (!running) return;
+                difficulty = nextToFill();
+            }
+
+            try {
+                long start = System.nanoTime();
+                PixelGameController level = buildLevel(difficulty);
+                if (!ready.get(difficulty).offer(level)) {
+                    continue;
+                }
+                System.out.println("Level pool: difficulty " + difficulty + " level ready in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms ("
+                        + ready.get(difficulty).size() + "/" + LEVELS_PER_DIFFICULTY + ")");
+            } catch (Exception e) {
+                System.out.println("Level pool failed to build a level: " + e.getMessage());
+            }
+        }
+    }
+
+    // Emptiest difficulty first, so every difficulty gets one level before any gets two
+    private int nextToFill() {
+        int best = -1;
+        int bestCount = LEVELS_PER_DIFFICULTY;
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            int count = ready.get(i).size();
+            if (count < bestCount) {
+                best = i;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private PixelGameController buildLevel(int difficulty) {
+        int size = mazeSizeFor(difficulty);
+        return new PixelGameController(new PixelMaze(size, size, difficulty), difficulty);
+    }
+
+    private int mazeSizeFor(int difficulty) {
+        switch (difficulty) {
+            case 0:
+                return 15 + random.nextInt(6);
+            case 1:
+                return 20 + random.nextInt(6);
+            case 2:
+                return 25 + random.nextInt(6);
+            default:
+                return 20;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mazegame;
+
+import javax.swing.*;
+import java.awt.*;
+
+// Shown while AssetManager decodes images and fonts at startup. Nothing has
+// been loaded yet, so everything here is drawn with plain Java2D and Arial.
+public class LoadingPanel extends JPanel {
+    private static final int BAR_WIDTH = 400;
+    private static final int BAR_HEIGHT = 24;
+
+    private int loaded = 0;
+    private int total = 0;
+
+    public LoadingPanel() {
+        setPreferredSize(new Dimension(800, 600));
+    }
+
+    public void setProgress(int loaded, int total) {
+        this.loaded = loaded;
+        this.total = total;
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+
+        GradientPaint gradient = new GradientPaint(0, 0, new Color(30, 30, 60),
+                getWidth(), getHeight(), new Color(10, 10, 30));
+        g2d.setPaint(gradient);
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+
+        g2d.setColor(new Color(255, 215, 0));
+        g2d.setFont(new Font("Arial", Font.BOLD, 36));
+        String title = "PIXEL MAZE ADVENTURE";
+        g2d.drawString(title, (getWidth() - g2d.getFontMetrics().stringWidth(title)) / 2, 240);
+
+        int barX = (getWidth() - BAR_WIDTH) / 2;
+        int barY = 300;
+        g2d.setColor(new Color(40, 40, 80));
+        g2d.fillRoundRect(barX, barY, BAR_WIDTH, BAR_HEIGHT, 10, 10);
+
+        int filled = total > 0 ? BAR_WIDTH * loaded / total : 0;
+        g2d.setColor(new Color(255, 215, 0));
+        g2d.fillRoundRect(barX, barY, filled, BAR_HEIGHT, 10, 10);
+
+        g2d.setColor(Color.WHITE);
+        g2d.drawRoundRect(barX, barY, BAR_WIDTH, BAR_HEIGHT, 10, 10);
+
+        g2d.setFont(new Font("Arial", Font.PLAIN, 16));
+        String status = total > 0 ? "Loading assets... " + loaded + " / " + total : "Loading assets...";
+        g2d.drawString(status, (getWidth() - g2d.getFontMetrics().stringWidth(status)) / 2, barY + BAR_HEIGHT + 30);
+    }
+}
@@ -0,0 +1,188 @@
+package com.mazegame;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Maze tiles read straight from a memory-mapped MazeFile, so levels larger than
+// the heap only cost the pages the camera actually touches. The mapping is
+// private (copy-on-write): pickups change the in-memory view but never the
+// level file, and are kept in an edit list that goes into save games.
+public class MappedMazeCells implements MazeCells {
+    private static final long serialVersionUID = 1L;
+
+    // A single MappedByteBuffer is limited to 2GB, so rows are split into bands
+    private static final long SEGMENT_LIMIT = 1L << 30;
+    private static final int PAGE_SIZE = 4096;
+
+    private final String path;
+    private final int width, height;
+    private final int startX, startY, exitX, exitY;
+    private final HashMap<Long, Character> edits = new HashMap<>();
+
+    private transient MappedByteBuffer[] segments;
+    private transient int rowsPerSegment;
+    private transient boolean readOnly;
+    private transient boolean prefetchEnabled;
+    // Keeps the page-touch reads from being optimized away
+    private transient int prefetchChecksum;
+    private transient int lastMinX, lastMinY, lastMaxX, lastMaxY;
+
+    private MappedMazeCells(String path, int width, int height, int startX, int startY, int exitX, int exitY) {
+        this.path = path;
+        this.width = width;
+        this.height = height;
+        this.startX = startX;
+        this.startY = startY;
+        this.exitX = exitX;
+        this.exitY = exitY;
+    }
+
+    public static MappedMazeCells open(Path file) throws IOException {
+        try (FileChannel channel = openChannel(file)) {
+            ByteBuffer header = ByteBuffer.allocate(MazeFile.HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("Maze file too short: " + file);
+                }
+            }
+            header.flip();
+
+            if (header.getInt() != MazeFile.MAGIC) {
+                throw new IOException("Not a maze file: " + file);
+            }
+            int version = header.getInt();
+            if (version != MazeFile.VERSION) {
+                throw new IOException("Unsupported maze file version " + version + ": " + file);
+            }
+            int width = header.getInt();
+            int height = header.getInt();
+            if (width <= 0 || height <= 0 || channel.size() < MazeFile.cellOffset(width, 0, height)) {
+                throw new IOException("Maze file truncated or corrupt: " + file);
+            }
+
+            MappedMazeCells cells = new MappedMazeCells(file.toAbsolutePath().toString(), width, height,
+                    header.getInt(), header.getInt(), header.getInt(), header.getInt());
+            cells.map(channel);
+            return cells;
+        }
+    }
+
+    // A private mapping needs a writable channel even though the file is never
+    // written; read-only files fall back to a read-only mapping plus the edit map.
+    private static FileChannel openChannel(Path file) throws IOException {
+        if (Files.isWritable(file)) {
+            return FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return FileChannel.open(file, StandardOpenOption.READ);
+    }
+
+    private void map(FileChannel channel) throws IOException {
+        readOnly = !Files.isWritable(Paths.get(path));
+        FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.PRIVATE;
+        rowsPerSegment = (int) Math.max(1, Math.min(height, SEGMENT_LIMIT / width));
+        int segmentCount = (height + rowsPerSegment - 1) / rowsPerSegment;
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            int firstRow = i * rowsPerSegment;
+            int rows = Math.min(rowsPerSegment, height - firstRow);
+            segments[i] = channel.map(mode,
+                    MazeFile.cellOffset(width, 0, firstRow), (long) rows * width);
+        }
+        prefetchEnabled = true;
+        lastMinX = lastMinY = lastMaxX = lastMaxY = -1;
+        System.out.println("Mapped maze file " + path + ": " + width + "x" + height + " in " + segmentCount + " segment(s)");
+    }
+
+    @Override
+    public int getWidth() { return width; }
+
+    @Override
+    public int getHeight() { return height; }
+
+    @Override
+    public char get(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            return '#';
+        }
+        if (readOnly && !edits.isEmpty()) {
+            Character edited = edits.get((long) y * width + x);
+            if (edited != null) return edited;
+        }
+        return (char) (segments[y / rowsPerSegment].get((y % rowsPerSegment) * width + x) & 0xFF);
+    }
+
+    @Override
+    public void set(int x, int y, char tile) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return;
+        if (!readOnly) {
+            segments[y / rowsPerSegment].put((y % rowsPerSegment) * width + x, (byte) tile);
+        }
+        edits.put((long) y * width + x, tile);
+    }
+
+    // Pulls the rows under the camera into memory ahead of the draw. Only runs
+    // when the camera has moved to a different cell range.
+    @Override
+    public void prefetch(int minX, int minY, int maxX, int maxY) {
+        if (!prefetchEnabled) return;
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        maxX = Math.min(width - 1, maxX);
+        maxY = Math.min(height - 1, maxY);
+        if (minX > maxX || minY > maxY) return;
+        if (minX == lastMinX && minY == lastMinY && maxX == lastMaxX && maxY == lastMaxY) return;
+        lastMinX = minX;
+        lastMinY = minY;
+        lastMaxX = maxX;
+        lastMaxY = maxY;
+
+        // Same idea as MappedByteBuffer.load(), but limited to the cells in view:
+        // touching one byte per page faults the page in before the draw needs it
+        int touched = 0;
+        for (int y = minY; y <= maxY; y++) {
+            MappedByteBuffer segment = segments[y / rowsPerSegment];
+            int rowStart = (y % rowsPerSegment) * width;
+            for (int x = minX; x <= maxX; x += PAGE_SIZE) {
+                touched += segment.get(rowStart + x);
+            }
+            touched += segment.get(rowStart + maxX);
+        }
+        prefetchChecksum = touched;
+    }
+
+    public void setPrefetchEnabled(boolean prefetchEnabled) {
+        this.prefetchEnabled = prefetchEnabled;
+    }
+
+    public int getStartX() { return startX; }
+    public int getStartY() { return startY; }
+    public int getExitX() { return exitX; }
+    public int getExitY() { return exitY; }
+    public String getPath() { return path; }
+
+    private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
+        ois.defaultReadObject();
+        try (FileChannel channel = openChannel(Paths.get(path))) {
+            if (channel.size() < MazeFile.cellOffset(width, 0, height)) {
+                throw new IOException("Maze file changed since the game was saved: " + path);
+            }
+            map(channel);
+        }
+        if (readOnly) return;
+        for (Map.Entry<Long, Character> edit : edits.entrySet()) {
+            long cell = edit.getKey();
+            int y = (int) (cell / width);
+            int x = (int) (cell % width);
+            segments[y / rowsPerSegment].put((y % rowsPerSegment) * width + x, (byte) (char) edit.getValue());
+        }
+    }
+}
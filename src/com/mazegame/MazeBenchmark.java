@@ -0,0 +1,220 @@
+package com.mazegame;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+// Standalone timing harness for maze generation; run with
+// java com.mazegame.MazeBenchmark [eller|generators|junctions|all]
+public class MazeBenchmark {
+    private static final int WARMUP_RUNS = 3;
+    private static final int[] GENERATOR_SIZES = {1001, 4001, 8001};
+    private static final int JUNCTION_SIZE = 2001;
+    private static final int JUNCTION_QUERIES = 200;
+
+    public static void main(String[] args) {
+        String section = args.length > 0 ? args[0] : "all";
+        System.out.println("=== MAZE GENERATION BENCHMARK ===");
+        System.out.println("Cores: " + Runtime.getRuntime().availableProcessors()
+                + ", max heap: " + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB");
+
+        try {
+            if (section.equals("all") || section.equals("eller")) {
+                benchmarkEller();
+            }
+            if (section.equals("all") || section.equals("generators")) {
+                benchmarkGenerators();
+            }
+            if (section.equals("all") || section.equals("junctions")) {
+                benchmarkJunctions();
+            }
+        } catch (IOException e) {
+            System.out.println("Benchmark failed: " + e.getMessage());
+        }
+    }
+
+    // Time and peak heap for every MazeGenerator. The grid itself is allocated
+    // before measuring, so the memory column is the generator's working set
+    // (sum of per-pool peaks, so slightly pessimistic).
+    private static void benchmarkGenerators() {
+        System.out.println("--- Generators (time, peak working heap) ---");
+        for (String name : MazeGenerator.NAMES) {
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                MazeGenerator.forName(name).generate(filledGrid(201), new Random(i));
+            }
+            for (int size : GENERATOR_SIZES) {
+                char[][] grid = filledGrid(size);
+                long usedBefore = usedHeap();
+                resetPeaks();
+                long start = System.nanoTime();
+                MazeGenerator.forName(name).generate(grid, new Random(1));
+                long nanos = System.nanoTime() - start;
+                long peak = peakHeap() - usedBefore;
+                System.out.printf("  %-17s %5d^2 %9.0f ms  %7.1f Mcells/sec  peak +%d MB%n",
+                        name, size, nanos / 1e6, (double) size * size / (nanos / 1e3),
+                        Math.max(0, peak) / (1024 * 1024));
+            }
+        }
+    }
+
+    // How far each generator's maze collapses into a JunctionGraph, what the
+    // build costs, and reachability queries on the graph against a cell BFS
+    private static void benchmarkJunctions() {
+        System.out.println("--- Junction graph (" + JUNCTION_SIZE + "^2, no items) ---");
+        for (String name : MazeGenerator.NAMES) {
+            char[][] grid = filledGrid(JUNCTION_SIZE);
+            MazeGenerator.forName(name).generate(grid, new Random(1));
+            int open = 0;
+            for (char[] row : grid) {
+                for (char tile : row) {
+                    if (tile != '#') open++;
+                }
+            }
+
+            new JunctionGraph(grid);
+            long start = System.nanoTime();
+            JunctionGraph graph = new JunctionGraph(grid);
+            long buildNanos = System.nanoTime() - start;
+
+            Random random = new Random(2);
+            int[] pairs = new int[4 * JUNCTION_QUERIES];
+            for (int i = 0; i < pairs.length; i += 2) {
+                do {
+                    pairs[i] = random.nextInt(JUNCTION_SIZE);
+                    pairs[i + 1] = random.nextInt(JUNCTION_SIZE);
+                } while (grid[pairs[i + 1]][pairs[i]] == '#');
+            }
+            int[] distance = new int[JUNCTION_SIZE * JUNCTION_SIZE];
+            int[] queue = new int[JUNCTION_SIZE * JUNCTION_SIZE];
+            long graphNanos = 0, gridNanos = 0;
+            int mismatched = 0;
+            for (int i = 0; i < pairs.length; i += 4) {
+                start = System.nanoTime();
+                int onGraph = graph.distance(pairs[i], pairs[i + 1], pairs[i + 2], pairs[i + 3]);
+                graphNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                int onGrid = gridDistance(grid, distance, queue, pairs[i], pairs[i + 1], pairs[i + 2], pairs[i + 3]);
+                gridNanos += System.nanoTime() - start;
+                if (onGraph != onGrid) mismatched++;
+            }
+            System.out.printf("  %-17s %8d open cells -> %7d nodes, %7d edges (%.1fx)  built in %4.0f ms"
+                            + "  query %7.0f us vs BFS %7.0f us  (%d wrong)%n",
+                    name, open, graph.getNodeCount(), graph.getEdgeCount(), (double) open / graph.getNodeCount(),
+                    buildNanos / 1e6, graphNanos / 1e3 / JUNCTION_QUERIES, gridNanos / 1e3 / JUNCTION_QUERIES,
+                    mismatched);
+        }
+    }
+
+    private static int gridDistance(char[][] grid, int[] distance, int[] queue,
+                                    int startX, int startY, int goalX, int goalY) {
+        int size = grid.length;
+        Arrays.fill(distance, -1);
+        int head = 0, tail = 0;
+        distance[startY * size + startX] = 0;
+        queue[tail++] = startY * size + startX;
+        int goal = goalY * size + goalX;
+        while (head != tail) {
+            int cell = queue[head++];
+            if (cell == goal) return distance[cell];
+            int x = cell % size, y = cell / size;
+            int[] neighbours = {cell - 1, cell + 1, cell - size, cell + size};
+            for (int next : neighbours) {
+                int nx = next % size, ny = next / size;
+                if (next < 0 || next >= size * size || Math.abs(nx - x) + Math.abs(ny - y) != 1) continue;
+                if (distance[next] < 0 && grid[ny][nx] != '#') {
+                    distance[next] = distance[cell] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static char[][] filledGrid(int size) {
+        char[][] grid = new char[size][size];
+        for (char[] row : grid) {
+            Arrays.fill(row, '#');
+        }
+        return grid;
+    }
+
+    private static void resetPeaks() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+        }
+    }
+
+    private static long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) peak += pool.getPeakUsage().getUsed();
+        }
+        return peak;
+    }
+
+    private static void benchmarkEller() throws IOException {
+        System.out.println("--- Eller (rows/sec) ---");
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            new EllerMazeGenerator(1001, 2001, new Random(i)).generate((y, row) -> { });
+        }
+
+        ellerToSink(1001, 100_001);
+        ellerToSink(10_001, 20_001);
+        ellerToGrid(1001, 10_001);
+        ellerToFile(1001, 100_001);
+    }
+
+    private static void ellerToSink(int width, int height) throws IOException {
+        long usedBefore = usedHeap();
+        long start = System.nanoTime();
+        new EllerMazeGenerator(width, height, new Random(1)).generate((y, row) -> { });
+        report("discard", width, height, System.nanoTime() - start, usedHeap() - usedBefore);
+    }
+
+    private static void ellerToGrid(int width, int height) throws IOException {
+        long usedBefore = usedHeap();
+        long start = System.nanoTime();
+        char[][] grid = new char[height][width];
+        new EllerMazeGenerator(width, height, new Random(1))
+                .generate((y, row) -> System.arraycopy(row, 0, grid[y], 0, width));
+        report("char[][]", width, height, System.nanoTime() - start, usedHeap() - usedBefore);
+        long open = 0;
+        for (char[] row : grid) {
+            for (char tile : row) {
+                if (tile != '#') open++;
+            }
+        }
+        System.out.println("  open cells: " + open);
+    }
+
+    private static void ellerToFile(int width, int height) throws IOException {
+        Path file = Files.createTempFile("eller", ".maze");
+        try {
+            long usedBefore = usedHeap();
+            long start = System.nanoTime();
+            EllerMazeGenerator.generateToFile(file, width, height, 1);
+            report("file", width, height, System.nanoTime() - start, usedHeap() - usedBefore);
+            System.out.println("  file size: " + Files.size(file) / (1024 * 1024) + " MB");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void report(String target, int width, int height, long nanos, long heapDelta) {
+        double seconds = nanos / 1e9;
+        System.out.printf("  %-8s %6d x %-7d %8.0f ms  %10.0f rows/sec  %8.1f Mcells/sec  heap delta %d KB%n",
+                target, width, height, nanos / 1e6, height / seconds, (double) width * height / seconds / 1e6,
+                heapDelta / 1024);
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,19 @@
+package com.mazegame;
+
+import java.io.Serializable;
+
+// Backing storage for maze tiles. Reads outside the maze return '#' so
+// collision code never has to bounds-check against the storage itself.
+public interface MazeCells extends Serializable {
+    int getWidth();
+
+    int getHeight();
+
+    char get(int x, int y);
+
+    void set(int x, int y, char tile);
+
+    // Hint that the given cell rectangle is about to be read (camera view).
+    default void prefetch(int minX, int minY, int maxX, int maxY) {
+    }
+}
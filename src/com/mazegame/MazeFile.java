@@ -0,0 +1,104 @@
+package com.mazegame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// On-disk maze format: a fixed 32-byte header followed by width * height cells,
+// one byte per cell, row-major. Cells hold the same characters as the grid
+// ('#', '.', 'S', 'E', 'T', 'L').
+//
+// Header (big-endian ints): magic, version, width, height, startX, startY, exitX, exitY
+public final class MazeFile {
+    public static final int MAGIC = 0x4D415A45; // "MAZE"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private MazeFile() {
+    }
+
+    public static long cellOffset(int width, int x, int y) {
+        return HEADER_SIZE + (long) y * width + x;
+    }
+
+    public static void write(Path path, MazeCells cells, int startX, int startY, int exitX, int exitY) throws IOException {
+        try (Writer writer = new Writer(path, cells.getWidth(), cells.getHeight())) {
+            char[] row = new char[cells.getWidth()];
+            for (int y = 0; y < cells.getHeight(); y++) {
+                for (int x = 0; x < row.length; x++) {
+                    row[x] = cells.get(x, y);
+                }
+                writer.writeRow(row);
+            }
+            writer.setStartAndExit(startX, startY, exitX, exitY);
+        }
+    }
+
+    // Streams rows to disk so a maze never has to exist in memory as a whole.
+    // The header is written last, once start and exit are known.
+    public static class Writer implements AutoCloseable {
+        private static final int BUFFER_SIZE = 1 << 20;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final int width, height;
+        private int rowsWritten;
+        private int startX = 1, startY = 1, exitX = -1, exitY = -1;
+
+        public Writer(Path path, int width, int height) throws IOException {
+            this.width = width;
+            this.height = height;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, width));
+            channel.position(HEADER_SIZE);
+        }
+
+        public void writeRow(char[] row) throws IOException {
+            if (rowsWritten >= height) {
+                throw new IOException("Maze file already has " + height + " rows");
+            }
+            if (buffer.remaining() < width) {
+                flush();
+            }
+            for (int x = 0; x < width; x++) {
+                buffer.put((byte) row[x]);
+            }
+            rowsWritten++;
+        }
+
+        public void setStartAndExit(int startX, int startY, int exitX, int exitY) {
+            this.startX = startX;
+            this.startY = startY;
+            this.exitX = exitX;
+            this.exitY = exitY;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                if (rowsWritten != height) {
+                    throw new IOException("Maze file incomplete: " + rowsWritten + " of " + height + " rows written");
+                }
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height)
+                        .putInt(startX).putInt(startY).putInt(exitX).putInt(exitY);
+                header.flip();
+                channel.write(header, 0);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
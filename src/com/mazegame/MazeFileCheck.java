@@ -0,0 +1,82 @@
+package com.mazegame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Round trip through the level file format: a generated grid maze and a
+// chunked world are written with saveToFile, mapped back with fromFile and
+// compared tile for tile, start and exit included. A pickup on the mapped
+// level must not reach the file. Exits with status 1 on any mismatch. Run with
+// java com.mazegame.MazeFileCheck [width] [height] [file]
+// Given a file, the grid level is kept there for PixelMain --level.
+public class MazeFileCheck {
+    private static final int DIFFICULTY = 1;
+
+    public static void main(String[] args) throws IOException {
+        int width = args.length > 0 ? Integer.parseInt(args[0]) : 101;
+        int height = args.length > 1 ? Integer.parseInt(args[1]) : 101;
+        Path kept = args.length > 2 ? Paths.get(args[2]) : null;
+
+        System.out.println("=== MAZE FILE CHECK ===");
+        boolean passed = true;
+
+        Path gridFile = kept != null ? kept : Files.createTempFile("maze", ".bin");
+        passed &= roundTrip("grid " + width + "x" + height, new PixelMaze(width, height, DIFFICULTY), gridFile);
+        passed &= pickupLeavesFile(gridFile);
+
+        Path chunkedFile = Files.createTempFile("maze", ".bin");
+        passed &= roundTrip("chunked 4x4", PixelMaze.createChunked(4, 4, DIFFICULTY, 42), chunkedFile);
+
+        Files.delete(chunkedFile);
+        if (kept == null) {
+            Files.delete(gridFile);
+        } else {
+            System.out.println("Level kept at " + kept);
+        }
+        System.out.println(passed ? "PASS" : "FAIL");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean roundTrip(String name, PixelMaze original, Path file) throws IOException {
+        original.saveToFile(file);
+        PixelMaze loaded = PixelMaze.fromFile(file, DIFFICULTY);
+
+        boolean sameShape = loaded.getWidth() == original.getWidth() && loaded.getHeight() == original.getHeight()
+                && loaded.getStartX() == original.getStartX() && loaded.getStartY() == original.getStartY()
+                && loaded.getExitX() == original.getExitX() && loaded.getExitY() == original.getExitY();
+        long mismatches = 0;
+        if (sameShape) {
+            for (int y = 0; y < original.getHeight(); y++) {
+                for (int x = 0; x < original.getWidth(); x++) {
+                    if (loaded.getTile(x, y) != original.getTile(x, y)) mismatches++;
+                }
+            }
+        }
+        System.out.printf("  %s: %d bytes, %s, %d mismatched tiles%n", name, Files.size(file),
+                sameShape ? "same size, start and exit" : "SIZE, START OR EXIT DIFFERS", mismatches);
+        return sameShape && mismatches == 0;
+    }
+
+    // Collects the first item on the mapped level, then maps the file again:
+    // the pickup is private to the first mapping
+    private static boolean pickupLeavesFile(Path file) throws IOException {
+        PixelMaze loaded = PixelMaze.fromFile(file, DIFFICULTY);
+        for (int y = 0; y < loaded.getHeight(); y++) {
+            for (int x = 0; x < loaded.getWidth(); x++) {
+                char tile = loaded.getTile(x, y);
+                if (tile != 'T' && tile != 'L') continue;
+                loaded.probe(x * PixelMaze.TILE_SIZE + PixelMaze.TILE_SIZE / 2f,
+                        y * PixelMaze.TILE_SIZE + PixelMaze.TILE_SIZE / 2f, 0, 0);
+                char collected = loaded.getTile(x, y);
+                char onDisk = PixelMaze.fromFile(file, DIFFICULTY).getTile(x, y);
+                System.out.println("  pickup at (" + x + ", " + y + "): '" + collected + "' in the game, '"
+                        + onDisk + "' in the file");
+                return collected == '.' && onDisk == tile;
+            }
+        }
+        System.out.println("  pickup: no item on the level");
+        return false;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mazegame;
+
+import java.util.Random;
+
+// Carves a perfect maze into a grid that arrives filled with '#'. Passage
+// nodes sit on odd coordinates, walls between them on the even ones, and the
+// outer border stays wall.
+public interface MazeGenerator {
+    String[] NAMES = {"dfs", "kruskal", "kruskal-parallel", "wilson", "eller"};
+
+    void generate(char[][] grid, Random random);
+
+    static MazeGenerator forName(String name) {
+        if (name == null) name = "dfs";
+        switch (name) {
+            case "dfs":
+                return new DfsMazeGenerator();
+            case "kruskal":
+                return new KruskalMazeGenerator();
+            case "kruskal-parallel":
+                return new ParallelKruskalMazeGenerator();
+            case "wilson":
+                return new WilsonMazeGenerator();
+            case "eller":
+                return EllerMazeGenerator::generateInto;
+            default:
+                System.out.println("Unknown maze generator '" + name + "', using dfs");
+                return new DfsMazeGenerator();
+        }
+    }
+}
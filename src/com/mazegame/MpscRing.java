@@ -0,0 +1,61 @@
+package com.mazegame;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bounded multi-producer, single-consumer ring after Vyukov's array queue:
+// each slot carries a sequence number saying whose turn it is, so producers
+// only contend on the tail counter and nothing locks. The ring hands out
+// slot indices only; its owner keeps the payload in its own arrays indexed
+// by slot, written between claim() and publish() and read between peek()
+// and release(). Used by SoundManager's command queue and InputQueue.
+final class MpscRing {
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;  // consumer only
+
+    // capacity must be a power of two
+    MpscRing(int capacity) {
+        mask = capacity - 1;
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // Producer: a slot to fill, or -1 when the ring is full
+    int claim() {
+        while (true) {
+            long position = tail.get();
+            int slot = (int) (position & mask);
+            long difference = sequences.get(slot) - position;
+            if (difference < 0) return -1;
+            if (difference == 0 && tail.compareAndSet(position, position + 1)) {
+                return slot;
+            }
+        }
+    }
+
+    // Producer: hands a filled slot to the consumer. Until then nobody else
+    // touches the slot, so its sequence still holds the claimed position.
+    void publish(int slot) {
+        sequences.set(slot, sequences.get(slot) + 1);
+    }
+
+    // Consumer: the oldest published slot, or -1 when there is none
+    int peek() {
+        int slot = (int) (head & mask);
+        return sequences.get(slot) == head + 1 ? slot : -1;
+    }
+
+    // Consumer: gives the slot from peek() back to the producers
+    void release() {
+        sequences.set((int) (head & mask), head + mask + 1);
+        head++;
+    }
+
+    boolean isEmpty() {
+        return peek() < 0;
+    }
+}
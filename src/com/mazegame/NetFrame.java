@@ -0,0 +1,202 @@
+package com.mazegame;
+
+import java.util.Arrays;
+
+// One networked snapshot as GameServer sends it to one client: every player,
+// plus the enemies and projectiles near that client's player. Each entity is
+// an id and a fixed row of ints (positions in quarter pixels), kept sorted by
+// id so two frames can be walked side by side.
+//
+// On the wire a frame is bit-packed and delta-compressed against a baseline
+// the client has acknowledged: per entity only the id gap and one bit per
+// field, plus a zig-zag delta for the fields that changed. Entities missing
+// from the baseline are sent against zero; ones missing from the frame are
+// gone. Without a baseline the whole frame is sent against zero.
+final class NetFrame {
+    static final int PLAYERS = 0;
+    static final int ENEMIES = 1;
+    static final int PROJECTILES = 2;
+    private static final int KINDS = 3;
+
+    // Fields every kind starts with
+    static final int X = 0;
+    static final int Y = 1;
+    static final int LOOK = 2;
+    // Players
+    static final int LIVES = 3;
+    static final int FLAGS = 4;
+    static final int FLAG_ALIVE = 1;
+    static final int FLAG_INVULNERABLE = 2;
+    // Enemies
+    static final int HEALTH = 3;
+    static final int MAX_HEALTH = 4;
+    static final int FLASHING = 5;
+
+    private static final int[] STRIDE = {5, 6, 3};
+
+    // Positions are sent in 1/POSITION_SCALE pixels
+    static final int POSITION_SCALE = 4;
+
+    int seq;
+    int tick;
+    int localPlayerId;
+    final int[] count = new int[KINDS];
+    final int[][] ids = {new int[4], new int[32], new int[16]};
+    final int[][] fields = {new int[4 * STRIDE[0]], new int[32 * STRIDE[1]], new int[16 * STRIDE[2]]};
+    private final int[] sortRow = new int[6];
+
+    void reset(int seq, int tick, int localPlayerId) {
+        this.seq = seq;
+        this.tick = tick;
+        this.localPlayerId = localPlayerId;
+        Arrays.fill(count, 0);
+    }
+
+    // Appends an entity and returns the offset of its row in fields[kind]
+    int add(int kind, int id) {
+        int i = count[kind]++;
+        if (i == ids[kind].length) {
+            ids[kind] = Arrays.copyOf(ids[kind], i * 2);
+            fields[kind] = Arrays.copyOf(fields[kind], i * 2 * STRIDE[kind]);
+        }
+        ids[kind][i] = id;
+        return i * STRIDE[kind];
+    }
+
+    static int stride(int kind) {
+        return STRIDE[kind];
+    }
+
+    static int position(float pixels) {
+        return Math.round(pixels * POSITION_SCALE);
+    }
+
+    // Sprite selector: a variant (character, enemy type or projectile kind),
+    // the facing and the animation frame in one small int
+    static int look(int variant, Direction facing, int frame) {
+        return variant << 4 | facing.ordinal() << 2 | frame;
+    }
+
+    static int lookVariant(int look) {
+        return look >>> 4;
+    }
+
+    static Direction lookFacing(int look) {
+        return Direction.values()[(look >>> 2) & 3];
+    }
+
+    static int lookFrame(int look) {
+        return look & 3;
+    }
+
+    // Ids are assigned in roughly the order entities are added, so this is
+    // nearly sorted already and insertion sort is linear in practice
+    void sortById() {
+        for (int kind = 0; kind < KINDS; kind++) {
+            int stride = STRIDE[kind];
+            int[] kindIds = ids[kind];
+            int[] kindFields = fields[kind];
+            for (int i = 1; i < count[kind]; i++) {
+                int id = kindIds[i];
+                int j = i - 1;
+                if (kindIds[j] <= id) continue;
+                System.arraycopy(kindFields, i * stride, sortRow, 0, stride);
+                while (j >= 0 && kindIds[j] > id) {
+                    kindIds[j + 1] = kindIds[j];
+                    System.arraycopy(kindFields, j * stride, kindFields, (j + 1) * stride, stride);
+                    j--;
+                }
+                kindIds[j + 1] = id;
+                System.arraycopy(sortRow, 0, kindFields, (j + 1) * stride, stride);
+            }
+        }
+    }
+
+    // Row index of id in this frame, searching from `from` onwards (both
+    // walks go up in id order), or -1
+    int find(int kind, int id, int from) {
+        int[] kindIds = ids[kind];
+        for (int i = from; i < count[kind]; i++) {
+            if (kindIds[i] == id) return i;
+            if (kindIds[i] > id) return -1;
+        }
+        return -1;
+    }
+
+    // baseline: null, or a frame the receiver holds under baseline.seq
+    void encode(NetFrame baseline, BitWriter out) {
+        out.reset();
+        out.writeBits(seq, 32);
+        out.writeBits(baseline == null ? 0 : baseline.seq, 32);
+        out.writeBits(tick, 32);
+        out.writeVar(localPlayerId);
+        for (int kind = 0; kind < KINDS; kind++) {
+            int stride = STRIDE[kind];
+            out.writeVar(count[kind]);
+            int previousId = -1;
+            int cursor = 0;
+            for (int i = 0; i < count[kind]; i++) {
+                int id = ids[kind][i];
+                out.writeVar(id - previousId - 1);
+                previousId = id;
+
+                int base = -1;
+                if (baseline != null) {
+                    while (cursor < baseline.count[kind] && baseline.ids[kind][cursor] < id) cursor++;
+                    base = baseline.find(kind, id, cursor);
+                }
+                for (int f = 0; f < stride; f++) {
+                    int value = fields[kind][i * stride + f];
+                    int old = base < 0 ? 0 : baseline.fields[kind][base * stride + f];
+                    if (value == old) {
+                        out.writeBit(false);
+                    } else {
+                        out.writeBit(true);
+                        out.writeSigned(value - old);
+                    }
+                }
+            }
+        }
+    }
+
+    // Sequence number of an encoded frame; decode() reads the rest
+    static int peekSeq(BitReader in) {
+        return in.readBits(32);
+    }
+
+    // Reads the rest of a frame after peekSeq, given the seq it returned;
+    // history is the receiver's ring of earlier frames, indexed by seq.
+    // False (and this frame untouched) if the baseline is no longer held.
+    boolean decode(int frameSeq, BitReader in, NetFrame[] history) {
+        int baseSeq = in.readBits(32);
+        NetFrame baseline = null;
+        if (baseSeq != 0) {
+            baseline = history[Integer.remainderUnsigned(baseSeq, history.length)];
+            if (baseline == null || baseline.seq != baseSeq || baseline == this) return false;
+        }
+        reset(frameSeq, in.readBits(32), in.readVar());
+        for (int kind = 0; kind < KINDS; kind++) {
+            int stride = STRIDE[kind];
+            int entities = in.readVar();
+            int previousId = -1;
+            int cursor = 0;
+            for (int i = 0; i < entities; i++) {
+                int id = previousId + 1 + in.readVar();
+                previousId = id;
+                int row = add(kind, id);
+
+                int base = -1;
+                if (baseline != null) {
+                    while (cursor < baseline.count[kind] && baseline.ids[kind][cursor] < id) cursor++;
+                    base = baseline.find(kind, id, cursor);
+                }
+                int[] kindFields = fields[kind];
+                for (int f = 0; f < stride; f++) {
+                    int old = base < 0 ? 0 : baseline.fields[kind][base * stride + f];
+                    kindFields[row + f] = in.readBit() ? old + in.readSigned() : old;
+                }
+            }
+        }
+        return true;
+    }
+}
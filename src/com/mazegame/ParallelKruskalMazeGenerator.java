@@ -0,0 +1,107 @@
+package com.mazegame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Kruskal split into horizontal bands of node rows. Each band builds its own
+// spanning tree on the fork-join pool, then a single merge pass shuffles the
+// walls between neighbouring bands and opens just enough of them to join
+// every band into one tree. The seams carry only a few crossings, which
+// gives the maze faint horizontal "floors" compared to plain Kruskal.
+public class ParallelKruskalMazeGenerator implements MazeGenerator {
+    private static final int MIN_ROWS_PER_BAND = 64;
+
+    private final ForkJoinPool pool;
+
+    public ParallelKruskalMazeGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelKruskalMazeGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void generate(char[][] grid, Random random) {
+        int columns = (grid[0].length - 1) / 2;
+        int rows = (grid.length - 1) / 2;
+        if (columns == 0 || rows == 0) return;
+
+        int bands = Math.max(1, Math.min(pool.getParallelism() * 4, rows / MIN_ROWS_PER_BAND));
+        int[] bandStart = new int[bands + 1];
+        for (int b = 0; b <= bands; b++) {
+            bandStart[b] = (int) ((long) rows * b / bands);
+        }
+
+        DisjointSets sets = new DisjointSets(columns * rows);
+
+        // Seeds are drawn up front so the result only depends on the caller's Random
+        List<BandTask> tasks = new ArrayList<>();
+        for (int b = 0; b < bands; b++) {
+            tasks.add(new BandTask(grid, sets, columns, bandStart[b], bandStart[b + 1], random.nextLong()));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        mergeBands(grid, sets, columns, bandStart, random);
+    }
+
+    private static void mergeBands(char[][] grid, DisjointSets sets, int columns, int[] bandStart, Random random) {
+        int bands = bandStart.length - 1;
+        if (bands < 2) return;
+
+        // Candidate edges: the down-walls from the last row of each band
+        int[] edges = new int[(bands - 1) * columns];
+        int edgeCount = 0;
+        for (int b = 1; b < bands; b++) {
+            int lastRow = bandStart[b] - 1;
+            for (int c = 0; c < columns; c++) {
+                edges[edgeCount++] = (lastRow * columns + c) * 2 + 1;
+            }
+        }
+
+        for (int i = edgeCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = edges[i];
+            edges[i] = edges[j];
+            edges[j] = temp;
+        }
+
+        int needed = bands - 1;
+        for (int i = 0; i < edgeCount && needed > 0; i++) {
+            if (KruskalMazeGenerator.carveEdge(grid, sets, columns, edges[i])) {
+                needed--;
+            }
+        }
+    }
+
+    private static class BandTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final char[][] grid;
+        private final DisjointSets sets;
+        private final int columns, firstRow, endRow;
+        private final long seed;
+
+        BandTask(char[][] grid, DisjointSets sets, int columns, int firstRow, int endRow, long seed) {
+            this.grid = grid;
+            this.sets = sets;
+            this.columns = columns;
+            this.firstRow = firstRow;
+            this.endRow = endRow;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            KruskalMazeGenerator.carveRegion(grid, sets, columns, firstRow, endRow, new Random(seed));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.mazegame;
+
+import java.util.Random;
+
+// Standalone comparison of HierarchicalPathfinder against flat A*; run with
+// java -Xmx2g com.mazegame.PathfindingBenchmark [size] [queries] [flatQueries]
+// Both answer the same random open-cell pairs. Flat A* gets a sample of
+// them (it takes far longer per query), and every sampled pair also checks
+// that the HPA* route is a valid walk no longer than the A* optimum allows.
+public class PathfindingBenchmark {
+    private static final int WARMUP_QUERIES = 200;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2001;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        int flatQueries = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        System.out.println("=== PATHFINDING BENCHMARK ===");
+        PixelMaze maze = new PixelMaze(size, size, 1);
+        Random random = new Random(7);
+        int[][] pairs = new int[queries][];
+        for (int i = 0; i < queries; i++) {
+            pairs[i] = new int[]{randomOpenCell(maze, random), randomOpenCell(maze, random)};
+        }
+
+        long buildStart = System.nanoTime();
+        HierarchicalPathfinder hierarchical = new HierarchicalPathfinder(maze);
+        long buildNanos = System.nanoTime() - buildStart;
+        GridPathfinder flat = new GridPathfinder(maze);
+
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            int[] pair = pairs[i % queries];
+            query(hierarchical, maze, pair, true);
+            if (i < 20) flat.findPath(pair[0] % size, pair[0] / size, pair[1] % size, pair[1] / size);
+        }
+
+        // HPA*: abstract search only, then with every path fully refined
+        long abstractNanos = 0, refinedNanos = 0, abstractExpanded = 0;
+        for (int[] pair : pairs) {
+            long start = System.nanoTime();
+            query(hierarchical, maze, pair, false);
+            abstractNanos += System.nanoTime() - start;
+            abstractExpanded += hierarchical.getExpanded();
+        }
+        for (int[] pair : pairs) {
+            long start = System.nanoTime();
+            query(hierarchical, maze, pair, true);
+            refinedNanos += System.nanoTime() - start;
+        }
+
+        long flatNanos = 0, flatExpanded = 0;
+        int checked = 0, mismatched = 0;
+        for (int i = 0; i < Math.min(flatQueries, queries); i++) {
+            int[] pair = pairs[i];
+            long start = System.nanoTime();
+            int[] optimal = flat.findPath(pair[0] % size, pair[0] / size, pair[1] % size, pair[1] / size);
+            flatNanos += System.nanoTime() - start;
+            flatExpanded += flat.getExpanded();
+
+            int[] route = query(hierarchical, maze, pair, true);
+            checked++;
+            if ((optimal == null) != (route == null)
+                    || (route != null && (!isWalk(maze, pair[0], route) || route.length > optimal.length))) {
+                mismatched++;
+            }
+        }
+        int flatCount = Math.min(flatQueries, queries);
+
+        double abstractMicros = abstractNanos / 1e3 / queries;
+        double refinedMicros = refinedNanos / 1e3 / queries;
+        double flatMicros = flatNanos / 1e3 / flatCount;
+        System.out.printf("  maze %dx%d, %d HPA* nodes, graph built in %.0f ms%n",
+                size, size, hierarchical.getNodeCount(), buildNanos / 1e6);
+        System.out.printf("  HPA* abstract  %9.1f us/query  %8.0f nodes expanded  (%d queries)%n",
+                abstractMicros, (double) abstractExpanded / queries, queries);
+        System.out.printf("  HPA* refined   %9.1f us/query%n", refinedMicros);
+        System.out.printf("  flat A*        %9.1f us/query  %8.0f cells expanded  (%d queries)%n",
+                flatMicros, (double) flatExpanded / flatCount, flatCount);
+        System.out.printf("  speedup %.0fx (refined), %.0fx (abstract only); %d/%d routes checked against A*, %d wrong%n",
+                flatMicros / refinedMicros, flatMicros / abstractMicros, checked - mismatched, checked, mismatched);
+
+        benchmarkRepair(maze, hierarchical, flat, random);
+    }
+
+    // Knocks a wall out, repairs, and checks a query that can use the new gap
+    private static void benchmarkRepair(PixelMaze maze, HierarchicalPathfinder hierarchical,
+                                        GridPathfinder flat, Random random) {
+        int size = maze.getWidth();
+        long repairNanos = 0;
+        int repairs = 100, wrong = 0;
+        for (int i = 0; i < repairs; i++) {
+            int x, y;
+            do {
+                x = 1 + random.nextInt(size - 2);
+                y = 1 + random.nextInt(size - 2);
+            } while (maze.getTile(x, y) != '#');
+            maze.getGrid()[y][x] = '.';
+            long start = System.nanoTime();
+            hierarchical.cellChanged(x, y);
+            repairNanos += System.nanoTime() - start;
+
+            int from = randomOpenCell(maze, random);
+            int[] optimal = flat.findPath(from % size, from / size, x, y);
+            int[] route = query(hierarchical, maze, new int[]{from, y * size + x}, true);
+            if ((optimal == null) != (route == null)
+                    || (route != null && (!isWalk(maze, from, route) || route.length > optimal.length * 2))) {
+                wrong++;
+            }
+        }
+        System.out.printf("  repair %.1f us per changed cell (%d changes, %d bad routes after)%n",
+                repairNanos / 1e3 / repairs, repairs, wrong);
+    }
+
+    // The route as cells from start to goal (inclusive), or null
+    private static int[] query(HierarchicalPathfinder pathfinder, PixelMaze maze, int[] pair, boolean refine) {
+        int width = maze.getWidth();
+        HierarchicalPathfinder.Path path = pathfinder.findPath(pair[0] % width, pair[0] / width,
+                pair[1] % width, pair[1] / width);
+        if (path == null || !refine) return null;
+        int[] rest = path.remaining();
+        if (rest == null) return null;
+        int[] cells = new int[rest.length + 1];
+        cells[0] = pair[0];
+        System.arraycopy(rest, 0, cells, 1, rest.length);
+        return cells;
+    }
+
+    private static boolean isWalk(PixelMaze maze, int start, int[] cells) {
+        int width = maze.getWidth();
+        if (cells[0] != start) return false;
+        for (int i = 0; i < cells.length; i++) {
+            if (maze.getTile(cells[i] % width, cells[i] / width) == '#') return false;
+            if (i > 0 && Math.abs(cells[i] % width - cells[i - 1] % width)
+                    + Math.abs(cells[i] / width - cells[i - 1] / width) != 1) return false;
+        }
+        return true;
+    }
+
+    private static int randomOpenCell(PixelMaze maze, Random random) {
+        while (true) {
+            int x = random.nextInt(maze.getWidth());
+            int y = random.nextInt(maze.getHeight());
+            if (maze.getTile(x, y) != '#') return y * maze.getWidth() + x;
+        }
+    }
+}
@@ -9,7 +9,10 @@ import java.io.Serializable;
 
 public class PixelEnemy implements Serializable {
     private static final long serialVersionUID = 1L;
-    private transient ImageIcon[][] spriteFrames = new ImageIcon[4][3];
+    // Shared by every enemy of the same type; see attachSpriteFrames
+    private transient Sprite[][] spriteFrames;
+    private static final java.util.concurrent.ConcurrentMap<Integer, Sprite[][]> SHARED_FRAMES =
+            new java.util.concurrent.ConcurrentHashMap<>();
 
     private float x, y;
     private int width = 48, height = 64;
@@ -23,6 +26,10 @@ public class PixelEnemy implements Serializable {
     private float chaseRange = 300f;
     private boolean isChasing = false;
     private boolean moving = false;
+    // Ticks skipped while far from the player, replayed by catchUp
+    private transient int idleTicks;
+    // Reused by every move instead of a new array per tick
+    private transient float[] newPosition = new float[2];
 
     private int maxHealth = 3;
     private int currentHealth;
@@ -46,7 +53,7 @@ public class PixelEnemy implements Serializable {
 
         applyEnemyTypeProperties();
 
-        loadSpriteFrames();
+        attachSpriteFrames();
         System.out.println("Enemy type " + enemyType + " created at: " + x + ", " + y);
     }
 
@@ -74,6 +81,20 @@ public class PixelEnemy implements Serializable {
         this.currentHealth = maxHealth;
     }
 
+    // Frames are the same for every enemy of a type, so each set is loaded once and
+    // shared, including across sessions hosted side by side in one process
+    private void attachSpriteFrames() {
+        Sprite[][] shared = SHARED_FRAMES.get(enemyType);
+        if (shared == null) {
+            spriteFrames = new Sprite[4][3];
+            loadSpriteFrames();
+            shared = SHARED_FRAMES.putIfAbsent(enemyType, spriteFrames);
+        }
+        if (shared != null) {
+            spriteFrames = shared;
+        }
+    }
+
     private void loadSpriteFrames() {
         try {
             System.out.println("=== LOADING ENEMY TYPE " + enemyType + " SPRITES ===");
@@ -119,21 +140,12 @@ public class PixelEnemy implements Serializable {
         }
     }
 
-    private ImageIcon loadAndScaleSprite(String path, int targetWidth, int targetHeight) {
-        try {
-            java.io.InputStream is = getClass().getResourceAsStream(path);
-            if (is != null) {
-                byte[] bytes = is.readAllBytes();
-                ImageIcon original = new ImageIcon(bytes);
-                Image scaled = original.getImage().getScaledInstance(targetWidth, targetHeight, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaled);
-            } else {
-                System.out.println("FAILED: " + path + " not found");
-            }
-        } catch (Exception e) {
-            System.out.println("ERROR: " + path + " - " + e.getMessage());
+    private Sprite loadAndScaleSprite(String path, int targetWidth, int targetHeight) {
+        Sprite sprite = AssetManager.getSprite(path, targetWidth, targetHeight);
+        if (sprite == null) {
+            System.out.println("FAILED: " + path + " not found");
         }
-        return null;
+        return sprite;
     }
 
     private void createFallbackSprites() {
@@ -188,7 +200,7 @@ public class PixelEnemy implements Serializable {
                 }
 
                 g2d.dispose();
-                spriteFrames[dir][frame] = new ImageIcon(img);
+                spriteFrames[dir][frame] = new Sprite(img);
             }
         }
     }
@@ -210,7 +222,9 @@ public class PixelEnemy implements Serializable {
         return damage;
     }
 
-    public void update(PixelPlayer player, PixelMaze maze) {
+    // playerView is what the player can see; shadowcasting is symmetric, so
+    // the enemy sees the player exactly when its own cell is in that view
+    public void update(PixelPlayer player, PixelMaze maze, FieldOfView.Visibility playerView) {
         if (!alive) return;
 
         float playerCenterX = player.getX() + player.getWidth() / 2;
@@ -223,7 +237,8 @@ public class PixelEnemy implements Serializable {
                         Math.pow(playerCenterY - enemyCenterY, 2)
         );
 
-        isChasing = (distance <= chaseRange);
+        isChasing = distance <= chaseRange
+                && playerView.contains((int)(enemyCenterX / 64), (int)(enemyCenterY / 64));
         moving = isChasing;
 
         if (isChasing) {
@@ -250,15 +265,11 @@ public class PixelEnemy implements Serializable {
             dy /= length;
         }
 
-        float newX = x + dx * speed;
-        float newY = y + dy * speed;
-
         updateFacingDirection(dx, dy);
 
-        if (!maze.isWallAtPixel(newX, newY, width, height)) {
-            x = newX;
-            y = newY;
-        }
+        maze.moveAndSlide(x, y, width, height, dx * speed, dy * speed, newPosition);
+        x = newPosition[0];
+        y = newPosition[1];
     }
 
     private void wander(PixelMaze maze) {
@@ -288,6 +299,47 @@ public class PixelEnemy implements Serializable {
         }
     }
 
+    // Far from the player an enemy can only wander, so the controller skips
+    // its update and later replays the skipped ticks as one move
+    public void skipTick() {
+        idleTicks++;
+    }
+
+    public int getIdleTicks() {
+        return idleTicks;
+    }
+
+    // Same turn odds as one 2% roll per skipped tick; the move slides up to
+    // a wall and turns there instead of stopping short of it
+    public void catchUp(PixelMaze maze) {
+        int ticks = idleTicks;
+        idleTicks = 0;
+        if (!alive || ticks == 0) return;
+
+        isChasing = false;
+        if (Math.random() < 1 - Math.pow(0.98, ticks)) {
+            changeWanderDirection();
+        }
+
+        float dx = 0, dy = 0;
+        switch (facing) {
+            case UP: dy = -1; break;
+            case DOWN: dy = 1; break;
+            case LEFT: dx = -1; break;
+            case RIGHT: dx = 1; break;
+        }
+
+        float distance = speed * 0.3f * ticks;
+        maze.moveAndSlide(x, y, width, height, dx * distance, dy * distance, newPosition);
+        float moved = Math.abs(newPosition[0] - x) + Math.abs(newPosition[1] - y);
+        x = newPosition[0];
+        y = newPosition[1];
+        moving = moved > 0;
+        if (moved < distance - 0.5f) {
+            changeWanderDirection();
+        }
+    }
+
     private void changeWanderDirection() {
         Direction[] directions = Direction.values();
         facing = directions[(int)(Math.random() * directions.length)];
@@ -313,11 +365,24 @@ public class PixelEnemy implements Serializable {
         }
     }
 
-    public ImageIcon getCurrentSprite() {
+    public Sprite getCurrentSprite() {
         int directionIndex = facing.ordinal();
         return spriteFrames[directionIndex][currentFrame];
     }
 
+    Direction getFacing() {
+        return facing;
+    }
+
+    int getCurrentFrame() {
+        return currentFrame;
+    }
+
+    // Any animation frame, for drawing this enemy type from networked state
+    Sprite getFrame(Direction facing, int frame) {
+        return spriteFrames[facing.ordinal()][frame];
+    }
+
     public boolean collidesWith(PixelPlayer player) {
         return x < player.getX() + player.getWidth() &&
                 x + width > player.getX() &&
@@ -377,8 +442,8 @@ public class PixelEnemy implements Serializable {
 
     private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
         ois.defaultReadObject();
-        spriteFrames = new ImageIcon[4][3];
-        loadSpriteFrames();
+        newPosition = new float[2];
+        attachSpriteFrames();
         System.out.println("Enemy type " + enemyType + " sprites reloaded after deserialization");
     }
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package com.mazegame;
 
 import javax.swing.*;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Random;
 import java.util.ArrayList;
@@ -11,9 +12,57 @@ import java.io.*;
 
 public class PixelGameController implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final int MIN_SPAWN_STEPS_FROM_START = 5;
+    // Largest enemy spacing radius, in cells
+    private static final int MAX_SPAWN_SPACING = 8;
+    // Bucket size for the enemy/projectile spatial indexes, in pixels
+    private static final int ENTITY_GRID_CELL = 256;
+    // Area copied into each render snapshot, as half-extents around the
+    // player: a full viewport either way, so the camera (which trails the
+    // player and clamps at maze edges) always looks inside it
+    private static final int SNAPSHOT_HALF_WIDTH = 800;
+    private static final int SNAPSHOT_HALF_HEIGHT = 600;
+    // Sight radius in cells, for exploring and for enemies spotting the
+    // player; it covers the longest chase range (350px, under 6 tiles)
+    private static final int FOV_RADIUS = 6;
+    private static final int FOV_CACHE_SIZE = 256;
+    // Per-tick time for FrameScheduler jobs
+    private static final long FRAME_BUDGET_NANOS = 2_000_000;
+    // Enemies this far outside the snapshot area can't be seen or chase, so
+    // they are caught up every few ticks by a background job
+    private static final int FAR_ENEMY_MARGIN = 128;
+    private static final int FAR_ENEMY_INTERVAL = 4;
+    private static final int FAR_ENEMIES_PER_SLICE = 8;
+    // Chunks kept generated around the player's on streamed mazes, in chunks
+    private static final int LOOKAHEAD_RADIUS = 2;
 
     private transient PixelMazePanel mazePanel;
     private transient SoundManager soundManager;
+    // Spatial indexes for rendering; rebuilt lazily after loading
+    private transient SpatialGrid<PixelEnemy> enemyGrid;
+    private transient SpatialGrid<Projectile> projectileGrid;
+    // Published at the end of every tick; the renderer reads only these
+    private transient WorldSnapshot.Buffer snapshots;
+    private transient List<PixelEnemy> nearbyEnemies;
+    private transient List<Projectile> nearbyProjectiles;
+    private transient FieldOfView fieldOfView;
+    private transient FieldOfView.Visibility playerView;
+    private transient FrameScheduler scheduler;
+    private transient FarEnemyJob farEnemyJob;
+    private transient ChunkLookahead chunkLookahead;
+    private transient long tickCount;
+    // updatePlayer's one-player lists for simulate(), reused every tick
+    private transient List<PixelPlayer> soloPlayers;
+    private transient List<boolean[]> soloKeys;
+    // Set on a client's view of a game GameServer is running
+    private transient Remote remote;
+    private transient PickupListener pickupListener;
+
+    private transient InputQueue input;
+    private transient boolean[] inputKeys;
+    private transient InputQueue.Actions inputActions;
+    // Capture time of the oldest event the current tick applied, for the snapshot
+    private transient long inputNanos;
 
     private PixelPlayer player;
     private PixelMaze maze;
@@ -26,16 +75,22 @@ public class PixelGameController implements Serializable {
     private int currentCharacterIndex;
 
     public PixelGameController(int width, int height, int characterIndex, int difficulty) {
+        this(new PixelMaze(width, height, difficulty), characterIndex, difficulty);
+    }
+
+    public PixelGameController(PixelMaze maze, int characterIndex, int difficulty) {
+        this(maze, difficulty);
+        assignCharacter(characterIndex);
+    }
+
+    // Level without a player: maze, items and enemies only. LevelPool builds
+    // these off the EDT and the character is attached when the game starts.
+    PixelGameController(PixelMaze maze, int difficulty) {
         this.random = new Random();
-        this.maze = new PixelMaze(width, height, difficulty);
-        this.player = new PixelPlayer(characterIndex);
+        this.maze = maze;
         this.enemies = new ArrayList<>();
         this.gameOngoing = false;
-        this.soundManager = new SoundManager();
         this.currentDifficulty = difficulty;
-        this.currentCharacterIndex = characterIndex;
-
-        player.initializeMap(width, height);
 
         debugMazeTiles();
 
@@ -43,9 +98,59 @@ public class PixelGameController implements Serializable {
 
         applyDifficultySettings(difficulty);
 
+        publishSnapshot();
+
         comprehensiveEnemyDebug();
         debugLifePotions();
     }
+
+    // A client's view of a game simulated by GameServer: no enemies or
+    // player of its own, nothing is simulated here, and every snapshot the
+    // panel asks for is filled from the network
+    PixelGameController(PixelMaze maze, Remote remote) {
+        this.random = new Random();
+        this.maze = maze;
+        this.enemies = new ArrayList<>();
+        this.remote = remote;
+        this.gameOngoing = true;
+        publishSnapshot();
+    }
+
+    // Where a remote view's world comes from. Both calls are made on the EDT.
+    interface Remote {
+        void fill(WorldSnapshot snapshot);
+
+        void throwAt(int worldX, int worldY);
+    }
+
+    // Told about every item a player picks up, so GameServer can forward
+    // the tile change to its clients
+    interface PickupListener {
+        void itemCollected(int cellX, int cellY);
+    }
+
+    void setPickupListener(PickupListener pickupListener) {
+        this.pickupListener = pickupListener;
+    }
+
+    // A precomputed view of this maze's layout, built once and shared by
+    // every session playing a copy of it, in place of a cache per session
+    static FieldOfView precomputeFieldOfView(PixelMaze maze) {
+        return FieldOfView.precomputed(maze, FOV_RADIUS);
+    }
+
+    void shareFieldOfView(FieldOfView shared) {
+        this.fieldOfView = shared;
+        this.playerView = null;
+    }
+
+    public void assignCharacter(int characterIndex) {
+        this.player = new PixelPlayer(characterIndex);
+        this.currentCharacterIndex = characterIndex;
+        player.initializeMap(maze.getWidth(), maze.getHeight(), maze.isStreamed());
+        publishSnapshot();
+    }
+
     public PixelMazePanel getMazePanel() {
         return mazePanel;
     }
@@ -76,6 +181,88 @@ public class PixelGameController implements Serializable {
                 enemyCount = 15;
         }
 
+        FreeCellIndex freeCells = maze.getFreeCells();
+        int enemiesSpawned = freeCells != null
+                ? spawnEnemiesFromFreeCells(freeCells, enemyCount, difficulty)
+                : spawnEnemiesByRejection(enemyCount, difficulty);
+
+        System.out.println("Successfully spawned " + enemiesSpawned + " enemies for difficulty " + difficulty);
+        if (enemiesSpawned < enemyCount) {
+            System.out.println("WARNING: Could only spawn " + enemiesSpawned + " out of " + enemyCount + " enemies");
+        }
+    }
+
+    // Poisson-disk style spawning over the maze's free-cell index: each enemy
+    // takes a random free cell and withholds every free cell within the spacing
+    // radius. If the maze runs out of cells the radius shrinks and the withheld
+    // cells come back, so the full count is placed whenever enough floor exists.
+    // All cells are returned to the index afterwards.
+    private int spawnEnemiesFromFreeCells(FreeCellIndex freeCells, int enemyCount, int difficulty) {
+        int width = maze.getWidth();
+        int height = maze.getHeight();
+        int[] withheld = new int[64];
+        int withheldCount = 0;
+        int[] occupied = new int[enemyCount];
+        int spawned = 0;
+
+        // Cells close to the start along the path are never used
+        int reach = MIN_SPAWN_STEPS_FROM_START - 1;
+        int[] nearStart = new int[(2 * reach + 1) * (2 * reach + 1)];
+        int nearStartCount = 0;
+        for (int dy = -reach; dy <= reach; dy++) {
+            for (int dx = -reach; dx <= reach; dx++) {
+                int x = maze.getStartX() + dx;
+                int y = maze.getStartY() + dy;
+                int steps = maze.getStartDistance(x, y);
+                if (steps >= 0 && steps < MIN_SPAWN_STEPS_FROM_START && freeCells.remove(y * width + x)) {
+                    nearStart[nearStartCount++] = y * width + x;
+                }
+            }
+        }
+
+        // Open floor is about half the cells, so a disk of radius r withholds ~pi*r^2/2 of
+        // them. Capped so huge mazes still cost O(enemies), not O(maze area).
+        int radius = (int) (0.8 * Math.sqrt(2.0 * freeCells.size() / (Math.PI * enemyCount)));
+        radius = Math.min(radius, MAX_SPAWN_SPACING);
+
+        while (spawned < enemyCount) {
+            int cell = freeCells.takeRandom(random);
+            if (cell < 0) {
+                if (radius == 0 || withheldCount == 0) break;
+                radius--;
+                for (int i = 0; i < withheldCount; i++) {
+                    freeCells.add(withheld[i]);
+                }
+                withheldCount = 0;
+                continue;
+            }
+
+            occupied[spawned++] = cell;
+            int cellX = cell % width;
+            int cellY = cell / width;
+            addEnemy(cellX * 64f + 8, cellY * 64f, difficulty);
+
+            for (int y = Math.max(0, cellY - radius); y <= Math.min(height - 1, cellY + radius); y++) {
+                for (int x = Math.max(0, cellX - radius); x <= Math.min(width - 1, cellX + radius); x++) {
+                    int dx = x - cellX, dy = y - cellY;
+                    if (dx * dx + dy * dy <= radius * radius && freeCells.remove(y * width + x)) {
+                        if (withheldCount == withheld.length) {
+                            withheld = Arrays.copyOf(withheld, withheldCount * 2);
+                        }
+                        withheld[withheldCount++] = y * width + x;
+                    }
+                }
+            }
+        }
+
+        for (int i = 0; i < withheldCount; i++) freeCells.add(withheld[i]);
+        for (int i = 0; i < nearStartCount; i++) freeCells.add(nearStart[i]);
+        for (int i = 0; i < spawned; i++) freeCells.add(occupied[i]);
+        return spawned;
+    }
+
+    // Fallback for mazes without a free-cell index (streamed mazes)
+    private int spawnEnemiesByRejection(int enemyCount, int difficulty) {
         int enemiesSpawned = 0;
         int attempts = 0;
         int maxAttempts = enemyCount * 20;
@@ -96,33 +283,145 @@ public class PixelGameController implements Serializable {
             }
 
             if (isValidEnemySpawnPosition(enemyX, enemyY)) {
-                int enemyType;
-                if (difficulty == 0) {
-                    enemyType = random.nextInt(2) + 1;
-                } else if (difficulty == 1) {
-                    enemyType = random.nextInt(3) + 1;
-                } else {
-                    int rand = random.nextInt(10);
-                    if (rand < 3) { // 30% basic
-                        enemyType = 1;
-                    } else if (rand < 6) {
-                        enemyType = 2;
-                    } else {
-                        enemyType = 3;
-                    }
-                }
-
-                enemies.add(new PixelEnemy(enemyX, enemyY, enemyType));
+                addEnemy(enemyX, enemyY, difficulty);
                 enemiesSpawned++;
-                System.out.println("Spawned enemy type " + enemyType + " at: " + enemyX + ", " + enemyY);
             }
             attempts++;
         }
+        return enemiesSpawned;
+    }
 
-        System.out.println("Successfully spawned " + enemiesSpawned + " enemies for difficulty " + difficulty);
-        if (enemiesSpawned < enemyCount) {
-            System.out.println("WARNING: Could only spawn " + enemiesSpawned + " out of " + enemyCount + " enemies");
+    private void addEnemy(float enemyX, float enemyY, int difficulty) {
+        int enemyType;
+        if (difficulty == 0) {
+            enemyType = random.nextInt(2) + 1;
+        } else if (difficulty == 1) {
+            enemyType = random.nextInt(3) + 1;
+        } else {
+            int rand = random.nextInt(10);
+            if (rand < 3) { // 30% basic
+                enemyType = 1;
+            } else if (rand < 6) {
+                enemyType = 2;
+            } else {
+                enemyType = 3;
+            }
+        }
+
+        spawnEnemy(new PixelEnemy(enemyX, enemyY, enemyType));
+        System.out.println("Spawned enemy type " + enemyType + " at: " + enemyX + ", " + enemyY);
+    }
+
+    public void spawnEnemy(PixelEnemy enemy) {
+        enemies.add(enemy);
+        if (enemyGrid != null) {
+            enemyGrid.insert(enemy, enemy.getX(), enemy.getY());
+        }
+        if (snapshots != null) {
+            publishSnapshot();
+        }
+    }
+
+    public void clearEnemies() {
+        enemies.clear();
+        if (enemyGrid != null) {
+            enemyGrid.clear();
+        }
+        publishSnapshot();
+    }
+
+    // Built on first use, so levels from the pool and loaded saves get one too
+    private SpatialGrid<PixelEnemy> enemyGrid() {
+        if (enemyGrid == null) {
+            enemyGrid = new SpatialGrid<>(ENTITY_GRID_CELL);
+            for (PixelEnemy enemy : enemies) {
+                enemyGrid.insert(enemy, enemy.getX(), enemy.getY());
+            }
+        }
+        return enemyGrid;
+    }
+
+    // Enemies and projectiles whose grid bucket overlaps the rectangle; the
+    // snapshot uses these instead of walking every entity in the level
+    private void queryEnemies(float minX, float minY, float maxX, float maxY, List<PixelEnemy> out) {
+        enemyGrid().query(minX, minY, maxX, maxY, out);
+    }
+
+    private void queryProjectiles(float minX, float minY, float maxX, float maxY, List<Projectile> out) {
+        if (projectileGrid == null) {
+            rebuildProjectileGrid();
+        }
+        projectileGrid.query(minX, minY, maxX, maxY, out);
+    }
+
+    // Every projectile moves every tick, so rebuilding is no dearer than moving each one
+    private void rebuildProjectileGrid() {
+        if (projectileGrid == null) {
+            projectileGrid = new SpatialGrid<>(ENTITY_GRID_CELL);
+        }
+        projectileGrid.clear();
+        if (player == null) return;
+        for (Projectile projectile : player.getProjectiles()) {
+            projectileGrid.insert(projectile, projectile.getX(), projectile.getY());
+        }
+    }
+
+    // Copies the player and everything near them into the back snapshot and
+    // swaps it in. Called from the simulation side only: at the end of each
+    // tick, and after anything that changes the world outside a tick.
+    public void publishSnapshot() {
+        if (snapshots == null) {
+            snapshots = new WorldSnapshot.Buffer();
+            nearbyEnemies = new ArrayList<>();
+            nearbyProjectiles = new ArrayList<>();
+        }
+        WorldSnapshot snapshot = snapshots.beginWrite();
+        snapshot.inputNanos = inputNanos;
+        if (player != null) {
+            snapshot.setPlayer(player);
+
+            float minX = player.getX() - SNAPSHOT_HALF_WIDTH;
+            float minY = player.getY() - SNAPSHOT_HALF_HEIGHT;
+            float maxX = player.getX() + SNAPSHOT_HALF_WIDTH;
+            float maxY = player.getY() + SNAPSHOT_HALF_HEIGHT;
+
+            nearbyEnemies.clear();
+            queryEnemies(minX, minY, maxX, maxY, nearbyEnemies);
+            for (int i = 0; i < nearbyEnemies.size(); i++) {
+                PixelEnemy enemy = nearbyEnemies.get(i);
+                if (enemy.isAlive()) {
+                    snapshot.addEnemy(enemy);
+                }
+            }
+
+            nearbyProjectiles.clear();
+            queryProjectiles(minX, minY, maxX, maxY, nearbyProjectiles);
+            for (int i = 0; i < nearbyProjectiles.size(); i++) {
+                Projectile projectile = nearbyProjectiles.get(i);
+                if (projectile.isActive()) {
+                    snapshot.addProjectile(projectile);
+                }
+            }
         }
+        snapshots.publish();
+        requestRender();
+    }
+
+    // The panel idles while nothing changes; anything new to show wakes it
+    void requestRender() {
+        if (mazePanel != null) {
+            mazePanel.requestRender();
+        }
+    }
+
+    // Render side: the latest published world, never one being written. A
+    // remote view writes and reads on the EDT, so it fills one right here.
+    public WorldSnapshot getSnapshot() {
+        if (remote != null) {
+            remote.fill(snapshots.beginWrite());
+            snapshots.publish();
+        }
+        return snapshots.latest();
     }
 
     private boolean isValidEnemySpawnPosition(float x, float y) {
@@ -130,6 +429,12 @@ public class PixelGameController implements Serializable {
             return false;
         }
 
+        // Keep the first few steps of the path clear so the player isn't hit on spawn
+        int stepsFromStart = maze.getStartDistance((int)((x + 24) / 64), (int)((y + 32) / 64));
+        if (stepsFromStart >= 0 && stepsFromStart < MIN_SPAWN_STEPS_FROM_START) {
+            return false;
+        }
+
         for (PixelEnemy existingEnemy : enemies) {
             float distanceToEnemy = (float) Math.sqrt(
                     Math.pow(x - existingEnemy.getX(), 2) + Math.pow(y - existingEnemy.getY(), 2)
@@ -147,8 +452,12 @@ public class PixelGameController implements Serializable {
     }
 
     public void debugMazeTiles() {
-        System.out.println("=== MAZE TILE ANALYSIS ===");
         char[][] grid = maze.getGrid();
+        if (grid == null) {
+            System.out.println("Tile analysis skipped for streamed maze");
+            return;
+        }
+        System.out.println("=== MAZE TILE ANALYSIS ===");
         int pathCount = 0;
         int wallCount = 0;
         int treasureCount = 0;
@@ -196,9 +505,9 @@ public class PixelGameController implements Serializable {
 
         player.setPosition(startX, startY);
         gameOngoing = true;
-        if (soundManager != null) {
-            soundManager.startGameMusic();
-        }
+        // Fetched here rather than in the constructor so pooled levels never start the mixer
+        soundManager = SoundManager.getInstance();
+        soundManager.startGameMusic();
 
         System.out.println("Pixel Maze Game Started!");
         System.out.println("Player start position: (" + startX + ", " + startY + ")");
@@ -208,6 +517,16 @@ public class PixelGameController implements Serializable {
         System.out.println("Click to throw daggers at enemies!");
 
         debugEnemies();
+        publishSnapshot();
+    }
+
+    // Hosted game: GameServer adds the players and drives updatePlayers();
+    // there is no local player and no audio
+    void startHosted(boolean log) {
+        gameOngoing = true;
+        if (log) {
+            System.out.println("Hosted game started with " + enemies.size() + " enemies");
+        }
     }
 
     public void stopGame() {
@@ -221,6 +540,12 @@ public class PixelGameController implements Serializable {
         return soundManager;
     }
 
+    private void playEffect(SoundManager.Effect effect) {
+        if (soundManager != null) {
+            soundManager.play(effect);
+        }
+    }
+
     public void comprehensiveEnemyDebug() {
         System.out.println("=== COMPREHENSIVE ENEMY DEBUG ===");
 
@@ -242,10 +567,10 @@ public class PixelGameController implements Serializable {
                     System.out.println("  Alive: " + enemy.isAlive());
 
                     try {
-                        ImageIcon sprite = enemy.getCurrentSprite();
+                        Sprite sprite = enemy.getCurrentSprite();
                         System.out.println("  Sprite: " + (sprite != null ? "loaded" : "null"));
                         if (sprite != null) {
-                            System.out.println("  Sprite size: " + sprite.getIconWidth() + "x" + sprite.getIconHeight());
+                            System.out.println("  Sprite size: " + sprite.getWidth() + "x" + sprite.getHeight());
                         }
                     } catch (Exception e) {
                         System.out.println("  Sprite error: " + e.getMessage());
@@ -259,7 +584,7 @@ public class PixelGameController implements Serializable {
         }
 
         // 4. Check maze structure for spawn positions
-        if (maze != null) {
+        if (maze != null && maze.getGrid() != null) {
             char[][] grid = maze.getGrid();
             int pathTiles = 0;
             int treasureTiles = 0;
@@ -282,106 +607,380 @@ public class PixelGameController implements Serializable {
         System.out.println("=== END COMPREHENSIVE DEBUG ===");
     }
 
+    // Where the local game's listeners put input, from any thread
+    public InputQueue getInput() {
+        if (input == null) {
+            input = new InputQueue();
+            inputKeys = new boolean[4];
+            inputActions = new InputQueue.Actions() {
+                @Override
+                public void throwAt(int worldX, int worldY) {
+                    if (!paused) playerThrowProjectile(worldX, worldY);
+                }
+
+                @Override
+                public void throwForward() {
+                    if (!paused) playerThrowDirectionalProjectile();
+                }
+            };
+        }
+        return input;
+    }
+
+    // Local game tick: applies everything queued since the last one, then
+    // moves on the sampled keys. The queue is drained even while paused or
+    // over, so a key released meanwhile is not left held afterwards.
+    public void updateFromInput() {
+        InputQueue queue = getInput();
+        inputNanos = queue.drain(inputKeys, inputActions);
+        updatePlayer(inputKeys);
+        inputNanos = 0;
+    }
+
+    // A click on the view: queued for the next tick locally, sent straight
+    // on for a remote view, which has no tick of its own
+    public void queueThrow(int worldX, int worldY) {
+        if (remote != null) {
+            remote.throwAt(worldX, worldY);
+        } else {
+            getInput().throwAt(worldX, worldY);
+        }
+    }
+
     public void updatePlayer(boolean[] keys) {
         if (!gameOngoing || !player.isAlive() || paused) return;
 
-        player.update(keys, maze);
+        if (soloPlayers == null) {
+            soloPlayers = new ArrayList<>(1);
+            soloKeys = new ArrayList<>(1);
+        }
+        soloPlayers.clear();
+        soloPlayers.add(player);
+        soloKeys.clear();
+        soloKeys.add(keys);
+        simulate(soloPlayers, soloKeys);
+    }
 
-        if (player.hasMap()) {
-            int playerTileX = (int)(player.getX() / 64);
-            int playerTileY = (int)(player.getY() / 64);
-            player.markPositionExplored(playerTileX, playerTileY);
+    // Co-op tick, as run by GameServer: every player moves on their own
+    // keys (index-aligned), enemies go after the nearest living player, and
+    // anyone can pick items up or reach the exit. Over once all are dead.
+    public void updatePlayers(List<PixelPlayer> players, List<boolean[]> keys) {
+        if (!gameOngoing || paused || players.isEmpty()) return;
+        simulate(players, keys);
+    }
 
-            for (int dy = -1; dy <= 1; dy++) {
-                for (int dx = -1; dx <= 1; dx++) {
-                    player.markPositionExplored(playerTileX + dx, playerTileY + dy);
-                }
+    private void simulate(List<PixelPlayer> players, List<boolean[]> keys) {
+        for (int i = 0; i < players.size(); i++) {
+            PixelPlayer p = players.get(i);
+            if (!p.isAlive()) continue;
+            p.update(keys.get(i), maze);
+            if (p.hasMap()) {
+                p.explore(viewOf(p));
             }
         }
 
-        updateProjectiles();
+        updateProjectiles(players);
 
+        SpatialGrid<PixelEnemy> grid = enemyGrid();
+        tickCount++;
+        boolean anyFar = false;
         for (PixelEnemy enemy : enemies) {
             if (!enemy.isAlive()) continue;
+            PixelPlayer target = nearestLivingPlayer(enemy, players);
+            if (target == null || isFarFrom(enemy, target)) {
+                enemy.skipTick();
+                anyFar = true;
+                continue;
+            }
 
-            enemy.update(player, maze);
-
-            if (enemy.collidesWith(player) && !player.isInvulnerable()) {
-                player.takeDamage();
-
-                float knockbackX = player.getX() - enemy.getX();
-                float knockbackY = player.getY() - enemy.getY();
-                float length = (float) Math.sqrt(knockbackX * knockbackX + knockbackY * knockbackY);
-                if (length > 0) {
-                    knockbackX = (knockbackX / length) * 50;
-                    knockbackY = (knockbackY / length) * 50;
-
-                    float newX = player.getX() + knockbackX;
-                    float newY = player.getY() + knockbackY;
+            float oldX = enemy.getX();
+            float oldY = enemy.getY();
+            enemy.catchUp(maze);
+            enemy.update(target, maze, viewOf(target));
+            grid.move(enemy, oldX, oldY, enemy.getX(), enemy.getY());
 
-                    if (!maze.isWallAtPixel(newX, newY, player.getWidth(), player.getHeight())) {
-                        player.setPosition(newX, newY);
-                    }
+            for (int i = 0; i < players.size(); i++) {
+                PixelPlayer p = players.get(i);
+                if (p.isAlive() && enemy.collidesWith(p) && !p.isInvulnerable()) {
+                    hitPlayer(p, enemy);
                 }
             }
         }
 
-        enemies.removeIf(enemy -> !enemy.isAlive());
-
-        if (maze.isTreasureAtPixel(player.getX(), player.getY(), player.getWidth(), player.getHeight())) {
-            maze.collectTreasureAt(player.getX(), player.getY(), player.getWidth(), player.getHeight());
-            player.collectTreasure();
+        Iterator<PixelEnemy> enemyIterator = enemies.iterator();
+        while (enemyIterator.hasNext()) {
+            PixelEnemy enemy = enemyIterator.next();
+            if (!enemy.isAlive()) {
+                grid.remove(enemy, enemy.getX(), enemy.getY());
+                enemyIterator.remove();
+            }
         }
 
-        if (maze.isLifePotionAtPixel(player.getX(), player.getY(), player.getWidth(), player.getHeight())) {
-            maze.collectLifePotionAt(player.getX(), player.getY(), player.getWidth(), player.getHeight());
-            player.collectLifePotion();
-            System.out.println("Life potion collected! Lives: " + player.getLives());
+        boolean anyAlive = false;
+        for (int i = 0; i < players.size() && gameOngoing; i++) {
+            PixelPlayer p = players.get(i);
+            if (!p.isAlive()) continue;
+            anyAlive = true;
+            switch (maze.probe(p.getX(), p.getY(), p.getWidth(), p.getHeight())) {
+                case TREASURE:
+                    p.collectTreasure();
+                    touchTileUnder(p);
+                    reportPickup(p);
+                    playEffect(SoundManager.Effect.PICKUP);
+                    break;
+                case LIFE_POTION:
+                    p.collectLifePotion();
+                    touchTileUnder(p);
+                    reportPickup(p);
+                    playEffect(SoundManager.Effect.PICKUP);
+                    System.out.println("Life potion collected! Lives: " + p.getLives());
+                    break;
+                case EXIT:
+                    gameOngoing = false;
+                    if (soundManager != null) {
+                        soundManager.stopGameMusic();
+                    }
+                    System.out.println("Exit reached! Game over.");
+                    break;
+                default:
+                    break;
+            }
         }
 
-        if (maze.isExitAtPixel(player.getX(), player.getY(), player.getWidth(), player.getHeight())) {
+        if (!anyAlive && gameOngoing) {
             gameOngoing = false;
             if (soundManager != null) {
                 soundManager.stopGameMusic();
             }
-            System.out.println("Exit reached! Game over.");
+            System.out.println("Player died! Game over.");
         }
 
-        if (!player.isAlive()) {
-            gameOngoing = false;
-            if (soundManager != null) {
-                soundManager.stopGameMusic();
+        scheduleBackgroundWork(anyFar, players.get(0));
+        scheduler.runFrame();
+
+        publishSnapshot();
+    }
+
+    private void hitPlayer(PixelPlayer p, PixelEnemy enemy) {
+        p.takeDamage();
+        playEffect(SoundManager.Effect.HIT);
+
+        float knockbackX = p.getX() - enemy.getX();
+        float knockbackY = p.getY() - enemy.getY();
+        float length = (float) Math.sqrt(knockbackX * knockbackX + knockbackY * knockbackY);
+        if (length > 0) {
+            knockbackX = (knockbackX / length) * 50;
+            knockbackY = (knockbackY / length) * 50;
+
+            float newX = p.getX() + knockbackX;
+            float newY = p.getY() + knockbackY;
+
+            if (!maze.isWallAtPixel(newX, newY, p.getWidth(), p.getHeight())) {
+                p.setPosition(newX, newY);
             }
-            System.out.println("Player died! Game over.");
         }
     }
+
+    private static PixelPlayer nearestLivingPlayer(PixelEnemy enemy, List<PixelPlayer> players) {
+        PixelPlayer nearest = null;
+        float nearestDistance = Float.MAX_VALUE;
+        for (int i = 0; i < players.size(); i++) {
+            PixelPlayer p = players.get(i);
+            if (!p.isAlive()) continue;
+            float dx = p.getX() - enemy.getX();
+            float dy = p.getY() - enemy.getY();
+            float distance = dx * dx + dy * dy;
+            if (distance < nearestDistance) {
+                nearestDistance = distance;
+                nearest = p;
+            }
+        }
+        return nearest;
+    }
+
+    private static boolean isFarFrom(PixelEnemy enemy, PixelPlayer target) {
+        float dx = Math.abs(enemy.getX() + enemy.getWidth() / 2 - (target.getX() + target.getWidth() / 2));
+        float dy = Math.abs(enemy.getY() + enemy.getHeight() / 2 - (target.getY() + target.getHeight() / 2));
+        return dx > SNAPSHOT_HALF_WIDTH + FAR_ENEMY_MARGIN || dy > SNAPSHOT_HALF_HEIGHT + FAR_ENEMY_MARGIN;
+    }
+
+    private void scheduleBackgroundWork(boolean anyFar, PixelPlayer focus) {
+        if (scheduler == null) {
+            scheduler = new FrameScheduler(FRAME_BUDGET_NANOS);
+            farEnemyJob = new FarEnemyJob();
+            chunkLookahead = new ChunkLookahead();
+        }
+        if (anyFar && tickCount % FAR_ENEMY_INTERVAL == 0 && !scheduler.isScheduled(farEnemyJob)) {
+            scheduler.submit("far-enemies", FrameScheduler.Priority.NORMAL, farEnemyJob);
+        }
+        if (maze.isStreamed()) {
+            int chunkX = maze.cellXAtPixel(focus.getX(), focus.getWidth()) / ChunkedMazeCells.CHUNK_SIZE;
+            int chunkY = maze.cellYAtPixel(focus.getY(), focus.getHeight()) / ChunkedMazeCells.CHUNK_SIZE;
+            if (chunkLookahead.retarget(chunkX, chunkY) && !scheduler.isScheduled(chunkLookahead)) {
+                scheduler.submit("chunk-lookahead", FrameScheduler.Priority.LOW, chunkLookahead);
+            }
+        }
+    }
+
+    // What the background jobs left over last tick, for diagnostics
+    public String getSchedulerReport() {
+        return scheduler == null ? "idle" : scheduler.getReport();
+    }
+
+    // Replays the skipped ticks of far enemies a few at a time, one pass
+    // over the list per submission
+    private final class FarEnemyJob implements FrameScheduler.Job {
+        private int cursor;
+
+        @Override
+        public boolean step() {
+            SpatialGrid<PixelEnemy> grid = enemyGrid();
+            int caughtUp = 0;
+            while (cursor < enemies.size() && caughtUp < FAR_ENEMIES_PER_SLICE) {
+                PixelEnemy enemy = enemies.get(cursor++);
+                if (enemy.getIdleTicks() == 0) continue;
+                float oldX = enemy.getX();
+                float oldY = enemy.getY();
+                enemy.catchUp(maze);
+                grid.move(enemy, oldX, oldY, enemy.getX(), enemy.getY());
+                caughtUp++;
+            }
+            if (cursor < enemies.size()) return true;
+            cursor = 0;
+            return false;
+        }
+    }
+
+    // Generates the chunks around the player's one per slice, nearest first,
+    // so walking into a new chunk finds its neighbours resident instead of
+    // the camera's prefetch generating them all inside one paint
+    private final class ChunkLookahead implements FrameScheduler.Job {
+        private int centerX = -1, centerY = -1;
+        private int next;
+
+        // True when the player has moved to another chunk
+        boolean retarget(int chunkX, int chunkY) {
+            if (chunkX == centerX && chunkY == centerY) return false;
+            centerX = chunkX;
+            centerY = chunkY;
+            next = 0;
+            return true;
+        }
+
+        @Override
+        public boolean step() {
+            int side = 2 * LOOKAHEAD_RADIUS + 1;
+            if (next >= side * side) return false;
+            // Walk the square ring by ring: index -> (ring, position on it)
+            int ring = 0;
+            int index = next++;
+            while (index >= ringSize(ring)) {
+                index -= ringSize(ring);
+                ring++;
+            }
+            int dx, dy;
+            if (ring == 0) {
+                dx = 0;
+                dy = 0;
+            } else {
+                int edge = index / (2 * ring), along = index % (2 * ring) - ring;
+                switch (edge) {
+                    case 0: dx = along; dy = -ring; break;
+                    case 1: dx = ring; dy = along; break;
+                    case 2: dx = -along; dy = ring; break;
+                    default: dx = -ring; dy = -along; break;
+                }
+            }
+            int size = ChunkedMazeCells.CHUNK_SIZE;
+            int minX = (centerX + dx) * size, minY = (centerY + dy) * size;
+            if (minX >= 0 && minY >= 0 && minX < maze.getWidth() && minY < maze.getHeight()) {
+                maze.prefetchRegion(minX, minY, minX + size - 1, minY + size - 1);
+            }
+            return next < side * side;
+        }
+
+        private int ringSize(int ring) {
+            return ring == 0 ? 1 : 8 * ring;
+        }
+    }
+
+    // What a player sees from the tile under their centre. The local
+    // player's view is looked up again only when they move onto another
+    // tile; co-op partners go through the cache every tick.
+    private FieldOfView.Visibility viewOf(PixelPlayer p) {
+        if (fieldOfView == null) {
+            fieldOfView = new FieldOfView(maze, FOV_RADIUS, FOV_CACHE_SIZE);
+        }
+        int tileX = maze.cellXAtPixel(p.getX(), p.getWidth());
+        int tileY = maze.cellYAtPixel(p.getY(), p.getHeight());
+        if (p != player) {
+            return fieldOfView.from(tileX, tileY);
+        }
+        if (playerView == null || playerView.getOriginX() != tileX || playerView.getOriginY() != tileY) {
+            playerView = fieldOfView.from(tileX, tileY);
+        }
+        return playerView;
+    }
+
+    // The item under the player has just become a path tile
+    private void touchTileUnder(PixelPlayer p) {
+        ExplorationMap exploration = p.getExplorationMap();
+        if (exploration != null) {
+            exploration.touch(maze.cellXAtPixel(p.getX(), p.getWidth()),
+                    maze.cellYAtPixel(p.getY(), p.getHeight()));
+        }
+    }
+
+    private void reportPickup(PixelPlayer p) {
+        if (pickupListener != null) {
+            pickupListener.itemCollected(maze.cellXAtPixel(p.getX(), p.getWidth()),
+                    maze.cellYAtPixel(p.getY(), p.getHeight()));
+        }
+    }
+
     public void playerThrowDirectionalProjectile() {
         if (player != null && gameOngoing && player.isAlive()) {
+            int thrown = player.getProjectiles().size();
             player.throwProjectileInFacingDirection();
+            if (player.getProjectiles().size() > thrown) {
+                playEffect(SoundManager.Effect.THROW);
+            }
         }
     }
 
-    private void updateProjectiles() {
-        List<Projectile> projectiles = player.getProjectiles();
-        Iterator<Projectile> projectileIterator = projectiles.iterator();
+    private void updateProjectiles(List<PixelPlayer> players) {
+        for (int i = 0; i < players.size(); i++) {
+            Iterator<Projectile> projectileIterator = players.get(i).getProjectiles().iterator();
 
-        while (projectileIterator.hasNext()) {
-            Projectile projectile = projectileIterator.next();
+            while (projectileIterator.hasNext()) {
+                Projectile projectile = projectileIterator.next();
 
-            for (PixelEnemy enemy : enemies) {
-                if (enemy.isAlive() && projectile.collidesWith(enemy)) {
-                    enemy.takeDamage(projectile.getDamage());
-                    projectileIterator.remove();
-                    System.out.println("Enemy hit! Health: " + enemy.getCurrentHealth() + "/" + enemy.getMaxHealth());
-                    break;
+                for (PixelEnemy enemy : enemies) {
+                    if (enemy.isAlive() && projectile.collidesWith(enemy)) {
+                        enemy.takeDamage(projectile.getDamage());
+                        playEffect(SoundManager.Effect.HIT);
+                        projectileIterator.remove();
+                        System.out.println("Enemy hit! Health: " + enemy.getCurrentHealth() + "/" + enemy.getMaxHealth());
+                        break;
+                    }
                 }
             }
         }
+
+        rebuildProjectileGrid();
     }
 
     public void playerThrowProjectile(int targetX, int targetY) {
+        if (remote != null) {
+            remote.throwAt(targetX, targetY);
+            return;
+        }
         if (player != null && gameOngoing && player.isAlive()) {
+            int thrown = player.getProjectiles().size();
             player.throwProjectile(targetX, targetY);
+            if (player.getProjectiles().size() > thrown) {
+                playEffect(SoundManager.Effect.THROW);
+            }
         }
     }
 
@@ -500,8 +1099,9 @@ public class PixelGameController implements Serializable {
     }
     private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
         ois.defaultReadObject();
-        this.soundManager = new SoundManager();
+        this.soundManager = SoundManager.getInstance();
         this.random = new Random();
+        publishSnapshot();
         System.out.println("Transient fields reinitialized after loading");
     }
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.util.Random;
 
 public class PixelGameGUI extends JFrame {
     private transient ImageIcon[][] spriteFrames = new ImageIcon[4][3];
@@ -15,7 +14,6 @@ public class PixelGameGUI extends JFrame {
     private PixelGameController gameController;
     private PixelMazePanel mazePanel;
     private CharacterSelectionPanel characterSelectionPanel;
-    private boolean[] keys = new boolean[4];
     private Timer inputTimer;
 
 
@@ -30,12 +28,46 @@ public class PixelGameGUI extends JFrame {
     private ImageIcon arrowIcon;
 
     private int selectedCharacter = 0;
+    private final LevelPool levelPool = new LevelPool();
+    private final WorldSource worldSource;
+
+    // Builds the maze for every new game in place of the level pool, for
+    // worlds picked on the command line (see PixelMain)
+    interface WorldSource {
+        PixelMaze create(int difficulty) throws IOException;
+    }
 
     public PixelGameGUI() {
+        this(null);
+    }
+
+    PixelGameGUI(WorldSource worldSource) {
         super("Pixel Maze Adventure");
-        loadResources();
-        setCustomIcon();
-        initializeMainFrame();
+        this.worldSource = worldSource;
+        showLoadingScreen();
+    }
+
+    // Assets are decoded in the background behind a progress screen; the menu
+    // (and level pre-generation, which would compete for the same cores) only
+    // starts once everything is in memory
+    private void showLoadingScreen() {
+        setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        setResizable(false);
+
+        LoadingPanel loadingPanel = new LoadingPanel();
+        setContentPane(loadingPanel);
+        pack();
+        setLocationRelativeTo(null);
+        setVisible(true);
+
+        AssetManager.preload(loadingPanel::setProgress, () -> {
+            loadResources();
+            setCustomIcon();
+            initializeMainFrame();
+            if (worldSource == null) {
+                levelPool.start();
+            }
+        });
     }
 
     private class DifficultySelectionPanel extends JPanel {
@@ -53,11 +85,8 @@ public class PixelGameGUI extends JFrame {
 
         private void loadDifficultyBackground() {
             try {
-                java.io.InputStream bgStream = getClass().getResourceAsStream("/general/difficulty.png");
-                if (bgStream != null) {
-                    difficultyBackgroundImage = new ImageIcon(bgStream.readAllBytes()).getImage();
-                    System.out.println("Difficulty background image loaded successfully");
-                } else {
+                difficultyBackgroundImage = AssetManager.getImage("/general/difficulty.png");
+                if (difficultyBackgroundImage == null) {
                     System.out.println("Difficulty background image not found at /general/difficulty.png");
                     difficultyBackgroundImage = backgroundImage;
                 }
@@ -130,40 +159,21 @@ public class PixelGameGUI extends JFrame {
     }
     private void loadResources() {
         try {
-            java.io.InputStream fontStream = getClass().getResourceAsStream("/dragonslayer.ttf");
-            if (fontStream != null) {
-                dragonSlayerFont = Font.createFont(Font.TRUETYPE_FONT, fontStream).deriveFont(36f);
-                System.out.println("DragonSlayer font loaded successfully");
-            } else {
-                System.out.println("DragonSlayer font not found, using fallback");
-                dragonSlayerFont = new Font("Arial", Font.BOLD, 36);
-            }
+            dragonSlayerFont = AssetManager.getFont();
 
-            java.io.InputStream bgStream = getClass().getResourceAsStream("/general/background.png");
-            if (bgStream != null) {
-                backgroundImage = new ImageIcon(bgStream.readAllBytes()).getImage();
-                System.out.println("Background image loaded successfully");
-            } else {
+            backgroundImage = AssetManager.getImage("/general/background.png");
+            if (backgroundImage == null) {
                 System.out.println("Background image not found, using fallback");
                 backgroundImage = createFallbackBackground();
             }
 
-            java.io.InputStream iconStream = getClass().getResourceAsStream("/general/icon.png");
-            if (iconStream != null) {
-                byte[] iconBytes = iconStream.readAllBytes();
-                iconImage = new ImageIcon(iconBytes).getImage();
-                System.out.println("Window icon loaded successfully");
-            } else {
+            iconImage = AssetManager.getImage("/general/icon.png");
+            if (iconImage == null) {
                 System.out.println("Window icon not found at /general/icon.png");
                 createFallbackIcon();
             }
-            java.io.InputStream arrowStream = getClass().getResourceAsStream("/general/arrow.png");
-            if (arrowStream != null) {
-                ImageIcon originalArrow = new ImageIcon(arrowStream.readAllBytes());
-                Image scaledArrow = originalArrow.getImage().getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-                arrowIcon = new ImageIcon(scaledArrow);
-                System.out.println("Arrow icon loaded successfully");
-            } else {
+            arrowIcon = AssetManager.getScaledIcon("/general/arrow.png", 100, 100);
+            if (arrowIcon == null) {
                 System.out.println("Arrow icon not found at /general/arrow.png");
                 createFallbackArrow();
             }
@@ -269,6 +279,7 @@ public class PixelGameGUI extends JFrame {
         if (gameController != null) {
             gameController.stopGame();
         }
+        levelPool.resume();
 
         getContentPane().removeAll();
 
@@ -289,6 +300,7 @@ public class PixelGameGUI extends JFrame {
         if (gameController != null) {
             gameController.stopGame();
         }
+        levelPool.resume();
 
         getContentPane().removeAll();
 
@@ -505,6 +517,7 @@ public class PixelGameGUI extends JFrame {
 
     private void initializeGamePanel() {
         System.out.println("Initializing game panel...");
+        levelPool.pause();
 
         getContentPane().removeAll();
 
@@ -527,6 +540,23 @@ public class PixelGameGUI extends JFrame {
     private void showPauseMenu() {
         if (gameController == null || !gameController.isGameOngoing()) return;
 
+        // The dialog is modal but timers keep firing behind it, so the game
+        // tick is held for as long as it is open. Not setPaused: the menu
+        // can save, and the flag would go into the save file.
+        Timer tick = inputTimer;
+        boolean ticking = tick != null && tick.isRunning();
+        if (ticking) tick.stop();
+        try {
+            choosePauseOption();
+        } finally {
+            // Restart and load set up a timer of their own
+            if (ticking && tick == inputTimer && gameController.isGameOngoing()) {
+                tick.start();
+            }
+        }
+    }
+
+    private void choosePauseOption() {
         String[] options = {"Resume", "Save Game", "Load Game", "Music ON/OFF", "Restart", "Main Menu", "Exit"};
         int choice = JOptionPane.showOptionDialog(this,
                 "Game Paused\n\nTreasures: " + gameController.getPlayer().getTreasuresCollected() +
@@ -594,6 +624,7 @@ public class PixelGameGUI extends JFrame {
         if (gameController != null) {
             gameController.stopGame();
         }
+        levelPool.resume();
 
         getContentPane().removeAll();
 
@@ -651,30 +682,19 @@ public class PixelGameGUI extends JFrame {
     private void startNewGameWithSelectedCharacterAndDifficulty() {
         System.out.println("Starting new game with character: " + selectedCharacter + " and difficulty: " + selectedDifficulty);
 
-        // Generate random maze size based on difficulty
-        Random rand = new Random();
-        int baseSize;
-        switch (selectedDifficulty) {
-            case 0:
-                baseSize = 15 + rand.nextInt(6);
-                break;
-            case 1:
-                baseSize = 20 + rand.nextInt(6);
-                break;
-            case 2:
-                baseSize = 25 + rand.nextInt(6);
-                break;
-            default:
-                baseSize = 20;
-        }
-
-        System.out.println("Creating " + difficultyOptions[selectedDifficulty] + " maze: " + baseSize + "x" + baseSize);
+        long requestTime = System.nanoTime();
 
         try {
-            gameController = new PixelGameController(baseSize, baseSize, selectedCharacter, selectedDifficulty);
+            if (worldSource != null) {
+                PixelMaze maze = worldSource.create(selectedDifficulty);
+                gameController = new PixelGameController(maze, selectedCharacter, selectedDifficulty);
+            } else {
+                gameController = levelPool.take(selectedDifficulty, selectedCharacter);
+            }
             initializeGamePanel();
             setupGameInputHandling();
             gameController.startGame();
+            mazePanel.setFirstFrameRequestTime(requestTime);
 
             saveGame();
 
@@ -721,19 +741,19 @@ public class PixelGameGUI extends JFrame {
                 switch (keyCode) {
                     case KeyEvent.VK_UP:
                     case KeyEvent.VK_W:
-                        keys[0] = true;
+                        gameController.getInput().keyDown(0);
                         break;
                     case KeyEvent.VK_DOWN:
                     case KeyEvent.VK_S:
-                        keys[1] = true;
+                        gameController.getInput().keyDown(1);
                         break;
                     case KeyEvent.VK_LEFT:
                     case KeyEvent.VK_A:
-                        keys[2] = true;
+                        gameController.getInput().keyDown(2);
                         break;
                     case KeyEvent.VK_RIGHT:
                     case KeyEvent.VK_D:
-                        keys[3] = true;
+                        gameController.getInput().keyDown(3);
                         break;
                     case KeyEvent.VK_ESCAPE:
                         showPauseMenu();
@@ -745,9 +765,12 @@ public class PixelGameGUI extends JFrame {
                         break;
                     case KeyEvent.VK_SPACE:
                         if (gameController != null) {
-                            gameController.playerThrowDirectionalProjectile();
+                            gameController.getInput().throwForward();
                         }
                         break;
+                    case KeyEvent.VK_F4:
+                        mazePanel.setShowInputLatency(!mazePanel.isInputLatencyVisible());
+                        break;
                     case KeyEvent.VK_B:
                         if (gameController != null && gameController.isGameOngoing()) {
                             showShop();
@@ -790,19 +813,19 @@ public class PixelGameGUI extends JFrame {
                 switch (keyCode) {
                     case KeyEvent.VK_UP:
                     case KeyEvent.VK_W:
-                        keys[0] = false;
+                        gameController.getInput().keyUp(0);
                         break;
                     case KeyEvent.VK_DOWN:
                     case KeyEvent.VK_S:
-                        keys[1] = false;
+                        gameController.getInput().keyUp(1);
                         break;
                     case KeyEvent.VK_LEFT:
                     case KeyEvent.VK_A:
-                        keys[2] = false;
+                        gameController.getInput().keyUp(2);
                         break;
                     case KeyEvent.VK_RIGHT:
                     case KeyEvent.VK_D:
-                        keys[3] = false;
+                        gameController.getInput().keyUp(3);
                         break;
                 }
             }
@@ -822,10 +845,11 @@ public class PixelGameGUI extends JFrame {
             inputTimer.stop();
         }
 
+        // Listeners only queue input; each tick drains it before moving
         inputTimer = new Timer(16, e -> {
             if (gameController != null && gameController.isGameOngoing()) {
-                gameController.updatePlayer(keys);
-                mazePanel.repaint();
+                // Repaints come from the panel's scheduler when the tick publishes
+                gameController.updateFromInput();
                 checkGameStatus();
             }
         });
@@ -851,6 +875,7 @@ public class PixelGameGUI extends JFrame {
     }
 
     private void showEndScreen(boolean playerWon, int treasuresCollected, int totalPoints) {
+        levelPool.resume();
         getContentPane().removeAll();
 
         EndScreenPanel endPanel = new EndScreenPanel(playerWon, treasuresCollected, totalPoints);
@@ -899,9 +924,9 @@ public class PixelGameGUI extends JFrame {
     }
     private void showExitImage() {
         try {
-            java.io.InputStream is = getClass().getResourceAsStream("/general/gamesaved.png");
-            if (is != null) {
-                ImageIcon exitIcon = new ImageIcon(is.readAllBytes());
+            Image savedImage = AssetManager.getImage("/general/gamesaved.png");
+            if (savedImage != null) {
+                ImageIcon exitIcon = new ImageIcon(savedImage);
 
                 JDialog dialog = new JDialog(this, false);
                 dialog.setUndecorated(true);
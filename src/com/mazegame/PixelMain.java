@@ -1,11 +1,34 @@
 package com.mazegame;
 
 import javax.swing.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
+// java com.mazegame.PixelMain [--chunked <chunksX> <chunksY> [seed] | --level <file>]
+// With --chunked every new game is played on a streamed world of 64x64-cell
+// chunks instead of a pre-generated level; with --level, on a MazeFile
+// mapped from disk (as written by PixelMaze.saveToFile, MazeFileCheck or
+// EllerMazeGenerator.generateToFile). Pickups never change the file.
 public class PixelMain {
     public static void main(String[] args) {
+        PixelGameGUI.WorldSource worldSource = null;
+        if (args.length >= 3 && args[0].equals("--chunked")) {
+            int chunksX = Integer.parseInt(args[1]);
+            int chunksY = Integer.parseInt(args[2]);
+            long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+            System.out.println("Chunked world " + chunksX + "x" + chunksY + " chunks, seed " + seed);
+            worldSource = difficulty -> PixelMaze.createChunked(chunksX, chunksY, difficulty, seed);
+        } else if (args.length == 2 && args[0].equals("--level")) {
+            Path file = Paths.get(args[1]);
+            System.out.println("Level file " + file);
+            worldSource = difficulty -> PixelMaze.fromFile(file, difficulty);
+        } else if (args.length > 0) {
+            System.err.println("Usage: PixelMain [--chunked <chunksX> <chunksY> [seed] | --level <file>]");
+            System.exit(2);
+        }
+        PixelGameGUI.WorldSource source = worldSource;
         SwingUtilities.invokeLater(() -> {
-            PixelGameGUI game = new PixelGameGUI();
+            PixelGameGUI game = new PixelGameGUI(source);
         });
     }
 }
@@ -1,39 +1,151 @@
 package com.mazegame;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.*;
 
 public class PixelMaze implements Serializable {
     private static final long serialVersionUID = 1L;
 
     private char[][] grid;
+    private MazeCells cells;
     private List<int[]> treasurePositions;
     private List<int[]> lifePotionPositions;
+    private transient CellItemIndex treasureIndex;
+    private transient CellItemIndex lifePotionIndex;
+    // Corridor-collapsed view of the grid, built on first use and patched on
+    // every tile change; null for streamed mazes
+    private transient JunctionGraph junctions;
+    // Steps from the start per junction node (see JunctionGraph.distancesFrom),
+    // dropped whenever the graph changes
+    private transient int[] startDistance;
+    private transient FreeCellIndex freeCells;
     private int exitX, exitY;
     private int startX, startY;
     private int width, height;
     private transient Random random;
-    private static final int TILE_SIZE = 64;
+    private transient SweepResult slideSweep;
+    static final int TILE_SIZE = 64;
+    private static final float COLLISION_MARGIN = 2.0f;
+    private static final float CONTACT_EPSILON = 0.01f;
+    private static final float CONTACT_SKIN = 0.5f;
+    private static final int EXIT_CANDIDATES = 3;
+    // Items stay this many steps away from the start and exit
+    private static final int NEAR_DISTANCE = 4;
+    // Cells in a diamond of radius NEAR_DISTANCE - 1
+    private static final int IMPORTANT_AREA_CELLS = 2 * NEAR_DISTANCE * NEAR_DISTANCE - 2 * NEAR_DISTANCE + 1;
+    private static final int[] DX = {-1, 1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
     private int lifePotionCount = 3;
     private int difficulty;
+    private String generator = "dfs";
 
     public PixelMaze(int width, int height) {
         this(width, height, 1);
     }
 
     public PixelMaze(int width, int height, int difficulty) {
+        this(width, height, difficulty, "dfs");
+    }
+
+    // generator: one of MazeGenerator.NAMES, e.g. "dfs" (long corridors) or
+    // "kruskal" (short branches)
+    public PixelMaze(int width, int height, int difficulty, String generator) {
         this.width = width;
         this.height = height;
         this.difficulty = difficulty;
         this.random = new Random();
         this.grid = new char[height][width];
+        this.cells = new GridCells(grid);
         this.treasurePositions = new ArrayList<>();
         this.lifePotionPositions = new ArrayList<>();
+        this.treasureIndex = new CellItemIndex(0);
+        this.lifePotionIndex = new CellItemIndex(0);
+        this.generator = generator;
 
         applyDifficultySettings();
         generateMaze();
     }
 
+    // Streamed world: tiles live in lazily generated chunks or a mapped file
+    // instead of one array, so only the cells near the camera are ever resident.
+    private PixelMaze(MazeCells cells, int startX, int startY, int exitX, int exitY, int difficulty) {
+        this.cells = cells;
+        this.width = cells.getWidth();
+        this.height = cells.getHeight();
+        this.difficulty = difficulty;
+        this.random = new Random();
+        this.treasurePositions = new ArrayList<>();
+        this.lifePotionPositions = new ArrayList<>();
+        this.treasureIndex = new CellItemIndex(0);
+        this.lifePotionIndex = new CellItemIndex(0);
+        this.startX = startX;
+        this.startY = startY;
+        this.exitX = exitX;
+        this.exitY = exitY;
+
+        System.out.println("Streamed maze created: " + width + "x" + height + " (Difficulty: " + difficulty + ")");
+        System.out.println("Start position: (" + startX + ", " + startY + ")");
+        System.out.println("Exit position: (" + exitX + ", " + exitY + ")");
+    }
+
+    public static PixelMaze createChunked(int chunksX, int chunksY, int difficulty, long seed) {
+        return fromChunks(new ChunkedMazeCells(chunksX, chunksY, difficulty, seed), difficulty);
+    }
+
+    static PixelMaze fromChunks(ChunkedMazeCells chunks, int difficulty) {
+        return new PixelMaze(chunks, chunks.getStartX(), chunks.getStartY(),
+                chunks.getExitX(), chunks.getExitY(), difficulty);
+    }
+
+    // Runs directly on a pre-generated maze file without copying it into memory
+    public static PixelMaze fromFile(Path file, int difficulty) throws IOException {
+        MappedMazeCells mapped = MappedMazeCells.open(file);
+        return new PixelMaze(mapped, mapped.getStartX(), mapped.getStartY(),
+                mapped.getExitX(), mapped.getExitY(), difficulty);
+    }
+
+    // A copy of another process's maze, as GameClient receives it: plain
+    // tiles with no item lists, graph or free-cell index behind them
+    static PixelMaze fromGrid(char[][] grid, int startX, int startY, int exitX, int exitY, int difficulty) {
+        return new PixelMaze(new GridCells(grid), startX, startY, exitX, exitY, difficulty);
+    }
+
+    // Same layout and items as a generated maze, with tiles of its own so
+    // pickups in one copy leave the other alone. SessionHost starts every
+    // session from a copy of a pre-generated template instead of generating
+    // again. The graph, distances and free cells are rebuilt on first use.
+    PixelMaze copy() {
+        char[][] tiles = new char[height][];
+        for (int y = 0; y < height; y++) {
+            tiles[y] = grid[y].clone();
+        }
+        PixelMaze copy = new PixelMaze(new GridCells(tiles), startX, startY, exitX, exitY, difficulty);
+        copy.grid = tiles;
+        copy.generator = generator;
+        copy.lifePotionCount = lifePotionCount;
+        // Positions are never changed in place, only swapped out, so the pairs can be shared
+        copy.treasurePositions.addAll(treasurePositions);
+        copy.lifePotionPositions.addAll(lifePotionPositions);
+        copy.treasureIndex = copy.buildItemIndex(copy.treasurePositions);
+        copy.lifePotionIndex = copy.buildItemIndex(copy.lifePotionPositions);
+        return copy;
+    }
+
+    // Drops what only placement needs (the junction graph, start distances
+    // and free-cell index) once enemies are in; all three come back on demand
+    void releasePlacementData() {
+        junctions = null;
+        startDistance = null;
+        freeCells = null;
+    }
+
+    public void saveToFile(Path file) throws IOException {
+        MazeFile.write(file, cells, startX, startY, exitX, exitY);
+        System.out.println("Maze written to " + file);
+    }
+
     private void applyDifficultySettings() {
         switch (difficulty) {
             case 0:
@@ -56,15 +168,18 @@ public class PixelMaze implements Serializable {
             Arrays.fill(grid[i], '#');
         }
 
-        carvePassages(1, 1);
+        MazeGenerator.forName(generator).generate(grid, random);
+        junctions = null;
+        startDistance = null;
 
         applyMazeComplexity();
 
         startX = 1;
         startY = 1;
-        grid[startY][startX] = 'S';
+        setTile(startX, startY, 'S');
 
         placeExit();
+        buildFreeCellIndex();
 
         placeTreasures();
         placeLifePotions();
@@ -75,33 +190,39 @@ public class PixelMaze implements Serializable {
         System.out.println("Maze generated: " + width + "x" + height + " (Difficulty: " + difficulty + ")");
         System.out.println("Start position: (" + startX + ", " + startY + ")");
         System.out.println("Exit position: (" + exitX + ", " + exitY + ")");
-    }
-
-    private void carvePassages(int x, int y) {
-        grid[y][x] = '.';
-
-        int[][] directions = {{-2,0}, {2,0}, {0,-2}, {0,2}};
-        shuffleDirections(directions);
-
-        for (int[] dir : directions) {
-            int nextX = x + dir[0];
-            int nextY = y + dir[1];
-
-            if (nextX > 0 && nextX < width-1 && nextY > 0 && nextY < height-1 &&
-                    grid[nextY][nextX] == '#') {
-                grid[y + dir[1]/2][x + dir[0]/2] = '.';
-                carvePassages(nextX, nextY);
-            }
+        printDistanceAnalytics();
+    }
+
+    // Path-length summary used to compare difficulty settings and generators.
+    // Corridor cells are summed per edge from the distances of its two ends.
+    private void printDistanceAnalytics() {
+        JunctionGraph graph = getJunctionGraph();
+        int[] nodeDistance = getStartDistanceField();
+        int reachable = 0;
+        long total = 0;
+        int farthest = 0;
+        for (int node = 0; node < graph.getNodeCapacity(); node++) {
+            int dist = nodeDistance[node];
+            if (graph.nodeCell(node) < 0 || dist < 0) continue;
+            reachable++;
+            total += dist;
+            farthest = Math.max(farthest, dist);
         }
-    }
-
-    private void shuffleDirections(int[][] directions) {
-        for (int i = directions.length - 1; i > 0; i--) {
-            int j = random.nextInt(i + 1);
-            int[] temp = directions[i];
-            directions[i] = directions[j];
-            directions[j] = temp;
+        for (int edge = 0; edge < graph.getEdgeCapacity(); edge++) {
+            int length = graph.edgeLength(edge);
+            int fromDist = length < 0 ? -1 : nodeDistance[graph.edgeFrom(edge)];
+            int toDist = length < 0 ? -1 : nodeDistance[graph.edgeTo(edge)];
+            if (fromDist < 0 || toDist < 0) continue;
+            for (int steps = 1; steps < length; steps++) {
+                int dist = Math.min(fromDist + steps, toDist + length - steps);
+                reachable++;
+                total += dist;
+                farthest = Math.max(farthest, dist);
+            }
         }
+        System.out.println("Exit path length: " + getExitPathLength() + " steps (farthest cell: " + farthest +
+                ", average: " + (reachable > 0 ? total / reachable : 0) + ", reachable cells: " + reachable + ") over " +
+                graph.getNodeCount() + " junction nodes, " + graph.getEdgeCount() + " corridors");
     }
 
     private void applyMazeComplexity() {
@@ -109,10 +230,9 @@ public class PixelMaze implements Serializable {
             case 0:
                 simplifyMaze();
                 break;
+            // Medium and hard layouts are left as generated
             case 1:
-                break;
             case 2:
-                complexifyMaze();
                 break;
         }
     }
@@ -124,7 +244,7 @@ public class PixelMaze implements Serializable {
             for (int x = 1; x < width - 1; x++) {
                 if (grid[y][x] == '#' && random.nextFloat() < 0.15f) {
                     if (isIsolatedWall(x, y)) {
-                        grid[y][x] = '.';
+                        setTile(x, y, '.');
                         wallsRemoved++;
                     }
                 }
@@ -133,74 +253,6 @@ public class PixelMaze implements Serializable {
         System.out.println("Removed " + wallsRemoved + " walls for simpler maze");
     }
 
-    private void complexifyMaze() {
-        System.out.println("Making maze more complex for hard difficulty...");
-
-        char[][] originalGrid = copyGrid();
-
-        int wallsAdded = 0;
-        List<int[]> addedWalls = new ArrayList<>();
-
-        for (int y = 1; y < height - 1; y++) {
-            for (int x = 1; x < width - 1; x++) {
-                if (grid[y][x] == '.' && random.nextFloat() < 0.08f) {
-                    if (!wouldBlockCriticalPath(x, y)) {
-                        grid[y][x] = '#';
-                        addedWalls.add(new int[]{x, y});
-                        wallsAdded++;
-                    }
-                }
-            }
-        }
-
-        if (!isExitReachable()) {
-            System.out.println("Exit became unreachable after complexification, reverting some walls...");
-            revertSomeWalls(addedWalls);
-        }
-
-        System.out.println("Added " + wallsAdded + " walls for more complex maze");
-    }
-
-    private char[][] copyGrid() {
-        char[][] copy = new char[height][width];
-        for (int y = 0; y < height; y++) {
-            System.arraycopy(grid[y], 0, copy[y], 0, width);
-        }
-        return copy;
-    }
-
-    private boolean isExitReachable() {
-        boolean[][] visited = new boolean[height][width];
-        return canReachExit(startX, startY, visited);
-    }
-
-    private boolean canReachExit(int x, int y, boolean[][] visited) {
-        if (x < 0 || x >= width || y < 0 || y >= height || visited[y][x] || grid[y][x] == '#') {
-            return false;
-        }
-
-        if (grid[y][x] == 'E') {
-            return true;
-        }
-
-        visited[y][x] = true;
-
-        return canReachExit(x + 1, y, visited) ||
-                canReachExit(x - 1, y, visited) ||
-                canReachExit(x, y + 1, visited) ||
-                canReachExit(x, y - 1, visited);
-    }
-
-    private void revertSomeWalls(List<int[]> addedWalls) {
-        int wallsToRevert = addedWalls.size() / 2;
-        Collections.shuffle(addedWalls, random);
-
-        for (int i = 0; i < wallsToRevert && i < addedWalls.size(); i++) {
-            int[] wall = addedWalls.get(i);
-            grid[wall[1]][wall[0]] = '.';
-        }
-        System.out.println("Reverted " + wallsToRevert + " walls to maintain exit path");
-    }
     private boolean isIsolatedWall(int x, int y) {
         int pathNeighbors = 0;
         int[][] neighbors = {{-1,0}, {1,0}, {0,-1}, {0,1}};
@@ -215,17 +267,6 @@ public class PixelMaze implements Serializable {
         return pathNeighbors <= 1;
     }
 
-    private boolean wouldBlockCriticalPath(int x, int y) {
-        // Test if adding this wall would make exit unreachable
-        char original = grid[y][x];
-        grid[y][x] = '#';
-
-        boolean exitReachable = isExitReachable();
-
-        grid[y][x] = original;
-
-        return !exitReachable;
-    }
     private int countDeadEndsAround(int x, int y) {
         int deadEnds = 0;
         int[][] neighbors = {{-1,0}, {1,0}, {0,-1}, {0,1}};
@@ -245,70 +286,86 @@ public class PixelMaze implements Serializable {
 
 
     private void placeExit() {
-        boolean[][] visited = new boolean[height][width];
-        int[][] distance = new int[height][width];
-        Queue<int[]> queue = new LinkedList<>();
-
-        queue.offer(new int[]{startX, startY});
-        visited[startY][startX] = true;
-        distance[startY][startX] = 0;
+        chooseExit();
+        int distance = getStartDistance(exitX, exitY);
+
+        setTile(exitX, exitY, 'E');
+        System.out.println("Exit placed at: (" + exitX + ", " + exitY + ") - Path distance from start: " + distance);
+    }
+
+    // Picks the exit from distances on the junction graph. Good candidates are
+    // dead ends (always nodes) and cells in the border band, which are the
+    // only corridor cells that have to be looked at one by one. The three
+    // farthest are kept in order (ties in scan order), and the farthest cell
+    // of all is the fallback.
+    private void chooseExit() {
+        JunctionGraph graph = getJunctionGraph();
+        int[] nodeDistance = getStartDistanceField();
+        int[] topCells = new int[EXIT_CANDIDATES];
+        int[] topDistances = new int[EXIT_CANDIDATES];
+        int topCount = 0;
+        int maxDistance = 0;
+        int farthestCell = startY * width + startX;
 
-        List<int[]> candidatePositions = new ArrayList<>();
-        int maxDistance = -1;
-
-        while (!queue.isEmpty()) {
-            int[] current = queue.poll();
-            int x = current[0], y = current[1];
-
-            candidatePositions.add(new int[]{x, y, distance[y][x]});
-
-            if (distance[y][x] > maxDistance) {
-                maxDistance = distance[y][x];
-            }
-
-            int[][] neighbors = {{-1,0}, {1,0}, {0,-1}, {0,1}};
-            for (int[] dir : neighbors) {
-                int nx = x + dir[0];
-                int ny = y + dir[1];
-
-                if (nx >= 0 && nx < width && ny >= 0 && ny < height &&
-                        !visited[ny][nx] && grid[ny][nx] != '#') {
-                    visited[ny][nx] = true;
-                    distance[ny][nx] = distance[y][x] + 1;
-                    queue.offer(new int[]{nx, ny});
+        for (int y = 0; y < height; y++) {
+            boolean bandRow = y <= 2 || y >= height - 3;
+            for (int x = 0; x < width; x = bandRow || x < 2 || x >= width - 3 ? x + 1 : width - 3) {
+                int dist = graph.distanceTo(nodeDistance, x, y);
+                if (dist >= 0 && isGoodExitCandidate(x, y, dist)) {
+                    topCount = insertCandidate(topCells, topDistances, topCount, y * width + x, dist);
                 }
             }
         }
-
-        List<int[]> goodCandidates = new ArrayList<>();
-        for (int[] candidate : candidatePositions) {
-            int x = candidate[0], y = candidate[1], dist = candidate[2];
-            if (isGoodExitCandidate(x, y, dist) && dist >= maxDistance * 0.7) { // At least 70% of max distance
-                goodCandidates.add(candidate);
+        for (int node = 0; node < graph.getNodeCapacity(); node++) {
+            int cell = graph.nodeCell(node);
+            int dist = cell < 0 ? -1 : nodeDistance[node];
+            if (dist < 0) continue;
+            int x = cell % width, y = cell / width;
+            if (dist > maxDistance) {
+                maxDistance = dist;
+                farthestCell = cell;
+            }
+            boolean inBand = x <= 2 || x >= width - 3 || y <= 2 || y >= height - 3;
+            if (!inBand && isGoodExitCandidate(x, y, dist)) {
+                topCount = insertCandidate(topCells, topDistances, topCount, cell, dist);
+            }
+        }
+        // In mazes with loops the farthest cell can sit inside a corridor
+        for (int edge = 0; edge < graph.getEdgeCapacity(); edge++) {
+            int length = graph.edgeLength(edge);
+            if (length < 2) continue;
+            int fromDist = nodeDistance[graph.edgeFrom(edge)];
+            int toDist = nodeDistance[graph.edgeTo(edge)];
+            if (fromDist < 0 || toDist < 0) continue;
+            int steps = Math.max(1, Math.min(length - 1, (toDist + length - fromDist) / 2));
+            int dist = Math.min(fromDist + steps, toDist + length - steps);
+            if (dist > maxDistance) {
+                maxDistance = dist;
+                farthestCell = graph.edgeCell(edge, steps);
             }
         }
 
-        if (!goodCandidates.isEmpty()) {
-            goodCandidates.sort((a, b) -> Integer.compare(b[2], a[2]));
+        // Candidates are sorted farthest first, so those within 70% of the
+        // maximum distance form a prefix; prefer the third farthest of them
+        int valid = 0;
+        while (valid < topCount && topDistances[valid] >= maxDistance * 0.7) valid++;
 
-            int index = Math.min(2, goodCandidates.size() - 1);
-            int[] bestExit = goodCandidates.get(index);
+        int exitCell = valid > 0 ? topCells[Math.min(2, valid - 1)] : farthestCell;
+        exitX = exitCell % width;
+        exitY = exitCell / width;
+    }
 
-            exitX = bestExit[0];
-            exitY = bestExit[1];
-        } else {
-            for (int[] candidate : candidatePositions) {
-                if (candidate[2] == maxDistance) {
-                    exitX = candidate[0];
-                    exitY = candidate[1];
-                    break;
-                }
-            }
+    private static int insertCandidate(int[] topCells, int[] topDistances, int topCount, int cell, int dist) {
+        int slot = topCount;
+        while (slot > 0 && topDistances[slot - 1] < dist) slot--;
+        if (slot >= EXIT_CANDIDATES) return topCount;
+        for (int i = Math.min(topCount, EXIT_CANDIDATES - 1); i > slot; i--) {
+            topCells[i] = topCells[i - 1];
+            topDistances[i] = topDistances[i - 1];
         }
-
-        grid[exitY][exitX] = 'E';
-        System.out.println("Exit placed at: (" + exitX + ", " + exitY + ") - Distance from start: " +
-                (exitX != -1 ? calculateDistanceFromStart(exitX, exitY) : "unknown"));
+        topCells[slot] = cell;
+        topDistances[slot] = dist;
+        return Math.min(topCount + 1, EXIT_CANDIDATES);
     }
 
     private boolean isGoodExitCandidate(int x, int y, int distanceFromStart) {
@@ -356,60 +413,131 @@ public class PixelMaze implements Serializable {
 
     private int countPathNeighbors(int x, int y) {
         int count = 0;
-        int[][] neighbors = {{-1,0}, {1,0}, {0,-1}, {0,1}};
-
-        for (int[] dir : neighbors) {
-            int nx = x + dir[0];
-            int ny = y + dir[1];
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
             if (nx >= 0 && nx < width && ny >= 0 && ny < height && grid[ny][nx] == '.') {
                 count++;
             }
         }
         return count;
     }
+
+    // Path distance from the start, or -1 when unreachable or not known (streamed mazes)
+    public int getStartDistance(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return -1;
+        int[] field = getStartDistanceField();
+        return field == null ? -1 : junctions.distanceTo(field, x, y);
+    }
+
+    public int getExitPathLength() {
+        return getStartDistance(exitX, exitY);
+    }
+
+    // Per-node distances, recomputed on first use after the graph changes
+    // (item placement or pickup) or a load
+    private int[] getStartDistanceField() {
+        if (startDistance == null && grid != null) {
+            startDistance = getJunctionGraph().distancesFrom(startX, startY);
+        }
+        return startDistance;
+    }
+
+    // Null for streamed mazes. Loaded games don't carry it, so it is rebuilt
+    // once on first use.
+    public JunctionGraph getJunctionGraph() {
+        if (junctions == null && grid != null) {
+            junctions = new JunctionGraph(grid);
+        }
+        return junctions;
+    }
+
+    // Every tile write on a grid maze goes through here once the graph exists
+    private void setTile(int x, int y, char tile) {
+        grid[y][x] = tile;
+        if (junctions != null) {
+            junctions.cellChanged(x, y);
+            startDistance = null;
+        }
+    }
+
     private void placeTreasures() {
         int numTreasures = Math.max(1, (width * height) / 30);
+        treasureIndex = new CellItemIndex(numTreasures);
 
-        for (int i = 0; i < numTreasures; i++) {
-            int attempts = 0;
-            while (attempts < 100) {
-                int x = 1 + random.nextInt(width - 2);
-                int y = 1 + random.nextInt(height - 2);
+        int placed = placeItems('T', numTreasures, treasurePositions, treasureIndex);
+        System.out.println("Placed " + placed + " treasures" + (placed < numTreasures ? " (wanted " + numTreasures + ")" : ""));
+    }
 
-                if (grid[y][x] == '.' && !isNearImportantLocation(x, y)) {
-                    grid[y][x] = 'T';
-                    treasurePositions.add(new int[]{x, y});
-                    break;
+    private void placeLifePotions() {
+        int potionsPlaced = placeItems('L', lifePotionCount, lifePotionPositions, lifePotionIndex);
+        for (int[] pos : lifePotionPositions) {
+            System.out.println("Life potion placed at: (" + pos[0] + ", " + pos[1] + ")");
+        }
+        System.out.println("Placed " + potionsPlaced + " life potions");
+    }
+
+    // Draws item cells straight from the free-cell index, so placement only
+    // falls short when the maze really has no open cells left
+    private int placeItems(char tile, int count, List<int[]> positions, CellItemIndex index) {
+        int[] withheld = new int[2 * IMPORTANT_AREA_CELLS];
+        int withheldCount = withholdImportantCells(withheld);
+
+        int placed = 0;
+        while (placed < count) {
+            int cell = freeCells.takeRandom(random);
+            if (cell < 0) break;
+            int x = cell % width, y = cell / width;
+            setTile(x, y, tile);
+            addItem(positions, index, x, y);
+            placed++;
+        }
+
+        for (int i = 0; i < withheldCount; i++) {
+            freeCells.add(withheld[i]);
+        }
+        return placed;
+    }
+
+    // Takes the free cells around the start and exit out of the index while
+    // items are drawn; the caller puts them back afterwards
+    private int withholdImportantCells(int[] withheld) {
+        int count = 0;
+        int[][] centers = {{startX, startY}, {exitX, exitY}};
+        for (int[] center : centers) {
+            for (int dy = -(NEAR_DISTANCE - 1); dy <= NEAR_DISTANCE - 1; dy++) {
+                int reach = NEAR_DISTANCE - 1 - Math.abs(dy);
+                for (int dx = -reach; dx <= reach; dx++) {
+                    int x = center[0] + dx;
+                    int y = center[1] + dy;
+                    if (x < 0 || x >= width || y < 0 || y >= height) continue;
+                    int cell = y * width + x;
+                    if (isNearImportantLocation(x, y) && freeCells.remove(cell)) {
+                        withheld[count++] = cell;
+                    }
                 }
-                attempts++;
             }
         }
-        System.out.println("Placed " + numTreasures + " treasures");
+        return count;
     }
 
-    private void placeLifePotions() {
-        int potionsPlaced = 0;
-        int attempts = 0;
-
-        while (potionsPlaced < lifePotionCount && attempts < 200) {
-            int x = 1 + random.nextInt(width - 2);
-            int y = 1 + random.nextInt(height - 2);
-
-            if (grid[y][x] == '.' &&
-                    !isStartTile(x, y) &&
-                    !isExitTile(x, y) &&
-                    !isTreasureTile(x, y) &&
-                    !isLifePotionTile(x, y) &&
-                    !isNearImportantLocation(x, y)) {
-
-                grid[y][x] = 'L'; // 'L' for Life Potion
-                lifePotionPositions.add(new int[]{x, y});
-                potionsPlaced++;
-                System.out.println("Life potion placed at: (" + x + ", " + y + ")");
+    private void buildFreeCellIndex() {
+        freeCells = new FreeCellIndex(width * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (grid[y][x] == '.') {
+                    freeCells.add(y * width + x);
+                }
             }
-            attempts++;
         }
-        System.out.println("Placed " + potionsPlaced + " life potions");
+    }
+
+    // Open floor cells without items (start and exit excluded). Null for streamed mazes.
+    public FreeCellIndex getFreeCells() {
+        if (freeCells == null && grid != null) {
+            buildFreeCellIndex();
+        }
+        return freeCells;
     }
 
     private boolean isStartTile(int x, int y) {
@@ -428,27 +556,25 @@ public class PixelMaze implements Serializable {
         return grid[y][x] == 'L';
     }
 
+    // Near the start means within 4 steps along the path, so items right behind
+    // a wall next to the start are still allowed
     private boolean isNearImportantLocation(int x, int y) {
-        int startDist = Math.abs(x - startX) + Math.abs(y - startY);
+        int startDist = getStartDistance(x, y);
         int exitDist = Math.abs(x - exitX) + Math.abs(y - exitY);
-        return startDist < 4 || exitDist < 4;
+        return (startDist >= 0 && startDist < NEAR_DISTANCE) || exitDist < NEAR_DISTANCE;
     }
 
     public boolean isWallAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
-        float margin = 2.0f;
+        float margin = COLLISION_MARGIN;
         int leftCell = (int)((pixelX + margin) / TILE_SIZE);
         int rightCell = (int)((pixelX + playerWidth - margin) / TILE_SIZE);
         int topCell = (int)((pixelY + margin) / TILE_SIZE);
         int bottomCell = (int)((pixelY + playerHeight - margin) / TILE_SIZE);
 
-        // Check all overlapping cells for walls
+        // Check all overlapping cells for walls (outside the maze reads as wall)
         for (int x = leftCell; x <= rightCell; x++) {
             for (int y = topCell; y <= bottomCell; y++) {
-                if (x >= 0 && x < width && y >= 0 && y < height) {
-                    if (grid[y][x] == '#') {
-                        return true;
-                    }
-                } else {
+                if (cells.get(x, y) == '#') {
                     return true;
                 }
             }
@@ -456,71 +582,250 @@ public class PixelMaze implements Serializable {
         return false;
     }
 
-    public boolean isTreasureAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
-        int centerCellX = (int)((pixelX + playerWidth / 2) / TILE_SIZE);
-        int centerCellY = (int)((pixelY + playerHeight / 2) / TILE_SIZE);
+    // Swept AABB test: walks every cell the box covers during the move and returns
+    // the earliest time of impact, so fast movers can't tunnel through thin walls.
+    // Cells the box is already stuck inside are ignored so entities can walk out.
+    public SweepResult sweepBox(float pixelX, float pixelY, int boxWidth, int boxHeight, float dx, float dy) {
+        return sweepBox(pixelX, pixelY, boxWidth, boxHeight, dx, dy, new SweepResult());
+    }
+
+    // Allocation-free form for the per-tick callers: fills and returns result
+    SweepResult sweepBox(float pixelX, float pixelY, int boxWidth, int boxHeight, float dx, float dy,
+                         SweepResult result) {
+        result.reset();
+        if (dx == 0 && dy == 0) return result;
+
+        float left = pixelX + COLLISION_MARGIN;
+        float top = pixelY + COLLISION_MARGIN;
+        float right = pixelX + boxWidth - COLLISION_MARGIN;
+        float bottom = pixelY + boxHeight - COLLISION_MARGIN;
+
+        int minCellX = floorCell(Math.min(left, left + dx));
+        int maxCellX = floorCell(Math.max(right, right + dx));
+        int minCellY = floorCell(Math.min(top, top + dy));
+        int maxCellY = floorCell(Math.max(bottom, bottom + dy));
+
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                if (!isWallCell(cellX, cellY)) continue;
+
+                float tileLeft = cellX * TILE_SIZE;
+                float tileRight = tileLeft + TILE_SIZE;
+                float tileTop = cellY * TILE_SIZE;
+                float tileBottom = tileTop + TILE_SIZE;
+
+                float overlapX = Math.min(right, tileRight) - Math.max(left, tileLeft);
+                float overlapY = Math.min(bottom, tileBottom) - Math.max(top, tileTop);
+                if (overlapX > 0 && overlapY > 0) {
+                    // Deeply embedded: let the box walk out. A sliver of overlap is just float
+                    // error from a previous contact, so treat it as touching that face.
+                    if (overlapX > CONTACT_SKIN && overlapY > CONTACT_SKIN) continue;
+                    if (overlapX <= overlapY) {
+                        float normalX = tileLeft + tileRight < left + right ? 1 : -1;
+                        if (dx * normalX < 0) result.setHit(0, normalX, 0);
+                    } else {
+                        float normalY = tileTop + tileBottom < top + bottom ? 1 : -1;
+                        if (dy * normalY < 0) result.setHit(0, 0, normalY);
+                    }
+                    continue;
+                }
 
-        if (centerCellX >= 0 && centerCellX < width && centerCellY >= 0 && centerCellY < height) {
-            return grid[centerCellY][centerCellX] == 'T';
+                float xEntry, xExit;
+                if (dx > 0) {
+                    xEntry = (tileLeft - right) / dx;
+                    xExit = (tileRight - left) / dx;
+                } else if (dx < 0) {
+                    xEntry = (tileRight - left) / dx;
+                    xExit = (tileLeft - right) / dx;
+                } else {
+                    if (right <= tileLeft || left >= tileRight) continue;
+                    xEntry = Float.NEGATIVE_INFINITY;
+                    xExit = Float.POSITIVE_INFINITY;
+                }
+
+                float yEntry, yExit;
+                if (dy > 0) {
+                    yEntry = (tileTop - bottom) / dy;
+                    yExit = (tileBottom - top) / dy;
+                } else if (dy < 0) {
+                    yEntry = (tileBottom - top) / dy;
+                    yExit = (tileTop - bottom) / dy;
+                } else {
+                    if (bottom <= tileTop || top >= tileBottom) continue;
+                    yEntry = Float.NEGATIVE_INFINITY;
+                    yExit = Float.POSITIVE_INFINITY;
+                }
+
+                float entry = Math.max(xEntry, yEntry);
+                float exit = Math.min(xExit, yExit);
+
+                if (entry < 0 || entry > exit || entry > result.getTime()) continue;
+
+                if (xEntry > yEntry) {
+                    result.setHit(entry, dx > 0 ? -1 : 1, 0);
+                } else {
+                    result.setHit(entry, 0, dy > 0 ? -1 : 1);
+                }
+            }
         }
-        return false;
+        return result;
     }
 
-    public boolean isLifePotionAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
-        int centerCellX = (int)((pixelX + playerWidth / 2) / TILE_SIZE);
-        int centerCellY = (int)((pixelY + playerHeight / 2) / TILE_SIZE);
+    // Moves the box as far as it can go and slides the leftover motion along any wall it hits.
+    public float[] moveAndSlide(float pixelX, float pixelY, int boxWidth, int boxHeight, float dx, float dy) {
+        float[] position = new float[2];
+        moveAndSlide(pixelX, pixelY, boxWidth, boxHeight, dx, dy, position);
+        return position;
+    }
 
-        if (centerCellX >= 0 && centerCellX < width && centerCellY >= 0 && centerCellY < height) {
-            return grid[centerCellY][centerCellX] == 'L';
+    // Allocation-free form: writes the new x and y into position. The sweep
+    // scratch is per maze; like every other write here it belongs to the
+    // one thread simulating this maze.
+    void moveAndSlide(float pixelX, float pixelY, int boxWidth, int boxHeight, float dx, float dy,
+                      float[] position) {
+        if (slideSweep == null) {
+            slideSweep = new SweepResult();
         }
-        return false;
+        float x = pixelX;
+        float y = pixelY;
+
+        for (int i = 0; i < 3 && (dx != 0 || dy != 0); i++) {
+            SweepResult hit = sweepBox(x, y, boxWidth, boxHeight, dx, dy, slideSweep);
+            x += dx * hit.getTime();
+            y += dy * hit.getTime();
+            if (!hit.isHit()) break;
+
+            x += hit.getNormalX() * CONTACT_EPSILON;
+            y += hit.getNormalY() * CONTACT_EPSILON;
+
+            float remaining = 1.0f - hit.getTime();
+            dx = hit.getNormalX() != 0 ? 0 : dx * remaining;
+            dy = hit.getNormalY() != 0 ? 0 : dy * remaining;
+        }
+        position[0] = x;
+        position[1] = y;
     }
 
-    public boolean isExitAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
-        int centerCellX = (int)((pixelX + playerWidth / 2) / TILE_SIZE);
-        int centerCellY = (int)((pixelY + playerHeight / 2) / TILE_SIZE);
+    private boolean isWallCell(int cellX, int cellY) {
+        return cells.get(cellX, cellY) == '#';
+    }
+
+    private static int floorCell(float pixel) {
+        return (int) Math.floor(pixel / TILE_SIZE);
+    }
+
+    int cellXAtPixel(float pixelX, int playerWidth) {
+        return floorCell(pixelX + playerWidth / 2);
+    }
+
+    int cellYAtPixel(float pixelY, int playerHeight) {
+        return floorCell(pixelY + playerHeight / 2);
+    }
 
-        if (centerCellX >= 0 && centerCellX < width && centerCellY >= 0 && centerCellY < height) {
-            return grid[centerCellY][centerCellX] == 'E';
+    // Single per-tick check of the tile under the player's center: picks up
+    // treasures and potions on the spot and reports what happened.
+    public TileEvent probe(float pixelX, float pixelY, int playerWidth, int playerHeight) {
+        int cellX = cellXAtPixel(pixelX, playerWidth);
+        int cellY = cellYAtPixel(pixelY, playerHeight);
+        switch (cells.get(cellX, cellY)) {
+            case 'T':
+                collectItem(cellX, cellY, treasurePositions, treasureIndex);
+                return TileEvent.TREASURE;
+            case 'L':
+                collectItem(cellX, cellY, lifePotionPositions, lifePotionIndex);
+                System.out.println("Life potion collected at: (" + cellX + ", " + cellY + ")");
+                return TileEvent.LIFE_POTION;
+            case 'E':
+                return TileEvent.EXIT;
+            default:
+                return TileEvent.NONE;
         }
-        return false;
+    }
+
+    private char tileAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
+        return cells.get(cellXAtPixel(pixelX, playerWidth), cellYAtPixel(pixelY, playerHeight));
+    }
+
+    public boolean isTreasureAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
+        return tileAtPixel(pixelX, pixelY, playerWidth, playerHeight) == 'T';
+    }
+
+    public boolean isLifePotionAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
+        return tileAtPixel(pixelX, pixelY, playerWidth, playerHeight) == 'L';
+    }
+
+    public boolean isExitAtPixel(float pixelX, float pixelY, int playerWidth, int playerHeight) {
+        return tileAtPixel(pixelX, pixelY, playerWidth, playerHeight) == 'E';
     }
 
     public void collectTreasureAt(float pixelX, float pixelY, int playerWidth, int playerHeight) {
-        int centerCellX = (int)((pixelX + playerWidth / 2) / TILE_SIZE);
-        int centerCellY = (int)((pixelY + playerHeight / 2) / TILE_SIZE);
-
-        if (centerCellX >= 0 && centerCellX < width && centerCellY >= 0 && centerCellY < height &&
-                grid[centerCellY][centerCellX] == 'T') {
-            grid[centerCellY][centerCellX] = '.';
-            for (int i = 0; i < treasurePositions.size(); i++) {
-                int[] pos = treasurePositions.get(i);
-                if (pos[0] == centerCellX && pos[1] == centerCellY) {
-                    treasurePositions.remove(i);
-                    break;
-                }
-            }
+        if (isTreasureAtPixel(pixelX, pixelY, playerWidth, playerHeight)) {
+            collectItem(cellXAtPixel(pixelX, playerWidth), cellYAtPixel(pixelY, playerHeight),
+                    treasurePositions, treasureIndex);
         }
     }
 
     public void collectLifePotionAt(float pixelX, float pixelY, int playerWidth, int playerHeight) {
-        int centerCellX = (int)((pixelX + playerWidth / 2) / TILE_SIZE);
-        int centerCellY = (int)((pixelY + playerHeight / 2) / TILE_SIZE);
-
-        if (centerCellX >= 0 && centerCellX < width && centerCellY >= 0 && centerCellY < height &&
-                grid[centerCellY][centerCellX] == 'L') {
-            grid[centerCellY][centerCellX] = '.';
-            for (int i = 0; i < lifePotionPositions.size(); i++) {
-                int[] pos = lifePotionPositions.get(i);
-                if (pos[0] == centerCellX && pos[1] == centerCellY) {
-                    lifePotionPositions.remove(i);
-                    System.out.println("Life potion collected at: (" + pos[0] + ", " + pos[1] + ")");
-                    break;
-                }
+        if (isLifePotionAtPixel(pixelX, pixelY, playerWidth, playerHeight)) {
+            int cellX = cellXAtPixel(pixelX, playerWidth);
+            int cellY = cellYAtPixel(pixelY, playerHeight);
+            collectItem(cellX, cellY, lifePotionPositions, lifePotionIndex);
+            System.out.println("Life potion collected at: (" + cellX + ", " + cellY + ")");
+        }
+    }
+
+    // Streamed mazes keep their items in the tiles only, so the position
+    // lists and indexes stay empty and the removal below is a no-op for them.
+    private void collectItem(int cellX, int cellY, List<int[]> positions, CellItemIndex index) {
+        cells.set(cellX, cellY, '.');
+        if (junctions != null) {
+            junctions.cellChanged(cellX, cellY);
+            startDistance = null;
+        }
+        if (grid != null) {
+            removeItem(positions, index, cellY * width + cellX);
+            if (freeCells != null) {
+                freeCells.add(cellY * width + cellX);
             }
         }
     }
 
+    // Mirrors a pickup made elsewhere (a client applying the server's changes)
+    void clearItem(int cellX, int cellY) {
+        char tile = cells.get(cellX, cellY);
+        if (tile == 'T') {
+            collectItem(cellX, cellY, treasurePositions, treasureIndex);
+        } else if (tile == 'L') {
+            collectItem(cellX, cellY, lifePotionPositions, lifePotionIndex);
+        }
+    }
+
+    private void addItem(List<int[]> positions, CellItemIndex index, int x, int y) {
+        index.put(y * width + x, positions.size());
+        positions.add(new int[]{x, y});
+    }
+
+    // Swap-remove: the last position fills the freed slot so removal stays O(1)
+    private void removeItem(List<int[]> positions, CellItemIndex index, int cell) {
+        int slot = index.remove(cell);
+        if (slot < 0) return;
+
+        int[] last = positions.remove(positions.size() - 1);
+        if (slot < positions.size()) {
+            positions.set(slot, last);
+            index.put(last[1] * width + last[0], slot);
+        }
+    }
+
+    private CellItemIndex buildItemIndex(List<int[]> positions) {
+        CellItemIndex index = new CellItemIndex(positions.size());
+        for (int i = 0; i < positions.size(); i++) {
+            int[] pos = positions.get(i);
+            index.put(pos[1] * width + pos[0], i);
+        }
+        return index;
+    }
+
     public float getStartPixelX() {
         return (startX + 0.5f) * TILE_SIZE - 24;
     }
@@ -541,6 +846,10 @@ public class PixelMaze implements Serializable {
     }
 
     public void debugMazeTiles() {
+        if (grid == null) {
+            System.out.println("Tile analysis skipped for streamed maze");
+            return;
+        }
         System.out.println("=== MAZE TILE ANALYSIS ===");
         int pathCount = 0;
         int wallCount = 0;
@@ -575,16 +884,28 @@ public class PixelMaze implements Serializable {
 
     public int getWidth() { return width; }
     public int getHeight() { return height; }
+    // Null for streamed mazes; use getTile for storage-independent reads
     public char[][] getGrid() { return grid; }
+    public char getTile(int x, int y) { return cells.get(x, y); }
+    public void prefetchRegion(int minX, int minY, int maxX, int maxY) { cells.prefetch(minX, minY, maxX, maxY); }
+    public boolean isStreamed() { return grid == null; }
+    public int getExitX() { return exitX; }
+    public int getExitY() { return exitY; }
     public int getStartX() { return startX; }
     public int getStartY() { return startY; }
     public List<int[]> getLifePotionPositions() { return lifePotionPositions; }
     public int getDifficulty() { return difficulty; }
+    public String getGenerator() { return generator; }
 
     private void readObject(java.io.ObjectInputStream ois)
             throws java.io.IOException, ClassNotFoundException {
         ois.defaultReadObject();
         this.random = new Random();
+        if (this.cells == null) {
+            this.cells = new GridCells(grid);
+        }
+        this.treasureIndex = buildItemIndex(treasurePositions);
+        this.lifePotionIndex = buildItemIndex(lifePotionPositions);
         System.out.println("PixelMaze transient fields reinitialized after loading");
     }
 }
\ No newline at end of file
@@ -2,27 +2,110 @@ package com.mazegame;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.HierarchyEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.io.InputStream;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 
 public class PixelMazePanel extends JPanel {
-    private static final int TILE_SIZE = 64;
+    static final int TILE_SIZE = 64;
     private boolean showMiniMap = false;
     private final int MINI_MAP_SIZE = 150;
+    private final int MINI_MAP_WINDOW = 75;
     private final int MINI_MAP_MARGIN = 10;
     private PixelGameController gameController;
-    private ImageIcon pathIcon, wallIcon, treasureIcon, exitIcon;
+    private Sprite pathIcon, wallIcon, treasureIcon, exitIcon;
     private boolean useImages = true;
-    private ImageIcon lifeIcon;
-    private ImageIcon lifePotionIcon;
+    private Sprite lifeIcon;
+    private Sprite lifePotionIcon;
 
     private float cameraX, cameraY;
+    // Set when a new game is requested from the menu; logged and cleared on first paint
+    private long firstFrameRequestTime;
     private int viewportWidth = 800;
     private int viewportHeight = 600;
     private float cameraFollowSpeed = 0.08f;
 
-    private Timer renderTimer;
+    // Below this distance from its target the camera snaps and counts as settled
+    private static final float CAMERA_SETTLE_DISTANCE = 0.5f;
+    private RenderScheduler renderScheduler;
+    private long lastSceneHash;
+    private Window window;
+    private final WindowAdapter windowListener = new WindowAdapter() {
+        @Override
+        public void windowIconified(WindowEvent e) {
+            renderScheduler.setSuspended(true);
+        }
+
+        @Override
+        public void windowDeiconified(WindowEvent e) {
+            renderScheduler.setSuspended(!isShowing());
+        }
+    };
+
+    // Input-to-display probe (F4): from an input event's capture to the end
+    // of the first paint of the snapshot whose tick applied it. Averaged
+    // over LATENCY_WINDOW_NANOS; the label is only rebuilt when a window ends.
+    // Shown with the render scheduler's report and the background work the
+    // frame budget left over, refreshed on the same window.
+    private static final long LATENCY_WINDOW_NANOS = 1_000_000_000L;
+    private static final Color LATENCY_COLOR = new Color(120, 255, 120, 220);
+    private boolean showInputLatency = false;
+    private long latencyTick = -1;
+    private long latencyWindowStart;
+    private long latencySum, latencyMax;
+    private int latencySamples;
+    private String latencyLabel = "Input to display: no input yet";
+    private String renderLabel = "";
+    private String schedulerLabel = "";
+
+    private static final int HEALTH_BAR_HEIGHT = 6;
+    private static final BasicStroke HEALTH_BAR_STROKE = new BasicStroke(1);
+    private static final AlphaComposite FLASH_COMPOSITE = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.7f);
+
+    // Paint state is built once; nothing below allocates per frame
+    private static final Font HUD_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final Font HUD_BOLD_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Font HUD_INVULNERABLE_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font MINI_MAP_FONT = new Font("Arial", Font.BOLD, 10);
+    private static final Color HUD_TEXT_COLOR = new Color(255, 255, 255, 180);
+    private static final Color HUD_INVULNERABLE_COLOR = new Color(255, 255, 0, 150);
+    private static final Color MINI_MAP_BACKGROUND = new Color(0, 0, 0, 180);
+    private static final Color PATH_COLOR = new Color(220, 220, 220);
+    private static final Color WALL_COLOR = new Color(40, 40, 80);
+    private static final Color START_COLOR = new Color(180, 180, 255);
+    private static final Color MINI_MAP_PATH_COLOR = new Color(150, 150, 150);
+    private static final Color MINI_MAP_WALL_COLOR = new Color(50, 50, 50);
+    private static final Color MINI_MAP_CLEAR = new Color(0, 0, 0, 0);
+    private static final String MAP_ON_LABEL = "MAP: ON";
+    private static final String MAP_OFF_LABEL = "MAP: OFF";
+
+    // World state for the frame being painted. Everything moving comes from
+    // here rather than from the controller's lists, which the simulation
+    // keeps changing. Not a full copy: maze tiles are read live from the maze
+    // (single-cell writes, at worst a tile a frame late), and the minimap
+    // reads the explored cells through the shared map's change queue.
+    private WorldSnapshot snapshot;
+
+    // Explored cells of the minimap window, drawn at minimap scale and kept
+    // up to date from the exploration map's change queue; redrawn in full
+    // only when the window scrolls or the queue has overflowed
+    private java.awt.image.BufferedImage miniMapCells;
+    private Graphics2D miniMapCellGraphics;
+    private ExplorationMap miniMapSource;
+    private long miniMapCursor = ExplorationMap.RESCAN;
+    private int miniMapOriginX, miniMapOriginY, miniMapWindowWidth, miniMapWindowHeight;
+    private float miniMapTileSize;
+    private final ExplorationMap.ChangeListener miniMapUpdater = this::drawMiniMapCell;
+
+    // Reused every frame by the entity pass
+    private int[] visibleEnemies = new int[64];
+    private final java.util.List<Image> batchImages = new java.util.ArrayList<>();
+    private Sprite[] batchSprites = new Sprite[64];
+    private int[] batchX = new int[64];
+    private int[] batchY = new int[64];
+    private int[] batchImage = new int[64];
 
     public PixelMazePanel(PixelGameController gameController) {
         this.gameController = gameController;
@@ -79,27 +162,13 @@ public class PixelMazePanel extends JPanel {
         }
     }
 
-    private ImageIcon loadAndScaleImage(String path, int size) {
-        try {
-            System.out.println("Trying to load: '" + path + "'");
-            InputStream is = getClass().getResourceAsStream(path);
-            if (is != null) {
-                System.out.println("SUCCESS: Found " + path);
-                byte[] bytes = is.readAllBytes();
-                ImageIcon originalIcon = new ImageIcon(bytes);
-                System.out.println("Original size: " + originalIcon.getIconWidth() + "x" + originalIcon.getIconHeight());
-
-                Image scaledImage = originalIcon.getImage().getScaledInstance(size, size, Image.SCALE_SMOOTH);
-                ImageIcon scaledIcon = new ImageIcon(scaledImage);
-                System.out.println("Scaled to: " + scaledIcon.getIconWidth() + "x" + scaledIcon.getIconHeight());
-                return scaledIcon;
-            } else {
-                System.out.println("FAILED: " + path + " not found");
-            }
-        } catch (Exception e) {
-            System.out.println("ERROR loading " + path + ": " + e.getMessage());
+    private Sprite loadAndScaleImage(String path, int size) {
+        // Tiles come from the atlas loaded by the startup preload; this is a lookup
+        Sprite icon = AssetManager.getSprite(path, size, size);
+        if (icon == null) {
+            System.out.println("FAILED: " + path + " not found");
         }
-        return null;
+        return icon;
     }
 
     private void setupMouseInput() {
@@ -110,7 +179,7 @@ public class PixelMazePanel extends JPanel {
                     // Convert screen coordinates to world coordinates
                     float worldX = e.getX() + cameraX;
                     float worldY = e.getY() + cameraY;
-                    gameController.playerThrowProjectile((int)worldX, (int)worldY);
+                    gameController.queueThrow((int)worldX, (int)worldY);
                     System.out.println("Throwing dagger at: " + worldX + ", " + worldY);
                 }
             }
@@ -118,24 +187,62 @@ public class PixelMazePanel extends JPanel {
     }
 
     private void setupRenderLoop() {
-        renderTimer = new Timer(16, e -> {
-            updateCamera();
-            repaint();
+        renderScheduler = new RenderScheduler(this, this::stepFrame);
+        addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                renderScheduler.setSuspended(!isShowing());
+            }
         });
-        renderTimer.start();
     }
 
-    private void updateCamera() {
-        PixelPlayer player = gameController.getPlayer();
-        if (player != null) {
-            float playerCenterX = player.getX() + player.getWidth() / 2;
-            float playerCenterY = player.getY() + player.getHeight() / 2;
+    // One render step: true if the next paint would differ from the last
+    private boolean stepFrame() {
+        boolean cameraMoved = updateCamera();
+        long sceneHash = gameController.getSnapshot().sceneHash();
+        boolean changed = cameraMoved || sceneHash != lastSceneHash;
+        lastSceneHash = sceneHash;
+        return changed;
+    }
+
+    // A new snapshot or tile change to show; from any thread
+    public void requestRender() {
+        renderScheduler.wake();
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        window = SwingUtilities.getWindowAncestor(this);
+        if (window != null) {
+            window.addWindowListener(windowListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (window != null) {
+            window.removeWindowListener(windowListener);
+            window = null;
+        }
+        renderScheduler.setSuspended(true);
+        super.removeNotify();
+    }
+
+    // True if the camera moved
+    private boolean updateCamera() {
+        WorldSnapshot world = gameController.getSnapshot();
+        if (world.hasPlayer) {
+            float playerCenterX = world.playerX + world.playerWidth / 2;
+            float playerCenterY = world.playerY + world.playerHeight / 2;
 
             float targetX = playerCenterX - viewportWidth / 2;
             float targetY = playerCenterY - viewportHeight / 2;
 
-            cameraX = lerp(cameraX, targetX, cameraFollowSpeed);
-            cameraY = lerp(cameraY, targetY, cameraFollowSpeed);
+            float oldX = cameraX, oldY = cameraY;
+            cameraX = Math.abs(targetX - cameraX) < CAMERA_SETTLE_DISTANCE
+                    ? targetX : lerp(cameraX, targetX, cameraFollowSpeed);
+            cameraY = Math.abs(targetY - cameraY) < CAMERA_SETTLE_DISTANCE
+                    ? targetY : lerp(cameraY, targetY, cameraFollowSpeed);
 
             PixelMaze maze = gameController.getMaze();
             int mazePixelWidth = maze.getWidth() * TILE_SIZE;
@@ -143,7 +250,16 @@ public class PixelMazePanel extends JPanel {
 
             cameraX = Math.max(0, Math.min(cameraX, mazePixelWidth - viewportWidth));
             cameraY = Math.max(0, Math.min(cameraY, mazePixelHeight - viewportHeight));
+
+            // Keep the chunks under (and just around) the view resident
+            int viewMinX = (int)(cameraX / TILE_SIZE) - 1;
+            int viewMinY = (int)(cameraY / TILE_SIZE) - 1;
+            int viewMaxX = (int)((cameraX + viewportWidth) / TILE_SIZE) + 1;
+            int viewMaxY = (int)((cameraY + viewportHeight) / TILE_SIZE) + 1;
+            maze.prefetchRegion(viewMinX, viewMinY, viewMaxX, viewMaxY);
+            return cameraX != oldX || cameraY != oldY;
         }
+        return false;
     }
 
     private float lerp(float a, float b, float t) {
@@ -152,13 +268,22 @@ public class PixelMazePanel extends JPanel {
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
         Graphics2D g2d = (Graphics2D) g;
+        // Same as super.paintComponent for an opaque panel, without the
+        // Graphics copy it makes every frame
+        g2d.setColor(getBackground());
+        g2d.fillRect(0, 0, getWidth(), getHeight());
+
+        if (firstFrameRequestTime != 0) {
+            System.out.println("Menu to first frame: " + (System.nanoTime() - firstFrameRequestTime) / 1_000_000 + " ms");
+            firstFrameRequestTime = 0;
+        }
 
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
         if (gameController.getMaze() == null) return;
+        snapshot = gameController.getSnapshot();
 
         drawMaze(g2d);
         drawPlayer(g2d);
@@ -166,11 +291,42 @@ public class PixelMazePanel extends JPanel {
         drawProjectiles(g2d);
         drawMiniMap(g2d);
         drawHUD(g2d);
+        drawInputLatency(g2d);
+    }
+
+    private void drawInputLatency(Graphics2D g2d) {
+        long now = System.nanoTime();
+        WorldSnapshot world = snapshot;
+        if (world.inputNanos != 0 && world.tick != latencyTick) {
+            latencyTick = world.tick;
+            long latency = now - world.inputNanos;
+            latencySum += latency;
+            latencyMax = Math.max(latencyMax, latency);
+            latencySamples++;
+        }
+        if (now - latencyWindowStart >= LATENCY_WINDOW_NANOS) {
+            if (latencySamples > 0) {
+                latencyLabel = String.format("Input to display: avg %.1f ms, max %.1f ms (%d)",
+                        latencySum / 1e6 / latencySamples, latencyMax / 1e6, latencySamples);
+            }
+            renderLabel = renderScheduler.getReport();
+            schedulerLabel = "Background work: " + gameController.getSchedulerReport();
+            latencyWindowStart = now;
+            latencySum = 0;
+            latencyMax = 0;
+            latencySamples = 0;
+        }
+
+        if (!showInputLatency) return;
+        g2d.setColor(LATENCY_COLOR);
+        g2d.setFont(HUD_FONT);
+        g2d.drawString(latencyLabel, 10, 20);
+        g2d.drawString(renderLabel, 10, 36);
+        g2d.drawString(schedulerLabel, 10, 52);
     }
 
     private void drawMaze(Graphics2D g2d) {
         PixelMaze maze = gameController.getMaze();
-        char[][] grid = maze.getGrid();
 
         int startTileX = Math.max(0, (int)(cameraX / TILE_SIZE));
         int startTileY = Math.max(0, (int)(cameraY / TILE_SIZE));
@@ -182,16 +338,16 @@ public class PixelMazePanel extends JPanel {
                 int screenX = (int)(x * TILE_SIZE - cameraX);
                 int screenY = (int)(y * TILE_SIZE - cameraY);
 
-                drawTile(g2d, grid[y][x], screenX, screenY);
+                drawTile(g2d, maze.getTile(x, y), screenX, screenY);
             }
         }
     }
 
     private void drawTile(Graphics2D g2d, char tileType, int x, int y) {
         if (useImages) {
-            ImageIcon icon = getTileIcon(tileType);
+            Sprite icon = getTileIcon(tileType);
             if (icon != null) {
-                g2d.drawImage(icon.getImage(), x, y, this);
+                icon.draw(g2d, x, y);
             }
         } else {
             Color color = getTileColor(tileType);
@@ -200,7 +356,7 @@ public class PixelMazePanel extends JPanel {
         }
     }
 
-    private ImageIcon getTileIcon(char tileType) {
+    private Sprite getTileIcon(char tileType) {
         switch (tileType) {
             case '.': return pathIcon;
             case '#': return wallIcon;
@@ -214,121 +370,197 @@ public class PixelMazePanel extends JPanel {
 
     private Color getTileColor(char tileType) {
         switch (tileType) {
-            case '.': return new Color(220, 220, 220);
-            case '#': return new Color(40, 40, 80);
+            case '.': return PATH_COLOR;
+            case '#': return WALL_COLOR;
             case 'T': return Color.YELLOW;
             case 'E': return Color.GREEN;
-            case 'S': return new Color(180, 180, 255);
+            case 'S': return START_COLOR;
             case 'L': return Color.PINK;
             default: return Color.GRAY;
         }
     }
 
     private void drawPlayer(Graphics2D g2d) {
-        PixelPlayer player = gameController.getPlayer();
-        if (player != null) {
-            int screenX = (int)(player.getX() - cameraX);
-            int screenY = (int)(player.getY() - cameraY);
+        WorldSnapshot world = snapshot;
+        // Co-op partners first, so the local player is always on top
+        int batched = 0;
+        for (int i = 0; i < world.partnerCount; i++) {
+            if (!isOnScreen(world.partnerX[i], world.partnerY[i], world.partnerWidth[i], world.partnerHeight[i])) continue;
+            batched = addToBatch(world.partnerSprite[i], screenX(world.partnerX[i]), screenY(world.partnerY[i]), batched);
+        }
+        drawBatches(g2d, batched);
+
+        if (world.hasPlayer) {
+            int screenX = (int)(world.playerX - cameraX);
+            int screenY = (int)(world.playerY - cameraY);
 
-            ImageIcon playerSprite = player.getCurrentSprite();
+            Sprite playerSprite = world.playerSprite;
             if (playerSprite != null) {
-                g2d.drawImage(playerSprite.getImage(), screenX, screenY, this);
+                playerSprite.draw(g2d, screenX, screenY);
             } else {
                 g2d.setColor(Color.RED);
-                g2d.fillRect(screenX, screenY, player.getWidth(), player.getHeight());
+                g2d.fillRect(screenX, screenY, world.playerWidth, world.playerHeight);
             }
         }
     }
 
+    // Entity pass: the snapshot already holds only what is near the player
+    // (picked from the controller's spatial index when it was published);
+    // what is actually on screen is drawn in batches so state changes
+    // happen once per pass instead of once per entity: all flash overlays
+    // under one composite, sprites grouped by source image (one atlas page
+    // in practice), then health bars one colour at a time.
     private void drawEnemies(Graphics2D g2d) {
-        java.util.List<PixelEnemy> enemies = gameController.getEnemies();
-
-        if (enemies != null) {
-            for (PixelEnemy enemy : enemies) {
-                if (enemy == null || !enemy.isAlive()) continue;
-
-                int screenX = (int)(enemy.getX() - cameraX);
-                int screenY = (int)(enemy.getY() - cameraY);
-
-                ImageIcon enemySprite = enemy.getCurrentSprite();
-                if (enemySprite != null) {
-                    if (enemy.isFlashing()) {
-                        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 0.7f));
-                        g2d.setColor(Color.RED);
-                        g2d.fillRect(screenX, screenY, enemy.getWidth(), enemy.getHeight());
-                        g2d.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, 1.0f));
-                    }
-                    g2d.drawImage(enemySprite.getImage(), screenX, screenY, this);
-                }
+        WorldSnapshot world = snapshot;
+        if (visibleEnemies.length < world.enemyCount) {
+            visibleEnemies = new int[world.enemyCount * 2];
+        }
+
+        int count = 0;
+        for (int i = 0; i < world.enemyCount; i++) {
+            // Health bar sits 10px above the sprite
+            if (!isOnScreen(world.enemyX[i], world.enemyY[i] - 10, world.enemyWidth[i], world.enemyHeight[i] + 10)) continue;
+            visibleEnemies[count++] = i;
+        }
 
-                drawEnemyHealthBar(g2d, enemy, screenX, screenY);
+        Composite previous = g2d.getComposite();
+        g2d.setComposite(FLASH_COMPOSITE);
+        g2d.setColor(Color.RED);
+        for (int v = 0; v < count; v++) {
+            int i = visibleEnemies[v];
+            if (world.enemyFlashing[i] && world.enemySprite[i] != null) {
+                g2d.fillRect(screenX(world.enemyX[i]), screenY(world.enemyY[i]), world.enemyWidth[i], world.enemyHeight[i]);
             }
         }
-    }
+        g2d.setComposite(previous);
 
-    private void drawEnemyHealthBar(Graphics2D g2d, PixelEnemy enemy, int screenX, int screenY) {
-        int healthBarWidth = enemy.getWidth();
-        int healthBarHeight = 6;
-        int healthBarY = screenY - 10;
+        int batched = 0;
+        for (int v = 0; v < count; v++) {
+            int i = visibleEnemies[v];
+            batched = addToBatch(world.enemySprite[i], screenX(world.enemyX[i]), screenY(world.enemyY[i]), batched);
+        }
+        drawBatches(g2d, batched);
 
-        g2d.setColor(Color.RED);
-        g2d.fillRect(screenX, healthBarY, healthBarWidth, healthBarHeight);
+        drawEnemyHealthBars(g2d, world, count);
+    }
 
-        float healthPercent = (float) enemy.getCurrentHealth() / enemy.getMaxHealth();
-        int currentHealthWidth = (int)(healthBarWidth * healthPercent);
+    private void drawEnemyHealthBars(Graphics2D g2d, WorldSnapshot world, int count) {
+        g2d.setColor(Color.RED);
+        for (int v = 0; v < count; v++) {
+            int i = visibleEnemies[v];
+            g2d.fillRect(screenX(world.enemyX[i]), screenY(world.enemyY[i]) - 10, world.enemyWidth[i], HEALTH_BAR_HEIGHT);
+        }
 
         g2d.setColor(Color.GREEN);
-        g2d.fillRect(screenX, healthBarY, currentHealthWidth, healthBarHeight);
+        for (int v = 0; v < count; v++) {
+            int i = visibleEnemies[v];
+            float healthPercent = (float) world.enemyHealth[i] / world.enemyMaxHealth[i];
+            int currentHealthWidth = (int)(world.enemyWidth[i] * healthPercent);
+            g2d.fillRect(screenX(world.enemyX[i]), screenY(world.enemyY[i]) - 10, currentHealthWidth, HEALTH_BAR_HEIGHT);
+        }
 
         g2d.setColor(Color.BLACK);
-        g2d.setStroke(new BasicStroke(1));
-        g2d.drawRect(screenX, healthBarY, healthBarWidth, healthBarHeight);
+        g2d.setStroke(HEALTH_BAR_STROKE);
+        for (int v = 0; v < count; v++) {
+            int i = visibleEnemies[v];
+            g2d.drawRect(screenX(world.enemyX[i]), screenY(world.enemyY[i]) - 10, world.enemyWidth[i], HEALTH_BAR_HEIGHT);
+        }
     }
 
     private void drawProjectiles(Graphics2D g2d) {
-        PixelPlayer player = gameController.getPlayer();
-        if (player != null) {
-            java.util.List<Projectile> projectiles = player.getProjectiles();
-
-            for (Projectile projectile : projectiles) {
-                if (!projectile.isActive()) continue;
-
-                int screenX = (int)(projectile.getX() - cameraX);
-                int screenY = (int)(projectile.getY() - cameraY);
-
-                ImageIcon projectileSprite = projectile.getSprite();
-                if (projectileSprite != null) {
-                    g2d.drawImage(projectileSprite.getImage(), screenX, screenY, this);
-                } else {
-                    g2d.setColor(Color.BLUE);
-                    g2d.fillRect(screenX + 8, screenY + 12, 16, 8);
-                    g2d.setColor(Color.YELLOW);
-                    g2d.fillRect(screenX + 12, screenY + 8, 8, 16);
+        WorldSnapshot world = snapshot;
+        if (!world.hasPlayer) return;
+
+        int batched = 0;
+        for (int i = 0; i < world.projectileCount; i++) {
+            if (!isOnScreen(world.projectileX[i], world.projectileY[i],
+                    world.projectileWidth[i], world.projectileHeight[i])) continue;
+
+            int screenX = screenX(world.projectileX[i]);
+            int screenY = screenY(world.projectileY[i]);
+            if (world.projectileSprite[i] != null) {
+                batched = addToBatch(world.projectileSprite[i], screenX, screenY, batched);
+            } else {
+                g2d.setColor(Color.BLUE);
+                g2d.fillRect(screenX + 8, screenY + 12, 16, 8);
+                g2d.setColor(Color.YELLOW);
+                g2d.fillRect(screenX + 12, screenY + 8, 8, 16);
+            }
+        }
+        drawBatches(g2d, batched);
+    }
+
+    private boolean isOnScreen(float x, float y, int width, int height) {
+        return x + width > cameraX && x < cameraX + viewportWidth
+                && y + height > cameraY && y < cameraY + viewportHeight;
+    }
+
+    private int screenX(float worldX) {
+        return (int)(worldX - cameraX);
+    }
+
+    private int screenY(float worldY) {
+        return (int)(worldY - cameraY);
+    }
+
+    // Queues a sprite draw and tags it with the index of its source image
+    private int addToBatch(Sprite sprite, int screenX, int screenY, int batched) {
+        if (sprite == null) return batched;
+        if (batched == batchSprites.length) {
+            int capacity = batched * 2;
+            batchSprites = java.util.Arrays.copyOf(batchSprites, capacity);
+            batchX = java.util.Arrays.copyOf(batchX, capacity);
+            batchY = java.util.Arrays.copyOf(batchY, capacity);
+            batchImage = java.util.Arrays.copyOf(batchImage, capacity);
+        }
+
+        int image = batchImages.indexOf(sprite.getImage());
+        if (image < 0) {
+            image = batchImages.size();
+            batchImages.add(sprite.getImage());
+        }
+        batchSprites[batched] = sprite;
+        batchX[batched] = screenX;
+        batchY[batched] = screenY;
+        batchImage[batched] = image;
+        return batched + 1;
+    }
+
+    // One run per source image; there are only ever a handful, so a pass per
+    // image is cheaper than sorting
+    private void drawBatches(Graphics2D g2d, int batched) {
+        for (int image = 0; image < batchImages.size(); image++) {
+            for (int i = 0; i < batched; i++) {
+                if (batchImage[i] == image) {
+                    batchSprites[i].draw(g2d, batchX[i], batchY[i]);
                 }
             }
         }
+        batchImages.clear();
+        java.util.Arrays.fill(batchSprites, 0, batched, null);
     }
 
     private void drawHUD(Graphics2D g2d) {
-        PixelPlayer player = gameController.getPlayer();
+        WorldSnapshot world = snapshot;
+        if (!world.hasPlayer) return;
 
-        drawLifeIcons(g2d, player.getLives());
+        drawLifeIcons(g2d, world.lives);
 
-        if (player.hasMap()) {
+        if (world.hasMap) {
             g2d.setColor(Color.CYAN);
-            g2d.setFont(new Font("Arial", Font.BOLD, 12));
-            g2d.drawString("MAP: " + (showMiniMap ? "ON" : "OFF"), 15, getHeight() - 50);
+            g2d.setFont(HUD_BOLD_FONT);
+            g2d.drawString(showMiniMap ? MAP_ON_LABEL : MAP_OFF_LABEL, 15, getHeight() - 50);
         } else {
             g2d.setColor(Color.YELLOW);
-            g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+            g2d.setFont(HUD_FONT);
         }
 
-        g2d.setColor(new Color(255, 255, 255, 180));
-        g2d.setFont(new Font("Arial", Font.PLAIN, 12));
+        g2d.setColor(HUD_TEXT_COLOR);
+        g2d.setFont(HUD_FONT);
 
-        if (player.isInvulnerable()) {
-            g2d.setColor(new Color(255, 255, 0, 150));
-            g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        if (world.invulnerable) {
+            g2d.setColor(HUD_INVULNERABLE_COLOR);
+            g2d.setFont(HUD_INVULNERABLE_FONT);
         }
     }
     private void drawLifeIcons(Graphics2D g2d, int lives) {
@@ -341,12 +573,12 @@ public class PixelMazePanel extends JPanel {
             int x = startX + (i * spacing);
 
             if (lifeIcon != null) {
-                g2d.drawImage(lifeIcon.getImage(), x, startY, this);
+                lifeIcon.draw(g2d, x, startY);
             } else {
                 g2d.setColor(Color.RED);
                 g2d.fillOval(x, startY, iconSize, iconSize);
                 g2d.setColor(Color.WHITE);
-                g2d.setFont(new Font("Arial", Font.BOLD, 12));
+                g2d.setFont(HUD_BOLD_FONT);
                 g2d.drawString("♥", x + 10, startY + 20);
             }
         }
@@ -360,68 +592,108 @@ public class PixelMazePanel extends JPanel {
         if (!showMiniMap) return;
 
         PixelMaze maze = gameController.getMaze();
-        PixelPlayer player = gameController.getPlayer();
-        if (maze == null || player == null) return;
+        WorldSnapshot world = snapshot;
+        // A remote view has no exploration map, and no minimap
+        if (maze == null || !world.hasPlayer || world.exploration == null) return;
 
         int mapX = getWidth() - MINI_MAP_SIZE - MINI_MAP_MARGIN;
         int mapY = MINI_MAP_MARGIN;
 
-        g2d.setColor(new Color(0, 0, 0, 180));
+        g2d.setColor(MINI_MAP_BACKGROUND);
         g2d.fillRect(mapX, mapY, MINI_MAP_SIZE, MINI_MAP_SIZE);
         g2d.setColor(Color.WHITE);
         g2d.drawRect(mapX, mapY, MINI_MAP_SIZE, MINI_MAP_SIZE);
 
-        char[][] grid = maze.getGrid();
-        int mazeWidth = maze.getWidth();
-        int mazeHeight = maze.getHeight();
-
-        float tileSize = Math.min((float)MINI_MAP_SIZE / mazeWidth, (float)MINI_MAP_SIZE / mazeHeight);
+        // Large (chunked) mazes show a window around the player instead of the whole maze
+        int windowWidth = Math.min(maze.getWidth(), MINI_MAP_WINDOW);
+        int windowHeight = Math.min(maze.getHeight(), MINI_MAP_WINDOW);
+        int playerTileX = (int)(world.playerX / TILE_SIZE);
+        int playerTileY = (int)(world.playerY / TILE_SIZE);
+        int originX = Math.max(0, Math.min(playerTileX - windowWidth / 2, maze.getWidth() - windowWidth));
+        int originY = Math.max(0, Math.min(playerTileY - windowHeight / 2, maze.getHeight() - windowHeight));
 
-        boolean[][] exploredTiles = player.getExploredTiles();
+        float tileSize = Math.min((float)MINI_MAP_SIZE / windowWidth, (float)MINI_MAP_SIZE / windowHeight);
 
-        for (int y = 0; y < mazeHeight; y++) {
-            for (int x = 0; x < mazeWidth; x++) {
-                int screenX = (int)(mapX + x * tileSize);
-                int screenY = (int)(mapY + y * tileSize);
+        updateMiniMapCells(world.exploration, originX, originY, windowWidth, windowHeight, tileSize);
+        g2d.drawImage(miniMapCells, mapX, mapY, null);
 
-                if (exploredTiles != null && exploredTiles[y][x]) {
-                    char tileType = grid[y][x];
-                    Color tileColor = getMiniMapTileColor(tileType);
-                    g2d.setColor(tileColor);
-                    g2d.fillRect(screenX, screenY, (int)tileSize, (int)tileSize);
-                }
-            }
-        }
-
-        int playerMapX = (int)(mapX + (player.getX() / TILE_SIZE) * tileSize);
-        int playerMapY = (int)(mapY + (player.getY() / TILE_SIZE) * tileSize);
+        int playerMapX = (int)(mapX + (world.playerX / TILE_SIZE - originX) * tileSize);
+        int playerMapY = (int)(mapY + (world.playerY / TILE_SIZE - originY) * tileSize);
         g2d.setColor(Color.RED);
         g2d.fillOval(playerMapX - 2, playerMapY - 2, 4, 4);
 
-        if (player.hasMap()) {
-            for (int y = 0; y < mazeHeight; y++) {
-                for (int x = 0; x < mazeWidth; x++) {
-                    if (grid[y][x] == 'E') {
-                        int exitX = (int)(mapX + x * tileSize);
-                        int exitY = (int)(mapY + y * tileSize);
-                        g2d.setColor(Color.GREEN);
-                        g2d.fillRect(exitX, exitY, (int)tileSize, (int)tileSize);
-                        break;
-                    }
-                }
+        if (world.hasMap) {
+            int exitCellX = maze.getExitX() - originX;
+            int exitCellY = maze.getExitY() - originY;
+            if (exitCellX >= 0 && exitCellX < windowWidth && exitCellY >= 0 && exitCellY < windowHeight) {
+                int exitX = (int)(mapX + exitCellX * tileSize);
+                int exitY = (int)(mapY + exitCellY * tileSize);
+                g2d.setColor(Color.GREEN);
+                g2d.fillRect(exitX, exitY, (int)tileSize, (int)tileSize);
             }
         }
 
         // Draw mini-map border and title
         g2d.setColor(Color.YELLOW);
-        g2d.setFont(new Font("Arial", Font.BOLD, 10));
+        g2d.setFont(MINI_MAP_FONT);
         g2d.drawString("MINI-MAP", mapX + 5, mapY - 5);
     }
 
+    private void updateMiniMapCells(ExplorationMap exploration, int originX, int originY,
+                                    int windowWidth, int windowHeight, float tileSize) {
+        if (miniMapCells == null) {
+            miniMapCells = new java.awt.image.BufferedImage(MINI_MAP_SIZE, MINI_MAP_SIZE,
+                    java.awt.image.BufferedImage.TYPE_INT_ARGB_PRE);
+            miniMapCellGraphics = miniMapCells.createGraphics();
+            miniMapCellGraphics.setComposite(AlphaComposite.Src);
+        }
+
+        boolean windowChanged = exploration != miniMapSource
+                || originX != miniMapOriginX || originY != miniMapOriginY
+                || windowWidth != miniMapWindowWidth || windowHeight != miniMapWindowHeight;
+        miniMapSource = exploration;
+        miniMapOriginX = originX;
+        miniMapOriginY = originY;
+        miniMapWindowWidth = windowWidth;
+        miniMapWindowHeight = windowHeight;
+        miniMapTileSize = tileSize;
+
+        if (!windowChanged) {
+            long cursor = exploration.drainChanges(miniMapCursor, miniMapUpdater);
+            if (cursor != ExplorationMap.RESCAN) {
+                miniMapCursor = cursor;
+                return;
+            }
+        }
+
+        // Taken before the scan, so anything marked meanwhile is replayed next frame
+        miniMapCursor = exploration.getChangeCursor();
+        miniMapCellGraphics.setColor(MINI_MAP_CLEAR);
+        miniMapCellGraphics.fillRect(0, 0, MINI_MAP_SIZE, MINI_MAP_SIZE);
+        for (int y = 0; y < windowHeight; y++) {
+            for (int x = 0; x < windowWidth; x++) {
+                if (exploration.isExplored(originX + x, originY + y)) {
+                    drawMiniMapCell(originX + x, originY + y);
+                }
+            }
+        }
+    }
+
+    private void drawMiniMapCell(int cellX, int cellY) {
+        int x = cellX - miniMapOriginX;
+        int y = cellY - miniMapOriginY;
+        if (x < 0 || x >= miniMapWindowWidth || y < 0 || y >= miniMapWindowHeight) return;
+
+        char tileType = gameController.getMaze().getTile(cellX, cellY);
+        miniMapCellGraphics.setColor(getMiniMapTileColor(tileType));
+        miniMapCellGraphics.fillRect((int)(x * miniMapTileSize), (int)(y * miniMapTileSize),
+                (int)miniMapTileSize, (int)miniMapTileSize);
+    }
+
     private Color getMiniMapTileColor(char tileType) {
         switch (tileType) {
-            case '.': case 'S': return new Color(150, 150, 150);
-            case '#': return new Color(50, 50, 50);
+            case '.': case 'S': return MINI_MAP_PATH_COLOR;
+            case '#': return MINI_MAP_WALL_COLOR;
             case 'T': return Color.YELLOW;
             case 'E': return Color.GREEN;
             case 'L': return Color.PINK;
@@ -430,10 +702,25 @@ public class PixelMazePanel extends JPanel {
     }
 
     public void stopRendering() {
-        if (renderTimer != null) {
-            renderTimer.stop();
-        }
+        renderScheduler.stop();
+    }
+
+    RenderScheduler getRenderScheduler() {
+        return renderScheduler;
+    }
+    public void setFirstFrameRequestTime(long nanoTime) {
+        this.firstFrameRequestTime = nanoTime;
     }
+
+    public void setShowInputLatency(boolean show) {
+        this.showInputLatency = show;
+        repaint();
+    }
+
+    public boolean isInputLatencyVisible() {
+        return showInputLatency;
+    }
+
     public boolean isMiniMapVisible() {
         return showMiniMap;
     }
@@ -11,9 +11,18 @@ import java.awt.image.BufferedImage;
 public class PixelPlayer implements Serializable {
     private static final long serialVersionUID = 1L;
     private boolean hasMap = false;
+    private ExplorationMap exploration;
+    // Only non-null while reading a save from before ExplorationMap;
+    // readObject converts it and clears it
     private boolean[][] exploredTiles;
+    // View last explored, so ticks spent inside one tile mark nothing
+    private transient FieldOfView.Visibility exploredView;
+    // Reused by every move and projectile sweep instead of allocating per tick
+    private transient float[] newPosition = new float[2];
+    private transient SweepResult projectileSweep = new SweepResult();
 
     private int mazeWidth, mazeHeight;
+    private boolean streamedMaze;
 
     private float x, y;
     private int shards = 250;
@@ -30,8 +39,11 @@ public class PixelPlayer implements Serializable {
     private long invulnerabilityEndTime = 0;
     private static final long INVULNERABILITY_DURATION = 2000;
 
-    // Make spriteFrames transient since ImageIcon isn't serializable
-    private transient ImageIcon[][] spriteFrames = new ImageIcon[4][3];
+    // Make spriteFrames transient since sprites are not serializable
+    // Shared by every player of the same character; see attachSpriteFrames
+    private transient Sprite[][] spriteFrames;
+    private static final java.util.concurrent.ConcurrentMap<Integer, Sprite[][]> SHARED_FRAMES =
+            new java.util.concurrent.ConcurrentHashMap<>();
     private int currentFrame = 0;
     private int animationCounter = 0;
     private int animationSpeed = 6; // Higher = slower animation
@@ -51,10 +63,24 @@ public class PixelPlayer implements Serializable {
         this.characterType = characterType;
         this.originalSpeed = 4.0f;
         this.speed = this.originalSpeed;
-        loadSpriteFrames();
+        attachSpriteFrames();
         System.out.println("Player created with character type: " + characterType);
     }
 
+    // Frames are the same for every player of a character, so each set is loaded once and
+    // shared, including across sessions hosted side by side in one process
+    private void attachSpriteFrames() {
+        Sprite[][] shared = SHARED_FRAMES.get(characterType);
+        if (shared == null) {
+            spriteFrames = new Sprite[4][3];
+            loadSpriteFrames();
+            shared = SHARED_FRAMES.putIfAbsent(characterType, spriteFrames);
+        }
+        if (shared != null) {
+            spriteFrames = shared;
+        }
+    }
+
     private void loadSpriteFrames() {
         try {
             System.out.println("=== LOADING PLAYER SPRITES ===");
@@ -100,21 +126,12 @@ public class PixelPlayer implements Serializable {
         }
     }
 
-    private ImageIcon loadAndScaleSprite(String path, int targetWidth, int targetHeight) {
-        try {
-            java.io.InputStream is = getClass().getResourceAsStream(path);
-            if (is != null) {
-                byte[] bytes = is.readAllBytes();
-                ImageIcon original = new ImageIcon(bytes);
-                Image scaled = original.getImage().getScaledInstance(targetWidth, targetHeight, Image.SCALE_SMOOTH);
-                return new ImageIcon(scaled);
-            } else {
-                System.out.println("FAILED: " + path + " not found");
-            }
-        } catch (Exception e) {
-            System.out.println("ERROR: " + path + " - " + e.getMessage());
+    private Sprite loadAndScaleSprite(String path, int targetWidth, int targetHeight) {
+        Sprite sprite = AssetManager.getSprite(path, targetWidth, targetHeight);
+        if (sprite == null) {
+            System.out.println("FAILED: " + path + " not found");
         }
-        return null;
+        return sprite;
     }
 
     private void createFallbackSprites() {
@@ -140,7 +157,7 @@ public class PixelPlayer implements Serializable {
                 g2d.drawString(directionLabels[dir], 5, 30);
                 g2d.drawString("F" + (frame + 1), 5, 45);
                 g2d.dispose();
-                spriteFrames[dir][frame] = new ImageIcon(img);
+                spriteFrames[dir][frame] = new Sprite(img);
             }
         }
     }
@@ -158,34 +175,36 @@ public class PixelPlayer implements Serializable {
     }
 
     private void handleMovement(boolean[] keys, PixelMaze maze) {
-        float newX = x;
-        float newY = y;
+        float dx = 0;
+        float dy = 0;
         boolean moving = false;
 
         if (keys[0]) {
-            newY -= speed;
+            dy -= speed;
             facing = Direction.UP;
             moving = true;
         }
         if (keys[1]) {
-            newY += speed;
+            dy += speed;
             facing = Direction.DOWN;
             moving = true;
         }
         if (keys[2]) {
-            newX -= speed;
+            dx -= speed;
             facing = Direction.LEFT;
             moving = true;
         }
         if (keys[3]) {
-            newX += speed;
+            dx += speed;
             facing = Direction.RIGHT;
             moving = true;
         }
 
-        if (!maze.isWallAtPixel(newX, newY, width, height)) {
-            x = newX;
-            y = newY;
+        // Swept move: stops exactly at walls and slides along them instead of freezing
+        if (dx != 0 || dy != 0) {
+            maze.moveAndSlide(x, y, width, height, dx, dy, newPosition);
+            x = newPosition[0];
+            y = newPosition[1];
         }
 
         if (moving) {
@@ -212,18 +231,21 @@ public class PixelPlayer implements Serializable {
         Iterator<Projectile> iterator = projectiles.iterator();
         while (iterator.hasNext()) {
             Projectile projectile = iterator.next();
-            projectile.update();
 
+            // Sweep along this tick's velocity before moving so fast projectiles can't skip walls
             boolean hitWall;
             if ("spell".equals(projectile.getType())) {
                 // For spells, use centered 32x32 collision area instead of full 64x64
                 float centerX = projectile.getX() + (projectile.getWidth() - 32) / 2;
                 float centerY = projectile.getY() + (projectile.getHeight() - 32) / 2;
-                hitWall = maze.isWallAtPixel(centerX, centerY, 32, 32);
+                hitWall = maze.sweepBox(centerX, centerY, 32, 32,
+                        projectile.getVelocityX(), projectile.getVelocityY(), projectileSweep).isHit();
             } else {
-                hitWall = maze.isWallAtPixel(projectile.getX(), projectile.getY(),
-                        projectile.getWidth(), projectile.getHeight());
+                hitWall = maze.sweepBox(projectile.getX(), projectile.getY(),
+                        projectile.getWidth(), projectile.getHeight(),
+                        projectile.getVelocityX(), projectile.getVelocityY(), projectileSweep).isHit();
             }
+            projectile.update();
 
             if (projectile.getX() < 0 || projectile.getX() > maze.getWidth() * 64 ||
                     projectile.getY() < 0 || projectile.getY() > maze.getHeight() * 64 ||
@@ -353,11 +375,28 @@ public class PixelPlayer implements Serializable {
         System.out.println("Collected shards! Total: " + shards);
     }
 
-    public ImageIcon getCurrentSprite() {
+    public Sprite getCurrentSprite() {
         int directionIndex = facing.ordinal();
         return spriteFrames[directionIndex][currentFrame];
     }
 
+    int getCharacterType() {
+        return characterType;
+    }
+
+    Direction getFacing() {
+        return facing;
+    }
+
+    int getCurrentFrame() {
+        return currentFrame;
+    }
+
+    // Any animation frame, for drawing this character from networked state
+    Sprite getFrame(Direction facing, int frame) {
+        return spriteFrames[facing.ordinal()][frame];
+    }
+
     public void setPosition(float x, float y) {
         this.x = x;
         this.y = y;
@@ -380,41 +419,26 @@ public class PixelPlayer implements Serializable {
     public float getSpeed() {
         return speed;
     }
-    public void initializeMap(int mazeWidth, int mazeHeight) {
+    // Streamed mazes get a sparse map: only chunks the player has seen cost memory
+    public void initializeMap(int mazeWidth, int mazeHeight, boolean streamed) {
         this.mazeWidth = mazeWidth;
         this.mazeHeight = mazeHeight;
-        this.exploredTiles = new boolean[mazeHeight][mazeWidth];
+        this.streamedMaze = streamed;
+        this.exploration = new ExplorationMap(mazeWidth, mazeHeight, streamed);
+        this.exploredView = null;
 
         // Mark starting position as explored
-        int startX = (int)(getX() / 64);
-        int startY = (int)(getY() / 64);
-        if (startX >= 0 && startX < mazeWidth && startY >= 0 && startY < mazeHeight) {
-            exploredTiles[startY][startX] = true;
-
-            for (int dy = -1; dy <= 1; dy++) {
-                for (int dx = -1; dx <= 1; dx++) {
-                    int adjX = startX + dx;
-                    int adjY = startY + dy;
-                    if (adjX >= 0 && adjX < mazeWidth && adjY >= 0 && adjY < mazeHeight) {
-                        exploredTiles[adjY][adjX] = true;
-                    }
-                }
-            }
-        }
+        exploration.markAround((int)(getX() / 64), (int)(getY() / 64));
         System.out.println("Player map initialized for " + mazeWidth + "x" + mazeHeight + " maze");
     }
 
     public void setHasMap(boolean hasMap) {
         this.hasMap = hasMap;
-        if (hasMap && exploredTiles == null) {
-            // Initialize explored tiles array when map is acquired later
-            exploredTiles = new boolean[mazeHeight][mazeWidth];
+        if (hasMap && exploration == null) {
+            // Initialize exploration when map is acquired later
+            exploration = new ExplorationMap(mazeWidth, mazeHeight, streamedMaze);
             // Mark current position as explored
-            int currentX = (int)(getX() / 64);
-            int currentY = (int)(getY() / 64);
-            if (currentX >= 0 && currentX < mazeWidth && currentY >= 0 && currentY < mazeHeight) {
-                exploredTiles[currentY][currentX] = true;
-            }
+            exploration.mark((int)(getX() / 64), (int)(getY() / 64));
         }
         System.out.println("Labyrinth Map: " + (hasMap ? "ACQUIRED" : "NOT OWNED"));
     }
@@ -424,33 +448,39 @@ public class PixelPlayer implements Serializable {
     }
 
     public void markPositionExplored(int x, int y) {
-        if (exploredTiles != null && x >= 0 && x < mazeWidth && y >= 0 && y < mazeHeight) {
-            exploredTiles[y][x] = true;
+        if (exploration != null) {
+            exploration.mark(x, y);
         }
     }
 
-    public boolean[][] getExploredTiles() {
-        return exploredTiles;
+    // Marks everything in view; a no-op while the view is the one already
+    // marked, i.e. until the player moves onto another tile
+    public void explore(FieldOfView.Visibility view) {
+        if (exploration == null || view == exploredView) return;
+        exploredView = view;
+        for (int i = 0; i < view.size(); i++) {
+            exploration.mark(view.cellX(i), view.cellY(i));
+        }
     }
 
-    public int getExploredTileCount() {
-        if (exploredTiles == null) return 0;
+    public ExplorationMap getExplorationMap() {
+        return exploration;
+    }
 
-        int count = 0;
-        for (int y = 0; y < mazeHeight; y++) {
-            for (int x = 0; x < mazeWidth; x++) {
-                if (exploredTiles[y][x]) {
-                    count++;
-                }
-            }
-        }
-        return count;
+    public int getExploredTileCount() {
+        return exploration == null ? 0 : exploration.getExploredCount();
     }
 
     private void readObject(ObjectInputStream ois) throws IOException, ClassNotFoundException {
         ois.defaultReadObject();
-        spriteFrames = new ImageIcon[4][3];
-        loadSpriteFrames();
+        newPosition = new float[2];
+        projectileSweep = new SweepResult();
+        if (exploredTiles != null) {
+            exploration = ExplorationMap.fromLegacy(exploredTiles, mazeWidth, mazeHeight);
+            exploredTiles = null;
+            System.out.println("Converted explored tiles from an older save");
+        }
+        attachSpriteFrames();
         System.out.println("Player sprites reloaded after deserialization");
     }
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package com.mazegame;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.InputStream;
 
 public class Projectile {
     private static final long serialVersionUID = 1L;
@@ -12,7 +11,7 @@ public class Projectile {
     private float velocityX, velocityY;
     private int width, height;
     private boolean active = true;
-    private ImageIcon sprite;
+    private Sprite sprite;
     private int damage = 1;
     private static final float PROJECTILE_SPEED = 8.0f;
     private Direction direction;
@@ -106,14 +105,9 @@ public class Projectile {
     private void loadSprite() {
         try {
             String spritePath = getSpritePath();
-            InputStream is = getClass().getResourceAsStream(spritePath);
-            if (is != null) {
-                byte[] bytes = is.readAllBytes();
-                ImageIcon original = new ImageIcon(bytes);
-                Image scaled = original.getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                sprite = new ImageIcon(scaled);
-                System.out.println("Projectile sprite loaded: " + spritePath);
-            } else {
+            // Shared with every other projectile of the same type and direction
+            sprite = AssetManager.getSprite(spritePath, width, height);
+            if (sprite == null) {
                 System.out.println("Projectile sprite not found: " + spritePath);
                 createFallbackSprite();
             }
@@ -206,7 +200,7 @@ public class Projectile {
         }
 
         g2d.dispose();
-        sprite = new ImageIcon(img);
+        sprite = new Sprite(img);
     }
 
     public void update() {
@@ -247,8 +241,10 @@ public class Projectile {
     // Getters for rendering
     public float getX() { return x; }
     public float getY() { return y; }
+    public float getVelocityX() { return velocityX; }
+    public float getVelocityY() { return velocityY; }
     public int getWidth() { return width; }
     public int getHeight() { return height; }
-    public ImageIcon getSprite() { return sprite; }
+    public Sprite getSprite() { return sprite; }
 
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.mazegame;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+// Standalone frame-time harness for PixelMazePanel; run with
+// java com.mazegame.RenderBenchmark [enemies] [frames] [offscreenEnemies]
+// Paints the game view into an off-screen image (the screen's format when a
+// display is available) with the requested number of enemies on screen, plus
+// optionally more enemies elsewhere in a larger maze that should cost nothing.
+public class RenderBenchmark {
+    private static final int WARMUP_FRAMES = 200;
+    private static final int VIEW_WIDTH = 800;
+    private static final int VIEW_HEIGHT = 600;
+
+    public static void main(String[] args) {
+        int enemyCount = args.length > 0 ? Integer.parseInt(args[0]) : 40;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int offscreen = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        System.out.println("=== RENDER BENCHMARK ===");
+        System.out.println("Headless: " + GraphicsEnvironment.isHeadless()
+                + ", enemies: " + enemyCount + " (+" + offscreen + " off screen), frames: " + frames);
+
+        int mazeSize = offscreen > 0 ? 101 : 25;
+        PixelGameController controller = new PixelGameController(new PixelMaze(mazeSize, mazeSize, 1), 0, 1);
+        controller.clearEnemies();
+        placeEnemiesInView(controller, enemyCount);
+        placeEnemiesOffScreen(controller, offscreen);
+
+        PixelMazePanel panel = new PixelMazePanel(controller);
+        panel.stopRendering();
+        panel.setSize(VIEW_WIDTH, VIEW_HEIGHT);
+
+        BufferedImage target = createTarget();
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            paintFrame(panel, target);
+        }
+
+        long[] frameNanos = new long[frames];
+        for (int i = 0; i < frames; i++) {
+            long start = System.nanoTime();
+            paintFrame(panel, target);
+            frameNanos[i] = System.nanoTime() - start;
+        }
+
+        java.util.Arrays.sort(frameNanos);
+        long total = 0;
+        for (long nanos : frameNanos) total += nanos;
+        System.out.printf("  mean %.3f ms  median %.3f ms  p95 %.3f ms  (%d enemies in level)%n",
+                total / 1e6 / frames, frameNanos[frames / 2] / 1e6,
+                frameNanos[(int) (frames * 0.95)] / 1e6, controller.getEnemies().size());
+        System.exit(0);
+    }
+
+    // Puts enemies on open cells inside the first screen, cycling through the
+    // cells (with a small offset) when there are more enemies than cells
+    private static void placeEnemiesInView(PixelGameController controller, int enemyCount) {
+        PixelMaze maze = controller.getMaze();
+        int tile = PixelMazePanel.TILE_SIZE;
+        List<Point> open = new ArrayList<>();
+        for (int y = 0; y < Math.min(maze.getHeight(), VIEW_HEIGHT / tile); y++) {
+            for (int x = 0; x < Math.min(maze.getWidth(), VIEW_WIDTH / tile); x++) {
+                if (maze.getTile(x, y) != '#') open.add(new Point(x, y));
+            }
+        }
+
+        for (int i = 0; i < enemyCount && !open.isEmpty(); i++) {
+            Point cell = open.get(i % open.size());
+            int offset = (i / open.size()) * 6;
+            controller.spawnEnemy(new PixelEnemy(cell.x * tile + 8 + offset, cell.y * tile + offset, 1 + i % 3));
+        }
+    }
+
+    private static void placeEnemiesOffScreen(PixelGameController controller, int enemyCount) {
+        PixelMaze maze = controller.getMaze();
+        int tile = PixelMazePanel.TILE_SIZE;
+        java.util.Random random = new java.util.Random(1);
+        int placed = 0;
+        while (placed < enemyCount) {
+            int x = VIEW_WIDTH / tile + 2 + random.nextInt(maze.getWidth() - VIEW_WIDTH / tile - 2);
+            int y = random.nextInt(maze.getHeight());
+            if (maze.getTile(x, y) == '#') continue;
+            controller.spawnEnemy(new PixelEnemy(x * tile + 8, y * tile, 1 + placed % 3));
+            placed++;
+        }
+    }
+
+    private static BufferedImage createTarget() {
+        if (!GraphicsEnvironment.isHeadless()) {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().createCompatibleImage(VIEW_WIDTH, VIEW_HEIGHT);
+        }
+        return new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static void paintFrame(PixelMazePanel panel, BufferedImage target) {
+        Graphics2D g2d = target.createGraphics();
+        panel.paint(g2d);
+        g2d.dispose();
+    }
+}
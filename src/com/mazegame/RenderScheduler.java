@@ -0,0 +1,164 @@
+package com.mazegame;
+
+import javax.swing.*;
+import java.awt.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Decides when PixelMazePanel repaints. While the picture changes it steps
+// every FRAME_MILLIS, as the old fixed render timer did, and repaints only
+// the frames that differ. After IDLE_FRAMES unchanged frames (camera
+// settled, nothing moving: paused, shop open, game over) the timer stops
+// and the panel is repainted on demand only, from wake() when a snapshot is
+// published or from Swing itself for overlays and exposes. While the
+// window is iconified or the panel isn't showing it is suspended: no timer,
+// and wake() waits for it to come back.
+//
+// Time and EDT CPU are accounted per state, so the idle cost can be read
+// back from getReport() and is logged whenever rendering resumes.
+final class RenderScheduler {
+    static final int FRAME_MILLIS = 16;
+    private static final int IDLE_FRAMES = 30;
+
+    private static final int ACTIVE = 0;
+    private static final int IDLE = 1;
+    private static final int SUSPENDED = 2;
+    private static final int STOPPED = 3;
+    private static final String[] STATE_NAMES = {"active", "idle", "suspended", "stopped"};
+
+    // Advances whatever the frame depends on (the camera); true if the
+    // picture has changed since the last step
+    interface Frame {
+        boolean step();
+    }
+
+    private final Component component;
+    private final Frame frame;
+    private final Timer timer;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimed = threads.isCurrentThreadCpuTimeSupported();
+
+    // EDT only, except that wake() reads state to skip the hop while active
+    private volatile int state = ACTIVE;
+    private int unchangedFrames;
+    private long stateSince = System.nanoTime();
+    private Thread cpuThread;
+    private long stateCpuSince;
+    private final long[] stateNanos = new long[4];
+    private final long[] stateCpu = new long[4];
+    private long steps, repaints;
+
+    RenderScheduler(Component component, Frame frame) {
+        this.component = component;
+        this.frame = frame;
+        this.timer = new Timer(FRAME_MILLIS, e -> step());
+        cpuSinceState();
+        timer.start();
+    }
+
+    private void step() {
+        steps++;
+        if (frame.step()) {
+            unchangedFrames = 0;
+            repaints++;
+            component.repaint();
+        } else if (++unchangedFrames >= IDLE_FRAMES) {
+            enter(IDLE);
+            timer.stop();
+        }
+    }
+
+    // Something may have changed (a snapshot was published): if the picture
+    // did, repaints and resumes stepping until it settles again. The local
+    // game publishes every tick, moving or not, so an unchanged step keeps
+    // the scheduler idle. Safe from any thread.
+    void wake() {
+        if (state == ACTIVE) return;
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::wake);
+            return;
+        }
+        if (state == IDLE && frame.step()) {
+            resume();
+        }
+    }
+
+    // Window iconified or restored, panel hidden or shown
+    void setSuspended(boolean suspended) {
+        if (suspended) {
+            if (state == ACTIVE || state == IDLE) {
+                enter(SUSPENDED);
+                timer.stop();
+            }
+        } else if (state == SUSPENDED) {
+            resume();
+        }
+    }
+
+    void stop() {
+        enter(STOPPED);
+        timer.stop();
+    }
+
+    private void resume() {
+        int from = state;
+        long nanos = System.nanoTime() - stateSince;
+        long cpu = cpuSinceState();
+        enter(ACTIVE);
+        unchangedFrames = 0;
+        repaints++;
+        component.repaint();
+        timer.start();
+        if (nanos > 1_000_000_000L) {
+            System.out.printf("Rendering resumed after %.1f s %s, EDT CPU %.2f%% of a core%n",
+                    nanos / 1e9, STATE_NAMES[from], cpuTimed ? 100.0 * cpu / nanos : 0);
+        }
+    }
+
+    private void enter(int next) {
+        long now = System.nanoTime();
+        long cpu = cpuSinceState();
+        stateNanos[state] += now - stateSince;
+        stateCpu[state] += cpu;
+        stateSince = now;
+        stateCpuSince += cpu;
+        state = next;
+    }
+
+    // EDT CPU since the current state began. AWT replaces the EDT after it
+    // has idled with nothing displayable; the old thread's share is dropped.
+    private long cpuSinceState() {
+        if (!cpuTimed) return 0;
+        if (Thread.currentThread() != cpuThread) {
+            cpuThread = Thread.currentThread();
+            stateCpuSince = threads.getCurrentThreadCpuTime();
+        }
+        return threads.getCurrentThreadCpuTime() - stateCpuSince;
+    }
+
+    // Whether the timer is stepping frames; readable from any thread
+    boolean isActive() {
+        return state == ACTIVE;
+    }
+
+    // EDT only
+    long getRepaints() {
+        return repaints;
+    }
+
+    // Time and EDT CPU share per state so far, plus frames stepped and painted.
+    // EDT CPU covers everything on that thread, the simulation timer included.
+    String getReport() {
+        long[] nanos = stateNanos.clone();
+        long[] cpu = stateCpu.clone();
+        nanos[state] += System.nanoTime() - stateSince;
+        cpu[state] += cpuSinceState();
+        StringBuilder report = new StringBuilder("Render ").append(STATE_NAMES[state]).append(':');
+        for (int s = ACTIVE; s <= SUSPENDED; s++) {
+            if (nanos[s] == 0) continue;
+            report.append(String.format(" %s %.1f s (EDT %.1f%%)", STATE_NAMES[s], nanos[s] / 1e9,
+                    cpuTimed ? 100.0 * cpu[s] / nanos[s] : 0));
+        }
+        return report.append(", ").append(repaints).append('/').append(steps).append(" frames painted").toString();
+    }
+}
@@ -0,0 +1,9 @@
+package com.mazegame;
+
+import java.io.IOException;
+
+// Receives generated maze rows in order (y = 0, 1, 2, ...). The row array is
+// reused by the generator, so sinks must copy it before returning.
+public interface RowSink {
+    void acceptRow(int y, char[] row) throws IOException;
+}
@@ -0,0 +1,131 @@
+package com.mazegame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Localhost load harness for GameServer; run with
+// java com.mazegame.ServerLoadTest [maxPlayers] [seconds]
+// For 1, 2, 4, ... players it hosts a fresh game, connects that many
+// scripted bots (real GameClients over TCP/UDP, wandering and throwing at
+// random) and reports the server thread's CPU time per player, plus the
+// snapshot traffic. Bots run in the same process, so the machine is shared;
+// the server figures are its own thread's CPU, not wall time.
+public class ServerLoadTest {
+    private static final int MAZE_SIZE = 41;
+    private static final int DIFFICULTY = 0;
+    private static final long WARMUP_MILLIS = 1000;
+    private static final int BOT_STEP_MILLIS = 100;
+
+    public static void main(String[] args) throws Exception {
+        int maxPlayers = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.println("=== GAME SERVER LOAD TEST ===");
+        System.out.println("Cores: " + Runtime.getRuntime().availableProcessors()
+                + ", maze " + MAZE_SIZE + "x" + MAZE_SIZE + ", " + seconds + " s per round, tick "
+                + GameServer.TICK_NANOS / 1_000_000 + " ms, snapshot every " + GameServer.SNAPSHOT_INTERVAL + " ticks");
+        for (int players = 1; players <= maxPlayers; players *= 2) {
+            runRound(players, seconds);
+        }
+    }
+
+    private static void runRound(int playerCount, int seconds) throws Exception {
+        PixelGameController controller = new PixelGameController(
+                new PixelMaze(MAZE_SIZE, MAZE_SIZE, DIFFICULTY), DIFFICULTY);
+        GameServer server = new GameServer(controller, 0, 0);
+        Thread serverThread = new Thread(server, "game-server");
+        serverThread.start();
+
+        List<Bot> bots = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            Bot bot = new Bot(new GameClient("localhost", server.getTcpPort(), i % 3), new Random(i));
+            bots.add(bot);
+            if (!bot.client.awaitWelcome(10_000)) {
+                throw new IllegalStateException("Bot " + i + " was not welcomed");
+            }
+        }
+
+        Thread driver = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    for (Bot bot : bots) {
+                        bot.step();
+                    }
+                    Thread.sleep(BOT_STEP_MILLIS);
+                }
+            } catch (InterruptedException ignored) {
+            }
+        }, "bot-driver");
+        driver.start();
+
+        Thread.sleep(WARMUP_MILLIS);
+        long cpuBefore = server.getCpuNanos();
+        long ticksBefore = server.getTicks();
+        long snapshotsBefore = server.getSnapshotsSent();
+        long bytesBefore = server.getSnapshotBytes();
+        long wallBefore = System.nanoTime();
+
+        Thread.sleep(seconds * 1000L);
+
+        long cpu = server.getCpuNanos() - cpuBefore;
+        long ticks = server.getTicks() - ticksBefore;
+        long snapshots = server.getSnapshotsSent() - snapshotsBefore;
+        long bytes = server.getSnapshotBytes() - bytesBefore;
+        double wallSeconds = (System.nanoTime() - wallBefore) / 1e9;
+        boolean ended = server.isFinished();
+
+        driver.interrupt();
+        driver.join();
+        for (Bot bot : bots) {
+            bot.client.stop();
+        }
+        server.stop();
+        serverThread.join();
+
+        System.out.printf("  %3d players  %5.1f ticks/s  CPU %6.1f us/tick  %6.2f us/tick/player"
+                        + "  %5.2f%% core/player  %5.0f B/snapshot  %5.1f KB/s/player%s%n",
+                playerCount, ticks / wallSeconds,
+                ticks == 0 ? 0 : cpu / 1e3 / ticks,
+                ticks == 0 ? 0 : cpu / 1e3 / ticks / playerCount,
+                100.0 * cpu / (wallSeconds * 1e9) / playerCount,
+                snapshots == 0 ? 0 : (double) bytes / snapshots,
+                bytes / 1024.0 / wallSeconds / playerCount,
+                ended ? "  (game ended during the round)" : "");
+    }
+
+    // Wanders: keeps a direction until it stops making progress or a random
+    // turn comes up, and now and then throws at a random point nearby
+    private static final class Bot {
+        final GameClient client;
+        final Random random;
+        final Thread thread;
+        final boolean[] keys = new boolean[4];
+        final float[] position = new float[2];
+        float lastX = Float.NaN, lastY = Float.NaN;
+
+        Bot(GameClient client, Random random) {
+            this.client = client;
+            this.random = random;
+            this.thread = new Thread(client, "bot-client");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void step() {
+            if (!client.getOwnPosition(position)) return;
+            boolean stuck = position[0] == lastX && position[1] == lastY;
+            if (stuck || random.nextInt(10) == 0) {
+                java.util.Arrays.fill(keys, false);
+                keys[random.nextInt(4)] = true;
+                client.setKeys(keys);
+            }
+            if (random.nextInt(5) == 0) {
+                client.throwAt((int) position[0] + random.nextInt(400) - 200,
+                        (int) position[1] + random.nextInt(400) - 200);
+            }
+            lastX = position[0];
+            lastY = position[1];
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.mazegame;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Capacity harness for SessionHost; run with
+// java com.mazegame.SessionBenchmark [maxSessions] [seconds]
+// Hosts rounds of 32, 64, 128, ... single-player sessions on 30x30 HARD
+// layouts, every player wandering at random, and reports the process CPU
+// per session (as sessions per core), the heap each session adds, and how
+// many ticks missed their deadline. Finished games restart on a fresh copy,
+// so the load stays constant. The game's console logging is switched off
+// while sessions run; only the report is printed.
+public class SessionBenchmark {
+    private static final int MAZE_SIZE = 30;
+    private static final int DIFFICULTY = 2;
+    private static final int TEMPLATES = 8;
+    private static final long WARMUP_MILLIS = 2000;
+
+    public static void main(String[] args) throws Exception {
+        int maxSessions = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        PrintStream report = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            SessionHost host = new SessionHost();
+            host.setLogFlags(false);
+            report.println("=== SESSION HOST BENCHMARK ===");
+            report.println("Cores: " + cores + ", " + (host.usesVirtualThreads() ? "virtual" : "platform")
+                    + " threads, maze " + MAZE_SIZE + "x" + MAZE_SIZE + " HARD, tick "
+                    + SessionHost.TICK_NANOS / 1_000_000 + " ms, " + seconds + " s per round");
+
+            long before = MazeBenchmark.usedHeap();
+            List<SessionHost.Template> templates = new ArrayList<>();
+            for (int i = 0; i < TEMPLATES; i++) {
+                templates.add(SessionHost.template(MAZE_SIZE, MAZE_SIZE, DIFFICULTY));
+            }
+            report.printf("  %d shared templates: %d KB%n", TEMPLATES, (MazeBenchmark.usedHeap() - before) / 1024);
+            host.shutdown();
+
+            // Unreported round: sprite loading, class loading and JIT
+            runRound(null, templates, 32, 1, cores);
+            for (int sessions = 32; sessions <= maxSessions; sessions *= 2) {
+                runRound(report, templates, sessions, seconds, cores);
+            }
+        } finally {
+            System.setOut(report);
+        }
+    }
+
+    private static void runRound(PrintStream report, List<SessionHost.Template> templates,
+                                 int sessionCount, int seconds, int cores) throws Exception {
+        SessionHost host = new SessionHost();
+        host.setLogFlags(false);
+        long heapBefore = MazeBenchmark.usedHeap();
+        for (int i = 0; i < sessionCount; i++) {
+            host.start(templates.get(i % templates.size()), 1, new Wanderer(new Random(i)), true);
+        }
+        Thread.sleep(WARMUP_MILLIS);
+        long heapPerSession = (MazeBenchmark.usedHeap() - heapBefore) / sessionCount;
+
+        long cpuBefore = processCpuNanos();
+        long[] before = totals(host);
+        long wallBefore = System.nanoTime();
+
+        Thread.sleep(seconds * 1000L);
+
+        long cpu = processCpuNanos() - cpuBefore;
+        long[] after = totals(host);
+        double wallSeconds = (System.nanoTime() - wallBefore) / 1e9;
+        host.shutdown();
+        if (report == null) return;
+
+        long ticks = after[0] - before[0];
+        long busy = after[1] - before[1];
+        long late = after[2] - before[2];
+        long games = after[3] - before[3];
+        long flags = after[4] - before[4];
+        double coresUsed = cpu / 1e9 / wallSeconds;
+        report.printf("  %4d sessions  %5.1f ticks/s each  %5.2f cores  %6.1f sessions/core  %6.1f us/tick"
+                        + "  %5.1f KB/session  late %5.2f%%  flags %d  games %d%n",
+                sessionCount, ticks / wallSeconds / sessionCount, coresUsed,
+                coresUsed == 0 ? 0 : sessionCount / coresUsed,
+                ticks == 0 ? 0 : busy / 1e3 / ticks,
+                heapPerSession / 1024.0,
+                ticks == 0 ? 0 : 100.0 * late / ticks,
+                flags, games);
+    }
+
+    // ticks, busy nanos, late ticks, games played and watchdog flags,
+    // summed over the sessions
+    private static long[] totals(SessionHost host) {
+        long[] totals = new long[5];
+        for (SessionHost.Session session : host.getSessions()) {
+            totals[0] += session.getTicks();
+            totals[1] += session.getBusyNanos();
+            totals[2] += session.getLateTicks();
+            totals[3] += session.getGamesPlayed();
+            totals[4] += session.getFlags();
+        }
+        return totals;
+    }
+
+    // Whole-process CPU, GC and JIT included, where the JVM reports it
+    private static long processCpuNanos() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    // Keeps a direction until it stops making progress or a random turn
+    // comes up, like ServerLoadTest's bots but driven from the session thread
+    private static final class Wanderer implements SessionHost.Pilot {
+        private final Random random;
+        private float lastX = Float.NaN, lastY = Float.NaN;
+
+        Wanderer(Random random) {
+            this.random = random;
+        }
+
+        @Override
+        public void steer(PixelGameController controller, List<PixelPlayer> players, List<boolean[]> keys) {
+            PixelPlayer player = players.get(0);
+            boolean[] playerKeys = keys.get(0);
+            boolean stuck = player.getX() == lastX && player.getY() == lastY;
+            if (stuck || random.nextInt(40) == 0) {
+                Arrays.fill(playerKeys, false);
+                playerKeys[random.nextInt(4)] = true;
+            }
+            lastX = player.getX();
+            lastY = player.getY();
+        }
+    }
+}
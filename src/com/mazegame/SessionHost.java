@@ -0,0 +1,292 @@
+package com.mazegame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs many independent hosted games in one process, for hosting and batch
+// balancing. Every session owns a PixelGameController and runs its loop on
+// a thread of its own with its own tick clock, parking between ticks. On
+// Java 21+ those are virtual threads, so hundreds of sessions share a few
+// carrier threads; older runtimes fall back to daemon platform threads.
+//
+// Layouts are generated once as templates and each game plays a copy, so
+// only the tiles and items are per session. The template's precomputed
+// field of view and the sprite frames are read-only and shared by all.
+//
+// A watchdog on a platform thread (so saturated carriers can't starve it)
+// flags any session whose next tick is more than DEADLINE_SLACK_NANOS
+// overdue, whether it is stuck in a long tick or waiting for a carrier.
+public final class SessionHost {
+    static final long TICK_NANOS = GameServer.TICK_NANOS;
+    static final long DEADLINE_SLACK_NANOS = TICK_NANOS;
+    private static final long WATCHDOG_PERIOD_MILLIS = 50;
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final ThreadFactory threads;
+    private final boolean virtualThreads;
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextSessionId = new AtomicInteger();
+    private final Thread watchdog;
+    private volatile boolean running = true;
+    private volatile boolean logFlags = true;
+
+    // Drives a session's players: fills in each player's keys before a tick.
+    // One instance per session, only ever called on that session's thread.
+    interface Pilot {
+        void steer(PixelGameController controller, List<PixelPlayer> players, List<boolean[]> keys);
+    }
+
+    public SessionHost() {
+        ThreadFactory virtual = virtualThreadFactory();
+        this.virtualThreads = virtual != null;
+        this.threads = virtual != null ? virtual : runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.watchdog = new Thread(this::watch, "session-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    // Thread.ofVirtual().factory() where the runtime has it. Looked up
+    // reflectively so the code still builds at the project's language level.
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // Watchdog and game-start messages are on by default; benchmarks count
+    // flags instead
+    void setLogFlags(boolean logFlags) {
+        this.logFlags = logFlags;
+    }
+
+    // A pre-generated layout: generated once, then copied for every game
+    static Template template(int width, int height, int difficulty) {
+        return new Template(new PixelMaze(width, height, difficulty), difficulty);
+    }
+
+    static final class Template {
+        final PixelMaze maze;
+        final FieldOfView fieldOfView;
+        final int difficulty;
+
+        Template(PixelMaze maze, int difficulty) {
+            this.maze = maze;
+            this.difficulty = difficulty;
+            this.fieldOfView = PixelGameController.precomputeFieldOfView(maze);
+        }
+    }
+
+    // Starts a session of playerCount hosted players on a copy of the
+    // template. With repeat set, a finished game is replaced by a fresh one
+    // on a new copy until the session or host is stopped. A session that
+    // ends leaves getSessions(); the returned handle keeps its counters.
+    Session start(Template template, int playerCount, Pilot pilot, boolean repeat) {
+        Session session = new Session(nextSessionId.getAndIncrement(), template, playerCount, pilot, repeat);
+        sessions.add(session);
+        session.thread = threads.newThread(session);
+        session.thread.start();
+        return session;
+    }
+
+    List<Session> getSessions() {
+        return sessions;
+    }
+
+    public int getFlaggedCount() {
+        int flagged = 0;
+        for (Session session : sessions) {
+            if (session.flags > 0) flagged++;
+        }
+        return flagged;
+    }
+
+    // Stops every session and the watchdog, waiting for the sessions to exit
+    public void shutdown() throws InterruptedException {
+        running = false;
+        for (Session session : sessions) {
+            LockSupport.unpark(session.thread);
+        }
+        for (Session session : sessions) {
+            session.thread.join();
+        }
+        watchdog.interrupt();
+        watchdog.join();
+        sessions.clear();
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                Thread.sleep(WATCHDOG_PERIOD_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            for (Session session : sessions) {
+                if (session.done) continue;
+                long overdue = now - session.deadline;
+                if (overdue > 0) {
+                    if (!session.overdue) {
+                        session.overdue = true;
+                        session.flags++;
+                        if (logFlags) {
+                            System.out.println("Session " + session.id + " missed its tick deadline by "
+                                    + overdue / 1_000_000 + " ms");
+                        }
+                    }
+                } else {
+                    session.overdue = false;
+                }
+            }
+        }
+    }
+
+    final class Session implements Runnable {
+        final int id;
+        private final Template template;
+        private final int playerCount;
+        private final Pilot pilot;
+        private final boolean repeat;
+        private final List<PixelPlayer> players = new ArrayList<>();
+        private final List<boolean[]> keys = new ArrayList<>();
+        private PixelGameController controller;
+        private Thread thread;
+        private volatile boolean stopped;
+
+        // nanoTime by which the next tick must have started; read by the watchdog
+        private volatile long deadline = Long.MAX_VALUE;
+        // Written by the session thread only
+        private volatile long ticks;
+        private volatile long busyNanos;
+        private volatile long lateTicks;
+        private volatile int gamesPlayed;
+        private volatile int gamesWon;
+        private volatile boolean done;
+        // Written by the watchdog only
+        private volatile boolean overdue;
+        private volatile int flags;
+
+        Session(int id, Template template, int playerCount, Pilot pilot, boolean repeat) {
+            this.id = id;
+            this.template = template;
+            this.playerCount = playerCount;
+            this.pilot = pilot;
+            this.repeat = repeat;
+        }
+
+        private void newGame() {
+            PixelMaze maze = template.maze.copy();
+            controller = new PixelGameController(maze, template.difficulty);
+            controller.shareFieldOfView(template.fieldOfView);
+            maze.releasePlacementData();
+            players.clear();
+            keys.clear();
+            for (int i = 0; i < playerCount; i++) {
+                PixelPlayer player = new PixelPlayer((id + i) % 3);
+                player.setPosition(maze.getStartPixelX(), maze.getStartPixelY());
+                players.add(player);
+                keys.add(new boolean[4]);
+            }
+            controller.startHosted(logFlags);
+        }
+
+        @Override
+        public void run() {
+            try {
+                newGame();
+                long nextTick = System.nanoTime();
+                while (running && !stopped) {
+                    deadline = nextTick + DEADLINE_SLACK_NANOS;
+                    long wait;
+                    while ((wait = nextTick - System.nanoTime()) > 0 && running && !stopped) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    if (!running || stopped) break;
+
+                    long start = System.nanoTime();
+                    if (start - deadline > 0) {
+                        lateTicks++;
+                    }
+                    if (pilot != null) {
+                        pilot.steer(controller, players, keys);
+                    }
+                    controller.updatePlayers(players, keys);
+                    if (!controller.isGameOngoing()) {
+                        gamesPlayed++;
+                        if (anyAlive()) gamesWon++;
+                        if (!repeat) break;
+                        newGame();
+                    }
+                    long end = System.nanoTime();
+                    busyNanos += end - start;
+                    ticks++;
+
+                    nextTick += TICK_NANOS;
+                    // Fell far behind: drop the missed ticks instead of bursting
+                    if (end - nextTick > MAX_CATCH_UP_TICKS * TICK_NANOS) {
+                        nextTick = end + TICK_NANOS;
+                    }
+                }
+            } finally {
+                done = true;
+                sessions.remove(this);
+            }
+        }
+
+        private boolean anyAlive() {
+            for (PixelPlayer player : players) {
+                if (player.isAlive()) return true;
+            }
+            return false;
+        }
+
+        void stop() {
+            stopped = true;
+            LockSupport.unpark(thread);
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        long getTicks() {
+            return ticks;
+        }
+
+        long getBusyNanos() {
+            return busyNanos;
+        }
+
+        long getLateTicks() {
+            return lateTicks;
+        }
+
+        int getFlags() {
+            return flags;
+        }
+
+        int getGamesPlayed() {
+            return gamesPlayed;
+        }
+
+        int getGamesWon() {
+            return gamesWon;
+        }
+    }
+}
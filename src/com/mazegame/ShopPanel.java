@@ -27,6 +27,17 @@ public class ShopPanel extends JPanel {
     private int selectedItem = 0;
     private final String[] itemNames = {"SANGUINE VIGOR", "SCARLET BOLT", "LABYRINTH MAP"};
     private final int[] itemPrices = {250, 180, 180};
+    private final String[] priceLabels = {"250 shards", "180 shards", "180 shards"};
+
+    // Paint state is built once so repaints don't allocate
+    private static final Font SHARDS_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Font LARGE_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font INFO_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Color FALLBACK_BACKGROUND = new Color(30, 10, 40);
+    // Shard count text, rebuilt only when the count changes
+    private int shownShards = -1;
+    private String shardsText = "";
+    private String shardsLabel = "";
 
     // Arrow positions for horizontal layout
     private final int[][] arrowPositions = {
@@ -75,13 +86,8 @@ public class ShopPanel extends JPanel {
     }
     private void loadCongratsIcon() {
         try {
-            java.io.InputStream congratsStream = getClass().getResourceAsStream("/general/congrats.png");
-            if (congratsStream != null) {
-                ImageIcon originalCongrats = new ImageIcon(congratsStream.readAllBytes());
-                Image scaledCongrats = originalCongrats.getImage().getScaledInstance(300, 200, Image.SCALE_SMOOTH);
-                congratsIcon = new ImageIcon(scaledCongrats);
-                System.out.println("Congrats icon loaded successfully");
-            } else {
+            congratsIcon = AssetManager.getScaledIcon("/general/congrats.png", 300, 200);
+            if (congratsIcon == null) {
                 System.out.println("Congrats icon not found at /general/congrats.png");
                 createFallbackCongratsIcon();
             }
@@ -114,13 +120,8 @@ public class ShopPanel extends JPanel {
     }
     private void loadWarningIcon() {
         try {
-            java.io.InputStream warningStream = getClass().getResourceAsStream("/general/warning.png");
-            if (warningStream != null) {
-                ImageIcon originalWarning = new ImageIcon(warningStream.readAllBytes());
-                Image scaledWarning = originalWarning.getImage().getScaledInstance(350, 250, Image.SCALE_SMOOTH);
-                warningIcon = new ImageIcon(scaledWarning);
-                System.out.println("Warning icon loaded successfully");
-            } else {
+            warningIcon = AssetManager.getScaledIcon("/general/warning.png", 350, 250);
+            if (warningIcon == null) {
                 System.out.println("Warning icon not found at /general/warning.png");
                 createFallbackWarningIcon();
             }
@@ -148,13 +149,9 @@ public class ShopPanel extends JPanel {
     }
     private void loadShopBackground() {
         try {
-            java.io.InputStream is = getClass().getResourceAsStream("/general/shop.png");
-            if (is != null) {
-                ImageIcon original = new ImageIcon(is.readAllBytes());
-                Image scaled = original.getImage().getScaledInstance(800, 600, Image.SCALE_SMOOTH);
-                shopBackground = new ImageIcon(scaled);
-                System.out.println("Shop background loaded successfully");
-            } else {
+            // Served from the startup preload, so opening the shop mid-game never touches disk
+            shopBackground = AssetManager.getScaledIcon("/general/shop.png", 800, 600);
+            if (shopBackground == null) {
                 System.out.println("Shop background not found at /general/shop.png");
             }
         } catch (Exception e) {
@@ -164,13 +161,8 @@ public class ShopPanel extends JPanel {
 
     private void loadArrowIcon() {
         try {
-            java.io.InputStream arrowStream = getClass().getResourceAsStream("/general/arrowUp.png");
-            if (arrowStream != null) {
-                ImageIcon originalArrow = new ImageIcon(arrowStream.readAllBytes());
-                Image scaledArrow = originalArrow.getImage().getScaledInstance(100, 100, Image.SCALE_SMOOTH);
-                arrowIcon = new ImageIcon(scaledArrow);
-                System.out.println("ArrowUp icon loaded successfully");
-            } else {
+            arrowIcon = AssetManager.getScaledIcon("/general/arrowUp.png", 100, 100);
+            if (arrowIcon == null) {
                 System.out.println("ArrowUp icon not found, creating fallback");
                 createFallbackArrow();
             }
@@ -334,8 +326,10 @@ public class ShopPanel extends JPanel {
 
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        // No super.paintComponent: both backgrounds cover the whole panel, and
+        // it would copy the Graphics on every repaint
         Graphics2D g2d = (Graphics2D) g;
+        updateShardsText();
 
         if (shopBackground != null) {
             g2d.drawImage(shopBackground.getImage(), 0, 0, this);
@@ -344,14 +338,23 @@ public class ShopPanel extends JPanel {
         }
 
         g2d.setColor(Color.YELLOW);
-        g2d.setFont(new Font("Arial", Font.BOLD, 20));
-        g2d.drawString(""+ gameController.getPlayer().getShards(), 320, 155);
+        g2d.setFont(SHARDS_FONT);
+        g2d.drawString(shardsText, 320, 155);
 
         drawSelectionArrow(g2d);
 
         drawSelectionInfo(g2d);
     }
 
+    private void updateShardsText() {
+        int shards = gameController.getPlayer().getShards();
+        if (shards != shownShards) {
+            shownShards = shards;
+            shardsText = Integer.toString(shards);
+            shardsLabel = "YOUR SHARDS: " + shards;
+        }
+    }
+
     private void drawSelectionArrow(Graphics2D g2d) {
         if (arrowIcon != null) {
             int arrowX = arrowPositions[selectedItem][0];
@@ -360,7 +363,7 @@ public class ShopPanel extends JPanel {
             g2d.drawImage(arrowIcon.getImage(), arrowX, arrowY, this);
         } else {
             g2d.setColor(Color.YELLOW);
-            g2d.setFont(new Font("Arial", Font.BOLD, 24));
+            g2d.setFont(LARGE_FONT);
             int arrowX = arrowPositions[selectedItem][0] + 20;
             int arrowY = arrowPositions[selectedItem][1] + 20;
             g2d.drawString("^", arrowX, arrowY);
@@ -369,36 +372,33 @@ public class ShopPanel extends JPanel {
 
     private void drawSelectionInfo(Graphics2D g2d) {
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 16));
+        g2d.setFont(INFO_FONT);
 
         g2d.drawString("Press ENTER to buy, A/D to navigate, ESC to close", 200, 540);
     }
 
     private void drawFallbackShop(Graphics2D g2d) {
-        g2d.setColor(new Color(30, 10, 40));
+        g2d.setColor(FALLBACK_BACKGROUND);
         g2d.fillRect(0, 0, getWidth(), getHeight());
 
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 24));
+        g2d.setFont(LARGE_FONT);
         g2d.drawString("THE MAZE SHOP", 300, 100);
-        g2d.drawString("YOUR SHARDS: " + gameController.getPlayer().getShards(), 300, 150);
-
-        String[] items = {"SANGUINE VIGOR", "SCARLET BOLT", "LABYRINTH MAP"};
-        int[] prices = {250, 180, 180};
+        g2d.drawString(shardsLabel, 300, 150);
 
-        for (int i = 0; i < items.length; i++) {
+        for (int i = 0; i < itemNames.length; i++) {
             int x = 200 + i * 200;
             int y = 300;
 
             if (i == selectedItem) {
                 g2d.setColor(Color.YELLOW);
                 g2d.drawString("^", x + 40, y - 20); // Arrow above selected item
-                g2d.drawString(items[i], x, y);
-                g2d.drawString(prices[i] + " shards", x, y + 30);
+                g2d.drawString(itemNames[i], x, y);
+                g2d.drawString(priceLabels[i], x, y + 30);
             } else {
                 g2d.setColor(Color.WHITE);
-                g2d.drawString(items[i], x, y);
-                g2d.drawString(prices[i] + " shards", x, y + 30);
+                g2d.drawString(itemNames[i], x, y);
+                g2d.drawString(priceLabels[i], x, y + 30);
             }
         }
     }
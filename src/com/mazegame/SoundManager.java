@@ -1,77 +1,371 @@
 package com.mazegame;
 
 import javax.sound.sampled.*;
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.locks.LockSupport;
 
+// One per process, shared by every game and loaded save. A single daemon
+// "audio-mixer" thread owns the output line: it streams the music from
+// the resource in small chunks (nothing is decoded up front), mixes in
+// sound effects from a fixed pool of voices, and writes ~40 ms ahead.
+// Game code never touches audio objects; it posts small commands to a
+// bounded lock-free queue that the mixer drains before every chunk.
 public class SoundManager {
-    private Clip backgroundMusic;
+    private static final String MUSIC_PATH = "/sounds/main.wav";
+    private static final int VOICES = 8;
+    private static final int CHUNK_MILLIS = 10;
+    private static final int LINE_CHUNKS = 4;
+
+    public enum Effect { HIT, PICKUP, THROW }
+
+    // Commands are packed into an int: operation in the top byte, argument below
+    private static final int START_MUSIC = 1 << 24;
+    private static final int STOP_MUSIC = 2 << 24;
+    private static final int SET_VOLUME = 3 << 24;   // argument: volume in thousandths
+    private static final int PLAY_EFFECT = 4 << 24;  // argument: Effect ordinal
+
+    private static SoundManager instance;
+
+    private final boolean musicAvailable;
+    private final AudioFormat format;
+    private final short[][] effects;
+    private final CommandQueue commands = new CommandQueue(256);
+    private Thread mixerThread;
+
+    // Game side
     private float volume = 0.7f;
     private boolean isPlaying = false;
 
-    public SoundManager() {
-        loadBackgroundMusic();
-    }
+    // Mixer thread only
+    private volatile boolean idle;
+    private AudioInputStream music;
+    private boolean musicOn;
+    private float mixVolume = 0.7f;
+    private final short[][] voiceSamples = new short[VOICES][];
+    private final int[] voicePosition = new int[VOICES];
 
-    private void loadBackgroundMusic() {
-        try {
-            InputStream is = getClass().getResourceAsStream("/sounds/main.wav");
-            if (is != null) {
-                AudioInputStream audioInput = AudioSystem.getAudioInputStream(is);
-                backgroundMusic = AudioSystem.getClip();
-                backgroundMusic.open(audioInput);
-
-                // Set volume
-                setClipVolume(volume);
-
-                System.out.println("Background music loaded successfully!");
-            } else {
-                System.out.println("Background music not found: /sounds/background_music.wav");
-                System.out.println("Please add background_music.wav to src/resources/sounds/");
-            }
-        } catch (Exception e) {
-            System.out.println("Error loading background music: " + e.getMessage());
+    public static synchronized SoundManager getInstance() {
+        if (instance == null) {
+            instance = new SoundManager();
         }
+        return instance;
     }
 
-    private void setClipVolume(float volume) {
-        if (backgroundMusic != null) {
-            try {
-                FloatControl gainControl = (FloatControl) backgroundMusic.getControl(FloatControl.Type.MASTER_GAIN);
-                float dB = (float) (Math.log(volume) / Math.log(10.0) * 20.0);
-                gainControl.setValue(dB);
-            } catch (Exception e) {
-                System.out.println("Error setting volume: " + e.getMessage());
+    private SoundManager() {
+        AudioFormat musicFormat = readMusicFormat();
+        musicAvailable = musicFormat != null;
+        // Mix at the music's own rate and channel count so it streams unconverted
+        float sampleRate = musicAvailable ? musicFormat.getSampleRate() : 44100f;
+        int channels = musicAvailable ? Math.min(2, musicFormat.getChannels()) : 2;
+        format = new AudioFormat(sampleRate, 16, channels, true, false);
+
+        effects = new short[Effect.values().length][];
+        effects[Effect.HIT.ordinal()] = synthesizeHit(sampleRate);
+        effects[Effect.PICKUP.ordinal()] = synthesizePickup(sampleRate);
+        effects[Effect.THROW.ordinal()] = synthesizeThrow(sampleRate);
+
+        mixerThread = new Thread(this::runMixer, "audio-mixer");
+        mixerThread.setDaemon(true);
+        mixerThread.start();
+    }
+
+    // Header only: checks the track is there and readable without decoding it
+    private AudioFormat readMusicFormat() {
+        try (InputStream is = getClass().getResourceAsStream(MUSIC_PATH)) {
+            if (is == null) {
+                System.out.println("Background music not found: " + MUSIC_PATH);
+                return null;
             }
+            AudioFormat musicFormat = AudioSystem.getAudioFileFormat(new BufferedInputStream(is)).getFormat();
+            System.out.println("Background music found: " + musicFormat);
+            return musicFormat;
+        } catch (Exception e) {
+            System.out.println("Error reading background music: " + e.getMessage());
+            return null;
         }
     }
 
     public void startGameMusic() {
-        if (backgroundMusic != null && !isPlaying) {
-            backgroundMusic.setFramePosition(0);
-            backgroundMusic.loop(Clip.LOOP_CONTINUOUSLY);
-            backgroundMusic.start();
+        if (musicAvailable && !isPlaying) {
+            post(START_MUSIC);
             isPlaying = true;
             System.out.println("Game music started (looping)");
         }
     }
 
     public void stopGameMusic() {
-        if (backgroundMusic != null && isPlaying) {
-            backgroundMusic.stop();
+        if (musicAvailable && isPlaying) {
+            post(STOP_MUSIC);
             isPlaying = false;
             System.out.println("Game music stopped");
         }
     }
 
+    public void play(Effect effect) {
+        post(PLAY_EFFECT | effect.ordinal());
+    }
+
     public void setVolume(float volume) {
         this.volume = Math.max(0.0f, Math.min(1.0f, volume));
-        setClipVolume(this.volume); }
+        post(SET_VOLUME | Math.round(this.volume * 1000));
+    }
 
     public boolean isMusicLoaded() {
-        return backgroundMusic != null;
+        return musicAvailable;
     }
 
     public float getVolume() {
         return volume;
     }
-}
\ No newline at end of file
+
+    // A full queue means the mixer is stuck or has no line; dropping a
+    // sound is better than blocking the game
+    private void post(int command) {
+        if (commands.offer(command) && idle) {
+            LockSupport.unpark(mixerThread);
+        }
+    }
+
+    private void runMixer() {
+        SourceDataLine line;
+        int chunkFrames = (int) (format.getSampleRate() * CHUNK_MILLIS / 1000);
+        int frameSize = format.getFrameSize();
+        try {
+            line = AudioSystem.getSourceDataLine(format);
+            line.open(format, chunkFrames * frameSize * LINE_CHUNKS);
+            line.start();
+        } catch (Exception e) {
+            System.out.println("No audio output available: " + e.getMessage());
+            return;
+        }
+        System.out.println("Audio mixer running: " + format);
+
+        byte[] bytes = new byte[chunkFrames * frameSize];
+        int[] mix = new int[chunkFrames * format.getChannels()];
+        while (true) {
+            drainCommands();
+            if (!musicOn && !anyVoiceActive()) {
+                // Nothing to play: sleep until a command arrives
+                idle = true;
+                if (commands.isEmpty()) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                continue;
+            }
+            java.util.Arrays.fill(mix, 0);
+            mixMusic(bytes, mix);
+            mixVoices(mix);
+            for (int i = 0; i < mix.length; i++) {
+                int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                bytes[2 * i] = (byte) sample;
+                bytes[2 * i + 1] = (byte) (sample >> 8);
+            }
+            // Blocks while the line is full, which paces this loop
+            line.write(bytes, 0, bytes.length);
+        }
+    }
+
+    private void drainCommands() {
+        int command;
+        while ((command = commands.poll()) != 0) {
+            int argument = command & 0xFFFFFF;
+            switch (command & 0xFF000000) {
+                case START_MUSIC:
+                    closeMusic();
+                    music = openMusic();
+                    musicOn = music != null;
+                    break;
+                case STOP_MUSIC:
+                    closeMusic();
+                    musicOn = false;
+                    break;
+                case SET_VOLUME:
+                    mixVolume = argument / 1000f;
+                    break;
+                case PLAY_EFFECT:
+                    startVoice(effects[argument]);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private AudioInputStream openMusic() {
+        try {
+            InputStream is = getClass().getResourceAsStream(MUSIC_PATH);
+            if (is == null) return null;
+            AudioInputStream source = AudioSystem.getAudioInputStream(new BufferedInputStream(is));
+            return AudioSystem.getAudioInputStream(format, source);
+        } catch (Exception e) {
+            System.out.println("Error streaming background music: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void closeMusic() {
+        if (music != null) {
+            try {
+                music.close();
+            } catch (IOException e) {
+                System.out.println("Error closing music stream: " + e.getMessage());
+            }
+            music = null;
+        }
+    }
+
+    private void mixMusic(byte[] bytes, int[] mix) {
+        if (!musicOn) return;
+        int filled = 0;
+        try {
+            while (filled < bytes.length) {
+                int read = music.read(bytes, filled, bytes.length - filled);
+                if (read < 0) {
+                    // End of track: reopen it to loop
+                    closeMusic();
+                    music = openMusic();
+                    if (music == null) {
+                        musicOn = false;
+                        break;
+                    }
+                    continue;
+                }
+                filled += read;
+            }
+        } catch (IOException e) {
+            System.out.println("Error streaming background music: " + e.getMessage());
+            closeMusic();
+            musicOn = false;
+        }
+        for (int i = 0; i < filled / 2; i++) {
+            short sample = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+            mix[i] += (int) (sample * mixVolume);
+        }
+    }
+
+    private void mixVoices(int[] mix) {
+        int channels = format.getChannels();
+        for (int v = 0; v < VOICES; v++) {
+            short[] samples = voiceSamples[v];
+            if (samples == null) continue;
+            int position = voicePosition[v];
+            int frames = Math.min(mix.length / channels, samples.length - position);
+            for (int f = 0; f < frames; f++) {
+                for (int c = 0; c < channels; c++) {
+                    mix[f * channels + c] += samples[position + f];
+                }
+            }
+            voicePosition[v] = position + frames;
+            if (voicePosition[v] >= samples.length) {
+                voiceSamples[v] = null;
+            }
+        }
+    }
+
+    // Takes a free voice, or the one closest to finishing
+    private void startVoice(short[] samples) {
+        int chosen = 0;
+        int mostPlayed = -1;
+        for (int v = 0; v < VOICES; v++) {
+            if (voiceSamples[v] == null) {
+                chosen = v;
+                break;
+            }
+            int played = voicePosition[v] * 1000 / voiceSamples[v].length;
+            if (played > mostPlayed) {
+                mostPlayed = played;
+                chosen = v;
+            }
+        }
+        voiceSamples[chosen] = samples;
+        voicePosition[chosen] = 0;
+    }
+
+    private boolean anyVoiceActive() {
+        for (short[] samples : voiceSamples) {
+            if (samples != null) return true;
+        }
+        return false;
+    }
+
+    // The game ships no effect samples, so the effects are generated once
+    // here as mono 16-bit PCM at the mixing rate
+
+    private static short[] synthesizeHit(float sampleRate) {
+        // Short low thump with a noisy attack
+        java.util.Random noise = new java.util.Random(1);
+        short[] samples = new short[(int) (sampleRate * 0.09f)];
+        for (int i = 0; i < samples.length; i++) {
+            double t = i / sampleRate;
+            double envelope = Math.exp(-t * 45);
+            double tone = Math.sin(2 * Math.PI * 140 * t * (1 - t * 3));
+            double attack = t < 0.01 ? noise.nextGaussian() * 0.5 : 0;
+            samples[i] = (short) (Short.MAX_VALUE * 0.6 * envelope * (tone + attack));
+        }
+        return samples;
+    }
+
+    private static short[] synthesizePickup(float sampleRate) {
+        // Two rising chime notes
+        short[] samples = new short[(int) (sampleRate * 0.18f)];
+        for (int i = 0; i < samples.length; i++) {
+            double t = i / sampleRate;
+            double frequency = t < 0.07 ? 880 : 1320;
+            double noteStart = t < 0.07 ? 0 : 0.07;
+            double envelope = Math.exp(-(t - noteStart) * 25);
+            samples[i] = (short) (Short.MAX_VALUE * 0.35 * envelope * Math.sin(2 * Math.PI * frequency * t));
+        }
+        return samples;
+    }
+
+    private static short[] synthesizeThrow(float sampleRate) {
+        // Falling "whoosh": noise through a one-pole low-pass that closes over time
+        java.util.Random noise = new java.util.Random(2);
+        short[] samples = new short[(int) (sampleRate * 0.12f)];
+        double filtered = 0;
+        for (int i = 0; i < samples.length; i++) {
+            double progress = (double) i / samples.length;
+            double cutoff = 0.35 * (1 - progress) + 0.02;
+            filtered += cutoff * (noise.nextGaussian() - filtered);
+            double envelope = Math.sin(Math.PI * progress);
+            samples[i] = (short) Math.max(Short.MIN_VALUE,
+                    Math.min(Short.MAX_VALUE, Short.MAX_VALUE * 0.5 * envelope * filtered));
+        }
+        return samples;
+    }
+
+    // Non-zero ints from any thread to the audio thread
+    private static final class CommandQueue {
+        private final MpscRing ring;
+        private final int[] values;
+
+        CommandQueue(int capacity) {
+            ring = new MpscRing(capacity);
+            values = new int[capacity];
+        }
+
+        boolean offer(int value) {
+            int slot = ring.claim();
+            if (slot < 0) return false; // full
+            values[slot] = value;
+            ring.publish(slot);
+            return true;
+        }
+
+        // 0 when empty
+        int poll() {
+            int slot = ring.peek();
+            if (slot < 0) return 0;
+            int value = values[slot];
+            ring.release();
+            return value;
+        }
+
+        boolean isEmpty() {
+            return ring.isEmpty();
+        }
+    }
+}
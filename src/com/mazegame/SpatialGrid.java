@@ -0,0 +1,144 @@
+package com.mazegame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Uniform grid of buckets over world pixels, indexed by each item's top-left
+// corner. Buckets live in an open-addressing table keyed by packed cell
+// coordinates, so the grid works for streamed mazes of any size and lookups
+// never box a key. Buckets are kept once created (an entity that has been
+// somewhere tends to come back), so the table only grows with the area
+// entities have actually covered.
+public class SpatialGrid<T> {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int cellSize;
+    private long[] keys;
+    private Object[] buckets;
+    private int bucketCount;
+    private int size;
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+        this.keys = new long[64];
+        this.buckets = new Object[64];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    public void insert(T item, float x, float y) {
+        bucketFor(cellOf(x), cellOf(y)).add(item);
+        size++;
+    }
+
+    public boolean remove(T item, float x, float y) {
+        List<T> bucket = find(cellOf(x), cellOf(y));
+        if (bucket == null) return false;
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == item) {
+                // Order inside a bucket doesn't matter; swap the last one in
+                int last = bucket.size() - 1;
+                bucket.set(i, bucket.get(last));
+                bucket.remove(last);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Cheap when the item stays in its bucket, which is most ticks
+    public void move(T item, float oldX, float oldY, float newX, float newY) {
+        if (cellOf(oldX) == cellOf(newX) && cellOf(oldY) == cellOf(newY)) return;
+        if (remove(item, oldX, oldY)) {
+            insert(item, newX, newY);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] != null) {
+                ((List<?>) buckets[i]).clear();
+            }
+        }
+        size = 0;
+    }
+
+    // Appends every item whose top-left corner lies in a bucket overlapping
+    // [minX, maxX] x [minY, maxY]. Callers pad the rectangle by the largest
+    // item size and do the exact overlap test themselves.
+    public void query(float minX, float minY, float maxX, float maxY, List<T> out) {
+        if (size == 0) return;
+        int minCellX = cellOf(minX), maxCellX = cellOf(maxX);
+        int minCellY = cellOf(minY), maxCellY = cellOf(maxY);
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                List<T> bucket = find(cx, cy);
+                if (bucket == null) continue;
+                // Indexed loop: addAll would copy the bucket into a temporary array
+                for (int i = 0; i < bucket.size(); i++) {
+                    out.add(bucket.get(i));
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int cellOf(float coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), cellSize);
+    }
+
+    private static long pack(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private int slotOf(long key, long[] table) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int mask = table.length - 1;
+        int slot = (int) (h >>> 40) & mask;
+        while (table[slot] != EMPTY && table[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> find(int cx, int cy) {
+        int slot = slotOf(pack(cx, cy), keys);
+        return (List<T>) buckets[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> bucketFor(int cx, int cy) {
+        long key = pack(cx, cy);
+        int slot = slotOf(key, keys);
+        if (keys[slot] == EMPTY) {
+            if ((bucketCount + 1) * 2 > keys.length) {
+                grow();
+                slot = slotOf(key, keys);
+            }
+            keys[slot] = key;
+            buckets[slot] = new ArrayList<T>(4);
+            bucketCount++;
+        }
+        return (List<T>) buckets[slot];
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldBuckets = buckets;
+        keys = new long[oldKeys.length * 2];
+        buckets = new Object[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i], keys);
+                keys[slot] = oldKeys[i];
+                buckets[slot] = oldBuckets[i];
+            }
+        }
+    }
+}
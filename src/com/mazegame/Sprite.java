@@ -0,0 +1,49 @@
+package com.mazegame;
+
+import java.awt.*;
+
+// A rectangle of a source image: either a frame inside a TextureAtlas page or
+// a whole standalone image (fallback sprites, assets missing from the atlas).
+// Sprites that share a page share the same image, so the renderer can group
+// draws by getImage().
+public final class Sprite {
+    private final Image image;
+    private final int x, y, width, height;
+
+    public Sprite(Image image, int x, int y, int width, int height) {
+        this.image = image;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public Sprite(Image image) {
+        this(image, 0, 0, image.getWidth(null), image.getHeight(null));
+    }
+
+    public void draw(Graphics g, int screenX, int screenY) {
+        g.drawImage(image, screenX, screenY, screenX + width, screenY + height,
+                x, y, x + width, y + height, null);
+    }
+
+    public Image getImage() {
+        return image;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mazegame;
+
+// Result of sweeping a box through the maze: time is the fraction of the move
+// (0..1) completed before touching a wall, normal points away from that wall.
+public class SweepResult {
+    private float time = 1.0f;
+    private float normalX = 0;
+    private float normalY = 0;
+    private boolean hit = false;
+
+    // Back to "no hit" so one instance can be reused for every sweep
+    void reset() {
+        time = 1.0f;
+        normalX = 0;
+        normalY = 0;
+        hit = false;
+    }
+
+    void setHit(float time, float normalX, float normalY) {
+        this.time = time;
+        this.normalX = normalX;
+        this.normalY = normalY;
+        this.hit = true;
+    }
+
+    public float getTime() { return time; }
+    public float getNormalX() { return normalX; }
+    public float getNormalY() { return normalY; }
+    public boolean isHit() { return hit; }
+}
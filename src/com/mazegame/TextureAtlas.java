@@ -0,0 +1,106 @@
+package com.mazegame;
+
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Runtime side of the sprite atlas written by AtlasPacker: a few page PNGs
+// plus a binary index mapping each sprite key ("path@WxH") to a page and a
+// rectangle. Frames are stored already scaled, so a lookup is all that is
+// left at runtime.
+//
+// Index (big-endian): magic, version (short), page count (short), page file
+// names (UTF), frame count (int), then per frame: key (UTF), page (byte),
+// x, y, width, height (shorts)
+public final class TextureAtlas {
+    public static final int MAGIC = 0x41544C53; // "ATLS"
+    public static final int VERSION = 1;
+    public static final String DIRECTORY = "/atlas/";
+    public static final String INDEX_PATH = DIRECTORY + "atlas.idx";
+
+    private final Map<String, Sprite> frames;
+    private final int pageCount;
+
+    private TextureAtlas(Map<String, Sprite> frames, int pageCount) {
+        this.frames = frames;
+        this.pageCount = pageCount;
+    }
+
+    // Loads the index and its pages from the classpath; null when the atlas
+    // has not been built or any part of it is unreadable
+    public static TextureAtlas load(String indexPath) {
+        try (InputStream is = TextureAtlas.class.getResourceAsStream(indexPath)) {
+            if (is == null) {
+                System.out.println("No texture atlas at " + indexPath + ", loading sprites individually");
+                return null;
+            }
+            DataInputStream in = new DataInputStream(is);
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                System.out.println("Texture atlas index " + indexPath + " has the wrong format");
+                return null;
+            }
+
+            BufferedImage[] pages = new BufferedImage[in.readShort()];
+            for (int i = 0; i < pages.length; i++) {
+                String pageName = in.readUTF();
+                pages[i] = AssetManager.getImage(DIRECTORY + pageName);
+                if (pages[i] == null) {
+                    System.out.println("Texture atlas page missing: " + pageName);
+                    return null;
+                }
+            }
+
+            int frameCount = in.readInt();
+            Map<String, Sprite> frames = new HashMap<>(frameCount * 2);
+            for (int i = 0; i < frameCount; i++) {
+                String key = in.readUTF();
+                BufferedImage page = pages[in.readByte()];
+                frames.put(key, new Sprite(page, in.readShort(), in.readShort(), in.readShort(), in.readShort()));
+            }
+            System.out.println("Texture atlas loaded: " + frameCount + " sprites on " + pages.length + " pages");
+            return new TextureAtlas(frames, pages.length);
+        } catch (IOException e) {
+            System.out.println("Error loading texture atlas: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public static void writeIndex(OutputStream os, List<String> pageNames, List<String> keys,
+                                  List<int[]> rects) throws IOException {
+        DataOutputStream out = new DataOutputStream(os);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(pageNames.size());
+        for (String name : pageNames) {
+            out.writeUTF(name);
+        }
+        out.writeInt(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            int[] rect = rects.get(i); // page, x, y, width, height
+            out.writeUTF(keys.get(i));
+            out.writeByte(rect[0]);
+            for (int j = 1; j < 5; j++) {
+                out.writeShort(rect[j]);
+            }
+        }
+        out.flush();
+    }
+
+    public Sprite get(String key) {
+        return frames.get(key);
+    }
+
+    public int getFrameCount() {
+        return frames.size();
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+}
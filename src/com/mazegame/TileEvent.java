@@ -0,0 +1,5 @@
+package com.mazegame;
+
+public enum TileEvent {
+    NONE, TREASURE, LIFE_POTION, EXIT
+}
@@ -0,0 +1,81 @@
+package com.mazegame;
+
+import java.util.Random;
+
+// Wilson's algorithm: loop-erased random walks from each node outside the
+// tree until they hit the tree, then the erased path is added. Every spanning
+// tree is equally likely, so the maze has no directional bias at all. Slower
+// than the other generators because the first walks wander a long way before
+// they find the (tiny) initial tree.
+public class WilsonMazeGenerator implements MazeGenerator {
+    private static final int NO_DIRECTION = -1;
+
+    @Override
+    public void generate(char[][] grid, Random random) {
+        int columns = (grid[0].length - 1) / 2;
+        int rows = (grid.length - 1) / 2;
+        int nodeCount = columns * rows;
+        if (nodeCount == 0) return;
+
+        boolean[] inTree = new boolean[nodeCount];
+        // Direction the latest walk left each node by; overwriting it on a
+        // revisit is what erases the loop
+        byte[] exitDirection = new byte[nodeCount];
+
+        int root = random.nextInt(nodeCount);
+        inTree[root] = true;
+        grid[2 * (root / columns) + 1][2 * (root % columns) + 1] = '.';
+
+        for (int start = 0; start < nodeCount; start++) {
+            if (inTree[start]) continue;
+
+            int node = start;
+            while (!inTree[node]) {
+                int dir = randomDirection(node, columns, rows, random);
+                exitDirection[node] = (byte) dir;
+                node = step(node, dir, columns);
+            }
+
+            node = start;
+            while (!inTree[node]) {
+                int dir = exitDirection[node];
+                int x = 2 * (node % columns) + 1;
+                int y = 2 * (node / columns) + 1;
+                grid[y][x] = '.';
+                switch (dir) {
+                    case 0: grid[y][x - 1] = '.'; break;
+                    case 1: grid[y][x + 1] = '.'; break;
+                    case 2: grid[y - 1][x] = '.'; break;
+                    default: grid[y + 1][x] = '.';
+                }
+                inTree[node] = true;
+                node = step(node, dir, columns);
+            }
+        }
+    }
+
+    private static int randomDirection(int node, int columns, int rows, Random random) {
+        int column = node % columns;
+        int row = node / columns;
+        int dir = NO_DIRECTION;
+        while (dir == NO_DIRECTION) {
+            int candidate = random.nextInt(4);
+            switch (candidate) {
+                case 0: if (column > 0) dir = candidate; break;
+                case 1: if (column < columns - 1) dir = candidate; break;
+                case 2: if (row > 0) dir = candidate; break;
+                default: if (row < rows - 1) dir = candidate;
+            }
+        }
+        return dir;
+    }
+
+    private static int step(int node, int dir, int columns) {
+        switch (dir) {
+            case 0: return node - 1;
+            case 1: return node + 1;
+            case 2: return node - columns;
+            default: return node + columns;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.mazegame;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// What the renderer needs from one simulation tick, copied into flat arrays
+// so drawing never touches the controller's live lists. Sprites are shared
+// by reference (they are immutable atlas frames), everything else is a
+// primitive copy. Only the simulation side fills one, between
+// Buffer.beginWrite() and Buffer.publish().
+//
+// Not everything on screen is copied. The maze tiles are read live (writes
+// are single cells, so a tile shows at worst a frame late). The explored
+// cells are shared: the snapshot carries the player's ExplorationMap, and
+// the minimap follows it through the map's change queue, which is built
+// for one reading thread.
+public final class WorldSnapshot {
+    long tick;
+    // nanoTime the oldest input applied by this tick was captured at, 0 if none
+    long inputNanos;
+
+    boolean hasPlayer;
+    float playerX, playerY;
+    int playerWidth, playerHeight;
+    Sprite playerSprite;
+    int lives;
+    boolean invulnerable;
+    boolean hasMap;
+    // Shared, not copied; null for a remote view
+    ExplorationMap exploration;
+
+    // Other players in a co-op game (filled by GameClient only)
+    int partnerCount;
+    float[] partnerX = new float[4];
+    float[] partnerY = new float[4];
+    int[] partnerWidth = new int[4];
+    int[] partnerHeight = new int[4];
+    Sprite[] partnerSprite = new Sprite[4];
+
+    // Enemies and projectiles near the player, index-aligned
+    int enemyCount;
+    float[] enemyX = new float[16];
+    float[] enemyY = new float[16];
+    int[] enemyWidth = new int[16];
+    int[] enemyHeight = new int[16];
+    int[] enemyHealth = new int[16];
+    int[] enemyMaxHealth = new int[16];
+    boolean[] enemyFlashing = new boolean[16];
+    Sprite[] enemySprite = new Sprite[16];
+
+    int projectileCount;
+    float[] projectileX = new float[16];
+    float[] projectileY = new float[16];
+    int[] projectileWidth = new int[16];
+    int[] projectileHeight = new int[16];
+    Sprite[] projectileSprite = new Sprite[16];
+
+    private void clear() {
+        inputNanos = 0;
+        hasPlayer = false;
+        playerSprite = null;
+        exploration = null;
+        Arrays.fill(partnerSprite, 0, partnerCount, null);
+        Arrays.fill(enemySprite, 0, enemyCount, null);
+        Arrays.fill(projectileSprite, 0, projectileCount, null);
+        partnerCount = 0;
+        enemyCount = 0;
+        projectileCount = 0;
+    }
+
+    void setPlayer(PixelPlayer player) {
+        setPlayer(player.getX(), player.getY(), player.getWidth(), player.getHeight(),
+                player.getCurrentSprite(), player.getLives(), player.isInvulnerable(), player.hasMap());
+        exploration = player.getExplorationMap();
+    }
+
+    void setPlayer(float x, float y, int width, int height, Sprite sprite,
+                   int lives, boolean invulnerable, boolean hasMap) {
+        hasPlayer = true;
+        playerX = x;
+        playerY = y;
+        playerWidth = width;
+        playerHeight = height;
+        playerSprite = sprite;
+        this.lives = lives;
+        this.invulnerable = invulnerable;
+        this.hasMap = hasMap;
+    }
+
+    void addPartner(float x, float y, int width, int height, Sprite sprite) {
+        if (partnerCount == partnerX.length) {
+            int capacity = partnerCount * 2;
+            partnerX = Arrays.copyOf(partnerX, capacity);
+            partnerY = Arrays.copyOf(partnerY, capacity);
+            partnerWidth = Arrays.copyOf(partnerWidth, capacity);
+            partnerHeight = Arrays.copyOf(partnerHeight, capacity);
+            partnerSprite = Arrays.copyOf(partnerSprite, capacity);
+        }
+        int i = partnerCount++;
+        partnerX[i] = x;
+        partnerY[i] = y;
+        partnerWidth[i] = width;
+        partnerHeight[i] = height;
+        partnerSprite[i] = sprite;
+    }
+
+    void addEnemy(PixelEnemy enemy) {
+        addEnemy(enemy.getX(), enemy.getY(), enemy.getWidth(), enemy.getHeight(), enemy.getCurrentHealth(),
+                enemy.getMaxHealth(), enemy.isFlashing(), enemy.getCurrentSprite());
+    }
+
+    void addEnemy(float x, float y, int width, int height, int health, int maxHealth,
+                  boolean flashing, Sprite sprite) {
+        if (enemyCount == enemyX.length) {
+            int capacity = enemyCount * 2;
+            enemyX = Arrays.copyOf(enemyX, capacity);
+            enemyY = Arrays.copyOf(enemyY, capacity);
+            enemyWidth = Arrays.copyOf(enemyWidth, capacity);
+            enemyHeight = Arrays.copyOf(enemyHeight, capacity);
+            enemyHealth = Arrays.copyOf(enemyHealth, capacity);
+            enemyMaxHealth = Arrays.copyOf(enemyMaxHealth, capacity);
+            enemyFlashing = Arrays.copyOf(enemyFlashing, capacity);
+            enemySprite = Arrays.copyOf(enemySprite, capacity);
+        }
+        int i = enemyCount++;
+        enemyX[i] = x;
+        enemyY[i] = y;
+        enemyWidth[i] = width;
+        enemyHeight[i] = height;
+        enemyHealth[i] = health;
+        enemyMaxHealth[i] = maxHealth;
+        enemyFlashing[i] = flashing;
+        enemySprite[i] = sprite;
+    }
+
+    void addProjectile(Projectile projectile) {
+        addProjectile(projectile.getX(), projectile.getY(), projectile.getWidth(), projectile.getHeight(),
+                projectile.getSprite());
+    }
+
+    void addProjectile(float x, float y, int width, int height, Sprite sprite) {
+        if (projectileCount == projectileX.length) {
+            int capacity = projectileCount * 2;
+            projectileX = Arrays.copyOf(projectileX, capacity);
+            projectileY = Arrays.copyOf(projectileY, capacity);
+            projectileWidth = Arrays.copyOf(projectileWidth, capacity);
+            projectileHeight = Arrays.copyOf(projectileHeight, capacity);
+            projectileSprite = Arrays.copyOf(projectileSprite, capacity);
+        }
+        int i = projectileCount++;
+        projectileX[i] = x;
+        projectileY[i] = y;
+        projectileWidth[i] = width;
+        projectileHeight[i] = height;
+        projectileSprite[i] = sprite;
+    }
+
+    // Everything drawn from this snapshot folded into one number: equal
+    // hashes mean the same picture (barring a 64-bit collision). The tick
+    // and input time are left out, so a tick where nothing moved hashes
+    // the same as the one before.
+    long sceneHash() {
+        long hash = hasPlayer ? 1 : 0;
+        if (hasPlayer) {
+            hash = mix(hash, Float.floatToIntBits(playerX));
+            hash = mix(hash, Float.floatToIntBits(playerY));
+            hash = mix(hash, System.identityHashCode(playerSprite));
+            hash = mix(hash, lives << 2 | (invulnerable ? 2 : 0) | (hasMap ? 1 : 0));
+        }
+        hash = mix(hash, partnerCount);
+        for (int i = 0; i < partnerCount; i++) {
+            hash = mix(hash, Float.floatToIntBits(partnerX[i]));
+            hash = mix(hash, Float.floatToIntBits(partnerY[i]));
+            hash = mix(hash, System.identityHashCode(partnerSprite[i]));
+        }
+        hash = mix(hash, enemyCount);
+        for (int i = 0; i < enemyCount; i++) {
+            hash = mix(hash, Float.floatToIntBits(enemyX[i]));
+            hash = mix(hash, Float.floatToIntBits(enemyY[i]));
+            hash = mix(hash, System.identityHashCode(enemySprite[i]));
+            hash = mix(hash, enemyHealth[i] << 1 | (enemyFlashing[i] ? 1 : 0));
+        }
+        hash = mix(hash, projectileCount);
+        for (int i = 0; i < projectileCount; i++) {
+            hash = mix(hash, Float.floatToIntBits(projectileX[i]));
+            hash = mix(hash, Float.floatToIntBits(projectileY[i]));
+            hash = mix(hash, System.identityHashCode(projectileSprite[i]));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        hash = (hash ^ value) * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 29);
+    }
+
+    // Lock-free triple buffer: the simulation fills its back snapshot and
+    // swaps it into the middle slot; the renderer swaps the middle slot out
+    // when it is newer than the one it holds. Neither side ever sees a
+    // snapshot the other is writing, and neither blocks or allocates. One
+    // writer thread and one reader thread.
+    public static final class Buffer {
+        private static final int INDEX_MASK = 3;
+        private static final int FRESH = 4;
+
+        private final WorldSnapshot[] snapshots = {new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+        // Middle slot index, plus FRESH when the renderer hasn't taken it yet
+        private final AtomicInteger middle = new AtomicInteger(1);
+        private int writeIndex = 0;  // simulation side only
+        private int readIndex = 2;   // render side only
+        private long tick;
+
+        // Simulation side
+        public WorldSnapshot beginWrite() {
+            WorldSnapshot snapshot = snapshots[writeIndex];
+            snapshot.clear();
+            snapshot.tick = ++tick;
+            return snapshot;
+        }
+
+        public void publish() {
+            writeIndex = middle.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+        }
+
+        // Render side: the newest published snapshot, stable until the next call
+        public WorldSnapshot latest() {
+            if ((middle.get() & FRESH) != 0) {
+                readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+            }
+            return snapshots[readIndex];
+        }
+    }
+}